@@ -0,0 +1,50 @@
+package ed.inf.adbs.minibase;
+
+import ed.inf.adbs.minibase.base.DatabaseCatalog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes statistics about the relations of a database (like ANALYZE), and saves them in the statistics file of the
+ * database, next to schema.txt. Minibase uses the statistics to estimate the cost of query plans.
+ * Statistics become out of date when a relation file changes, so relations should be analyzed again after changing
+ * or importing them.
+ */
+public class Analyzer {
+
+    public static void main(String[] args) {
+
+        if (args.length < 1) {
+            System.err.println("Usage: Analyzer database_dir [relation ...]");
+            return;
+        }
+
+        String databaseDir = args[0];
+        List<String> relations = Arrays.asList(args).subList(1, args.length);
+
+        analyzeDatabase(databaseDir, relations);
+    }
+
+    /**
+     * Analyzes the given relations of the database, or every relation if none are given.
+     * @param databaseDir The directory of the database as a string file path.
+     * @param relations The names of the relations to analyze.
+     */
+    public static void analyzeDatabase(String databaseDir, List<String> relations) {
+        DatabaseCatalog catalog = DatabaseCatalog.init(databaseDir);
+        if (relations.isEmpty()) {
+            relations = new ArrayList<>(catalog.getRelationNames());
+        }
+
+        try {
+            catalog.analyze(relations);
+            System.out.println("Analyzed " + relations + " to " + catalog.getStatisticsLocation());
+        } catch (IOException e) {
+            System.err.println("An error occurred while saving statistics.");
+            e.printStackTrace();
+        }
+    }
+}
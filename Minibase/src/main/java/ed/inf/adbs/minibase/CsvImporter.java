@@ -0,0 +1,48 @@
+package ed.inf.adbs.minibase;
+
+import ed.inf.adbs.minibase.base.ColumnType;
+import ed.inf.adbs.minibase.base.ColumnarFile;
+import ed.inf.adbs.minibase.base.DatabaseCatalog;
+
+import java.io.IOException;
+
+/**
+ * Converts the CSV files of a database to the binary columnar format.
+ * Once a relation has been imported, Minibase reads it from files/R.col instead of files/R.csv.
+ */
+public class CsvImporter {
+
+    public static void main(String[] args) {
+
+        if (args.length != 1 && args.length != 2) {
+            System.err.println("Usage: CsvImporter database_dir [block_size]");
+            return;
+        }
+
+        String databaseDir = args[0];
+        int blockSize = (args.length == 2) ? Integer.parseInt(args[1]) : ColumnarFile.DEFAULT_BLOCK_SIZE;
+
+        importDatabase(databaseDir, blockSize);
+    }
+
+    /**
+     * Imports every relation of the database, using the column types from schema.txt.
+     * @param databaseDir The directory of the database as a string file path.
+     * @param blockSize The number of rows in a block of the columnar files.
+     */
+    public static void importDatabase(String databaseDir, int blockSize) {
+        DatabaseCatalog catalog = DatabaseCatalog.init(databaseDir);
+
+        for (String relation : catalog.getRelationNames()) {
+            ColumnType[] columnTypes = catalog.getSchema(relation);
+
+            try {
+                ColumnarFile.importCsv(catalog.getCsvLocation(relation), columnTypes, catalog.getColumnarLocation(relation), blockSize);
+                System.out.println("Imported " + relation + " to " + catalog.getColumnarLocation(relation));
+            } catch (IOException e) {
+                System.err.println("An error occurred while importing " + relation + ".");
+                e.printStackTrace();
+            }
+        }
+    }
+}
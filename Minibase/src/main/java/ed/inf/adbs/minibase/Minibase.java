@@ -3,7 +3,6 @@ package ed.inf.adbs.minibase;
 import ed.inf.adbs.minibase.base.*;
 import ed.inf.adbs.minibase.parser.QueryParser;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.*;
@@ -35,8 +34,8 @@ public class Minibase {
      * Then we rewrite the query such that there is no duplicate variables in the relational atoms of the body
      * and that there are no constants in the relation atoms of the body.
      * Then we build the query plan based off of this rewritten query.
-     * We call dump on the root operator from the query plan to get a String, which is the output tuples.
-     * Then we write the output tuples to the given output file.
+     * We call dump on the root operator from the query plan, which streams the output tuples into a TupleWriter
+     * that writes them to the given output file as they are produced. The plan is closed once every tuple is written.
      * @param databaseDir The directory of the database as a string file path.
      * @param inputFile Name of the input file.
      * @param outputFile Name of the output file, to write output tuples to.
@@ -52,20 +51,21 @@ public class Minibase {
         QueryPlan queryPlan = new QueryPlan(query);
         Operator rootOperator = queryPlan.getRootOperator();
 
-        String outputTuples = "";
-        // Plan could be null if there is a comparison atom that will never hold, i.e. 1=2.
-        if (rootOperator != null) {
-            outputTuples = rootOperator.dump();
-        }
-
         // Write the output tuples to the output file.
-        try {
-            FileWriter myWriter = new FileWriter(outputFile);
-            myWriter.write(outputTuples);
-            myWriter.close();
+        try (TupleWriter tupleWriter = new TupleWriter(outputFile)) {
+            // Plan could be null if there is a comparison atom that will never hold, i.e. 1=2.
+            // In this case the output file is left empty.
+            if (rootOperator != null) {
+                rootOperator.dump(tupleWriter);
+            }
         } catch (IOException e) {
             System.out.println("An error occurred while writing to file.");
             e.printStackTrace();
+        } finally {
+            // Delete the spill files and close the relation files of the plan.
+            if (rootOperator != null) {
+                rootOperator.close();
+            }
         }
 
     }
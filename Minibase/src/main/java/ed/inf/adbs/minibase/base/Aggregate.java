@@ -0,0 +1,61 @@
+package ed.inf.adbs.minibase.base;
+
+import ed.inf.adbs.minibase.Utils;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An aggregate in the head of a query, i.e., SUM(x * y), MIN(x), AVG(x) or COUNT(*).
+ * The aggregate function is applied to the product of the terms over the tuples of every group.
+ * COUNT(*) has no terms.
+ */
+public class Aggregate extends Term {
+
+    private AggregateFunction function;
+
+    private List<Term> productTerms;
+
+    public Aggregate(AggregateFunction function, List<Term> terms) {
+        this.function = function;
+        this.productTerms = terms;
+    }
+
+    public AggregateFunction getFunction() {
+        return function;
+    }
+
+    public List<Term> getProductTerms() {
+        return productTerms;
+    }
+
+    @Override
+    public String toString() {
+        if (productTerms.isEmpty()) {
+            return function + "(*)";
+        }
+        return function + "(" + Utils.join(productTerms, " * ") + ")";
+    }
+
+    /**
+     * Overriding equals. Aggregate objects should be equal if they have the same function and terms.
+     * @param o The object to be compared with.
+     * @return true if the object is an equivalent Aggregate object, else false.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Aggregate)) return false;
+        Aggregate aggregate = (Aggregate) o;
+        return function == aggregate.function && productTerms.equals(aggregate.productTerms);
+    }
+
+    /**
+     * Overriding hashcode since we overridden equals.
+     * @return int hashcode.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(function, productTerms);
+    }
+}
@@ -0,0 +1,33 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The aggregate functions that can be used in the head of a query.
+ */
+public enum AggregateFunction {
+    SUM("SUM"),
+    COUNT("COUNT"),
+    MIN("MIN"),
+    MAX("MAX"),
+    AVG("AVG");
+
+    private final String text;
+
+    AggregateFunction(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    public static AggregateFunction fromString(String s) throws NoSuchElementException {
+        return Arrays.stream(values())
+                .filter(function -> function.text.equalsIgnoreCase(s))
+                .findFirst().get();
+    }
+
+}
@@ -0,0 +1,853 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.*;
+
+/**
+ * AggregateOperator class that is inherited from Operator class.
+ * This operator is used when there are aggregates (SUM, COUNT, MIN, MAX, AVG) in the head.
+ * All the aggregates of the head are computed together, in a single pass over the child tuples.
+ * There are three ways of grouping the child tuples:
+ * - If the child tuples are ordered on the group by variables (i.e., the output of a SortMergeJoinOperator whose join
+ *   key starts with them), the groups are streamed: a group is output as soon as the next child tuple has another key,
+ *   so only the aggregates of one group are held in memory.
+ * - Otherwise, the groups are kept in a GroupHashTable, and output once every child tuple has been read.
+ * - If there are more than bufferSize groups, the hash table is abandoned: the partial aggregates of its groups, and
+ *   then every remaining child tuple, are sorted on the group by values with an external SortOperator (which spills to
+ *   disk), and the sorted partial aggregates are combined and streamed like ordered child tuples.
+ * The hash table is filled from batches of the child: the group of every row of a batch is found first, and then every
+ * aggregate is updated in a loop over the rows of the batch.
+ * The hash aggregation can also be run in parallel: every worker thread of a GatherOperator aggregates the morsels it
+ * reads into its own hash table, and outputs the partial aggregates of its groups, which are combined by a final
+ * AggregateOperator over the GatherOperator.
+ */
+public class AggregateOperator extends Operator{
+
+    // Child Operator to aggregate over its tuples.
+    private final Operator childOperator;
+    // The Aggregate objects which tell us what to aggregate over, in the order of the head.
+    private final List<Aggregate> aggregates;
+    // The aggregate function of every aggregate.
+    private final AggregateFunction[] functions;
+    // The variables that appears in the head before the aggregates.
+    private final List<Variable> groupByVariables;
+    // The positions of the group by variables in the child tuples.
+    private final int[] groupByPositions;
+    // The positions of the terms of every aggregate in the child tuples. -1 if the term is a constant.
+    // If the child tuples are partial aggregates, the position of the accumulator of the aggregate instead.
+    private final int[][] termPositions;
+    // The product of the constant terms of every aggregate, multiplied into the product of every child tuple.
+    private final long[] constantProducts;
+
+    // Output Tuple length is needed for new tuple creation.
+    // Tuple length will be the # of group by variables + 1 for every aggregate.
+    private final int tupleLength;
+
+    // The output tuple has an extra value at the end for every aggregate.
+    // Tuples need to specify their variables corresponding to each position.
+    // So we make up dummy variables with names "aggregatevariable0", "aggregatevariable1", ... for these values.
+    // Variables of queries only have letters, so these cannot clash with the variables of the query.
+    private static final String AGGREGATE_VARIABLE_NAME = "aggregatevariable";
+
+    // Specifying the variables of each position of the output tuples.
+    // Will be the group variables with a dummy variable for every aggregate added to the end.
+    private final List<Variable> tupleVariables;
+    // The types of each position of the output tuples: the types of the group variables, then the type of every aggregate.
+    // SUM and COUNT are int (computed and output as longs, so they do not overflow like ints), AVG is double, and
+    // MIN and MAX have the type of their variable.
+    private final ColumnType[] tupleTypes;
+
+    // Whether the child tuples are partial aggregates (of the workers of a parallel aggregation), whose counts and
+    // accumulators are combined, rather than tuples to aggregate.
+    private final boolean partialInput;
+    // The position of the count of the partial aggregates in the child tuples, or -1 if the child tuples are not
+    // partial aggregates (so every child tuple counts once).
+    private final int countPosition;
+    // Whether the output tuples are the partial aggregates of the groups (for the final AggregateOperator of a
+    // parallel aggregation), rather than the aggregates. Partial aggregates are only computed once first read.
+    private final boolean partialOutput;
+    // The variables and types of partial aggregates: the group by values, the number of child tuples, and the
+    // accumulator of every aggregate.
+    private final List<Variable> partialVariables;
+    private final ColumnType[] partialTypes;
+    // Whether the groups of the child are streamed, as the child tuples are ordered on the group by variables.
+    private final boolean streamed;
+    // Whether the groups have been computed (or streaming has started).
+    private boolean started;
+
+    // Unless groups are streamed, AggregateOperator is a blocking operator, i.e., we need to see all of its input before outputting.
+    // So upon seeing all the input, we will have calculated the aggregates of every group, which we store here.
+    // groups maps the group by values to group numbers (null if there are no group by variables, i.e., a single group),
+    // counts holds the number of child tuples of every group, and accumulators[i] holds the state of aggregate i
+    // for every group: the sum for SUM and AVG, the smallest or largest value so far for MIN and MAX (unused for COUNT).
+    // When groups are streamed, there is a single group (number 0) whose values are kept in currentKey.
+    private GroupHashTable groups;
+    private long[] counts;
+    private long[][] accumulators;
+    private int groupCount;
+    // The group number of the next output tuple. Output tuples are created from the groups one at a time.
+    private int nextGroup;
+
+    // The maximum number of groups held in the hash table before the groups are sorted and spilled instead.
+    private final int bufferSize;
+    // The operator whose tuples are ordered on the group by values when groups are streamed: the child operator if its
+    // tuples are ordered on the group by variables, or the sorted partial aggregates if the hash table was abandoned.
+    // Null if all the groups are in the hash table.
+    private Operator streamedOperator;
+    // Whether the tuples of streamedOperator are partial aggregates (see PartialAggregateOperator) or child tuples.
+    private boolean streamingPartialAggregates;
+    // The positions of the group by values in the tuples of streamedOperator.
+    private int[] streamedKeyPositions;
+    // The next tuple of streamedOperator, which is the first tuple of the next group. Null once every group is output.
+    private Tuple nextStreamedTuple;
+    // The group by values of the group being streamed.
+    private long[] currentKey;
+    // The child batch that was being read when the hash table was abandoned, and the position in its selection vector
+    // of its first row that is not in the hash table. The rest of its rows are read by the PartialAggregateOperator.
+    private TupleBatch remainingBatch;
+    private int remainingPosition;
+
+
+    /**
+     * Constructor for AggregateOperator.
+     * Assigns child operator, aggregates, group by variables, output tuple variables, types and output tuple length.
+     * The group by variables and the variables of the aggregates are resolved to their positions in the child tuples.
+     * Finally, if the child tuples are ordered on the group by variables, we start streaming the groups of the child.
+     * Otherwise, we use a method (computeAggregates()) to read all the child tuples, and compute and store the aggregates.
+     * @param aggregates The Aggregate objects which tell us what to aggregate over.
+     * @param childOperator Child Operator to aggregate over its tuples.
+     * @param groupByVariables The variables that appears in the head before the aggregates.
+     * @param orderedOnGroupByVariables Whether the child tuples are ordered on the group by variables, i.e., tuples with
+     *                                  the same group by values are next to each other.
+     * @param bufferSize The maximum number of groups to hold in memory at once.
+     */
+    public AggregateOperator(List<Aggregate> aggregates, Operator childOperator, List<Variable> groupByVariables,
+                             boolean orderedOnGroupByVariables, int bufferSize) {
+        this(aggregates, childOperator, groupByVariables, orderedOnGroupByVariables, false, false, bufferSize);
+    }
+
+    /**
+     * Constructor for an AggregateOperator that runs in parallel.
+     * Every worker thread of a GatherOperator aggregates a worker copy of the pipeline into partial aggregates, and
+     * this operator combines the partial aggregates of all the workers.
+     * @param aggregates The Aggregate objects which tell us what to aggregate over.
+     * @param pipeline The pipeline to aggregate over its tuples. Its getMorsels() must not be null.
+     * @param groupByVariables The variables that appears in the head before the aggregates.
+     * @param bufferSize The maximum number of groups to hold in memory at once (by every worker and by this operator).
+     * @param parallelism The number of worker threads.
+     */
+    public AggregateOperator(List<Aggregate> aggregates, Operator pipeline, List<Variable> groupByVariables,
+                             int bufferSize, int parallelism) {
+        this(aggregates, new GatherOperator(new AggregateOperator(aggregates, pipeline, groupByVariables, false, false, true, bufferSize), parallelism),
+                groupByVariables, false, true, false, bufferSize);
+    }
+
+    /**
+     * Constructor for AggregateOperator, whose child tuples or output tuples may be partial aggregates.
+     * @param aggregates The Aggregate objects which tell us what to aggregate over.
+     * @param childOperator Child Operator to aggregate over its tuples.
+     * @param groupByVariables The variables that appears in the head before the aggregates.
+     * @param orderedOnGroupByVariables Whether the child tuples are ordered on the group by variables.
+     * @param partialInput Whether the child tuples are partial aggregates to combine.
+     * @param partialOutput Whether to output the partial aggregates of the groups rather than the aggregates.
+     * @param bufferSize The maximum number of groups to hold in memory at once.
+     */
+    private AggregateOperator(List<Aggregate> aggregates, Operator childOperator, List<Variable> groupByVariables,
+                              boolean orderedOnGroupByVariables, boolean partialInput, boolean partialOutput,
+                              int bufferSize) {
+        this.childOperator = childOperator;
+        this.partialInput = partialInput;
+        this.partialOutput = partialOutput;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.aggregates = aggregates;
+        this.groupByVariables = groupByVariables;
+        tupleLength = groupByVariables.size() + aggregates.size();
+        tupleVariables = new ArrayList<>(groupByVariables);
+        for (int i = 0; i < aggregates.size(); i++) {
+            tupleVariables.add(new Variable(AGGREGATE_VARIABLE_NAME + i));
+        }
+
+        groupByPositions = childOperator.getPositions(groupByVariables);
+        tupleTypes = new ColumnType[tupleLength];
+        for (int i = 0; i < groupByPositions.length; i++) {
+            tupleTypes[i] = childOperator.getTypes()[groupByPositions[i]];
+        }
+
+        functions = new AggregateFunction[aggregates.size()];
+        termPositions = new int[aggregates.size()][];
+        constantProducts = new long[aggregates.size()];
+        for (int i = 0; i < aggregates.size(); i++) {
+            Aggregate aggregate = aggregates.get(i);
+            functions[i] = aggregate.getFunction();
+            List<Term> aggregateTerms = aggregate.getProductTerms();
+            constantProducts[i] = 1;
+            if (partialInput) {
+                // The accumulator of the aggregate is used like a single variable of the child tuples.
+                termPositions[i] = new int[]{groupByPositions.length + 1 + i};
+            } else {
+                termPositions[i] = new int[aggregateTerms.size()];
+                for (int j = 0; j < aggregateTerms.size(); j++) {
+                    termPositions[i][j] = childOperator.getVariables().indexOf(aggregateTerms.get(j));
+                    if (termPositions[i][j] == -1) {
+                        constantProducts[i] = Math.multiplyExact(constantProducts[i], constantValue((Constant) aggregateTerms.get(j)));
+                    }
+                }
+            }
+            tupleTypes[groupByPositions.length + i] = aggregateType(i);
+        }
+        countPosition = partialInput ? groupByPositions.length : -1;
+
+        partialVariables = new ArrayList<>(groupByVariables);
+        partialTypes = new ColumnType[groupByPositions.length + 1 + functions.length];
+        System.arraycopy(tupleTypes, 0, partialTypes, 0, groupByPositions.length);
+        partialTypes[groupByPositions.length] = ColumnType.INT;
+        partialVariables.add(new Variable(AGGREGATE_VARIABLE_NAME + "count"));
+        for (int i = 0; i < functions.length; i++) {
+            // AVG accumulates the sum of the tuples of the group.
+            ColumnType type = tupleTypes[groupByPositions.length + i];
+            partialTypes[groupByPositions.length + 1 + i] = (type == ColumnType.DOUBLE) ? ColumnType.INT : type;
+            partialVariables.add(new Variable(AGGREGATE_VARIABLE_NAME + i));
+        }
+
+        streamed = orderedOnGroupByVariables && groupByPositions.length > 0;
+        if (!partialOutput) {
+            start();
+        }
+    }
+
+    /**
+     * Method used to start streaming the groups of the child if it is ordered on the group by variables, or otherwise
+     * to compute the aggregates of every group.
+     */
+    private void start() {
+        started = true;
+        if (streamed) {
+            startStreaming(childOperator, groupByPositions, false);
+        } else {
+            computeAggregates();
+        }
+    }
+
+    /**
+     * Helper method used to find the type of the output of an aggregate.
+     * @param aggregate The position of the aggregate in the head.
+     * @return The type of the aggregate.
+     */
+    private ColumnType aggregateType(int aggregate) {
+        switch (functions[aggregate]) {
+            case AVG:
+                return ColumnType.DOUBLE;
+            case MIN:
+            case MAX:
+                // The minimum or maximum of a single term has the type of the term, i.e., MIN(name) is a string.
+                if (termPositions[aggregate].length == 1) {
+                    int termPosition = termPositions[aggregate][0];
+                    if (termPosition != -1) {
+                        return childOperator.getTypes()[termPosition];
+                    }
+                    if (aggregates.get(aggregate).getProductTerms().get(0) instanceof StringConstant) {
+                        return ColumnType.STRING;
+                    }
+                }
+                return ColumnType.INT;
+            default:
+                return ColumnType.INT;
+        }
+    }
+
+    /**
+     * Helper method used to get the value of a constant term, in the representation used by tuples.
+     * @param constant The constant.
+     * @return The value of the constant (a StringDictionary id for strings).
+     */
+    private static long constantValue(Constant constant) {
+        if (constant instanceof StringConstant) {
+            return StringDictionary.getId(((StringConstant) constant).getValue());
+        }
+        return ((IntegerConstant) constant).getValue();
+    }
+
+    /**
+     * Method that reads the child tuples, does the aggregation (on the fly), and stores the aggregates of every group.
+     * This method is used upon constructing an AggregateOperator object, so it is used only once for each AggregateOperator object.
+     * This is because we only need to compute the aggregation once and store the results, then we can call getNextTuple repeatedly to pull
+     * results from the groups one by one.
+     * The child is read in batches. The group of every selected row of a batch is found with a GroupHashTable first,
+     * and then every aggregate is accumulated in place in a long array, in a loop over the rows of the batch.
+     * If there are no group by variables, there is a single group, so the aggregates are accumulated without any hashing.
+     * If the hash table grows past bufferSize groups, the rest of the child tuples are sorted with the groups instead
+     * (see spillGroups()).
+     * Sums are computed with long arithmetic that throws an ArithmeticException on overflow, rather than wrapping around.
+     */
+    private void computeAggregates() {
+        int capacity = (groupByPositions.length == 0) ? 1 : 64;
+        groups = (groupByPositions.length == 0) ? null : new GroupHashTable(groupByPositions.length);
+        counts = new long[capacity];
+        accumulators = new long[aggregates.size()][capacity];
+
+        // The group by values of a row are copied into keyValues to look them up, at positions [0, 1, ...].
+        long[] keyValues = new long[groupByPositions.length];
+        int[] keyPositions = new int[groupByPositions.length];
+        for (int i = 0; i < keyPositions.length; i++) {
+            keyPositions[i] = i;
+        }
+        // The group number of every selected row of the current batch, by position in the selection vector.
+        int[] rowGroups = new int[TupleBatch.CAPACITY];
+
+        // This loop groups the child tuples while computing aggregates on the fly.
+        // Every aggregate allows us to do this as we can just update our last results.
+        TupleBatch childBatch = childOperator.getNextBatch();
+        while (childBatch != null) {
+            long[][] columns = childBatch.getColumns();
+            int[] selection = childBatch.getSelection();
+            int count = childBatch.getSelectedCount();
+            boolean tooManyGroups = false;
+
+            // Find the group of every row. The minimum and maximum of a new group start at the value of its first row.
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                int group = 0;
+                boolean newGroup = (i == 0 && counts[0] == 0);
+                if (groups != null) {
+                    for (int k = 0; k < keyValues.length; k++) {
+                        keyValues[k] = columns[groupByPositions[k]][row];
+                    }
+                    int groupsBefore = groups.getGroupCount();
+                    group = groups.findOrInsert(keyValues, keyPositions);
+                    newGroup = (group == groupsBefore);
+                }
+                if (group == counts.length) {
+                    counts = Arrays.copyOf(counts, 2 * group);
+                    for (int a = 0; a < accumulators.length; a++) {
+                        accumulators[a] = Arrays.copyOf(accumulators[a], 2 * group);
+                    }
+                }
+                if (newGroup) {
+                    initialiseExtremes(group, columns, row);
+                }
+                rowGroups[i] = group;
+
+                if (group == bufferSize) {
+                    // Too many groups to hold in memory. The rows after this one are spilled.
+                    count = i + 1;
+                    tooManyGroups = true;
+                    break;
+                }
+            }
+
+            accumulate(rowGroups, columns, selection, count);
+
+            if (tooManyGroups) {
+                remainingBatch = childBatch;
+                remainingPosition = count;
+                spillGroups();
+                return;
+            }
+
+            //Ready to repeat for next child batch.
+            childBatch = childOperator.getNextBatch();
+        }
+        // Without group by variables, a tuple is only output if there was at least one child tuple.
+        groupCount = (groups == null) ? (counts[0] > 0 ? 1 : 0) : groups.getGroupCount();
+    }
+
+    /**
+     * Helper method used to update the aggregates of the groups of the selected rows of a batch.
+     * Every aggregate is updated in its own loop over the rows. The minimum and maximum of every group must have been
+     * initialised (see initialiseExtremes()).
+     * @param rowGroups The group number of every selected row, by position in the selection vector.
+     * @param columns The columns of the batch.
+     * @param selection The selection vector of the batch.
+     * @param count The number of selected rows to aggregate.
+     */
+    private void accumulate(int[] rowGroups, long[][] columns, int[] selection, int count) {
+        for (int a = 0; a < functions.length; a++) {
+            long[] accumulator = accumulators[a];
+            int[] positions = termPositions[a];
+            switch (functions[a]) {
+                case SUM:
+                case AVG:
+                    if (positions.length == 1 && positions[0] != -1) {
+                        long[] column = columns[positions[0]];
+                        for (int i = 0; i < count; i++) {
+                            accumulator[rowGroups[i]] = Math.addExact(accumulator[rowGroups[i]], column[selection[i]]);
+                        }
+                    } else {
+                        for (int i = 0; i < count; i++) {
+                            accumulator[rowGroups[i]] = Math.addExact(accumulator[rowGroups[i]], product(columns, selection[i], a));
+                        }
+                    }
+                    break;
+                case MIN:
+                case MAX:
+                    for (int i = 0; i < count; i++) {
+                        keepExtreme(a, rowGroups[i], product(columns, selection[i], a));
+                    }
+                    break;
+                default:
+                    // COUNT only needs the number of tuples of the group.
+                    break;
+            }
+        }
+        if (countPosition == -1) {
+            for (int i = 0; i < count; i++) {
+                counts[rowGroups[i]] += 1;
+            }
+        } else {
+            long[] column = columns[countPosition];
+            for (int i = 0; i < count; i++) {
+                counts[rowGroups[i]] = Math.addExact(counts[rowGroups[i]], column[selection[i]]);
+            }
+        }
+    }
+
+    /**
+     * Helper method used to initialise the minimum and maximum of a new group with the value of its first row.
+     * @param group The group number.
+     * @param columns The columns of the batch of the row.
+     * @param row The row.
+     */
+    private void initialiseExtremes(int group, long[][] columns, int row) {
+        for (int a = 0; a < functions.length; a++) {
+            if (functions[a] == AggregateFunction.MIN || functions[a] == AggregateFunction.MAX) {
+                accumulators[a][group] = product(columns, row, a);
+            }
+        }
+    }
+
+    /**
+     * Method used when the hash table has too many groups to hold in memory.
+     * The partial aggregates of the groups of the hash table and of every remaining child tuple are sorted on the group
+     * by values by an external SortOperator, which spills sorted runs to disk. The hash table is then dropped, and the
+     * sorted partial aggregates are combined into groups and streamed.
+     */
+    private void spillGroups() {
+        int[] partialKeyPositions = new int[groupByPositions.length];
+        for (int i = 0; i < partialKeyPositions.length; i++) {
+            partialKeyPositions[i] = i;
+        }
+        // The sort reads all of its child (the hash table and the rest of the child tuples) when it is constructed.
+        Operator sortedPartialAggregates = new SortOperator(new PartialAggregateOperator(), partialKeyPositions, bufferSize);
+        groups = null;
+        startStreaming(sortedPartialAggregates, partialKeyPositions, true);
+    }
+
+    /**
+     * Method used to start streaming the groups of an operator whose tuples are ordered on the group by values.
+     * Only a single group (number 0) is held in memory.
+     * @param operator The operator to stream the groups of.
+     * @param keyPositions The positions of the group by values in the tuples of the operator.
+     * @param partialAggregates Whether the tuples of the operator are partial aggregates (see PartialAggregateOperator).
+     */
+    private void startStreaming(Operator operator, int[] keyPositions, boolean partialAggregates) {
+        streamedOperator = operator;
+        streamedKeyPositions = keyPositions;
+        streamingPartialAggregates = partialAggregates;
+        currentKey = new long[keyPositions.length];
+        counts = new long[1];
+        accumulators = new long[aggregates.size()][1];
+        nextStreamedTuple = streamedOperator.getNextTuple();
+    }
+
+    /**
+     * Helper method used to update the aggregates of a group with a child tuple.
+     * @param group The group number of the child tuple.
+     * @param childTupleValues The values of the child tuple.
+     */
+    private void accumulate(int group, long[] childTupleValues) {
+        for (int i = 0; i < functions.length; i++) {
+            switch (functions[i]) {
+                case SUM:
+                case AVG:
+                    accumulators[i][group] = Math.addExact(accumulators[i][group], product(childTupleValues, i));
+                    break;
+                case MIN:
+                case MAX:
+                    updateExtreme(i, group, product(childTupleValues, i));
+                    break;
+                default:
+                    // COUNT only needs the number of tuples of the group.
+                    break;
+            }
+        }
+        counts[group] += 1;
+    }
+
+    /**
+     * Helper method used to update the aggregates of a group with a partial aggregate of the same group.
+     * @param group The group number of the partial aggregate.
+     * @param partialValues The values of the partial aggregate: the group by values, the number of child tuples, and
+     *                      the accumulator of every aggregate.
+     */
+    private void combine(int group, long[] partialValues) {
+        int offset = groupByPositions.length + 1;
+        for (int i = 0; i < functions.length; i++) {
+            switch (functions[i]) {
+                case SUM:
+                case AVG:
+                    accumulators[i][group] = Math.addExact(accumulators[i][group], partialValues[offset + i]);
+                    break;
+                case MIN:
+                case MAX:
+                    updateExtreme(i, group, partialValues[offset + i]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        counts[group] = Math.addExact(counts[group], partialValues[groupByPositions.length]);
+    }
+
+    /**
+     * Helper method used to update the minimum or maximum of a group with a value.
+     * The first value of a group (before the count of the group is updated) initialises its minimum or maximum.
+     * @param aggregate The position of the MIN or MAX aggregate in the head.
+     * @param group The group number.
+     * @param value The value.
+     */
+    private void updateExtreme(int aggregate, int group, long value) {
+        if (counts[group] == 0) {
+            accumulators[aggregate][group] = value;
+            return;
+        }
+        keepExtreme(aggregate, group, value);
+    }
+
+    /**
+     * Helper method used to replace the minimum or maximum of a group with a value if the value is smaller or larger.
+     * @param aggregate The position of the MIN or MAX aggregate in the head.
+     * @param group The group number.
+     * @param value The value.
+     */
+    private void keepExtreme(int aggregate, int group, long value) {
+        int comparison = TupleComparator.compareValues(tupleTypes[groupByPositions.length + aggregate], value, accumulators[aggregate][group]);
+        if (functions[aggregate] == AggregateFunction.MIN ? comparison < 0 : comparison > 0) {
+            accumulators[aggregate][group] = value;
+        }
+    }
+
+    /**
+     * Helper method used to compute the product of the terms of an aggregate on a child tuple.
+     * @param childTupleValues The values of the child tuple.
+     * @param aggregate The position of the aggregate in the head.
+     * @return The product of the variable terms of the aggregate and its constant product.
+     */
+    private long product(long[] childTupleValues, int aggregate) {
+        int[] positions = termPositions[aggregate];
+        if (positions.length == 1 && positions[0] != -1) {
+            // A single variable, i.e., MIN(name), whose value may be a string.
+            return childTupleValues[positions[0]];
+        }
+        long product = constantProducts[aggregate];
+        for (int termPosition : positions) {
+            if (termPosition != -1) {
+                product = Math.multiplyExact(product, childTupleValues[termPosition]);
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Helper method used to compute the product of the terms of an aggregate on a row of a batch.
+     * @param columns The columns of the batch.
+     * @param row The row.
+     * @param aggregate The position of the aggregate in the head.
+     * @return The product of the variable terms of the aggregate and its constant product.
+     */
+    private long product(long[][] columns, int row, int aggregate) {
+        int[] positions = termPositions[aggregate];
+        if (positions.length == 1 && positions[0] != -1) {
+            return columns[positions[0]][row];
+        }
+        long product = constantProducts[aggregate];
+        for (int termPosition : positions) {
+            if (termPosition != -1) {
+                product = Math.multiplyExact(product, columns[termPosition][row]);
+            }
+        }
+        return product;
+    }
+
+    /**
+     * GetNextTuple method for AggregateOperator.
+     * If the groups are streamed, the tuples of the next group are read and aggregated, and the group is returned.
+     * Otherwise, aggregates will have been computed and stored in the groups.
+     * So we just create the tuple of the next group, from its group by values and its aggregates, and return. (Note order of output tuples does not matter).
+     * If there are no more groups, then return null indicating there are no more output tuples.
+     * @return An aggregated tuple.
+     */
+    @Override
+    public Tuple getNextTuple() {
+        if (!started) {
+            start();
+        }
+        if (streamedOperator != null) {
+            return nextStreamedGroup();
+        }
+        if (nextGroup == groupCount) {
+            return null;
+        }
+
+        Tuple tuple = createOutputTuple(nextGroup);
+        nextGroup += 1;
+        return tuple;
+    }
+
+    /**
+     * Method used to aggregate the next group of the streamed operator.
+     * The tuples of streamedOperator are read until one has other group by values, which is kept as the first tuple of
+     * the next group.
+     * @return The aggregated tuple of the group, or null if every group has been output.
+     */
+    private Tuple nextStreamedGroup() {
+        if (nextStreamedTuple == null) {
+            return null;
+        }
+
+        long[] values = nextStreamedTuple.getValues();
+        for (int i = 0; i < currentKey.length; i++) {
+            currentKey[i] = values[streamedKeyPositions[i]];
+        }
+        counts[0] = 0;
+        for (long[] accumulator : accumulators) {
+            accumulator[0] = 0;
+        }
+
+        while (values != null && hasCurrentKey(values)) {
+            if (streamingPartialAggregates) {
+                combine(0, values);
+            } else {
+                accumulate(0, values);
+            }
+            nextStreamedTuple = streamedOperator.getNextTuple();
+            values = (nextStreamedTuple == null) ? null : nextStreamedTuple.getValues();
+        }
+        return createOutputTuple(0);
+    }
+
+    /**
+     * Helper method used to check if a tuple of the streamed operator belongs to the group being streamed.
+     * @param values The values of the tuple.
+     * @return true if the tuple has the group by values of the current group, false otherwise.
+     */
+    private boolean hasCurrentKey(long[] values) {
+        for (int i = 0; i < currentKey.length; i++) {
+            if (values[streamedKeyPositions[i]] != currentKey[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method used to create the output tuple of a group, from its group by values and its aggregates.
+     * @param group The group number.
+     * @return The aggregated tuple.
+     */
+    private Tuple createOutputTuple(int group) {
+        if (partialOutput) {
+            return createPartialTuple(group);
+        }
+        long[] values = new long[tupleLength];
+        for (int i = 0; i < groupByPositions.length; i++) {
+            values[i] = (groups != null) ? groups.getKeyValue(group, i) : currentKey[i];
+        }
+        for (int i = 0; i < functions.length; i++) {
+            long value;
+            switch (functions[i]) {
+                case COUNT:
+                    value = counts[group];
+                    break;
+                case AVG:
+                    value = Double.doubleToLongBits((double) accumulators[i][group] / counts[group]);
+                    break;
+                default:
+                    value = accumulators[i][group];
+                    break;
+            }
+            values[groupByPositions.length + i] = value;
+        }
+        return new Tuple(values, tupleTypes);
+    }
+
+    /**
+     * Helper method used to create the partial aggregate of a group, from its group by values, its number of child
+     * tuples and its accumulators.
+     * @param group The group number.
+     * @return The partial aggregate.
+     */
+    private Tuple createPartialTuple(int group) {
+        int keyWidth = groupByPositions.length;
+        long[] values = new long[partialTypes.length];
+        for (int i = 0; i < keyWidth; i++) {
+            values[i] = (groups != null) ? groups.getKeyValue(group, i) : currentKey[i];
+        }
+        values[keyWidth] = counts[group];
+        for (int i = 0; i < functions.length; i++) {
+            values[keyWidth + 1 + i] = accumulators[i][group];
+        }
+        return new Tuple(values, partialTypes);
+    }
+
+    /**
+     * Method used to get the morsels of the child, as the partial aggregates of a parallel aggregation are computed by
+     * the worker threads.
+     * @return The morsels of the child, or null if the output tuples are not partial aggregates.
+     */
+    @Override
+    public MorselQueue getMorsels() {
+        return partialOutput ? childOperator.getMorsels() : null;
+    }
+
+    /**
+     * Method used to create a worker copy of the partial aggregation, over a worker copy of the child.
+     * @return The worker copy, which computes the partial aggregates of the morsels it reads.
+     */
+    @Override
+    public Operator createWorkerCopy() {
+        if (!partialOutput) {
+            return super.createWorkerCopy();
+        }
+        return new AggregateOperator(aggregates, childOperator.createWorkerCopy(), groupByVariables, false, false, true, bufferSize);
+    }
+
+    /**
+     * Reset method for AggregateOperator.
+     * If the groups are streamed, the streamed operator is reset and streaming starts again from its first tuple.
+     * Otherwise, the aggregates have already been computed from all the child tuples, so output simply starts again from the first group.
+     */
+    @Override
+    public void reset() {
+        if (!started) {
+            return;
+        }
+        if (streamedOperator != null) {
+            streamedOperator.reset();
+            nextStreamedTuple = streamedOperator.getNextTuple();
+            return;
+        }
+        nextGroup = 0;
+    }
+
+    /**
+     * Close method for AggregateOperator.
+     * Closes the sorted partial aggregates if the hash table was spilled, which deletes their runs, and the child.
+     */
+    @Override
+    public void close() {
+        if (streamedOperator != null && streamedOperator != childOperator) {
+            streamedOperator.close();
+        }
+        childOperator.close();
+    }
+
+    /**
+     * Getter for the variables of the output tuples of AggregateOperator.
+     * @return The group by variables followed by a dummy variable for every aggregate.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return partialOutput ? partialVariables : tupleVariables;
+    }
+
+    /**
+     * Getter for the types of the output tuples of AggregateOperator.
+     * @return The types of the group by variables followed by the type of every aggregate.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return partialOutput ? partialTypes : tupleTypes;
+    }
+
+    /**
+     * PartialAggregateOperator class that is inherited from Operator class.
+     * Used once the hash table has too many groups: returns the partial aggregate of every group of the hash table,
+     * then the partial aggregate of every remaining child tuple (a group of one tuple). The remaining child tuples are
+     * the rest of the batch that was being read, and then the next batches of the child.
+     * A partial aggregate has the group by values, then the number of child tuples, then the accumulator of every
+     * aggregate, so partial aggregates of the same group can be combined (see combine()).
+     * The hash table is dropped once its groups have been returned. If the operator is reset, it returns the partial
+     * aggregate of every child tuple instead, from the first one, which combine into the same groups.
+     */
+    private class PartialAggregateOperator extends Operator {
+
+        // The groups of the hash table, or null once they have been returned.
+        private GroupHashTable tableGroups;
+        // The group number of the next group of the hash table to return.
+        private int nextTableGroup;
+
+        /**
+         * Constructor for PartialAggregateOperator.
+         */
+        private PartialAggregateOperator() {
+            tableGroups = groups;
+            nextTableGroup = 0;
+        }
+
+        /**
+         * GetNextTuple method for PartialAggregateOperator.
+         * @return The partial aggregate of the next group of the hash table, or of the next child tuple.
+         */
+        @Override
+        public Tuple getNextTuple() {
+            int keyWidth = groupByPositions.length;
+            long[] values = new long[partialTypes.length];
+            if (tableGroups != null && nextTableGroup < tableGroups.getGroupCount()) {
+                int group = nextTableGroup;
+                nextTableGroup += 1;
+                return createPartialTuple(group);
+            }
+            tableGroups = null;
+
+            while (remainingBatch == null || remainingPosition == remainingBatch.getSelectedCount()) {
+                remainingBatch = childOperator.getNextBatch();
+                remainingPosition = 0;
+                if (remainingBatch == null) {
+                    return null;
+                }
+            }
+            long[][] columns = remainingBatch.getColumns();
+            int row = remainingBatch.getSelection()[remainingPosition];
+            remainingPosition += 1;
+            for (int i = 0; i < keyWidth; i++) {
+                values[i] = columns[groupByPositions[i]][row];
+            }
+            values[keyWidth] = (countPosition == -1) ? 1 : columns[countPosition][row];
+            for (int i = 0; i < functions.length; i++) {
+                // COUNT has no accumulator, the number of child tuples is enough.
+                values[keyWidth + 1 + i] = (functions[i] == AggregateFunction.COUNT) ? 0 : product(columns, row, i);
+            }
+            return new Tuple(values, partialTypes);
+        }
+
+        /**
+         * Reset method for PartialAggregateOperator.
+         * The hash table has been dropped, so the child is read again from its first tuple, and every child tuple is
+         * returned as a partial aggregate of its own.
+         */
+        @Override
+        public void reset() {
+            tableGroups = null;
+            childOperator.reset();
+            remainingBatch = null;
+            remainingPosition = 0;
+        }
+
+        /**
+         * Getter for the variables of the partial aggregates.
+         * @return The group by variables, followed by a dummy variable for the count and for every aggregate.
+         */
+        @Override
+        public List<Variable> getVariables() {
+            return partialVariables;
+        }
+
+        /**
+         * Getter for the types of the partial aggregates.
+         * @return The types of the group by variables, int for the count, then the type of every accumulator.
+         */
+        @Override
+        public ColumnType[] getTypes() {
+            return partialTypes;
+        }
+    }
+}
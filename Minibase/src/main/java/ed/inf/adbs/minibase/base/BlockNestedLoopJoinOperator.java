@@ -0,0 +1,180 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BlockNestedLoopJoinOperator class that is inherited from Operator class.
+ * The algorithm used in this class is the block nested loop join algorithm.
+ * The right (inner) child is read once into an in-memory buffer. The left (outer) child is then read in blocks of
+ * blockSize tuples, and every block is joined with the buffered inner tuples in a single pass over the buffer.
+ * This is used for joins that have no equality join condition (i.e., x < u) or no join condition at all (cartesian product).
+ */
+public class BlockNestedLoopJoinOperator extends Operator {
+
+    private final Operator leftChildOperator;
+    private final Operator rightChildOperator;
+    // The join condition is a SelectionCondition object, allowing us to specify >1 join condition here.
+    private final SelectionCondition joinCondition;
+    // The maximum number of left tuples in a block.
+    private final int blockSize;
+
+    // Every tuple of the right child, read once.
+    private final List<Tuple> innerTuples;
+    // The current block of left tuples.
+    private final List<Tuple> outerBlock;
+
+    // Position of the current inner tuple, and position of the next outer tuple of the block to join with it.
+    private int innerPosition;
+    private int blockPosition;
+
+    // The variables and types that correspond to each position of the joined tuples.
+    private final List<Variable> joinedTupleVars;
+    private final ColumnType[] joinedTupleTypes;
+
+    /**
+     * Constructor of a BlockNestedLoopJoinOperator.
+     * Assigns children operators, join conditions and block size, and reads the right child into memory.
+     * @param leftChildOperator The left (outer) operator in the join.
+     * @param rightChildOperator The right (inner) operator in the join.
+     * @param joinCondition A selectionCondition object containing the join conditions. This is null if there are no join conditions (cartesian product)
+     * @param blockSize The maximum number of left tuples in a block.
+     */
+    public BlockNestedLoopJoinOperator(Operator leftChildOperator, Operator rightChildOperator, SelectionCondition joinCondition, int blockSize) {
+        this.leftChildOperator = leftChildOperator;
+        this.rightChildOperator = rightChildOperator;
+        this.joinCondition = joinCondition;
+        this.blockSize = Math.max(1, blockSize);
+
+        joinedTupleVars = new ArrayList<>(leftChildOperator.getVariables());
+        joinedTupleVars.addAll(rightChildOperator.getVariables());
+        ColumnType[] leftTypes = leftChildOperator.getTypes();
+        ColumnType[] rightTypes = rightChildOperator.getTypes();
+        joinedTupleTypes = new ColumnType[leftTypes.length + rightTypes.length];
+        System.arraycopy(leftTypes, 0, joinedTupleTypes, 0, leftTypes.length);
+        System.arraycopy(rightTypes, 0, joinedTupleTypes, leftTypes.length, rightTypes.length);
+
+        innerTuples = new ArrayList<>();
+        Tuple rightChildTuple = rightChildOperator.getNextTuple();
+        while (rightChildTuple != null) {
+            innerTuples.add(rightChildTuple);
+            rightChildTuple = rightChildOperator.getNextTuple();
+        }
+
+        outerBlock = new ArrayList<>(this.blockSize);
+        innerPosition = innerTuples.size();
+        blockPosition = 0;
+    }
+
+    /**
+     * GetNextTuple method for BlockNestedLoopJoinOperator.
+     * For every inner tuple, join it with every outer tuple of the current block.
+     * When the block has been joined with every inner tuple, move onto the next block.
+     * @return The next joined tuple that satisfies the join condition (if it exists).
+     */
+    @Override
+    public Tuple getNextTuple() {
+
+        if (innerTuples.isEmpty()) {
+            // Nothing can join with an empty inner child.
+            return null;
+        }
+
+        while (true) {
+            while (innerPosition < innerTuples.size()) {
+                Tuple innerTuple = innerTuples.get(innerPosition);
+                while (blockPosition < outerBlock.size()) {
+                    Tuple outerTuple = outerBlock.get(blockPosition);
+                    blockPosition += 1;
+
+                    Tuple joinedTuple = joinTuples(outerTuple, innerTuple);
+                    if (joinCondition == null || joinCondition.evaluateOnTuple(joinedTuple)) {
+                        return joinedTuple;
+                    }
+                }
+                blockPosition = 0;
+                innerPosition += 1;
+            }
+
+            // The current block has been joined with every inner tuple.
+            if (!readNextBlock()) {
+                // Left child is exhausted. There is no more matches.
+                return null;
+            }
+            innerPosition = 0;
+            blockPosition = 0;
+        }
+    }
+
+    /**
+     * Helper method used to read the next block of (at most blockSize) tuples from the left child.
+     * @return true if at least one tuple was read, false if the left child is exhausted.
+     */
+    private boolean readNextBlock() {
+        outerBlock.clear();
+        while (outerBlock.size() < blockSize) {
+            Tuple leftChildTuple = leftChildOperator.getNextTuple();
+            if (leftChildTuple == null) {
+                break;
+            }
+            outerBlock.add(leftChildTuple);
+        }
+        return !outerBlock.isEmpty();
+    }
+
+    /**
+     * Helper method used to concatenate a left tuple and a right tuple into a joined tuple.
+     * @param leftTuple The tuple from the left child.
+     * @param rightTuple The tuple from the right child.
+     * @return The joined tuple.
+     */
+    private Tuple joinTuples(Tuple leftTuple, Tuple rightTuple) {
+        long[] leftTupleValues = leftTuple.getValues();
+        long[] rightTupleValues = rightTuple.getValues();
+
+        long[] joinedTupleValues = new long[leftTupleValues.length + rightTupleValues.length];
+        System.arraycopy(leftTupleValues, 0, joinedTupleValues, 0, leftTupleValues.length);
+        System.arraycopy(rightTupleValues, 0, joinedTupleValues, leftTupleValues.length, rightTupleValues.length);
+        return new Tuple(joinedTupleValues, joinedTupleTypes);
+    }
+
+    /**
+     * Reset method for BlockNestedLoopJoinOperator.
+     * Resets the left child operator. The buffered inner tuples are kept, since they do not change.
+     */
+    @Override
+    public void reset() {
+        leftChildOperator.reset();
+        outerBlock.clear();
+        innerPosition = innerTuples.size();
+        blockPosition = 0;
+    }
+
+    /**
+     * Close method for BlockNestedLoopJoinOperator.
+     * Closes both children operators.
+     */
+    @Override
+    public void close() {
+        leftChildOperator.close();
+        rightChildOperator.close();
+    }
+
+    /**
+     * Getter for the variables of the output tuples of BlockNestedLoopJoinOperator.
+     * @return The variables of the left child followed by the variables of the right child.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return joinedTupleVars;
+    }
+
+    /**
+     * Getter for the types of the output tuples of BlockNestedLoopJoinOperator.
+     * @return The types of the left child followed by the types of the right child.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return joinedTupleTypes;
+    }
+}
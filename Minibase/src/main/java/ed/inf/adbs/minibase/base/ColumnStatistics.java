@@ -0,0 +1,127 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.Arrays;
+
+/**
+ * ColumnStatistics class.
+ * Statistics about the values of one column of a relation, used by the query plan to estimate how many tuples
+ * satisfy a condition: the number of distinct values, the minimum and maximum values and an equi-depth histogram.
+ * Values are in the representation used by tuples, i.e., strings are StringDictionary ids.
+ */
+public class ColumnStatistics {
+
+    // The largest number of buckets of a histogram.
+    public static final int HISTOGRAM_BUCKETS = 32;
+
+    // The type of the column.
+    private final ColumnType type;
+    // The number of distinct values of the column.
+    private final long distinctCount;
+    // The smallest and largest values of the column (in the order of the type). Unused if the relation is empty.
+    private final long minimum;
+    private final long maximum;
+    // The upper bound of every bucket of the equi-depth histogram, in increasing order.
+    // Every bucket holds (about) the same number of rows. The lower bound of the first bucket is the minimum.
+    private final long[] histogramBounds;
+
+    /**
+     * Constructor for ColumnStatistics.
+     * @param type The type of the column.
+     * @param distinctCount The number of distinct values of the column.
+     * @param minimum The smallest value of the column.
+     * @param maximum The largest value of the column.
+     * @param histogramBounds The upper bound of every bucket of the equi-depth histogram.
+     */
+    public ColumnStatistics(ColumnType type, long distinctCount, long minimum, long maximum, long[] histogramBounds) {
+        this.type = type;
+        this.distinctCount = distinctCount;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.histogramBounds = histogramBounds;
+    }
+
+    /**
+     * Method used to compute the statistics of a column from all of its values.
+     * @param type The type of the column.
+     * @param values The values of the column. This array is sorted in place.
+     * @param count The number of values in the array.
+     * @return The statistics of the column.
+     */
+    public static ColumnStatistics compute(ColumnType type, long[] values, int count) {
+        if (count == 0) {
+            return new ColumnStatistics(type, 0, 0, 0, new long[0]);
+        }
+
+        long[] sortedValues;
+        if (type == ColumnType.INT) {
+            Arrays.sort(values, 0, count);
+            sortedValues = values;
+        } else {
+            // Ids are not ordered like their strings, so strings are sorted as strings.
+            String[] strings = new String[count];
+            for (int i = 0; i < count; i++) {
+                strings[i] = StringDictionary.getString(values[i]);
+            }
+            Arrays.sort(strings);
+            sortedValues = new long[count];
+            for (int i = 0; i < count; i++) {
+                sortedValues[i] = StringDictionary.getId(strings[i]);
+            }
+        }
+
+        long distinctCount = 1;
+        for (int i = 1; i < count; i++) {
+            if (sortedValues[i] != sortedValues[i - 1]) {
+                distinctCount += 1;
+            }
+        }
+
+        int buckets = Math.min(HISTOGRAM_BUCKETS, count);
+        long[] histogramBounds = new long[buckets];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            histogramBounds[bucket] = sortedValues[(int) ((long) (bucket + 1) * count / buckets) - 1];
+        }
+
+        return new ColumnStatistics(type, distinctCount, sortedValues[0], sortedValues[count - 1], histogramBounds);
+    }
+
+    /**
+     * Getter for the type of the column.
+     * @return The type of the column.
+     */
+    public ColumnType getType() {
+        return type;
+    }
+
+    /**
+     * Getter for the number of distinct values of the column.
+     * @return The number of distinct values.
+     */
+    public long getDistinctCount() {
+        return distinctCount;
+    }
+
+    /**
+     * Getter for the smallest value of the column.
+     * @return The smallest value (a StringDictionary id for string columns).
+     */
+    public long getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * Getter for the largest value of the column.
+     * @return The largest value (a StringDictionary id for string columns).
+     */
+    public long getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Getter for the equi-depth histogram of the column.
+     * @return The upper bound of every bucket, in increasing order (StringDictionary ids for string columns).
+     */
+    public long[] getHistogramBounds() {
+        return histogramBounds;
+    }
+}
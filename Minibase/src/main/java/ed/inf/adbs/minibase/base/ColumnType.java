@@ -0,0 +1,33 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The types a column of a relation can have, as written in schema.txt.
+ * DOUBLE is only the type of the output of AVG aggregates (stored in tuples as Double.doubleToLongBits), so it cannot
+ * be used in schema.txt.
+ */
+public enum ColumnType {
+    INT("int"),
+    STRING("string"),
+    DOUBLE("double");
+
+    private final String text;
+
+    ColumnType(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    public static ColumnType fromString(String s) throws NoSuchElementException {
+        return Arrays.stream(values())
+                .filter(type -> type != DOUBLE && type.text.equalsIgnoreCase(s))
+                .findFirst().get();
+    }
+
+}
@@ -0,0 +1,409 @@
+package ed.inf.adbs.minibase.base;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * ColumnarFile class.
+ * Reads (and imports from CSV) relations stored in the binary columnar format of Minibase.
+ * The file starts with a header containing the column types, the number of rows, the number of rows per block,
+ * and a dictionary of every string of the relation. The dictionary is sorted, so comparing the ids of two strings
+ * is the same as comparing the strings themselves.
+ * The header is followed by the blocks. Every block contains its number of rows, the minimum and maximum value
+ * of every column in the block, and then the values of each column one after the other as fixed-width 4-byte ints
+ * (string columns store dictionary ids). The minimums and maximums let a scan skip the blocks that cannot have any row
+ * in the ranges of values it selects, without reading their values.
+ */
+public class ColumnarFile {
+
+    // File extension of relations stored in the columnar format, i.e., files/R.col.
+    public static final String EXTENSION = ".col";
+    // The default number of rows in a block.
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    // Used to recognise columnar files ("MBCL") and the version of the format.
+    private static final int MAGIC = 0x4D42434C;
+    private static final int VERSION = 1;
+
+    private final FileChannel channel;
+    private final ColumnType[] columnTypes;
+    private final int rowCount;
+    private final int blockSize;
+    // The sorted dictionary. The id of a string is its position in the dictionary.
+    private final String[] dictionary;
+
+    // Position in the file of the first block, and of the next block to read.
+    private final long dataOffset;
+    private long position;
+
+    // Buffer and block reused for every block read, to avoid allocating them per block.
+    private ByteBuffer blockBuffer;
+    private final Block block;
+
+    /**
+     * Constructor for ColumnarFile.
+     * Opens the file and reads its header, ready to read the first block.
+     * @param location File path location of the columnar file.
+     * @throws IOException If the file cannot be read or is not a columnar file.
+     */
+    public ColumnarFile(String location) throws IOException {
+        channel = FileChannel.open(Paths.get(location), StandardOpenOption.READ);
+
+        ByteBuffer header = readFully(0, 12);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            channel.close();
+            throw new IOException(location + " is not a columnar relation file.");
+        }
+        int columnCount = header.getInt();
+
+        header = readFully(12, columnCount + 16);
+        columnTypes = new ColumnType[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnTypes[i] = ColumnType.values()[header.get()];
+        }
+        rowCount = header.getInt();
+        blockSize = header.getInt();
+        int dictionarySize = header.getInt();
+        int dictionaryByteLength = header.getInt();
+
+        ByteBuffer dictionaryBuffer = readFully(12 + columnCount + 16, dictionaryByteLength);
+        dictionary = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            byte[] bytes = new byte[dictionaryBuffer.getInt()];
+            dictionaryBuffer.get(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        dataOffset = 12 + columnCount + 16 + dictionaryByteLength;
+        position = dataOffset;
+        block = new Block(columnCount);
+    }
+
+    /**
+     * Method used to read the next block of the file.
+     * The returned block is reused by the next call, so its values must be used before reading the next block.
+     * @return The next block, or null if every block has been read.
+     */
+    public Block readBlock() {
+        return readBlock(null, null);
+    }
+
+    /**
+     * Method used to read the next block of the file that may have rows with values in the given ranges.
+     * The minimums and maximums of every block are read first, and the blocks where a column has no value in its
+     * range are skipped without reading their values.
+     * The returned block is reused by the next call, so its values must be used before reading the next block.
+     * @param lowerBounds The smallest value of the range of every column (inclusive), or null to read every block.
+     * @param upperBounds The largest value of the range of every column (inclusive), or null to read every block.
+     * @return The next block with rows that may be in the ranges, or null if every block has been read or skipped.
+     */
+    public Block readBlock(long[] lowerBounds, long[] upperBounds) {
+        try {
+            int columnCount = columnTypes.length;
+            int headerByteLength = 4 * (1 + 2 * columnCount);
+            while (position < channel.size()) {
+                ByteBuffer header = readFully(position, headerByteLength);
+                int blockRows = header.getInt();
+                int valuesByteLength = 4 * columnCount * blockRows;
+                boolean skipped = false;
+                for (int i = 0; i < columnCount; i++) {
+                    block.minimums[i] = header.getInt();
+                    block.maximums[i] = header.getInt();
+                    if (lowerBounds != null && (block.maximums[i] < lowerBounds[i] || block.minimums[i] > upperBounds[i])) {
+                        skipped = true;
+                    }
+                }
+                if (skipped) {
+                    position += headerByteLength + valuesByteLength;
+                    continue;
+                }
+
+                if (blockBuffer == null || blockBuffer.capacity() < valuesByteLength) {
+                    blockBuffer = ByteBuffer.allocate(valuesByteLength);
+                }
+                blockBuffer.clear();
+                blockBuffer.limit(valuesByteLength);
+                readFully(position + headerByteLength, blockBuffer);
+                position += headerByteLength + valuesByteLength;
+
+                IntBuffer ints = blockBuffer.asIntBuffer();
+                block.rowCount = blockRows;
+                for (int i = 0; i < columnCount; i++) {
+                    if (block.columns[i] == null || block.columns[i].length < blockRows) {
+                        block.columns[i] = new int[blockRows];
+                    }
+                    ints.get(block.columns[i], 0, blockRows);
+                }
+                return block;
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read columnar file.", e);
+        }
+    }
+
+    /**
+     * Method used to start reading blocks from the first block again. The file stays open.
+     */
+    public void rewind() {
+        position = dataOffset;
+    }
+
+    /**
+     * Method used to close the file.
+     */
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public ColumnType[] getColumnTypes() {
+        return columnTypes;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public String[] getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Helper method used to read a number of bytes from a position of the file.
+     * @param filePosition The position to start reading from.
+     * @param length The number of bytes to read.
+     * @return A buffer containing the bytes read, ready to be read from.
+     * @throws IOException If the file ends before length bytes have been read.
+     */
+    private ByteBuffer readFully(long filePosition, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(filePosition, buffer);
+        return buffer;
+    }
+
+    /**
+     * Helper method used to fill a buffer (up to its limit) with the bytes from a position of the file.
+     * @param filePosition The position to start reading from.
+     * @param buffer The buffer to fill. It is flipped afterwards, ready to be read from.
+     * @throws IOException If the file ends before the buffer is filled.
+     */
+    private void readFully(long filePosition, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int bytesRead = channel.read(buffer, filePosition);
+            if (bytesRead < 0) {
+                throw new IOException("Unexpected end of columnar file.");
+            }
+            filePosition += bytesRead;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Method used to convert a relation from a CSV file to a columnar file.
+     * The CSV file is read twice: once to build the sorted dictionary, and once to write the blocks.
+     * @param csvLocation File path location of the CSV file to convert.
+     * @param columnTypes The types of the columns of the relation, from the schema.
+     * @param columnarLocation File path location of the columnar file to create.
+     * @param blockSize The number of rows in a block.
+     * @throws IOException If the CSV file cannot be read or the columnar file cannot be written.
+     */
+    public static void importCsv(String csvLocation, ColumnType[] columnTypes, String columnarLocation, int blockSize) throws IOException {
+        int columnCount = columnTypes.length;
+
+        // First pass: count the rows and collect every string, sorted.
+        int rowCount = 0;
+        TreeSet<String> strings = new TreeSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(csvLocation))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] fields = splitCsvLine(line, columnCount, csvLocation);
+                for (int i = 0; i < columnCount; i++) {
+                    if (columnTypes[i] == ColumnType.STRING) {
+                        strings.add(unquote(fields[i]));
+                    }
+                }
+                rowCount += 1;
+            }
+        }
+
+        HashMap<String, Integer> dictionaryIds = new HashMap<>();
+        byte[][] encodedStrings = new byte[strings.size()][];
+        int dictionaryByteLength = 0;
+        for (String string : strings) {
+            int id = dictionaryIds.size();
+            dictionaryIds.put(string, id);
+            encodedStrings[id] = string.getBytes(StandardCharsets.UTF_8);
+            dictionaryByteLength += 4 + encodedStrings[id].length;
+        }
+
+        // Second pass: write the header and then the blocks.
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(csvLocation));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(columnarLocation)))) {
+
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(columnCount);
+            for (ColumnType columnType : columnTypes) {
+                output.writeByte(columnType.ordinal());
+            }
+            output.writeInt(rowCount);
+            output.writeInt(blockSize);
+            output.writeInt(encodedStrings.length);
+            output.writeInt(dictionaryByteLength);
+            for (byte[] encodedString : encodedStrings) {
+                output.writeInt(encodedString.length);
+                output.write(encodedString);
+            }
+
+            int[][] columns = new int[columnCount][blockSize];
+            int blockRows = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] fields = splitCsvLine(line, columnCount, csvLocation);
+                for (int i = 0; i < columnCount; i++) {
+                    if (columnTypes[i] == ColumnType.INT) {
+                        columns[i][blockRows] = Integer.parseInt(fields[i].trim());
+                    } else {
+                        columns[i][blockRows] = dictionaryIds.get(unquote(fields[i]));
+                    }
+                }
+                blockRows += 1;
+                if (blockRows == blockSize) {
+                    writeBlock(output, columns, blockRows);
+                    blockRows = 0;
+                }
+            }
+            if (blockRows > 0) {
+                writeBlock(output, columns, blockRows);
+            }
+        }
+    }
+
+    /**
+     * Helper method used to write a block: its number of rows, the minimum and maximum of every column, then the columns.
+     * @param output The stream to write to.
+     * @param columns The values of the block, one array per column.
+     * @param blockRows The number of rows in the block.
+     * @throws IOException If the block cannot be written.
+     */
+    private static void writeBlock(DataOutputStream output, int[][] columns, int blockRows) throws IOException {
+        output.writeInt(blockRows);
+        for (int[] column : columns) {
+            int minimum = column[0];
+            int maximum = column[0];
+            for (int row = 1; row < blockRows; row++) {
+                minimum = Math.min(minimum, column[row]);
+                maximum = Math.max(maximum, column[row]);
+            }
+            output.writeInt(minimum);
+            output.writeInt(maximum);
+        }
+        for (int[] column : columns) {
+            for (int row = 0; row < blockRows; row++) {
+                output.writeInt(column[row]);
+            }
+        }
+    }
+
+    /**
+     * Helper method used to split a line of a CSV file into its fields.
+     * @param line The line to split.
+     * @param columnCount The expected number of fields.
+     * @param csvLocation The file the line is from, used in the error message.
+     * @return The fields of the line.
+     */
+    private static String[] splitCsvLine(String line, int columnCount, String csvLocation) {
+        String[] fields = line.split(", |,");
+        if (fields.length != columnCount) {
+            throw new IllegalStateException("Expected " + columnCount + " fields in " + csvLocation + " but found: " + line);
+        }
+        return fields;
+    }
+
+    /**
+     * Helper method used to remove the apostrophes around a string field, i.e., 'adbs' -> adbs.
+     * @param field The string field.
+     * @return The string without apostrophes.
+     */
+    private static String unquote(String field) {
+        field = field.trim();
+        if (field.length() >= 2 && field.charAt(0) == '\'' && field.charAt(field.length() - 1) == '\'') {
+            return field.substring(1, field.length() - 1);
+        }
+        return field;
+    }
+
+    /**
+     * Block class. Holds the values of one block of a columnar file.
+     */
+    public static class Block {
+        private int rowCount;
+        private final int[] minimums;
+        private final int[] maximums;
+        private final int[][] columns;
+
+        private Block(int columnCount) {
+            minimums = new int[columnCount];
+            maximums = new int[columnCount];
+            columns = new int[columnCount][];
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Getter for the minimum value of a column in the block (the smallest dictionary id for string columns).
+         * @param column The position of the column.
+         * @return The minimum value of the column in the block.
+         */
+        public int getMinimum(int column) {
+            return minimums[column];
+        }
+
+        /**
+         * Getter for the maximum value of a column in the block (the largest dictionary id for string columns).
+         * @param column The position of the column.
+         * @return The maximum value of the column in the block.
+         */
+        public int getMaximum(int column) {
+            return maximums[column];
+        }
+
+        /**
+         * Getter for the values of a column in the block. Only the first getRowCount() values are valid.
+         * @param column The position of the column.
+         * @return The values of the column.
+         */
+        public int[] getColumn(int column) {
+            return columns[column];
+        }
+    }
+}
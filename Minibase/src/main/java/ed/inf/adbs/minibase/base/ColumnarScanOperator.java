@@ -0,0 +1,285 @@
+package ed.inf.adbs.minibase.base;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ColumnarScanOperator class that is inherited from Operator class.
+ * This is the base operator used to read tuples from relations stored in the columnar format (see ColumnarFile).
+ * Values are decoded from fixed-width ints, so no text parsing is needed. The dictionary of the file is translated once
+ * into StringDictionary ids, so string values only need an array lookup.
+ * Batches are filled by copying whole runs of every column of a block, without creating a tuple for every row.
+ * The selection conditions of the relation that compare a variable with a constant give a range of values for every
+ * column, and the blocks whose minimum and maximum show that no row is in these ranges are skipped. The conditions are
+ * still evaluated by the SelectOperator above the scan, as the other blocks may have rows outside the ranges.
+ */
+public class ColumnarScanOperator extends Operator {
+
+    // The name of the relation to scan i.e., "R".
+    private final String baseRelation;
+    // The variables from the relational atom i.e., x,y,z in R(x,y,z).
+    private final List<Variable> variables;
+
+    // The columnar file of the relation, kept open until the scan is closed.
+    private ColumnarFile columnarFile;
+    // The type of every column of the relation, from the schema.
+    private final ColumnType[] columnTypes;
+    // The StringDictionary id of every id of the dictionary of the file.
+    private long[] dictionaryIds;
+
+    // The range of values the selection conditions allow in every column (inclusive), used to skip blocks.
+    // Null if there are no selection conditions on constants, i.e., every block is read.
+    private long[] lowerBounds;
+    private long[] upperBounds;
+
+    // The current block, and the position of the next row to return from it.
+    private ColumnarFile.Block block;
+    private int row;
+    // The batch returned by getNextBatch. Null until it is first needed.
+    private TupleBatch batch;
+
+    /**
+     * Constructor for ColumnarScanOperator.
+     * Takes the relationalAtom and extracts the relation name and the variables.
+     * Validates the columnar file against the schema of the relation (once per relation).
+     * Then opens the columnar file of the relation and translates its dictionary.
+     * Every block is read.
+     * @param relationalAtom The relational atom from the body that prompted us to create a scan operator.
+     */
+    public ColumnarScanOperator(RelationalAtom relationalAtom) {
+        this(relationalAtom, null);
+    }
+
+    /**
+     * Constructor for ColumnarScanOperator, which skips the blocks that cannot have rows satisfying the selection
+     * conditions of the relation.
+     * @param relationalAtom The relational atom from the body that prompted us to create a scan operator.
+     * @param selectionConditions The selection conditions of the relational atom (may be null).
+     */
+    public ColumnarScanOperator(RelationalAtom relationalAtom, List<ComparisonAtom> selectionConditions) {
+        this.baseRelation = relationalAtom.getName();
+
+        variables = new ArrayList<>();
+        for (Term term : relationalAtom.getTerms()) {
+            if (term instanceof Variable) { // This should always be true after rewriting.
+                variables.add((Variable) term);
+            }
+        }
+
+        DatabaseCatalog catalog = DatabaseCatalog.getCatalogInstance();
+        catalog.validateRelationFile(baseRelation);
+        columnTypes = catalog.getSchema(baseRelation);
+
+        openColumnarFile();
+        if (selectionConditions != null) {
+            computeBounds(selectionConditions);
+        }
+    }
+
+    /**
+     * Method used to open the columnar file of the relation, using the location from the DatabaseCatalog.
+     */
+    private void openColumnarFile() {
+        String fileLocation = DatabaseCatalog.getCatalogInstance().getLocation(baseRelation);
+        try {
+            columnarFile = new ColumnarFile(fileLocation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open columnar file " + fileLocation + ".", e);
+        }
+
+        String[] dictionary = columnarFile.getDictionary();
+        dictionaryIds = new long[dictionary.length];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionaryIds[i] = StringDictionary.getId(dictionary[i]);
+        }
+    }
+
+    /**
+     * Method used to compute the range of values of every column from the selection conditions that compare a variable
+     * of the relation with a constant. Other conditions (i.e., x != 5 or x < y) do not restrict the range.
+     * Strings are compared through their ids in the sorted dictionary of the file.
+     * @param selectionConditions The selection conditions of the relation.
+     */
+    private void computeBounds(List<ComparisonAtom> selectionConditions) {
+        long[] lower = new long[columnTypes.length];
+        long[] upper = new long[columnTypes.length];
+        Arrays.fill(lower, Long.MIN_VALUE);
+        Arrays.fill(upper, Long.MAX_VALUE);
+        boolean bounded = false;
+
+        for (ComparisonAtom condition : selectionConditions) {
+            Term lhs = condition.getTerm1();
+            Term rhs = condition.getTerm2();
+            ComparisonOperator op = condition.getOp();
+            if (lhs instanceof Constant && rhs instanceof Variable) {
+                Term term = lhs;
+                lhs = rhs;
+                rhs = term;
+                op = SelectionCondition.flip(op);
+            }
+            if (!(lhs instanceof Variable) || !(rhs instanceof Constant) || op == ComparisonOperator.NEQ) {
+                continue;
+            }
+            int column = variables.indexOf(lhs);
+            if (column == -1) {
+                continue;
+            }
+
+            // The range of values of the column for which the condition holds: [smallest, largest].
+            long smallest = Long.MIN_VALUE;
+            long largest = Long.MAX_VALUE;
+            if (rhs instanceof IntegerConstant) {
+                long value = ((IntegerConstant) rhs).getValue();
+                if (op == ComparisonOperator.EQ || op == ComparisonOperator.GEQ) {
+                    smallest = value;
+                } else if (op == ComparisonOperator.GT) {
+                    smallest = value + 1;
+                }
+                if (op == ComparisonOperator.EQ || op == ComparisonOperator.LEQ) {
+                    largest = value;
+                } else if (op == ComparisonOperator.LT) {
+                    largest = value - 1;
+                }
+            } else {
+                // The id of the string if it is in the dictionary, otherwise the id of the first larger string.
+                int id = Arrays.binarySearch(columnarFile.getDictionary(), ((StringConstant) rhs).getValue());
+                boolean found = id >= 0;
+                if (!found) {
+                    id = -id - 1;
+                }
+                if (op == ComparisonOperator.EQ || op == ComparisonOperator.GEQ) {
+                    smallest = id;
+                } else if (op == ComparisonOperator.GT) {
+                    smallest = found ? id + 1 : id;
+                }
+                if (op == ComparisonOperator.EQ || op == ComparisonOperator.LEQ) {
+                    largest = found ? id : id - 1;
+                } else if (op == ComparisonOperator.LT) {
+                    largest = id - 1;
+                }
+            }
+            lower[column] = Math.max(lower[column], smallest);
+            upper[column] = Math.min(upper[column], largest);
+            bounded = true;
+        }
+
+        if (bounded) {
+            lowerBounds = lower;
+            upperBounds = upper;
+        }
+    }
+
+    /**
+     * GetNextTuple method for ColumnarScanOperator.
+     * Returns the next row of the current block, reading the next block when the current one is exhausted.
+     * @return Next tuple from file, or null in the case where there is no more tuples.
+     */
+    @Override
+    public Tuple getNextTuple() {
+        while (block == null || row == block.getRowCount()) {
+            block = columnarFile.readBlock(lowerBounds, upperBounds);
+            row = 0;
+            if (block == null) {
+                return null;
+            }
+        }
+
+        long[] tupleValues = new long[columnTypes.length];
+        for (int column = 0; column < columnTypes.length; column++) {
+            int value = block.getColumn(column)[row];
+            if (columnTypes[column] == ColumnType.INT) {
+                tupleValues[column] = value;
+            } else {
+                tupleValues[column] = dictionaryIds[value];
+            }
+        }
+        row += 1;
+
+        return new Tuple(tupleValues, columnTypes);
+    }
+
+    /**
+     * GetNextBatch method for ColumnarScanOperator.
+     * Copies up to TupleBatch.CAPACITY rows into the batch, column by column, reading blocks as needed.
+     * @return The next batch of tuples from file, or null in the case where there is no more tuples.
+     */
+    @Override
+    public TupleBatch getNextBatch() {
+        if (batch == null) {
+            batch = new TupleBatch(columnTypes);
+        }
+        long[][] columns = batch.getColumns();
+
+        int rows = 0;
+        while (rows < TupleBatch.CAPACITY) {
+            if (block == null || row == block.getRowCount()) {
+                block = columnarFile.readBlock(lowerBounds, upperBounds);
+                row = 0;
+                if (block == null) {
+                    break;
+                }
+                continue;
+            }
+
+            int count = Math.min(TupleBatch.CAPACITY - rows, block.getRowCount() - row);
+            for (int column = 0; column < columnTypes.length; column++) {
+                int[] values = block.getColumn(column);
+                long[] batchColumn = columns[column];
+                if (columnTypes[column] == ColumnType.INT) {
+                    for (int i = 0; i < count; i++) {
+                        batchColumn[rows + i] = values[row + i];
+                    }
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        batchColumn[rows + i] = dictionaryIds[values[row + i]];
+                    }
+                }
+            }
+            row += count;
+            rows += count;
+        }
+        batch.selectAll(rows);
+        return (rows == 0) ? null : batch;
+    }
+
+    /**
+     * Reset method for ColumnarScanOperator.
+     * Rewinds the columnar file to its first block, without re-opening the file.
+     */
+    @Override
+    public void reset() {
+        columnarFile.rewind();
+        block = null;
+        row = 0;
+    }
+
+    /**
+     * Close method for ColumnarScanOperator.
+     * Closes the columnar file.
+     */
+    @Override
+    public void close() {
+        columnarFile.close();
+    }
+
+    /**
+     * Getter for the variables of the output tuples of ColumnarScanOperator.
+     * @return The variables from the relational atom, in order.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Getter for the types of the output tuples of ColumnarScanOperator.
+     * @return The types of the columns of the relation, from the schema.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return columnTypes;
+    }
+}
@@ -1,11 +1,17 @@
 package ed.inf.adbs.minibase.base;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A DatabaseCatalog object is used to store information about the database, such as schema
@@ -17,21 +23,38 @@ public class DatabaseCatalog {
     // Volatile ensures multiple thread will be able to handle the DatabaseCatalog instance correctly.
     private static volatile DatabaseCatalog catalog;
 
+    // The path to the database directory.
+    private final String databaseDirectory;
     // Hashmap mapping relation names (i.e. R) to a file path location.
+    // This is the columnar file of the relation if it has been imported, otherwise the CSV file.
     private final HashMap<String, String> relationLocations;
-    // Hashmap mapping relation names to its schema.
-    private final HashMap<String, String[]> relationSchemas;
+    // Hashmap mapping relation names to its schema (the type of each column).
+    private final HashMap<String, ColumnType[]> relationSchemas;
+    // Hashmap mapping relation names to their declared keys. A key is the positions of its columns, i.e., [0] or [0, 2].
+    private final HashMap<String, List<int[]>> relationKeys;
+    // The relations whose file has already been validated against their schema.
+    private final Set<String> validatedRelations;
+    // Hashmap mapping relation names to the estimated number of tuples of the relation, computed when first needed.
+    private final HashMap<String, Long> estimatedTupleCounts;
+    // Hashmap mapping relation names to their statistics. This is null until the statistics file is first needed.
+    private HashMap<String, RelationStatistics> relationStatistics;
 
     /**
      * Constructor.
      * Since this is a singleton class, this will get called at most once during execution.
-     * The constructor assigns relationLocations and relationSchemas their values.
+     * The constructor assigns relationLocations, relationSchemas and relationKeys their values.
+     * A line of schema.txt has the name of a relation, the type of each column, and then optionally its keys, i.e.,
+     * "R int int string key(0) key(1,2)" declares that no two tuples of R have the same value in column 0, and no two
+     * tuples have the same values in both columns 1 and 2. Keys are not checked against the relation files.
+     * A relation is read from its columnar file (files/R.col) if it exists and is not older than its CSV file (files/R.csv).
      * @param db The path to the database containing relevant information.
      */
     private DatabaseCatalog(String db) {
 
+        this.databaseDirectory = db;
         HashMap<String, String> relationLocations = new HashMap<>();
-        HashMap<String, String[]> relationSchemas = new HashMap<>();
+        HashMap<String, ColumnType[]> relationSchemas = new HashMap<>();
+        HashMap<String, List<int[]>> relationKeys = new HashMap<>();
 
         try {
             List<String> allSchemas = Files.readAllLines(Paths.get(db + File.separator + "schema.txt"));
@@ -41,10 +64,25 @@ public class DatabaseCatalog {
                 String[] splittedSchema = schema.split(" ", 2);
 
                 String relationName = splittedSchema[0];
-                String[] relationSchema = splittedSchema[1].split(" ");
+                List<ColumnType> relationSchema = new ArrayList<>();
+                List<int[]> keys = new ArrayList<>();
+                for (String token : splittedSchema[1].split(" ")) {
+                    if (token.startsWith("key(")) {
+                        // key(1,2)
+                        String[] keyColumns = token.substring(4, token.length() - 1).split(",");
+                        int[] key = new int[keyColumns.length];
+                        for (int i = 0; i < key.length; i++) {
+                            key[i] = Integer.parseInt(keyColumns[i].trim());
+                        }
+                        keys.add(key);
+                    } else if (!token.isEmpty()) {
+                        relationSchema.add(ColumnType.fromString(token));
+                    }
+                }
 
-                relationLocations.put(relationName, db + File.separator + "files" + File.separator + relationName + ".csv");
-                relationSchemas.put(relationName, relationSchema);
+                relationLocations.put(relationName, chooseLocation(relationName));
+                relationSchemas.put(relationName, relationSchema.toArray(new ColumnType[0]));
+                relationKeys.put(relationName, keys);
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -53,6 +91,9 @@ public class DatabaseCatalog {
 
         this.relationLocations = relationLocations;
         this.relationSchemas = relationSchemas;
+        this.relationKeys = relationKeys;
+        this.validatedRelations = new HashSet<>();
+        this.estimatedTupleCounts = new HashMap<>();
     }
 
     /**
@@ -95,4 +136,251 @@ public class DatabaseCatalog {
         return relationLocations.get(relation);
     }
 
-}
\ No newline at end of file
+    /**
+     * Method used to check if a relation is read from a columnar file (rather than a CSV file).
+     * @param relation The relation name, i.e. R.
+     * @return true if the location of the relation is a columnar file, false otherwise.
+     */
+    public boolean isColumnar(String relation) {
+        return relationLocations.get(relation).endsWith(ColumnarFile.EXTENSION);
+    }
+
+    /**
+     * Used to get the file path location of the CSV file of a relation, regardless of whether it has been imported.
+     * @param relation The relation name, i.e. R.
+     * @return File path location of the CSV file of the relation.
+     */
+    public String getCsvLocation(String relation) {
+        return databaseDirectory + File.separator + "files" + File.separator + relation + ".csv";
+    }
+
+    /**
+     * Used to get the file path location of the columnar file of a relation, whether it exists or not.
+     * @param relation The relation name, i.e. R.
+     * @return File path location of the columnar file of the relation.
+     */
+    public String getColumnarLocation(String relation) {
+        return databaseDirectory + File.separator + "files" + File.separator + relation + ColumnarFile.EXTENSION;
+    }
+
+    /**
+     * Used to get the schema of a relation, as written in schema.txt.
+     * @param relation The relation name, i.e. R.
+     * @return The type of each column of the relation, i.e. [INT, INT, STRING].
+     */
+    public ColumnType[] getSchema(String relation) {
+        return relationSchemas.get(relation);
+    }
+
+    /**
+     * Used to get the keys declared for a relation in schema.txt.
+     * @param relation The relation name, i.e. R.
+     * @return The keys of the relation, each as the positions of its columns. Empty if the relation has no declared key.
+     */
+    public List<int[]> getKeys(String relation) {
+        return relationKeys.get(relation);
+    }
+
+    /**
+     * Method used to check that the file of a relation matches the schema of the relation.
+     * This is done once per relation, when the relation is first scanned. For a CSV file, we check that the first line
+     * has the right number of fields, of the right types. For a columnar file, we check the column types in its header.
+     * @param relation The relation name, i.e. R.
+     * @throws IllegalStateException If the file does not match the schema.
+     */
+    public synchronized void validateRelationFile(String relation) {
+        if (validatedRelations.contains(relation)) {
+            return;
+        }
+
+        ColumnType[] schema = relationSchemas.get(relation);
+        String location = relationLocations.get(relation);
+        try {
+            if (isColumnar(relation)) {
+                ColumnarFile columnarFile = new ColumnarFile(location);
+                ColumnType[] fileColumnTypes = columnarFile.getColumnTypes();
+                columnarFile.close();
+                if (!Arrays.equals(fileColumnTypes, schema)) {
+                    throw new IllegalStateException("The columnar file of relation " + relation + " has the columns "
+                            + Arrays.toString(fileColumnTypes) + " but its schema is " + Arrays.toString(schema) + ".");
+                }
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(Paths.get(location))) {
+                    String line = reader.readLine();
+                    while (line != null && line.trim().isEmpty()) {
+                        line = reader.readLine();
+                    }
+                    if (line != null) {
+                        new TupleDecoder(schema).validate(line, relation);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // The scan reports missing or unreadable files itself.
+            e.printStackTrace();
+        }
+
+        validatedRelations.add(relation);
+    }
+
+    /**
+     * Method used to estimate the number of tuples of a relation, used by the query plan to order the joins.
+     * If the relation has up to date statistics, we use their number of rows.
+     * Otherwise, the number of rows of a columnar file is in its header, so it is exact. For a CSV file, we read the
+     * first lines of the file and divide the size of the file by their average length.
+     * @param relation The relation name, i.e. R.
+     * @return The estimated number of tuples of the relation.
+     */
+    public synchronized long getEstimatedTupleCount(String relation) {
+        Long estimatedTupleCount = estimatedTupleCounts.get(relation);
+        if (estimatedTupleCount != null) {
+            return estimatedTupleCount;
+        }
+
+        RelationStatistics statistics = getStatistics(relation);
+        if (statistics != null) {
+            estimatedTupleCounts.put(relation, statistics.getRowCount());
+            return statistics.getRowCount();
+        }
+
+        String location = relationLocations.get(relation);
+        estimatedTupleCount = 0L;
+        try {
+            if (isColumnar(relation)) {
+                ColumnarFile columnarFile = new ColumnarFile(location);
+                estimatedTupleCount = (long) columnarFile.getRowCount();
+                columnarFile.close();
+            } else {
+                estimatedTupleCount = estimateCsvTupleCount(location);
+            }
+        } catch (IOException e) {
+            // The scan reports missing or unreadable files itself.
+            e.printStackTrace();
+        }
+
+        estimatedTupleCounts.put(relation, estimatedTupleCount);
+        return estimatedTupleCount;
+    }
+
+    /**
+     * Used to get the file path location of the statistics file of the database (written by Analyzer).
+     * @return File path location of the statistics file.
+     */
+    public String getStatisticsLocation() {
+        return databaseDirectory + File.separator + "statistics.txt";
+    }
+
+    /**
+     * Method used to get the statistics of a relation.
+     * The statistics file is read the first time statistics are needed. Statistics of a relation file that has
+     * changed since it was analyzed are out of date, and are not returned.
+     * @param relation The relation name, i.e. R.
+     * @return The statistics of the relation, or null if the relation has not been analyzed or its statistics are out of date.
+     */
+    public synchronized RelationStatistics getStatistics(String relation) {
+        loadStatistics();
+        RelationStatistics statistics = relationStatistics.get(relation);
+        if (statistics == null || !statistics.isUpToDate(relationLocations.get(relation))) {
+            return null;
+        }
+        return statistics;
+    }
+
+    /**
+     * Method used to compute the statistics of some relations, and save them in the statistics file.
+     * The statistics of the other relations in the statistics file are kept.
+     * @param relations The names of the relations to analyze.
+     * @throws IOException If the statistics file cannot be written.
+     */
+    public synchronized void analyze(List<String> relations) throws IOException {
+        loadStatistics();
+        for (String relation : relations) {
+            relationStatistics.put(relation, RelationStatistics.analyze(relation));
+            estimatedTupleCounts.remove(relation);
+        }
+        List<RelationStatistics> allStatistics = new ArrayList<>(relationStatistics.values());
+        allStatistics.sort(Comparator.comparing(RelationStatistics::getRelation));
+        RelationStatistics.writeAll(allStatistics, getStatisticsLocation());
+    }
+
+    /**
+     * Helper method used to read the statistics file, if it has not been read yet.
+     * If the database has no statistics file, no relation has statistics.
+     */
+    private void loadStatistics() {
+        if (relationStatistics != null) {
+            return;
+        }
+
+        relationStatistics = new HashMap<>();
+        if (!new File(getStatisticsLocation()).exists()) {
+            return;
+        }
+        try {
+            for (RelationStatistics statistics : RelationStatistics.readAll(getStatisticsLocation())) {
+                relationStatistics.put(statistics.getRelation(), statistics);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not read the statistics file, statistics will not be used.");
+            e.printStackTrace();
+            relationStatistics.clear();
+        }
+    }
+
+    /**
+     * Helper method used to estimate the number of lines of a CSV file from the average length of its first lines.
+     * @param location File path location of the CSV file.
+     * @return The estimated number of (non-empty) lines of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    private static long estimateCsvTupleCount(String location) throws IOException {
+        final int sampleSize = 100;
+        long sampledBytes = 0;
+        int sampledLines = 0;
+        boolean endOfFile = false;
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(location))) {
+            while (sampledLines < sampleSize) {
+                String line = reader.readLine();
+                if (line == null) {
+                    endOfFile = true;
+                    break;
+                }
+                // Count the line separator as well.
+                sampledBytes += line.length() + 1;
+                if (!line.trim().isEmpty()) {
+                    sampledLines += 1;
+                }
+            }
+        }
+
+        if (endOfFile || sampledLines == 0) {
+            return sampledLines;
+        }
+        return Math.max(sampledLines, new File(location).length() * sampledLines / sampledBytes);
+    }
+
+    /**
+     * Getter for the names of all the relations in the database.
+     * @return The relation names.
+     */
+    public Set<String> getRelationNames() {
+        return relationSchemas.keySet();
+    }
+
+    /**
+     * Helper method used to decide which file a relation is read from.
+     * The columnar file is used if it exists and was written after the CSV file was last modified.
+     * @param relation The relation name, i.e. R.
+     * @return File path location of the file to read the relation from.
+     */
+    private String chooseLocation(String relation) {
+        File csvFile = new File(getCsvLocation(relation));
+        File columnarFile = new File(getColumnarLocation(relation));
+        if (columnarFile.exists() && columnarFile.lastModified() >= csvFile.lastModified()) {
+            return columnarFile.getPath();
+        }
+        return csvFile.getPath();
+    }
+
+}
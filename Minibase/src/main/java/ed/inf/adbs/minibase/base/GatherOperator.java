@@ -0,0 +1,264 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GatherOperator class that is inherited from Operator class.
+ * Runs a pipeline (a scan, and the selections, hash join probes and projections above it) on several worker threads
+ * of a ForkJoinPool, and returns the tuples of all the workers.
+ * Every worker runs its own copy of the pipeline (see Operator.createWorkerCopy), whose scan takes morsels of the
+ * file one at a time from the shared MorselQueue, so the work is balanced between the workers as they go. The workers
+ * hand copies of their batches to this operator through a bounded queue.
+ * The tuples are the same as the tuples of the pipeline, but not in the same order.
+ */
+public class GatherOperator extends Operator {
+
+    // Put in the queue by a worker once it has no more batches.
+    private static final TupleBatch WORKER_FINISHED = new TupleBatch(new ColumnType[0]);
+    // How long a worker waits for room in the queue before checking if it has been cancelled.
+    private static final long OFFER_TIMEOUT_MILLISECONDS = 10;
+
+    // The pipeline that the workers copy. It is never read itself.
+    private final Operator pipeline;
+    // The morsels of the scan of the pipeline.
+    private final MorselQueue morsels;
+    // The number of worker threads.
+    private final int parallelism;
+
+    // The batches of the workers (and a WORKER_FINISHED marker from every worker). Null until the workers start.
+    private BlockingQueue<TupleBatch> batches;
+    // The number of workers that have finished.
+    private int finishedWorkers;
+    // Set to stop the workers early, i.e., on reset or once a worker has failed.
+    private volatile boolean cancelled;
+    // The first exception thrown by a worker, which is thrown again by getNextBatch.
+    private volatile Throwable failure;
+
+    // The batch read by getNextTuple, and the position in its selection vector of the next tuple to return.
+    private TupleBatch tupleBatch;
+    private int tuplePosition;
+
+    /**
+     * Constructor for GatherOperator.
+     * The workers are only started once the first tuple is read.
+     * @param pipeline The pipeline to run in parallel. Its getMorsels() must not be null.
+     * @param parallelism The number of worker threads.
+     */
+    public GatherOperator(Operator pipeline, int parallelism) {
+        this.pipeline = pipeline;
+        this.morsels = pipeline.getMorsels();
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Method used to start the workers. Every worker creates its copy of the pipeline and reads it until it has no
+     * more batches, putting a copy of every batch in the queue.
+     */
+    private void startWorkers() {
+        batches = new ArrayBlockingQueue<>(4 * parallelism);
+        finishedWorkers = 0;
+        cancelled = false;
+        failure = null;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        for (int worker = 0; worker < parallelism; worker++) {
+            pool.execute(this::runWorker);
+        }
+        // The pool ends its threads once the workers have finished.
+        pool.shutdown();
+    }
+
+    /**
+     * Method run by every worker thread.
+     */
+    private void runWorker() {
+        try {
+            Operator workerPipeline = pipeline.createWorkerCopy();
+            TupleBatch batch = workerPipeline.getNextBatch();
+            while (batch != null && !cancelled) {
+                if (!put(batch.copy())) {
+                    return;
+                }
+                batch = workerPipeline.getNextBatch();
+            }
+        } catch (Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+            cancelled = true;
+        } finally {
+            finishWorker();
+        }
+    }
+
+    /**
+     * Helper method used by a worker to put its WORKER_FINISHED marker in the queue. The marker is always put, even if
+     * the worker is interrupted, as the reader waits for the marker of every worker.
+     */
+    private void finishWorker() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                batches.put(WORKER_FINISHED);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Helper method used by a worker to put a batch in the queue, waiting while the queue is full.
+     * @param batch The batch.
+     * @return true if the batch was put in the queue, false if the workers have been cancelled.
+     */
+    private boolean put(TupleBatch batch) {
+        try {
+            while (!batches.offer(batch, OFFER_TIMEOUT_MILLISECONDS, TimeUnit.MILLISECONDS)) {
+                if (cancelled) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * GetNextBatch method for GatherOperator.
+     * Starts the workers the first time, then returns the next batch of any worker, waiting for one if needed.
+     * If a worker has failed, its exception is thrown.
+     * @return The next batch of the workers, or null once every worker has finished.
+     */
+    @Override
+    public TupleBatch getNextBatch() {
+        if (batches == null) {
+            startWorkers();
+        }
+        while (finishedWorkers < parallelism) {
+            TupleBatch batch = take();
+            if (batch == WORKER_FINISHED) {
+                finishedWorkers += 1;
+                if (failure != null) {
+                    waitForWorkers();
+                    throwFailure();
+                }
+                continue;
+            }
+            return batch;
+        }
+        return null;
+    }
+
+    /**
+     * Helper method used to take the next batch from the queue, waiting for one if needed.
+     * @return The batch (or a WORKER_FINISHED marker).
+     */
+    private TupleBatch take() {
+        try {
+            return batches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the workers.", e);
+        }
+    }
+
+    /**
+     * Helper method used to stop the workers early, and wait until every worker has finished.
+     */
+    private void waitForWorkers() {
+        cancelled = true;
+        while (finishedWorkers < parallelism) {
+            if (take() == WORKER_FINISHED) {
+                finishedWorkers += 1;
+            }
+        }
+    }
+
+    /**
+     * Helper method used to throw the exception of a failed worker in the thread reading this operator.
+     */
+    private void throwFailure() {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new IllegalStateException("A worker failed.", failure);
+    }
+
+    /**
+     * GetNextTuple method for GatherOperator.
+     * Returns the tuples of the batches of getNextBatch one at a time.
+     * @return The next tuple of the workers, or null once every worker has finished.
+     */
+    @Override
+    public Tuple getNextTuple() {
+        while (tupleBatch == null || tuplePosition == tupleBatch.getSelectedCount()) {
+            tupleBatch = getNextBatch();
+            tuplePosition = 0;
+            if (tupleBatch == null) {
+                return null;
+            }
+        }
+        Tuple tuple = tupleBatch.getTuple(tupleBatch.getSelection()[tuplePosition]);
+        tuplePosition += 1;
+        return tuple;
+    }
+
+    /**
+     * Reset method for GatherOperator.
+     * Stops the workers (if they are running), and makes every morsel available again, so that new workers start from
+     * the beginning when the next tuple is read.
+     */
+    @Override
+    public void reset() {
+        if (batches != null) {
+            waitForWorkers();
+            batches = null;
+        }
+        morsels.reset();
+        tupleBatch = null;
+        tuplePosition = 0;
+    }
+
+    /**
+     * Close method for GatherOperator.
+     * Stops the workers (if they are running), and closes the pipeline.
+     */
+    @Override
+    public void close() {
+        if (batches != null) {
+            waitForWorkers();
+            batches = null;
+        }
+        pipeline.close();
+    }
+
+    /**
+     * Getter for the variables of the output tuples of GatherOperator.
+     * @return The variables of the pipeline.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return pipeline.getVariables();
+    }
+
+    /**
+     * Getter for the types of the output tuples of GatherOperator.
+     * @return The types of the pipeline.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return pipeline.getTypes();
+    }
+}
@@ -0,0 +1,163 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.Arrays;
+
+/**
+ * GroupHashTable class.
+ * An open-addressing (linear probing) hash table that maps group keys, i.e., the values of the group by positions of
+ * tuples, to group numbers. Groups are numbered 0, 1, 2, ... in the order they are first seen, so operators can keep
+ * the state of every group (i.e., an accumulator) in primitive arrays indexed by group number.
+ * Keys are stored in one long array, so looking up a tuple allocates nothing.
+ * The table is also used as a compact set of tuples, i.e., by the ProjectOperator to remove duplicate tuples.
+ */
+public class GroupHashTable {
+
+    // The number of slots of a new table. The number of slots is always a power of two.
+    private static final int INITIAL_CAPACITY = 64;
+    // Used to spread the bits of the key values in the hash.
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    // The number of values of every key.
+    private final int keyWidth;
+    // The keys of the groups, one after the other: the key of group g is at [g * keyWidth, (g + 1) * keyWidth).
+    private long[] keys;
+    // The hash of the key of every group, so that the table can be resized without hashing the keys again.
+    private int[] hashes;
+    // The slots of the table. A slot holds the group number + 1 of a key, or 0 if it is empty.
+    private int[] slots;
+    // The number of groups in the table.
+    private int groupCount;
+
+    /**
+     * Constructor for GroupHashTable.
+     * @param keyWidth The number of values of every key.
+     */
+    public GroupHashTable(int keyWidth) {
+        this.keyWidth = keyWidth;
+        keys = new long[INITIAL_CAPACITY * keyWidth];
+        hashes = new int[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY];
+        groupCount = 0;
+    }
+
+    /**
+     * Method used to find the group of the key of a tuple, adding a new group if the key has not been seen yet.
+     * @param values The values of the tuple.
+     * @param keyPositions The positions of the key in the tuple (keyWidth of them).
+     * @return The group number of the key.
+     */
+    public int findOrInsert(long[] values, int[] keyPositions) {
+        int hash = hash(values, keyPositions);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int group = slots[slot] - 1;
+            if (hashes[group] == hash && keyEquals(group, values, keyPositions)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int group = groupCount;
+        if (group == hashes.length) {
+            hashes = Arrays.copyOf(hashes, 2 * group);
+            keys = Arrays.copyOf(keys, 2 * group * keyWidth);
+        }
+        for (int i = 0; i < keyWidth; i++) {
+            keys[group * keyWidth + i] = values[keyPositions[i]];
+        }
+        hashes[group] = hash;
+        slots[slot] = group + 1;
+        groupCount += 1;
+
+        // Keep the table at most half full, so probe sequences stay short.
+        if (2 * groupCount > slots.length) {
+            resize();
+        }
+        return group;
+    }
+
+    /**
+     * Method used to find the group of the key of a tuple, without adding a new group if the key has not been seen yet.
+     * @param values The values of the tuple.
+     * @param keyPositions The positions of the key in the tuple (keyWidth of them).
+     * @return The group number of the key, or -1 if the key is not in the table.
+     */
+    public int find(long[] values, int[] keyPositions) {
+        int hash = hash(values, keyPositions);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int group = slots[slot] - 1;
+            if (hashes[group] == hash && keyEquals(group, values, keyPositions)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Getter for the number of groups in the table.
+     * @return The number of groups.
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * Getter for a value of the key of a group.
+     * @param group The group number.
+     * @param column The position of the value in the key.
+     * @return The value.
+     */
+    public long getKeyValue(int group, int column) {
+        return keys[group * keyWidth + column];
+    }
+
+    /**
+     * Helper method used to check if the key of a group is equal to the key of a tuple.
+     * @param group The group number.
+     * @param values The values of the tuple.
+     * @param keyPositions The positions of the key in the tuple.
+     * @return true if the keys are equal, false otherwise.
+     */
+    private boolean keyEquals(int group, long[] values, int[] keyPositions) {
+        int offset = group * keyWidth;
+        for (int i = 0; i < keyWidth; i++) {
+            if (keys[offset + i] != values[keyPositions[i]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method used to double the number of slots, and put every group back into the new slots.
+     */
+    private void resize() {
+        slots = new int[2 * slots.length];
+        int mask = slots.length - 1;
+        for (int group = 0; group < groupCount; group++) {
+            int slot = hashes[group] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = group + 1;
+        }
+    }
+
+    /**
+     * Helper method used to hash the key of a tuple.
+     * @param values The values of the tuple.
+     * @param keyPositions The positions of the key in the tuple.
+     * @return The hash of the key.
+     */
+    private static int hash(long[] values, int[] keyPositions) {
+        long hash = HASH_MULTIPLIER;
+        for (int keyPosition : keyPositions) {
+            hash = (hash ^ values[keyPosition]) * HASH_MULTIPLIER;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
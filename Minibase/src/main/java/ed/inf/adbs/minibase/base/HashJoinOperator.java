@@ -0,0 +1,333 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * HashJoinOperator class that is inherited from Operator class.
+ * The algorithm used in this class is the classic (in-memory) hash join algorithm.
+ * This operator is used instead of the JoinOperator when the join conditions contain at least one equality
+ * between a variable of the left child and a variable of the right child, i.e., x = u.
+ * The joined tuples do not contain the join key of the right child, i.e., R(x, y), S(u, v), x = u is joined into
+ * tuples of x, y, v, as the values of u are always equal to the values of x.
+ * When read in batches, the left child is probed a batch at a time, and the joined tuples are written straight into the
+ * columns of an output batch. The residual join conditions are then evaluated on the whole output batch.
+ * The probe can be run in parallel: worker copies of the join share its hash table, which is read-only once built,
+ * and probe it with worker copies of the left child.
+ */
+public class HashJoinOperator extends Operator {
+
+    // The left (probe) child operator and the right (build) child operator.
+    private final Operator leftChildOperator;
+    private final Operator rightChildOperator;
+
+    // The positions of the join key in the left and right tuples.
+    // leftKeyPositions[i] must be equal to rightKeyPositions[i] for tuples to join.
+    private final int[] leftKeyPositions;
+    private final int[] rightKeyPositions;
+    // The join conditions that are not equalities between the two children, i.e., x < u. Null if there are none.
+    private final SelectionCondition residualCondition;
+
+    // The hash table built from the right child, mapping a join key to all the right tuples with that key.
+    private final HashMap<TupleKey, List<Tuple>> hashTable;
+
+    // The current left tuple and the right tuples that match it on the join key.
+    private Tuple leftChildTuple;
+    private List<Tuple> matchingRightTuples;
+    // Position of the next right tuple to consider in matchingRightTuples.
+    private int matchPosition;
+
+    // When read in batches: the current left batch, the position in its selection vector of the next left row to
+    // probe, and the current left row (that matchingRightTuples match).
+    private TupleBatch leftBatch;
+    private int leftSelectionPosition;
+    private int leftRow;
+    // The batch returned by getNextBatch. Null until it is first needed.
+    private TupleBatch joinedBatch;
+
+    // The positions of the right tuples that are part of the joined tuples: every position except the join key, as
+    // the values of the right join key are equal to the values of the left join key.
+    private final int[] rightOutputPositions;
+    // The variables and types that correspond to each position of the joined tuples.
+    private final List<Variable> joinedTupleVars;
+    private final ColumnType[] joinedTupleTypes;
+
+    /**
+     * Constructor of a HashJoinOperator.
+     * Assigns children operators, join keys and residual join conditions.
+     * Then builds the hash table by reading every tuple of the right child once.
+     * @param leftChildOperator The left (outer/probe) operator in the join.
+     * @param rightChildOperator The right (inner/build) operator in the join.
+     * @param leftKeyPositions The positions in the left tuples of the variables that make the join key.
+     * @param rightKeyPositions The positions in the right tuples of the variables that make the join key (in the same order as leftKeyPositions).
+     * @param residualCondition The join conditions that are not part of the join key. This is null if there are none.
+     */
+    public HashJoinOperator(Operator leftChildOperator, Operator rightChildOperator, int[] leftKeyPositions,
+                            int[] rightKeyPositions, SelectionCondition residualCondition) {
+        this.leftChildOperator = leftChildOperator;
+        this.rightChildOperator = rightChildOperator;
+        this.leftKeyPositions = leftKeyPositions;
+        this.rightKeyPositions = rightKeyPositions;
+        this.residualCondition = residualCondition;
+
+        ColumnType[] leftTypes = leftChildOperator.getTypes();
+        ColumnType[] rightTypes = rightChildOperator.getTypes();
+        rightOutputPositions = nonKeyPositions(rightTypes.length, rightKeyPositions);
+        joinedTupleVars = new ArrayList<>(leftChildOperator.getVariables());
+        joinedTupleTypes = Arrays.copyOf(leftTypes, leftTypes.length + rightOutputPositions.length);
+        for (int i = 0; i < rightOutputPositions.length; i++) {
+            joinedTupleVars.add(rightChildOperator.getVariables().get(rightOutputPositions[i]));
+            joinedTupleTypes[leftTypes.length + i] = rightTypes[rightOutputPositions[i]];
+        }
+
+        hashTable = buildHashTable();
+        matchingRightTuples = Collections.emptyList();
+        matchPosition = 0;
+    }
+
+    /**
+     * Constructor for a worker copy of a HashJoinOperator, which probes the hash table of the join with a worker copy
+     * of its left child.
+     * @param join The join to copy.
+     */
+    private HashJoinOperator(HashJoinOperator join) {
+        this.leftChildOperator = join.leftChildOperator.createWorkerCopy();
+        this.rightChildOperator = join.rightChildOperator;
+        this.leftKeyPositions = join.leftKeyPositions;
+        this.rightKeyPositions = join.rightKeyPositions;
+        this.residualCondition = join.residualCondition;
+        this.rightOutputPositions = join.rightOutputPositions;
+        this.joinedTupleVars = join.joinedTupleVars;
+        this.joinedTupleTypes = join.joinedTupleTypes;
+        this.hashTable = join.hashTable;
+        matchingRightTuples = Collections.emptyList();
+        matchPosition = 0;
+    }
+
+    /**
+     * Method used to build the hash table from the right child (build phase).
+     * Every right tuple is put into the bucket of its join key.
+     * @return Hash table mapping a join key to all right tuples with that join key.
+     */
+    private HashMap<TupleKey, List<Tuple>> buildHashTable() {
+        HashMap<TupleKey, List<Tuple>> table = new HashMap<>();
+
+        Tuple rightChildTuple = rightChildOperator.getNextTuple();
+        while (rightChildTuple != null) {
+            TupleKey key = new TupleKey(rightChildTuple, rightKeyPositions);
+            List<Tuple> bucket = table.get(key);
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                table.put(key, bucket);
+            }
+            bucket.add(rightChildTuple);
+            rightChildTuple = rightChildOperator.getNextTuple();
+        }
+
+        return table;
+    }
+
+    /**
+     * GetNextTuple method for HashJoinOperator.
+     * Implements the probe phase of the hash join algorithm.
+     * For every left tuple, we look up the right tuples with the same join key, and return the joined tuples
+     * that also satisfy the residual join conditions (if there are any).
+     * @return The next joined tuple that satisfies the join condition (if it exists).
+     */
+    @Override
+    public Tuple getNextTuple() {
+
+        while (true) {
+            // Return the remaining matches of the current left tuple first.
+            while (matchPosition < matchingRightTuples.size()) {
+                Tuple rightChildTuple = matchingRightTuples.get(matchPosition);
+                matchPosition += 1;
+
+                Tuple joinedTuple = joinTuples(leftChildTuple, rightChildTuple);
+                if (residualCondition == null || residualCondition.evaluateOnTuple(joinedTuple)) {
+                    return joinedTuple;
+                }
+            }
+
+            // Move onto the next left tuple and find its matches.
+            leftChildTuple = leftChildOperator.getNextTuple();
+            if (leftChildTuple == null) {
+                // Left child tuple is null. There is no more matches.
+                return null;
+            }
+
+            List<Tuple> bucket = hashTable.get(new TupleKey(leftChildTuple, leftKeyPositions));
+            matchingRightTuples = (bucket == null) ? Collections.<Tuple>emptyList() : bucket;
+            matchPosition = 0;
+        }
+    }
+
+    /**
+     * GetNextBatch method for HashJoinOperator.
+     * Implements the probe phase of the hash join algorithm on batches of the left child.
+     * For every selected row of the left batch, we look up the right tuples with the same join key, and write the
+     * joined tuples into the output batch until it is full. Then the residual join conditions (if there are any) are
+     * evaluated on the output batch. The position in the left batch and in the matches of the current left row are
+     * kept between calls.
+     * @return The next batch of joined tuples that satisfy the join condition, or null if there are no more matches.
+     */
+    @Override
+    public TupleBatch getNextBatch() {
+        if (joinedBatch == null) {
+            joinedBatch = new TupleBatch(joinedTupleTypes);
+        }
+        long[][] joinedColumns = joinedBatch.getColumns();
+        int leftWidth = leftChildOperator.getTypes().length;
+
+        while (true) {
+            int rows = 0;
+            while (rows < TupleBatch.CAPACITY) {
+                // Write the remaining matches of the current left row first.
+                if (matchPosition < matchingRightTuples.size()) {
+                    long[] rightTupleValues = matchingRightTuples.get(matchPosition).getValues();
+                    matchPosition += 1;
+
+                    long[][] leftColumns = leftBatch.getColumns();
+                    for (int column = 0; column < leftWidth; column++) {
+                        joinedColumns[column][rows] = leftColumns[column][leftRow];
+                    }
+                    for (int i = 0; i < rightOutputPositions.length; i++) {
+                        joinedColumns[leftWidth + i][rows] = rightTupleValues[rightOutputPositions[i]];
+                    }
+                    rows += 1;
+                    continue;
+                }
+
+                // Move onto the next left row (of the next left batch if needed) and find its matches.
+                if (leftBatch == null || leftSelectionPosition == leftBatch.getSelectedCount()) {
+                    leftBatch = leftChildOperator.getNextBatch();
+                    leftSelectionPosition = 0;
+                    if (leftBatch == null) {
+                        break;
+                    }
+                }
+                leftRow = leftBatch.getSelection()[leftSelectionPosition];
+                leftSelectionPosition += 1;
+
+                List<Tuple> bucket = hashTable.get(new TupleKey(leftBatch.getColumns(), leftRow, leftKeyPositions));
+                matchingRightTuples = (bucket == null) ? Collections.<Tuple>emptyList() : bucket;
+                matchPosition = 0;
+            }
+
+            if (rows == 0) {
+                // The left child has no more batches. There is no more matches.
+                return null;
+            }
+            joinedBatch.selectAll(rows);
+            if (residualCondition != null) {
+                residualCondition.evaluateOnBatch(joinedBatch);
+            }
+            if (joinedBatch.getSelectedCount() > 0) {
+                return joinedBatch;
+            }
+        }
+    }
+
+    /**
+     * Helper method used to concatenate a left tuple and a right tuple into a joined tuple.
+     * The join key of the right tuple is left out, since it is equal to the join key of the left tuple.
+     * @param leftTuple The tuple from the left child.
+     * @param rightTuple The tuple from the right child.
+     * @return The joined tuple.
+     */
+    private Tuple joinTuples(Tuple leftTuple, Tuple rightTuple) {
+        long[] leftTupleValues = leftTuple.getValues();
+        long[] rightTupleValues = rightTuple.getValues();
+
+        long[] joinedTupleValues = Arrays.copyOf(leftTupleValues, leftTupleValues.length + rightOutputPositions.length);
+        for (int i = 0; i < rightOutputPositions.length; i++) {
+            joinedTupleValues[leftTupleValues.length + i] = rightTupleValues[rightOutputPositions[i]];
+        }
+        return new Tuple(joinedTupleValues, joinedTupleTypes);
+    }
+
+    /**
+     * Helper method used to get the positions of a tuple that are not part of its join key.
+     * @param tupleLength The length of the tuple.
+     * @param keyPositions The positions of the join key (a position may appear more than once).
+     * @return The other positions, in order.
+     */
+    static int[] nonKeyPositions(int tupleLength, int[] keyPositions) {
+        boolean[] isKey = new boolean[tupleLength];
+        for (int keyPosition : keyPositions) {
+            isKey[keyPosition] = true;
+        }
+        int[] positions = new int[tupleLength];
+        int count = 0;
+        for (int position = 0; position < tupleLength; position++) {
+            if (!isKey[position]) {
+                positions[count] = position;
+                count += 1;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Method used to get the morsels of the left child, as the probe can be run in parallel if the left child can.
+     * @return The morsels of the left child, or null if it cannot be run in parallel.
+     */
+    @Override
+    public MorselQueue getMorsels() {
+        return leftChildOperator.getMorsels();
+    }
+
+    /**
+     * Method used to create a worker copy of the join, which shares the hash table.
+     * @return The worker copy.
+     */
+    @Override
+    public Operator createWorkerCopy() {
+        return new HashJoinOperator(this);
+    }
+
+    /**
+     * Reset method for HashJoinOperator.
+     * Resets the left child operator. The hash table of the right child is kept, since it does not change.
+     */
+    @Override
+    public void reset() {
+        leftChildOperator.reset();
+        leftChildTuple = null;
+        leftBatch = null;
+        leftSelectionPosition = 0;
+        matchingRightTuples = Collections.emptyList();
+        matchPosition = 0;
+    }
+
+    /**
+     * Close method for HashJoinOperator.
+     * Closes both children operators.
+     */
+    @Override
+    public void close() {
+        leftChildOperator.close();
+        rightChildOperator.close();
+    }
+
+    /**
+     * Getter for the variables of the output tuples of HashJoinOperator.
+     * @return The variables of the left child followed by the variables of the right child that are not in the join key.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return joinedTupleVars;
+    }
+
+    /**
+     * Getter for the types of the output tuples of HashJoinOperator.
+     * @return The types of the left child followed by the types of the right child that are not in the join key.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return joinedTupleTypes;
+    }
+}
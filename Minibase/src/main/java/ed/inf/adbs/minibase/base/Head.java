@@ -10,12 +10,12 @@ public class Head {
 
     private List<Variable> variables;
 
-    private SumAggregate agg;
+    private List<Aggregate> aggregates;
 
-    public Head(String name, List<Variable> variables, SumAggregate agg) {
+    public Head(String name, List<Variable> variables, List<Aggregate> aggregates) {
         this.name = name;
         this.variables = variables;
-        this.agg = agg;
+        this.aggregates = aggregates;
     }
 
     public String getName() {
@@ -26,23 +26,27 @@ public class Head {
         return variables;
     }
 
-    public SumAggregate getSumAggregate() {
-        return agg;
+    /**
+     * Getter for the aggregates of the head, which come after its variables.
+     * @return The aggregates, empty if the head has none.
+     */
+    public List<Aggregate> getAggregates() {
+        return aggregates;
     }
 
     @Override
     public String toString() {
-        if (agg == null) {
+        if (aggregates.isEmpty()) {
             return name + "(" + Utils.join(variables, ", ") + ")";
         }
         if (variables.isEmpty()) {
-            return name + "(" + agg + ")";
+            return name + "(" + Utils.join(aggregates, ", ") + ")";
         }
-        return name + "(" + Utils.join(variables, ", ") + ", " + agg + ")";
+        return name + "(" + Utils.join(variables, ", ") + ", " + Utils.join(aggregates, ", ") + ")";
     }
 
     /**
-     * Overriding equals. Head objects should be equal if they have the same name and variables(and sum agg).
+     * Overriding equals. Head objects should be equal if they have the same name and variables(and aggregates).
      * @param o The object to be compared with.
      * @return true if the object is an equivalent Head object, else false.
      */
@@ -51,7 +55,7 @@ public class Head {
         if (this == o) return true;
         if (!(o instanceof Head)) return false;
         Head head = (Head) o;
-        return name.equals(head.name) && variables.equals(head.variables) && agg.equals(head.agg);
+        return name.equals(head.name) && variables.equals(head.variables) && aggregates.equals(head.aggregates);
     }
 
     /**
@@ -60,7 +64,7 @@ public class Head {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(name, variables, agg);
+        return Objects.hash(name, variables, aggregates);
     }
 
     /**
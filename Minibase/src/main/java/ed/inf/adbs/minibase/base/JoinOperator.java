@@ -1,5 +1,6 @@
 package ed.inf.adbs.minibase.base;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,17 +21,18 @@ public class JoinOperator extends Operator {
     // These are constants that rely on children operators, hence they are not marked as static.
     private final int leftTupleLen;
     private final int rightTupleLen;
-    // Each tuple specifies the variables that correspond to each position. This is needed for creation of new tuples.
+    // The variables and types that correspond to each position of the joined tuples.
     private final List<Variable> joinedTupleVars;
+    private final ColumnType[] joinedTupleTypes;
 
     /**
      * Constructor of a JoinOperator.
      * Assigns children operators and join conditions.
      * Makes leftChildTuple and rightChildTuple point to first tuple of the respective child operator.
-     * Stores length of child tuples using the first tuple as the lengths will not change.
+     * Stores length of child tuples using the types of the children as the lengths will not change.
      * The lengths are needed for creation of new tuples (we need to specify the length of the tuple due to array usage).
      * The length of the joined tuple will be the sum of the length of the two tuples.
-     * The respective variables are also stored for new tuple creation.
+     * The respective variables and types are also stored for new tuple creation.
      * @param leftChildOperator The left (outer) operator in the join.
      * @param rightChildOperator The right (inner) operator in the join.
      * @param joinCondition A selectionCondition object containing the join conditions. This is null if there are no join conditions (cartesian product)
@@ -43,10 +45,13 @@ public class JoinOperator extends Operator {
         leftChildTuple = leftChildOperator.getNextTuple();
         rightChildTuple = rightChildOperator.getNextTuple();
 
-        joinedTupleVars = leftChildTuple.getVariables();
-        joinedTupleVars.addAll(rightChildTuple.getVariables());
-        leftTupleLen = leftChildTuple.getValues().length;
-        rightTupleLen = rightChildTuple.getValues().length;
+        joinedTupleVars = new ArrayList<>(leftChildOperator.getVariables());
+        joinedTupleVars.addAll(rightChildOperator.getVariables());
+        leftTupleLen = leftChildOperator.getTypes().length;
+        rightTupleLen = rightChildOperator.getTypes().length;
+        joinedTupleTypes = new ColumnType[leftTupleLen + rightTupleLen];
+        System.arraycopy(leftChildOperator.getTypes(), 0, joinedTupleTypes, 0, leftTupleLen);
+        System.arraycopy(rightChildOperator.getTypes(), 0, joinedTupleTypes, leftTupleLen, rightTupleLen);
     }
 
     /**
@@ -59,13 +64,13 @@ public class JoinOperator extends Operator {
 
         // For every tuple in the left outer child, scan the right inner child until there is a match, or if there is null reset and move onto next outer tuple.
         while (leftChildTuple != null) {
-            Constant[] leftTupleValues = leftChildTuple.getValues();
+            long[] leftTupleValues = leftChildTuple.getValues();
             while (rightChildTuple != null) {
-                Constant[] rightTupleValues = rightChildTuple.getValues();
-                Constant[] joinedTupleValues = new Constant[leftTupleLen + rightTupleLen];
+                long[] rightTupleValues = rightChildTuple.getValues();
+                long[] joinedTupleValues = new long[leftTupleLen + rightTupleLen];
                 System.arraycopy(leftTupleValues, 0, joinedTupleValues, 0, leftTupleLen);
                 System.arraycopy(rightTupleValues, 0, joinedTupleValues, leftTupleLen, rightTupleLen);
-                Tuple joinedTuple = new Tuple(joinedTupleValues, joinedTupleVars);
+                Tuple joinedTuple = new Tuple(joinedTupleValues, joinedTupleTypes);
                 if (joinCondition == null) {
                     // The join condition is null. Update rightChildTuple and return the joinedTuple without checking of selections.
                     rightChildTuple = rightChildOperator.getNextTuple();
@@ -101,4 +106,32 @@ public class JoinOperator extends Operator {
         leftChildOperator.reset();
         rightChildOperator.reset();
     }
-}
\ No newline at end of file
+
+    /**
+     * Close method for JoinOperator.
+     * Closes both children operators.
+     */
+    @Override
+    public void close() {
+        leftChildOperator.close();
+        rightChildOperator.close();
+    }
+
+    /**
+     * Getter for the variables of the output tuples of JoinOperator.
+     * @return The variables of the left child followed by the variables of the right child.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return joinedTupleVars;
+    }
+
+    /**
+     * Getter for the types of the output tuples of JoinOperator.
+     * @return The types of the left child followed by the types of the right child.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return joinedTupleTypes;
+    }
+}
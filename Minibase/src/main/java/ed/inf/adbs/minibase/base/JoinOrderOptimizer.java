@@ -0,0 +1,283 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * JoinOrderOptimizer class.
+ * Used by the QueryPlan to choose the order in which the relational atoms of the body are joined.
+ * The query plan is left-deep, so an order of the relational atoms is a plan. The cost of a plan is the sum of the
+ * estimated number of tuples of every intermediate join result, and we pick the plan with the lowest cost.
+ * The sizes of the relational atoms and the selectivities of the join conditions are estimated by a SelectivityEstimator.
+ * For bodies of at most DP_LIMIT relational atoms, the best plan is found with dynamic programming over the subsets of
+ * relational atoms. For larger bodies, the plan is built greedily, adding the relational atom that gives the smallest
+ * intermediate result at each step.
+ * In both cases, a relational atom is only joined without a join condition (a cartesian product) if no relational atom
+ * left to join has a join condition with the atoms joined so far.
+ */
+public class JoinOrderOptimizer {
+
+    // The largest number of relational atoms for which dynamic programming is used.
+    private static final int DP_LIMIT = 10;
+
+    // The relational atoms of the body, in the order they appear in.
+    private final List<RelationalAtom> relationalAtoms;
+    // The estimated number of tuples of every relational atom, after its selection conditions.
+    private final double[] atomSizes;
+    // The join conditions of the body. joinAtoms[i][0] and joinAtoms[i][1] are the two atoms of condition i.
+    private final List<int[]> joinAtoms;
+    private final List<Double> joinSelectivities;
+    // For every relational atom, a bit mask of the relational atoms it has a join condition with.
+    // Only used by dynamic programming, so at most DP_LIMIT relational atoms.
+    private final int[] neighbours;
+
+    /**
+     * Constructor for JoinOrderOptimizer.
+     * Estimates the size of every relational atom, and the selectivity of every join condition.
+     * @param relationalAtoms The relational atoms of the body (after rewriting, so all their terms are distinct variables).
+     * @param comparisonAtoms The comparison atoms of the body.
+     * @param selectivityEstimator The selectivity estimator of the body.
+     */
+    public JoinOrderOptimizer(List<RelationalAtom> relationalAtoms, List<ComparisonAtom> comparisonAtoms, SelectivityEstimator selectivityEstimator) {
+        this.relationalAtoms = relationalAtoms;
+        int atomCount = relationalAtoms.size();
+
+        // Stores which relational atom each variable is part of.
+        HashMap<Variable, Integer> variableToAtom = new HashMap<>();
+        atomSizes = new double[atomCount];
+        DatabaseCatalog catalog = DatabaseCatalog.getCatalogInstance();
+        for (int i = 0; i < atomCount; i++) {
+            for (Term term : relationalAtoms.get(i).getTerms()) {
+                variableToAtom.put((Variable) term, i);
+            }
+            atomSizes[i] = catalog.getEstimatedTupleCount(relationalAtoms.get(i).getName());
+        }
+
+        joinAtoms = new ArrayList<>();
+        joinSelectivities = new ArrayList<>();
+        neighbours = new int[atomCount];
+        for (ComparisonAtom comparisonAtom : comparisonAtoms) {
+            Integer lhsAtom = variableToAtom.get(comparisonAtom.getTerm1());
+            Integer rhsAtom = variableToAtom.get(comparisonAtom.getTerm2());
+            if (lhsAtom == null && rhsAtom == null) {
+                // Condition of constants. These do not depend on the join order.
+                continue;
+            }
+
+            if (lhsAtom == null || rhsAtom == null || lhsAtom.equals(rhsAtom)) {
+                // Selection condition on one relational atom.
+                int atom = (lhsAtom == null) ? rhsAtom : lhsAtom;
+                atomSizes[atom] *= selectivityEstimator.estimateSelectivity(comparisonAtom);
+            } else {
+                // Join condition between two relational atoms.
+                joinAtoms.add(new int[]{lhsAtom, rhsAtom});
+                joinSelectivities.add(selectivityEstimator.estimateSelectivity(comparisonAtom));
+                if (atomCount <= DP_LIMIT) {
+                    neighbours[lhsAtom] |= 1 << rhsAtom;
+                    neighbours[rhsAtom] |= 1 << lhsAtom;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method used to get the relational atoms in the order they should be joined.
+     * @return The relational atoms in the chosen join order.
+     */
+    public List<RelationalAtom> getJoinOrder() {
+        int atomCount = relationalAtoms.size();
+        if (atomCount <= 1) {
+            return new ArrayList<>(relationalAtoms);
+        }
+
+        int[] order = (atomCount <= DP_LIMIT) ? dynamicProgrammingOrder() : greedyOrder();
+
+        // The hash join builds its hash table on the right child, so the smaller of the first two atoms goes on the right.
+        if (atomSizes[order[0]] < atomSizes[order[1]]) {
+            int first = order[0];
+            order[0] = order[1];
+            order[1] = first;
+        }
+
+        List<RelationalAtom> joinOrder = new ArrayList<>();
+        for (int atom : order) {
+            joinOrder.add(relationalAtoms.get(atom));
+        }
+        return joinOrder;
+    }
+
+    /**
+     * Method used to find the left-deep join order with the lowest cost with dynamic programming.
+     * The best plan for a set of atoms is the best plan for the set without one atom, followed by a join with that atom.
+     * The cost of joining a set of atoms is the same whichever atom is joined last, so we only need to find the best
+     * plan for every subset once, starting from the smallest subsets.
+     * @return The atoms (as positions in relationalAtoms) in the chosen order.
+     */
+    private int[] dynamicProgrammingOrder() {
+        int atomCount = relationalAtoms.size();
+        int fullSet = (1 << atomCount) - 1;
+
+        // The lowest cost of a plan for every set of atoms (as a bit mask), and the atom joined last in that plan.
+        double[] bestCost = new double[fullSet + 1];
+        int[] lastAtom = new int[fullSet + 1];
+        for (int set = 1; set <= fullSet; set++) {
+            bestCost[set] = Double.POSITIVE_INFINITY;
+            lastAtom[set] = -1;
+        }
+        for (int atom = 0; atom < atomCount; atom++) {
+            bestCost[1 << atom] = 0;
+            lastAtom[1 << atom] = atom;
+        }
+
+        for (int set = 1; set <= fullSet; set++) {
+            if (Integer.bitCount(set) < 2) {
+                continue;
+            }
+            double size = estimateSize(set);
+            // Ties go to the atom that appears last in the body, to keep the order of the body when nothing is gained.
+            for (int atom = atomCount - 1; atom >= 0; atom--) {
+                int rest = set & ~(1 << atom);
+                if ((set & (1 << atom)) == 0 || lastAtom[rest] == -1) {
+                    continue;
+                }
+                if ((neighbours[atom] & rest) == 0 && hasJoinConditionWithOthers(rest)) {
+                    // This would be a cartesian product, which can be avoided by joining another atom first.
+                    continue;
+                }
+                double cost = bestCost[rest] + size;
+                if (cost < bestCost[set]) {
+                    bestCost[set] = cost;
+                    lastAtom[set] = atom;
+                }
+            }
+        }
+
+        int[] order = new int[atomCount];
+        int set = fullSet;
+        for (int position = atomCount - 1; position >= 0; position--) {
+            order[position] = lastAtom[set];
+            set &= ~(1 << lastAtom[set]);
+        }
+        return order;
+    }
+
+    /**
+     * Helper method used to check if some atom of a set has a join condition with an atom outside of the set.
+     * @param set The set of atoms, as a bit mask of positions in relationalAtoms.
+     * @return true if an atom outside of the set can be joined with the set without a cartesian product, false otherwise.
+     */
+    private boolean hasJoinConditionWithOthers(int set) {
+        int setNeighbours = 0;
+        for (int atom = 0; atom < relationalAtoms.size(); atom++) {
+            if ((set & (1 << atom)) != 0) {
+                setNeighbours |= neighbours[atom];
+            }
+        }
+        return (setNeighbours & ~set) != 0;
+    }
+
+    /**
+     * Method used to build a join order greedily, for bodies too large for dynamic programming.
+     * We start with the smallest atom, then repeatedly join the atom that gives the smallest intermediate result,
+     * out of the atoms with a join condition with the atoms joined so far (or out of all the remaining atoms if none do).
+     * @return The atoms (as positions in relationalAtoms) in the chosen order.
+     */
+    private int[] greedyOrder() {
+        int atomCount = relationalAtoms.size();
+        int[] order = new int[atomCount];
+        boolean[] joined = new boolean[atomCount];
+
+        int smallestAtom = 0;
+        for (int atom = 1; atom < atomCount; atom++) {
+            if (atomSizes[atom] < atomSizes[smallestAtom]) {
+                smallestAtom = atom;
+            }
+        }
+        order[0] = smallestAtom;
+        joined[smallestAtom] = true;
+        List<Integer> joinedAtoms = new ArrayList<>();
+        joinedAtoms.add(smallestAtom);
+
+        for (int position = 1; position < atomCount; position++) {
+            int bestAtom = -1;
+            boolean bestConnected = false;
+            double bestSize = Double.POSITIVE_INFINITY;
+            for (int atom = 0; atom < atomCount; atom++) {
+                if (joined[atom]) {
+                    continue;
+                }
+                boolean connected = false;
+                double size = atomSizes[atom];
+                for (int joinedAtom : joinedAtoms) {
+                    double selectivity = pairSelectivity(atom, joinedAtom);
+                    size *= selectivity;
+                    connected |= selectivity < 1 || hasJoinCondition(atom, joinedAtom);
+                }
+                if ((connected && !bestConnected) || (connected == bestConnected && size < bestSize)) {
+                    bestAtom = atom;
+                    bestConnected = connected;
+                    bestSize = size;
+                }
+            }
+            order[position] = bestAtom;
+            joined[bestAtom] = true;
+            joinedAtoms.add(bestAtom);
+        }
+        return order;
+    }
+
+    /**
+     * Method used to estimate the number of tuples of the join of a set of atoms.
+     * This is the product of the sizes of the atoms and of the selectivities of the join conditions between them.
+     * @param set The set of atoms, as a bit mask of positions in relationalAtoms.
+     * @return The estimated number of tuples.
+     */
+    private double estimateSize(int set) {
+        double size = 1;
+        for (int atom = 0; atom < relationalAtoms.size(); atom++) {
+            if ((set & (1 << atom)) != 0) {
+                size *= atomSizes[atom];
+            }
+        }
+        for (int i = 0; i < joinAtoms.size(); i++) {
+            int[] atoms = joinAtoms.get(i);
+            if ((set & (1 << atoms[0])) != 0 && (set & (1 << atoms[1])) != 0) {
+                size *= joinSelectivities.get(i);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Helper method used to get the combined selectivity of the join conditions between two atoms.
+     * @param atom1 The first atom.
+     * @param atom2 The second atom.
+     * @return The product of the selectivities of the join conditions between the atoms (1 if there are none).
+     */
+    private double pairSelectivity(int atom1, int atom2) {
+        double selectivity = 1;
+        for (int i = 0; i < joinAtoms.size(); i++) {
+            int[] atoms = joinAtoms.get(i);
+            if ((atoms[0] == atom1 && atoms[1] == atom2) || (atoms[0] == atom2 && atoms[1] == atom1)) {
+                selectivity *= joinSelectivities.get(i);
+            }
+        }
+        return selectivity;
+    }
+
+    /**
+     * Helper method used to check if there is a join condition between two atoms.
+     * @param atom1 The first atom.
+     * @param atom2 The second atom.
+     * @return true if there is at least one join condition between the atoms, false otherwise.
+     */
+    private boolean hasJoinCondition(int atom1, int atom2) {
+        for (int[] atoms : joinAtoms) {
+            if ((atoms[0] == atom1 && atoms[1] == atom2) || (atoms[0] == atom2 && atoms[1] == atom1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
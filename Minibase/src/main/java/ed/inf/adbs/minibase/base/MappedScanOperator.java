@@ -0,0 +1,388 @@
+package ed.inf.adbs.minibase.base;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MappedScanOperator class that is inherited from Operator class.
+ * This is the base operator used to read tuples from CSV files, like ScanOperator, but the file is memory-mapped
+ * (FileChannel.map) instead of being read through a Scanner.
+ * Tuples are parsed directly from the bytes of the mapped file, without building a String for every line, and
+ * resetting only rewinds the read position instead of closing and re-opening the file.
+ * Files larger than Integer.MAX_VALUE bytes cannot be mapped into a single buffer, so these are read with a ScanOperator.
+ * Batches are parsed directly into the columns of a reused TupleBatch, without creating a tuple for every line.
+ * The mapped file can be split into morsels of about MORSEL_BYTES bytes (starting at the start of a line), so that
+ * worker copies of the scan read the file in parallel, sharing the mapped buffer.
+ * Only the first line of the file is validated against the schema before scanning, so every value is checked while it
+ * is parsed, and a malformed value (i.e., a string without its closing apostrophe, or an int that is not an integer)
+ * throws an IllegalStateException.
+ */
+public class MappedScanOperator extends Operator {
+
+    // The approximate size of a morsel of the file read by a worker copy of the scan.
+    private static final int MORSEL_BYTES = 1 << 20;
+
+    // The name of the relation to scan i.e., "R".
+    private final String baseRelation;
+    // The variables from the relational atom i.e., x,y,z in R(x,y,z).
+    private final List<Variable> variables;
+    // The type of every column of the relation, from the schema.
+    private final ColumnType[] columnTypes;
+
+    // The mapped contents of the relation file.
+    private MappedByteBuffer buffer;
+    // Position of the next byte to parse in the buffer, and the position just after the range being read (the end of
+    // the buffer, or of the current morsel of a worker copy).
+    private int position;
+    private int end;
+    // The morsels of the file. Null until getMorsels() is first used.
+    private MorselQueue morsels;
+    // Whether this is a worker copy, which reads the morsels it takes from morsels rather than the whole file.
+    private final boolean readsMorsels;
+    // Reused to copy the bytes of string values out of the buffer.
+    private byte[] stringBytes;
+    // The batch returned by getNextBatch. Null until it is first needed.
+    private TupleBatch batch;
+
+    /**
+     * Constructor for MappedScanOperator.
+     * Takes the relationalAtom and extracts the relation name and the variables.
+     * Validates the relation file against the schema of the relation (once per relation).
+     * Then maps the relation file into memory.
+     * @param relationalAtom The relational atom from the body that prompted us to create a scan operator.
+     */
+    public MappedScanOperator(RelationalAtom relationalAtom) {
+        this.baseRelation = relationalAtom.getName();
+
+        variables = new ArrayList<>();
+        for (Term term : relationalAtom.getTerms()) {
+            if (term instanceof Variable) { // This should always be true after rewriting.
+                variables.add((Variable) term);
+            }
+        }
+
+        DatabaseCatalog catalog = DatabaseCatalog.getCatalogInstance();
+        catalog.validateRelationFile(baseRelation);
+        columnTypes = catalog.getSchema(baseRelation);
+
+        stringBytes = new byte[64];
+        readsMorsels = false;
+        mapFile();
+    }
+
+    /**
+     * Constructor for a worker copy of a MappedScanOperator, which shares its mapped buffer and its morsels.
+     * @param scan The scan to copy.
+     */
+    private MappedScanOperator(MappedScanOperator scan) {
+        this.baseRelation = scan.baseRelation;
+        this.variables = scan.variables;
+        this.columnTypes = scan.columnTypes;
+        this.buffer = scan.buffer;
+        this.morsels = scan.getMorsels();
+        stringBytes = new byte[64];
+        readsMorsels = true;
+        position = 0;
+        end = 0;
+    }
+
+    /**
+     * Method used to map the relation file into memory.
+     * It takes the relation name and gets the file location from the DatabaseCatalog.
+     * The mapping stays valid after the channel is closed.
+     */
+    private void mapFile() {
+        String fileLocation = DatabaseCatalog.getCatalogInstance().getLocation(baseRelation);
+        try (FileChannel channel = FileChannel.open(Paths.get(fileLocation), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            System.out.println("File not found.");
+            e.printStackTrace();
+        }
+        position = 0;
+        end = (buffer == null) ? 0 : buffer.limit();
+    }
+
+    /**
+     * GetNextTuple method for MappedScanOperator.
+     * Skips empty lines, then parses the next line of the buffer into a tuple.
+     * @return Next tuple from file, or null in the case where there is no more tuples.
+     */
+    @Override
+    public Tuple getNextTuple() {
+        if (!startLine()) {
+            return null;
+        }
+
+        long[] tupleValues = new long[columnTypes.length];
+        for (int counter = 0; counter < tupleValues.length; counter++) {
+            tupleValues[counter] = parseValue(counter);
+        }
+        finishLine();
+
+        return new Tuple(tupleValues, columnTypes);
+    }
+
+    /**
+     * GetNextBatch method for MappedScanOperator.
+     * Parses up to TupleBatch.CAPACITY lines of the buffer straight into the columns of the batch.
+     * @return The next batch of tuples from file, or null in the case where there is no more tuples.
+     */
+    @Override
+    public TupleBatch getNextBatch() {
+        if (batch == null) {
+            batch = new TupleBatch(columnTypes);
+        }
+        long[][] columns = batch.getColumns();
+
+        int rows = 0;
+        while (rows < TupleBatch.CAPACITY && startLine()) {
+            for (int counter = 0; counter < columns.length; counter++) {
+                columns[counter][rows] = parseValue(counter);
+            }
+            finishLine();
+            rows += 1;
+        }
+        batch.selectAll(rows);
+        return (rows == 0) ? null : batch;
+    }
+
+    /**
+     * Method used to skip empty lines, to move to the start of the next line to parse.
+     * A worker copy moves onto the next morsel it takes once it reaches the end of its current morsel.
+     * @return true if there is a line to parse, false if the end of the buffer (or of the morsels) has been reached.
+     */
+    private boolean startLine() {
+        if (buffer == null) {
+            return false;
+        }
+        while (true) {
+            while (position < end && isLineEnd(buffer.get(position))) {
+                position += 1;
+            }
+            if (position < end) {
+                return true;
+            }
+            int morsel = readsMorsels ? morsels.take() : -1;
+            if (morsel == -1) {
+                return false;
+            }
+            position = morsels.getStart(morsel);
+            end = morsels.getEnd(morsel);
+        }
+    }
+
+    /**
+     * Method used to move past the end of the current line, once all its values have been parsed.
+     */
+    private void finishLine() {
+        int limit = buffer.limit();
+        while (position < limit && !isLineEnd(buffer.get(position))) {
+            position += 1;
+        }
+    }
+
+    /**
+     * Method used to parse the next value of the current line, and the separator that follows it.
+     * The value must be followed by a comma, unless it is the last value of the line, which must be followed by the
+     * end of the line.
+     * @param column The column of the value, which gives its type.
+     * @return The parsed value.
+     */
+    private long parseValue(int column) {
+        skipSpaces();
+        long value = (columnTypes[column] == ColumnType.INT) ? parseInteger(column) : parseString(column);
+        skipSpaces();
+        boolean lastColumn = column == columnTypes.length - 1;
+        if (lastColumn) {
+            if (position < end && !isLineEnd(buffer.get(position))) {
+                throw malformedValue(column);
+            }
+        } else if (position < end && buffer.get(position) == ',') {
+            position += 1;
+        } else {
+            throw malformedValue(column);
+        }
+        return value;
+    }
+
+    /**
+     * Method used to parse the string value (between apostrophes) starting at the current position, and move past it.
+     * @param column The column of the value, used in the error message.
+     * @return The StringDictionary id of the parsed string.
+     */
+    private long parseString(int column) {
+        if (position >= end || buffer.get(position) != '\'') {
+            throw malformedValue(column);
+        }
+        int start = position + 1;
+        position = start;
+        while (position < end && buffer.get(position) != '\'') {
+            if (isLineEnd(buffer.get(position))) {
+                throw malformedValue(column);
+            }
+            position += 1;
+        }
+        if (position == end) {
+            throw malformedValue(column);
+        }
+        int length = position - start;
+        if (stringBytes.length < length) {
+            stringBytes = new byte[Math.max(length, 2 * stringBytes.length)];
+        }
+        for (int i = 0; i < length; i++) {
+            stringBytes[i] = buffer.get(start + i);
+        }
+        position += 1;
+        return StringDictionary.getId(new String(stringBytes, 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method used to parse the integer value starting at the current position, and move past it.
+     * @param column The column of the value, used in the error message.
+     * @return The parsed integer.
+     */
+    private long parseInteger(int column) {
+        boolean negative = position < end && buffer.get(position) == '-';
+        if (negative) {
+            position += 1;
+        }
+        int start = position;
+        long integer = 0;
+        while (position < end) {
+            byte digit = buffer.get(position);
+            if (digit < '0' || digit > '9') {
+                break;
+            }
+            integer = integer * 10 + (digit - '0');
+            if (integer > (long) Integer.MAX_VALUE + 1) {
+                throw malformedValue(column);
+            }
+            position += 1;
+        }
+        if (position == start || (!negative && integer > Integer.MAX_VALUE)) {
+            throw malformedValue(column);
+        }
+        return negative ? -integer : integer;
+    }
+
+    /**
+     * Helper method used to create the exception thrown for a malformed value of the current line.
+     * @param column The column of the value.
+     * @return The exception, with the line of the value.
+     */
+    private IllegalStateException malformedValue(int column) {
+        int lineStart = Math.min(position, buffer.limit());
+        while (lineStart > 0 && !isLineEnd(buffer.get(lineStart - 1))) {
+            lineStart -= 1;
+        }
+        int lineEnd = lineStart;
+        while (lineEnd < buffer.limit() && !isLineEnd(buffer.get(lineEnd))) {
+            lineEnd += 1;
+        }
+        byte[] lineBytes = new byte[lineEnd - lineStart];
+        for (int i = 0; i < lineBytes.length; i++) {
+            lineBytes[i] = buffer.get(lineStart + i);
+        }
+        return new IllegalStateException("Column " + (column + 1) + " of relation " + baseRelation + " is of type "
+                + columnTypes[column] + " in its schema, but the line \"" + new String(lineBytes, StandardCharsets.UTF_8)
+                + "\" has a malformed value.");
+    }
+
+    /**
+     * Helper method used to move the position past any spaces.
+     */
+    private void skipSpaces() {
+        while (position < end && buffer.get(position) == ' ') {
+            position += 1;
+        }
+    }
+
+    /**
+     * Helper method to check if a byte ends a line.
+     * @param character The byte to check.
+     * @return true if the byte is a line feed or carriage return, false otherwise.
+     */
+    private static boolean isLineEnd(byte character) {
+        return character == '\n' || character == '\r';
+    }
+
+    /**
+     * Method used to get the morsels of the file, splitting it the first time.
+     * Every morsel but the last starts at the start of a line, about MORSEL_BYTES bytes after the start of the previous one.
+     * @return The morsels of the file, or null if the file could not be mapped.
+     */
+    @Override
+    public MorselQueue getMorsels() {
+        if (buffer == null) {
+            return null;
+        }
+        if (morsels == null) {
+            int limit = buffer.limit();
+            int[] boundaries = new int[limit / MORSEL_BYTES + 2];
+            int count = 1;
+            int boundary = MORSEL_BYTES;
+            while (boundary < limit) {
+                // Move the boundary to the start of the next line.
+                while (boundary < limit && buffer.get(boundary - 1) != '\n') {
+                    boundary += 1;
+                }
+                if (boundary < limit) {
+                    boundaries[count] = boundary;
+                    count += 1;
+                }
+                boundary += MORSEL_BYTES;
+            }
+            boundaries[count] = limit;
+            morsels = new MorselQueue(Arrays.copyOf(boundaries, count + 1));
+        }
+        return morsels;
+    }
+
+    /**
+     * Method used to create a worker copy of the scan, which reads the morsels it takes from getMorsels().
+     * @return The worker copy.
+     */
+    @Override
+    public Operator createWorkerCopy() {
+        return new MappedScanOperator(this);
+    }
+
+    /**
+     * Reset method for MappedScanOperator.
+     * Rewinds the read position to the start of the mapped file. The file is not re-opened.
+     * A worker copy forgets its current morsel instead (the morsels are reset by the GatherOperator).
+     */
+    @Override
+    public void reset() {
+        position = 0;
+        if (readsMorsels) {
+            end = 0;
+        }
+    }
+
+    /**
+     * Getter for the variables of the output tuples of MappedScanOperator.
+     * @return The variables from the relational atom, in order.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Getter for the types of the output tuples of MappedScanOperator.
+     * @return The types of the columns of the relation, from the schema.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return columnTypes;
+    }
+}
@@ -0,0 +1,68 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MorselQueue class.
+ * The input of a scan split into morsels, i.e., consecutive ranges of the scanned file, which the worker threads of a
+ * GatherOperator take one at a time. A worker takes the next morsel as soon as it has finished its last one, so
+ * faster workers simply process more morsels, and every morsel is processed by exactly one worker.
+ */
+public class MorselQueue {
+
+    // The boundaries of the morsels: morsel i is the range [boundaries[i], boundaries[i + 1]).
+    private final int[] boundaries;
+    // The number of the next morsel to take.
+    private final AtomicInteger nextMorsel;
+
+    /**
+     * Constructor for MorselQueue.
+     * @param boundaries The start of every morsel, followed by the end of the last morsel (in increasing order).
+     */
+    public MorselQueue(int[] boundaries) {
+        this.boundaries = boundaries;
+        this.nextMorsel = new AtomicInteger(0);
+    }
+
+    /**
+     * Method used by a worker to take the next morsel that no worker has taken yet.
+     * @return The number of the morsel, or -1 if every morsel has been taken.
+     */
+    public int take() {
+        int morsel = nextMorsel.getAndIncrement();
+        return (morsel < size()) ? morsel : -1;
+    }
+
+    /**
+     * Method used to make every morsel available again, once no worker is reading them anymore.
+     */
+    public void reset() {
+        nextMorsel.set(0);
+    }
+
+    /**
+     * Getter for the number of morsels.
+     * @return The number of morsels.
+     */
+    public int size() {
+        return boundaries.length - 1;
+    }
+
+    /**
+     * Getter for the start of a morsel.
+     * @param morsel The number of the morsel.
+     * @return The first position of the morsel in the file.
+     */
+    public int getStart(int morsel) {
+        return boundaries[morsel];
+    }
+
+    /**
+     * Getter for the end of a morsel.
+     * @param morsel The number of the morsel.
+     * @return The position in the file just after the morsel.
+     */
+    public int getEnd(int morsel) {
+        return boundaries[morsel + 1];
+    }
+}
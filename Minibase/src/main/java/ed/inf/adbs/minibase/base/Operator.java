@@ -1,10 +1,23 @@
 package ed.inf.adbs.minibase.base;
 
+import java.util.List;
+
 /**
  * Superclass for all operator types.
+ * Every operator knows its output schema when the query plan is built: the variable and the type of every position
+ * of its output tuples. The query plan uses the schema to resolve variables to positions once, so that tuples are
+ * just values, and operators access them by position.
+ * Operators return their tuples either one at a time (getNextTuple) or in batches (getNextBatch). Operators that process
+ * batches natively override getNextBatch, and the others get the default getNextBatch, which builds batches from
+ * getNextTuple. A parent must read a child in only one of the two ways, as their progress is not shared.
+ * Operators of the pipeline of a scan (selections, hash join probes and projections that keep duplicates) can also be
+ * copied for the worker threads of a GatherOperator, which run the copies in parallel over morsels of the scan.
  */
 public abstract class Operator {
 
+    // The batch reused by the default getNextBatch. Null until it is first needed.
+    private TupleBatch tupleBatch;
+
     /**
      * Abstract method for getNextTuple.
      * Allows each subclass operator to implement their own ways of getting the next tuple.
@@ -12,6 +25,49 @@ public abstract class Operator {
      */
     public abstract Tuple getNextTuple();
 
+    /**
+     * Method used to get the next batch of output tuples of the operator.
+     * This default implementation fills a batch with up to TupleBatch.CAPACITY tuples from getNextTuple, so that
+     * tuple-at-a-time operators can be the children of operators that read batches.
+     * The returned batch is only valid until the next call of getNextBatch, as operators reuse their batches, and the
+     * caller may change its selection vector.
+     * @return The next batch, with at least one selected row, or null if there are no more tuples.
+     */
+    public TupleBatch getNextBatch() {
+        if (tupleBatch == null) {
+            tupleBatch = new TupleBatch(getTypes());
+        }
+        tupleBatch.clear();
+        while (!tupleBatch.isFull()) {
+            Tuple tuple = getNextTuple();
+            if (tuple == null) {
+                break;
+            }
+            tupleBatch.addRow(tuple.getValues());
+        }
+        return (tupleBatch.getSelectedCount() == 0) ? null : tupleBatch;
+    }
+
+    /**
+     * Method used to get the morsels that worker copies of this operator (see createWorkerCopy) read.
+     * Operators that cannot be run in parallel return null, which is the default.
+     * @return The morsels of the scan of the pipeline of this operator, or null if it cannot be run in parallel.
+     */
+    public MorselQueue getMorsels() {
+        return null;
+    }
+
+    /**
+     * Method used to create a copy of this operator for a worker thread of a GatherOperator.
+     * The copy only reads the morsels it takes from getMorsels(), so the copies of all the workers together return the
+     * tuples of this operator once. Copies share the read-only state of this operator, i.e., the hash table of a join.
+     * Only supported if getMorsels() is not null.
+     * @return The worker copy.
+     */
+    public Operator createWorkerCopy() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be run in parallel.");
+    }
+
     /**
      * Abstract method for reset.
      * Allows each subclass operator to implement their own ways of resetting.
@@ -20,25 +76,58 @@ public abstract class Operator {
     public abstract void reset();
 
     /**
-     * Dump method for operators.
-     * Calls getNextTuple repeatedly until the next tuple is null, i.e., there are no more satisfying tuples.
+     * Method used to release the resources of the operator and of its children, i.e., the spill files of an external
+     * sort, once its tuples are no longer needed. The operator must not be read after it has been closed.
+     * Operators with children close their children. By default, there is nothing to release.
      */
-    public String dump() {
+    public void close() {
+    }
 
-        Tuple nextTuple;
-        String results = "";
+    /**
+     * Abstract method for getVariables.
+     * @return The variables that correspond to each position of the output tuples of the operator.
+     */
+    public abstract List<Variable> getVariables();
 
-        while (true) {
+    /**
+     * Abstract method for getTypes.
+     * @return The types of the values at each position of the output tuples of the operator.
+     */
+    public abstract ColumnType[] getTypes();
 
-            nextTuple = getNextTuple();
-            if (!(nextTuple == null)) {
-                results = results + nextTuple + '\n';
-            }
-            else {
-                break;
+    /**
+     * Method used to resolve variables to their positions in the output tuples of the operator.
+     * @param variables The variables to resolve.
+     * @return The position of every variable (in order), or -1 for a variable that is not in the output tuples.
+     */
+    public int[] getPositions(List<Variable> variables) {
+        List<Variable> outputVariables = getVariables();
+        int[] positions = new int[variables.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = outputVariables.indexOf(variables.get(i));
+        }
+        return positions;
+    }
+
+    /**
+     * Dump method for operators.
+     * Calls getNextBatch repeatedly until the next batch is null, i.e., there are no more satisfying tuples, so that
+     * the whole plan runs batch at a time wherever its operators support it.
+     * Every selected tuple of a batch is passed to the sink as soon as the batch is produced, so the tuples are never
+     * all held in memory.
+     * @param sink The sink that consumes the tuples, i.e., a TupleWriter writing them to the output file.
+     */
+    public void dump(TupleSink sink) {
+
+        TupleBatch nextBatch = getNextBatch();
+
+        while (nextBatch != null) {
+            int[] selection = nextBatch.getSelection();
+            for (int i = 0; i < nextBatch.getSelectedCount(); i++) {
+                sink.accept(nextBatch.getTuple(selection[i]));
             }
+            nextBatch = getNextBatch();
         }
-        return results;
     }
 
-}
\ No newline at end of file
+}
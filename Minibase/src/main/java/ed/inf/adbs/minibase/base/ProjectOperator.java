@@ -1,80 +1,387 @@
 package ed.inf.adbs.minibase.base;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 
 /**
  * ProjectOperator class that is inherited from Operator class.
  * Supporting projection.
+ * The QueryPlan also uses projections that keep duplicate tuples below joins, to leave out the columns that no later
+ * operator uses, so that joins copy and hold smaller tuples.
+ * Duplicate tuples are removed with a GroupHashTable of the returned tuples, which holds at most bufferSize tuples.
+ * Once it is full, the projected tuples that are not in it are written to PARTITIONS spill files (on the hash of the
+ * tuple, so that duplicates end up in the same partition). Once the child has no more tuples, every partition is read
+ * in turn and its duplicates are removed in the same way, with a new table (and partitions of its own if needed).
+ * Batches of the child are projected without copying their columns, and duplicates are removed from them by narrowing
+ * their selection vectors. The partitions are read a tuple at a time.
  */
 public class ProjectOperator extends Operator {
 
-    // Used to keep track of previously returned tuples to avoid returning duplicate tuples.
-    private final HashSet<Tuple> reportedTuples = new HashSet<>();
+    // The number of partitions the tuples are spilled to once the table of returned tuples is full.
+    private static final int PARTITIONS = 16;
+    // Used to spread the bits of the tuple values in the hash that chooses the partition of a tuple.
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    // Whether duplicate tuples are removed. If not, the projection only reorders (or repeats) the columns of the child.
+    private final boolean removeDuplicates;
+    // The maximum number of returned tuples kept in memory to remove duplicates.
+    private final int bufferSize;
 
     private final Operator childOperator;
 
     // Head variables used to identify what to project on.
     private final List<Variable> headVariables;
+    // The positions of the head variables in the child tuples.
+    private final int[] projectedPositions;
+    // The positions of the values of the projected tuples, i.e., [0, 1, ...], used to look up spilled tuples.
+    private final int[] tuplePositions;
+    // The types of the projected tuples.
+    private final ColumnType[] projectedTupleTypes;
+
+    // Used to keep track of previously returned tuples (of the child or of the current partition) to avoid returning
+    // duplicate tuples. Null if duplicates are not removed.
+    private GroupHashTable reportedTuples;
+    // The partitions the tuples that do not fit in reportedTuples are written to. A partition is null until its first tuple.
+    private SpillFile[] spilledPartitions;
+    // The partition being read, or null while the child is being read.
+    private Partition currentPartition;
+    // The partitions that have been written but not read yet.
+    private final Deque<Partition> pendingPartitions;
+    // Reused to hold the projected values of a row of a child batch, to look it up in reportedTuples.
+    private final long[] rowValues;
 
     /**
      * Constructor for ProjectOperator class.
-     * Assigns child operator and head variables.
+     * Assigns child operator and head variables, and resolves the head variables to their positions in the child tuples.
      * @param childOperator Operator to project over.
      * @param queryHead Head object. Head of the query containing variables to project.
+     * @param bufferSize The maximum number of tuples to hold in memory to remove duplicates.
      */
-    public ProjectOperator(Operator childOperator, Head queryHead) {
+    public ProjectOperator(Operator childOperator, Head queryHead, int bufferSize) {
+        this(childOperator, queryHead.getVariables(), true, bufferSize);
+    }
+
+    /**
+     * Constructor for ProjectOperator class, that can keep duplicate tuples.
+     * Keeping duplicates is used to rearrange the columns of the child when the head has every variable of the body
+     * (i.e., a join left out a column of equal values), and to leave out unused columns below joins.
+     * @param childOperator Operator to project over.
+     * @param variables The variables to project on, in order.
+     * @param removeDuplicates true to remove duplicate tuples, false to keep them.
+     * @param bufferSize The maximum number of tuples to hold in memory to remove duplicates.
+     */
+    public ProjectOperator(Operator childOperator, List<Variable> variables, boolean removeDuplicates, int bufferSize) {
         this.childOperator = childOperator;
-        this.headVariables = queryHead.getVariables();
+        this.removeDuplicates = removeDuplicates;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.headVariables = variables;
+        this.projectedPositions = childOperator.getPositions(headVariables);
+
+        ColumnType[] childTypes = childOperator.getTypes();
+        projectedTupleTypes = new ColumnType[projectedPositions.length];
+        tuplePositions = new int[projectedPositions.length];
+        for (int i = 0; i < projectedPositions.length; i++) {
+            projectedTupleTypes[i] = childTypes[projectedPositions[i]];
+            tuplePositions[i] = i;
+        }
+
+        pendingPartitions = new ArrayDeque<>();
+        rowValues = new long[projectedPositions.length];
+        startPass();
     }
 
     /**
      * GetNextTuple method for ProjectOperator.
      * Simply takes the next tuple from the child operator and project on the variables in headVariables.
      * Then we check that this tuple has not been previously returned and return.
-     * If it has been returned previously, then repeat the process.
+     * If it has been returned previously, then repeat the process (in a loop, so long runs of duplicates do not recurse).
+     * If the table of returned tuples is full, a tuple that is not in it is spilled to its partition instead, and
+     * returned when its partition is read, unless a duplicate of it was returned from the partition before.
      * @return The child operators next tuple with variables projected away.
      */
     @Override
     public Tuple getNextTuple() {
+        while (true) {
+            long[] values;
+            int[] positions;
+            if (currentPartition == null) {
+                Tuple childTuple = childOperator.getNextTuple();
+                if (childTuple == null) {
+                    // No more tuples of the child. Carry on with the partitions, if there are any.
+                    if (!startNextPartition()) {
+                        return null;
+                    }
+                    continue;
+                }
+                values = childTuple.getValues();
+                positions = projectedPositions;
+                if (!removeDuplicates) {
+                    return project(values);
+                }
+            } else {
+                Tuple spilledTuple = currentPartition.file.read(projectedTupleTypes);
+                if (spilledTuple == null) {
+                    if (!startNextPartition()) {
+                        return null;
+                    }
+                    continue;
+                }
+                values = spilledTuple.getValues();
+                positions = tuplePositions;
+            }
+
+            // Check that the projected tuple is distinct.
+            int reportedCount = reportedTuples.getGroupCount();
+            if (reportedCount < bufferSize) {
+                if (reportedTuples.findOrInsert(values, positions) == reportedCount) {
+                    return (positions == tuplePositions) ? new Tuple(values, projectedTupleTypes) : project(values);
+                }
+            } else if (reportedTuples.find(values, positions) == -1) {
+                spill(values, positions);
+            }
+        }
+    }
+
+    /**
+     * GetNextBatch method for ProjectOperator.
+     * Projects the next batch of the child on the head variables, by sharing the columns of the head variables.
+     * If duplicates are removed, the rows of the batch that have been returned before are removed from its selection
+     * vector, or spilled to their partition if the table of returned tuples is full. Once the child has no more
+     * batches, the partitions are read like in getNextTuple.
+     * @return The next batch of projected tuples, or null if there are no more tuples.
+     */
+    @Override
+    public TupleBatch getNextBatch() {
+        while (currentPartition == null) {
+            TupleBatch childBatch = childOperator.getNextBatch();
+            if (childBatch == null) {
+                if (!startNextPartition()) {
+                    return null;
+                }
+                break;
+            }
+            if (!removeDuplicates) {
+                return childBatch.project(projectedPositions, projectedTupleTypes);
+            }
+
+            long[][] columns = childBatch.getColumns();
+            int[] selection = childBatch.getSelection();
+            int selected = 0;
+            for (int i = 0; i < childBatch.getSelectedCount(); i++) {
+                int row = selection[i];
+                for (int column = 0; column < projectedPositions.length; column++) {
+                    rowValues[column] = columns[projectedPositions[column]][row];
+                }
+
+                int reportedCount = reportedTuples.getGroupCount();
+                if (reportedCount < bufferSize) {
+                    if (reportedTuples.findOrInsert(rowValues, tuplePositions) == reportedCount) {
+                        selection[selected++] = row;
+                    }
+                } else if (reportedTuples.find(rowValues, tuplePositions) == -1) {
+                    spill(rowValues, tuplePositions);
+                }
+            }
+            if (selected > 0) {
+                childBatch.setSelectedCount(selected);
+                return childBatch.project(projectedPositions, projectedTupleTypes);
+            }
+        }
+        // Reading a partition, whose tuples are returned by getNextTuple.
+        return super.getNextBatch();
+    }
 
-        Tuple childTuple = childOperator.getNextTuple();
+    /**
+     * Helper method used to project a child tuple on the head variables.
+     * @param childTupleValues The values of the child tuple.
+     * @return The projected tuple.
+     */
+    private Tuple project(long[] childTupleValues) {
+        long[] projectedTupleValues = new long[projectedPositions.length];
+        for (int posCounter = 0; posCounter < projectedPositions.length; posCounter++) {
+            projectedTupleValues[posCounter] = childTupleValues[projectedPositions[posCounter]];
+        }
+        return new Tuple(projectedTupleValues, projectedTupleTypes);
+    }
 
-        // No more tuples to project on.
-        if (childTuple == null) {
-            return null;
+    /**
+     * Helper method used to write a projected tuple, which has not been returned yet, to its partition.
+     * The partition is chosen on the hash of the tuple, so that duplicate tuples are written to the same partition.
+     * The hash depends on the level of the partitions, so that the tuples of one partition are spread over the
+     * partitions of the next level.
+     * @param values The values of the tuple (of the child, or of the current partition).
+     * @param positions The positions of the projected values in values.
+     */
+    private void spill(long[] values, int[] positions) {
+        long hash = nextLevel() * HASH_MULTIPLIER;
+        for (int position : positions) {
+            hash = (hash ^ values[position]) * HASH_MULTIPLIER;
         }
+        int partition = (int) (hash >>> 32) & (PARTITIONS - 1);
 
-        Tuple projectedTuple;
-        Constant[] projectedTupleVales = new Constant[headVariables.size()];
+        if (spilledPartitions[partition] == null) {
+            spilledPartitions[partition] = new SpillFile();
+        }
+        if (positions == tuplePositions) {
+            spilledPartitions[partition].write(new Tuple(values, projectedTupleTypes));
+        } else {
+            spilledPartitions[partition].write(project(values));
+        }
+    }
 
-        int posCounter = 0;
+    /**
+     * Helper method used to get the level of the partitions written while reading the current input.
+     * @return 1 while reading the child, or the level of the current partition + 1.
+     */
+    private int nextLevel() {
+        return (currentPartition == null) ? 1 : currentPartition.level + 1;
+    }
 
-        for (Variable variable : headVariables) {
-            projectedTupleVales[posCounter] = childTuple.getConstantFromVariable(variable);
-            posCounter += 1;
+    /**
+     * Method used to start removing duplicates from a new input (the child, or a partition), with an empty table.
+     */
+    private void startPass() {
+        if (removeDuplicates) {
+            reportedTuples = new GroupHashTable(projectedPositions.length);
+            spilledPartitions = new SpillFile[PARTITIONS];
         }
+    }
 
-        projectedTuple = new Tuple(projectedTupleVales, headVariables);
+    /**
+     * Method used once the current input (the child, or a partition) has no more tuples.
+     * The partitions written while reading it are added to the partitions left to read, and the next one is opened.
+     * The current partition (if any) is deleted, and the table of returned tuples of the current input is dropped, as
+     * spilled tuples are never in it.
+     * @return true if a partition has been opened, false if there are no partitions left, i.e., no more tuples.
+     */
+    private boolean startNextPartition() {
+        if (!removeDuplicates) {
+            return false;
+        }
 
-        // Check that the projected tuple is distinct.
-        if (!(reportedTuples.contains(projectedTuple))) {
-            reportedTuples.add(projectedTuple);
-            return projectedTuple;
+        int level = nextLevel();
+        for (SpillFile spilledPartition : spilledPartitions) {
+            if (spilledPartition != null) {
+                spilledPartition.finishWriting();
+                pendingPartitions.push(new Partition(spilledPartition, level));
+            }
         }
-        else {
-            return getNextTuple();
+        if (currentPartition != null) {
+            currentPartition.file.delete();
         }
 
+        currentPartition = pendingPartitions.poll();
+        startPass();
+        if (currentPartition == null) {
+            return false;
+        }
+        currentPartition.file.openForReading();
+        return true;
+    }
+
+    /**
+     * Method used to get the morsels of the child, as a projection that keeps duplicates can be run in parallel if its
+     * child can. Removing duplicates needs every tuple, so it is not run in parallel.
+     * @return The morsels of the child, or null if it cannot be run in parallel.
+     */
+    @Override
+    public MorselQueue getMorsels() {
+        return removeDuplicates ? null : childOperator.getMorsels();
+    }
+
+    /**
+     * Method used to create a worker copy of the projection (that keeps duplicates), over a worker copy of the child.
+     * @return The worker copy.
+     */
+    @Override
+    public Operator createWorkerCopy() {
+        if (removeDuplicates) {
+            return super.createWorkerCopy();
+        }
+        return new ProjectOperator(childOperator.createWorkerCopy(), headVariables, false, bufferSize);
     }
 
     /**
      * Reset method for ProjectOperator.
      * Resets the child operator until ultimately the scanner of the scan operator has reset.
+     * The returned tuples are forgotten and the partitions are deleted, so duplicates are removed again from the start.
      */
     @Override
     public void reset() {
         childOperator.reset();
+        deletePartitions();
+        startPass();
+    }
+
+    /**
+     * Close method for ProjectOperator.
+     * Deletes the partitions, and closes the child operator.
+     */
+    @Override
+    public void close() {
+        deletePartitions();
+        childOperator.close();
+    }
+
+    /**
+     * Helper method used to delete every partition: the one being read, the ones left to read and the ones being written.
+     */
+    private void deletePartitions() {
+        if (currentPartition != null) {
+            currentPartition.file.delete();
+            currentPartition = null;
+        }
+        for (Partition pendingPartition : pendingPartitions) {
+            pendingPartition.file.delete();
+        }
+        pendingPartitions.clear();
+        if (spilledPartitions != null) {
+            for (SpillFile spilledPartition : spilledPartitions) {
+                if (spilledPartition != null) {
+                    spilledPartition.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter for the variables of the output tuples of ProjectOperator.
+     * @return The head variables.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return headVariables;
+    }
+
+    /**
+     * Getter for the types of the output tuples of ProjectOperator.
+     * @return The types of the head variables in the child.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return projectedTupleTypes;
+    }
+
+    /**
+     * Getter for whether the ProjectOperator removes duplicate tuples, i.e., to check the projection of a query plan.
+     * @return true if duplicate tuples are removed, false if they are kept.
+     */
+    public boolean isRemovingDuplicates() {
+        return removeDuplicates;
+    }
+
+    /**
+     * Partition class. A spill file of tuples that have not been returned yet, and the level of the partition, i.e.,
+     * 1 for the partitions of the child tuples, 2 for the partitions of a partition of the child tuples, ...
+     */
+    private static class Partition {
+        private final SpillFile file;
+        private final int level;
+
+        private Partition(SpillFile file, int level) {
+            this.file = file;
+            this.level = level;
+        }
     }
-}
\ No newline at end of file
+}
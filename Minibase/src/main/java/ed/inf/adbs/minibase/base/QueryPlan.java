@@ -1,15 +1,39 @@
 package ed.inf.adbs.minibase.base;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This class is used to create a query plan for a given query.
+ * While the plan is built, every variable used by an operator is resolved to its position in the input tuples of the
+ * operator (using the output schema of the child operators), so that operators access tuple values by position.
  */
 public class QueryPlan {
 
+    // The maximum number of tuples an external sort holds in memory before spilling sorted runs to disk.
+    // Can be configured with the system property minibase.sortBufferSize.
+    private static final int SORT_BUFFER_SIZE = Integer.getInteger("minibase.sortBufferSize", 100000);
+    // The number of outer tuples a block nested loop join reads per block.
+    // Can be configured with the system property minibase.joinBlockSize.
+    private static final int JOIN_BLOCK_SIZE = Integer.getInteger("minibase.joinBlockSize", 1000);
+    // The number of worker threads that run the pipeline of the first relation in parallel (1 to run it serially).
+    // Can be configured with the system property minibase.parallelism.
+    private static final int PARALLELISM = Integer.getInteger("minibase.parallelism", Runtime.getRuntime().availableProcessors());
+    // The estimated number of tuples both children of an equi-join must have for the join to be partitioned in
+    // parallel by a RadixHashJoinOperator. Smaller joins are not worth starting worker threads for.
+    // Can be configured with the system property minibase.radixJoinMinTuples.
+    private static final int RADIX_JOIN_MIN_TUPLES = Integer.getInteger("minibase.radixJoinMinTuples", 10000);
+    // The largest estimated number of tuples of both children of a RadixHashJoinOperator, which holds all of them in
+    // memory (it cannot spill). Larger equi-joins are sort-merge joins.
+    // Can be configured with the system property minibase.radixJoinMaxTuples.
+    private static final int RADIX_JOIN_MAX_TUPLES = Integer.getInteger("minibase.radixJoinMaxTuples", 4000000);
+
     // The query to base the plan off of.
     private final Query query;
 
@@ -31,6 +55,18 @@ public class QueryPlan {
     private final HashMap<Integer, List<ComparisonAtom>> relationToJoinConditions;
     // Used to keep track of used variables (in order) to determine whether projection is needed.
     private final List<Variable> usedVariables;
+    // Maps the variables of join keys that are left out of the joined tuples to the equal variable that is kept.
+    // i.e., R(x), S(u), x=u: u -> x, as equi-joins do not copy the values of u into the joined tuples.
+    private final HashMap<Variable, Variable> variableAliases;
+    // Used to estimate the selectivities of the comparison atoms and the sizes of the relational atoms.
+    private final SelectivityEstimator selectivityEstimator;
+    // Whether the last join outputs its tuples ordered on the group by variables of the head, i.e., it is a
+    // SortMergeJoinOperator whose join key starts with them, so that the aggregates can be computed by streaming groups.
+    private boolean orderedOnGroupByVariables;
+    // The estimated number of tuples of the left child of the next join, i.e., of the joins built so far.
+    private double leftTupleCount;
+    // The join operators of the plan, in the order they were built.
+    private final List<Operator> joinOperators;
 
     // The root operator. This will be our actual query plan; a combination of operators.
     private Operator rootOperator;
@@ -38,10 +74,12 @@ public class QueryPlan {
     /**
      * Constructor for QueryPlan.
      * Assigns relational and comparison atoms by splitting the body via a helper method splitBody().
+     * The comparison atoms of constants are evaluated via a helper method evaluateConstantConditions, which may return false
+     * indicating there was a comparison atom that will never hold (i.e., 1=2). In this case we do not proceed further,
+     * causing the rootOperator to remain as null, indicating there is no output to the CQ. No relation is read.
+     * Otherwise, the relational atoms are put in the order they will be joined in, chosen by a JoinOrderOptimizer.
      * Groups the comparison atoms into selection conditions and join conditions (on relation number) via a helper method groupComparisonAtoms.
-     * groupComparisonAtoms may return false indicating there was a comparison atom that will never hold (i.e., 1=2). In this case
-     * We do not proceed further, causing the rootOperator to remain as null, indicating there is no output to the CQ.
-     * Otherwise, we proceed to build the query plan using the method buildQueryPlan().
+     * Then we proceed to build the query plan using the method buildQueryPlan().
      * @param query The query to base the plan off of.
      */
     public QueryPlan(Query query) {
@@ -54,13 +92,18 @@ public class QueryPlan {
         relationToJoinConditions = new HashMap<>();
         relationToSelectionConditions = new HashMap<>();
         usedVariables = new ArrayList<>();
+        variableAliases = new HashMap<>();
+        joinOperators = new ArrayList<>();
 
         splitBody();
-        storeVariableRelations();
-        if (!groupComparisonAtoms()) {
+        selectivityEstimator = new SelectivityEstimator(relationalAtoms);
+        if (!evaluateConstantConditions()) {
             return;
         }
-        
+        orderJoins();
+        storeVariableRelations();
+        groupComparisonAtoms();
+
         rootOperator = buildQueryPlan();
     }
 
@@ -78,11 +121,14 @@ public class QueryPlan {
         Operator operator = null;
         int atomCounter = 0;
         for (RelationalAtom relationalAtom : relationalAtoms) {
-            operator = new ScanOperator(relationalAtom);
             List<ComparisonAtom> selectionConditions = relationToSelectionConditions.get(atomCounter);
+            operator = createScanOperator(relationalAtom, selectionConditions);
             if (selectionConditions != null) {
-                operator = new SelectOperator(new SelectionCondition(selectionConditions), operator);
+                selectionConditions = selectivityEstimator.orderConditions(selectionConditions);
+                operator = new SelectOperator(new SelectionCondition(selectionConditions, operator.getVariables(), operator.getTypes()), operator);
             }
+            // Relation 0 and relation 1 are both joined by the first join (relation number 1).
+            operator = projectNeededVariables(operator, Math.max(atomCounter, 1));
             atomCounter += 1;
             scansAndSelections.add(operator);
         }
@@ -92,41 +138,425 @@ public class QueryPlan {
         // By the end of this if statement, the root operator will be a join operator (if there is >1 relational atoms).
         // If there is 1 relation atom, then the root operator will remain either a scan or a select.
         if (scansAndSelections.size() > 1) {
-            List<ComparisonAtom> joinCondition = relationToJoinConditions.get(1);
-            if (joinCondition == null) {
-                operator = new JoinOperator(scansAndSelections.get(0), scansAndSelections.get(1),  null);
-            } else {
-                operator = new JoinOperator(scansAndSelections.get(0), scansAndSelections.get(1), new SelectionCondition(joinCondition));
-            }
+            leftTupleCount = selectivityEstimator.estimateTupleCount(relationalAtoms.get(0), relationToSelectionConditions.get(0));
+            operator = createJoinOperator(scansAndSelections.get(0), scansAndSelections.get(1), 1);
+            joinOperators.add(operator);
             for (int i = 2; i < scansAndSelections.size(); i++) {
-                joinCondition = relationToJoinConditions.get(i);
-                if (joinCondition == null) {
-                    operator = new JoinOperator(operator, scansAndSelections.get(i), null);
-                } else {
-                    operator = new JoinOperator(operator, scansAndSelections.get(i), new SelectionCondition(joinCondition));
-                }
+                operator = createJoinOperator(projectNeededVariables(operator, i), scansAndSelections.get(i), i);
+                joinOperators.add(operator);
             }
         }
 
-        // Get the sumAggregate from the head.
-        // If there isn't one, sumAggregate will be null.
-        SumAggregate sumAggregate = query.getHead().getSumAggregate();
+        // The pipeline of the first relation (its scan, selection, and the probes of the hash joins it is the left child
+        // of) is run in parallel over morsels of its file, if it has several morsels. The other relations have been read
+        // by the constructors of the joins (i.e., into hash tables) already. If there is a radix hash join, the pipeline
+        // above the last one is run in parallel over its partitions instead, as its children have been read already.
+        MorselQueue morsels = (PARALLELISM > 1) ? operator.getMorsels() : null;
+        boolean parallel = morsels != null && morsels.size() > 1 && !orderedOnGroupByVariables;
+
+        // Get the aggregates from the head.
+        // If there aren't any, aggregates will be empty.
+        // Head variables that were left out of the joined tuples are replaced by the equal variables that were kept.
+        Head head = query.getHead();
+        List<Aggregate> aggregates = head.getAggregates();
+        List<Variable> headVariables = resolveAliases(head.getVariables());
 
-        // If no sum aggregate, root operator may be projection.
-        if (sumAggregate == null) {
+        // If no aggregates, root operator may be projection.
+        if (aggregates.isEmpty()) {
+            if (parallel) {
+                operator = new GatherOperator(operator, PARALLELISM);
+            }
             // if head variables are re-ordered or doesn't consist of the same variables, then we need to apply projection.
-            if (!query.getHead().getVariables().equals(usedVariables)){
-                operator = new ProjectOperator(operator, query.getHead());
+            // The projection only needs to remove duplicates if it may leave out a key of some relation.
+            // Otherwise, if joins left out columns, the columns need to be put back in the order of the head.
+            if (!head.getVariables().equals(usedVariables)){
+                if (projectionKeepsKeys(headVariables)) {
+                    operator = new ProjectOperator(operator, headVariables, false, SORT_BUFFER_SIZE);
+                } else {
+                    operator = new ProjectOperator(operator, new Head(head.getName(), headVariables, new ArrayList<>()), SORT_BUFFER_SIZE);
+                }
+            } else if (!headVariables.equals(operator.getVariables())) {
+                operator = new ProjectOperator(operator, headVariables, false, SORT_BUFFER_SIZE);
             }
         } else {
-            // There is a sumAggregate, so the root operator will be a sumOperator.
-            operator = new SumOperator(sumAggregate, operator, query.getHead().getVariables());
+            // There are aggregates, so the root operator will be an AggregateOperator computing all of them.
+            List<Aggregate> resolvedAggregates = new ArrayList<>();
+            for (Aggregate aggregate : aggregates) {
+                List<Term> aggregateTerms = new ArrayList<>();
+                for (Term term : aggregate.getProductTerms()) {
+                    aggregateTerms.add((term instanceof Variable) ? resolveAlias((Variable) term) : term);
+                }
+                resolvedAggregates.add(new Aggregate(aggregate.getFunction(), aggregateTerms));
+            }
+            checkAggregateTypes(resolvedAggregates, operator);
+            if (parallel) {
+                // Every worker aggregates its morsels into partial aggregates, which are then combined.
+                operator = new AggregateOperator(resolvedAggregates, operator, headVariables, SORT_BUFFER_SIZE, PARALLELISM);
+            } else {
+                operator = new AggregateOperator(resolvedAggregates, operator, headVariables, orderedOnGroupByVariables, SORT_BUFFER_SIZE);
+            }
         }
 
         return operator;
 
     }
 
+    /**
+     * Method used to check that the aggregates of the head only do arithmetic on ints.
+     * SUM and AVG add up the products of their terms, and a product of several terms multiplies them, so their terms
+     * must be int variables or int constants. Only MIN, MAX and COUNT of a single term accept strings.
+     * @param aggregates The aggregates of the head (with aliases resolved).
+     * @param child The operator the aggregates are computed over.
+     * @throws IllegalStateException If an aggregate does arithmetic on a string variable or constant.
+     */
+    static void checkAggregateTypes(List<Aggregate> aggregates, Operator child) {
+        for (Aggregate aggregate : aggregates) {
+            AggregateFunction function = aggregate.getFunction();
+            boolean arithmetic = function == AggregateFunction.SUM || function == AggregateFunction.AVG
+                    || aggregate.getProductTerms().size() > 1;
+            if (!arithmetic) {
+                continue;
+            }
+            for (Term term : aggregate.getProductTerms()) {
+                boolean isString = (term instanceof Variable)
+                        ? child.getTypes()[child.getVariables().indexOf(term)] != ColumnType.INT
+                        : !(term instanceof IntegerConstant);
+                if (isString) {
+                    throw new IllegalStateException("The aggregate " + aggregate + " does arithmetic on " + term
+                            + ", which is not an int. Only MIN, MAX and COUNT of a single term accept strings.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Method used to leave out the columns of an operator below a join that are not needed by the rest of the plan.
+     * A variable is needed if it is in the head (or its aggregates), or in the join conditions of the given join or a
+     * later join. The columns are left out with a ProjectOperator that keeps duplicate tuples, so the result of the
+     * query is unchanged, but later joins copy and hold smaller tuples.
+     * If every column is needed (or none is), no projection is added.
+     * @param operator The operator below a join.
+     * @param firstJoin The relation number of the first join whose conditions may use the columns of the operator.
+     * @return The operator, or a projection of the needed variables of the operator.
+     */
+    private Operator projectNeededVariables(Operator operator, int firstJoin) {
+        Set<Variable> neededVariables = new HashSet<>(resolveAliases(query.getHead().getVariables()));
+        for (Aggregate aggregate : query.getHead().getAggregates()) {
+            for (Term term : aggregate.getProductTerms()) {
+                if (term instanceof Variable) {
+                    neededVariables.add(resolveAlias((Variable) term));
+                }
+            }
+        }
+        for (int relationNumber = firstJoin; relationNumber < relationalAtoms.size(); relationNumber++) {
+            List<ComparisonAtom> joinConditions = relationToJoinConditions.get(relationNumber);
+            if (joinConditions == null) {
+                continue;
+            }
+            for (ComparisonAtom joinCondition : resolveConditionAliases(joinConditions)) {
+                // Join conditions are always between two variables.
+                neededVariables.add((Variable) joinCondition.getTerm1());
+                neededVariables.add((Variable) joinCondition.getTerm2());
+            }
+        }
+
+        List<Variable> keptVariables = new ArrayList<>();
+        for (Variable variable : operator.getVariables()) {
+            if (neededVariables.contains(variable)) {
+                keptVariables.add(variable);
+            }
+        }
+        if (keptVariables.isEmpty() || keptVariables.size() == operator.getVariables().size()) {
+            return operator;
+        }
+        return new ProjectOperator(operator, keptVariables, false, SORT_BUFFER_SIZE);
+    }
+
+    /**
+     * Method used to create the scan operator of a relational atom.
+     * Relations that have been imported into the columnar format are read with a ColumnarScanOperator.
+     * Relations that are only stored as CSV files are read with a MappedScanOperator, unless the file is too large to
+     * be mapped into memory at once, in which case they are read with a ScanOperator.
+     * This is also used to read relations outside of query plans, i.e., to compute statistics.
+     * @param relationalAtom The relational atom to scan.
+     * @return The scan operator.
+     */
+    public static Operator createScanOperator(RelationalAtom relationalAtom) {
+        return createScanOperator(relationalAtom, null);
+    }
+
+    /**
+     * Method used to create the scan operator of a relational atom, as above. A ColumnarScanOperator uses the
+     * selection conditions of the relational atom to skip the blocks that have no rows satisfying them.
+     * @param relationalAtom The relational atom to scan.
+     * @param selectionConditions The selection conditions of the relational atom (may be null).
+     * @return The scan operator.
+     */
+    public static Operator createScanOperator(RelationalAtom relationalAtom, List<ComparisonAtom> selectionConditions) {
+        DatabaseCatalog catalog = DatabaseCatalog.getCatalogInstance();
+        if (catalog.isColumnar(relationalAtom.getName())) {
+            return new ColumnarScanOperator(relationalAtom, selectionConditions);
+        }
+        if (new File(catalog.getLocation(relationalAtom.getName())).length() <= Integer.MAX_VALUE) {
+            return new MappedScanOperator(relationalAtom);
+        }
+        return new ScanOperator(relationalAtom);
+    }
+
+    /**
+     * Method used to create the join operator joining the left child with the relation of the given relation number.
+     * If the join conditions contain at least one equality between a variable of the left child and a variable of the
+     * right child, we use a HashJoinOperator with these equalities as the join key, and the other join conditions
+     * are applied as a residual condition. Otherwise, we use a BlockNestedLoopJoinOperator.
+     * If this is the last join and the head groups on join key variables, we use a SortMergeJoinOperator instead, as
+     * its output is then ordered on the group by variables, and the aggregates are computed by streaming its groups.
+     * Otherwise, if both children are estimated to have at least RADIX_JOIN_MIN_TUPLES tuples, and at most
+     * RADIX_JOIN_MAX_TUPLES tuples together, we use a RadixHashJoinOperator, which partitions both children in parallel,
+     * even if the right child has more tuples than the sort buffer holds.
+     * Otherwise, we use a SortMergeJoinOperator if the right child is estimated to have more tuples than the sort
+     * buffer holds, as the hash join keeps all of them in memory while the external sort spills them to disk.
+     * Equi-joins leave the variables of the right join key out of the joined tuples, so these are recorded as aliases
+     * of the equal variables of the left join key.
+     * Conditions are evaluated in the order given by the SelectivityEstimator.
+     * @param leftChild The left (outer) operator; joins/scans/selections of all the relations before relationNumber.
+     * @param rightChild The right (inner) operator; the scan/selection of relation relationNumber.
+     * @param relationNumber The relation number of the right child.
+     * @return The join operator.
+     */
+    private Operator createJoinOperator(Operator leftChild, Operator rightChild, int relationNumber) {
+        List<ComparisonAtom> joinConditions = relationToJoinConditions.get(relationNumber);
+        double rightTupleCount = selectivityEstimator.estimateTupleCount(relationalAtoms.get(relationNumber), relationToSelectionConditions.get(relationNumber));
+        double joinedTupleCount = leftTupleCount * rightTupleCount;
+        if (joinConditions != null) {
+            for (ComparisonAtom joinCondition : joinConditions) {
+                joinedTupleCount *= selectivityEstimator.estimateSelectivity(joinCondition);
+            }
+        }
+        double probeTupleCount = leftTupleCount;
+        leftTupleCount = joinedTupleCount;
+
+        if (joinConditions == null) {
+            return new BlockNestedLoopJoinOperator(leftChild, rightChild, null, JOIN_BLOCK_SIZE);
+        }
+        joinConditions = selectivityEstimator.orderConditions(resolveConditionAliases(joinConditions));
+
+        // The variables and types of the joined tuples, which the join conditions are evaluated on.
+        List<Variable> joinedVariables = new ArrayList<>(leftChild.getVariables());
+        joinedVariables.addAll(rightChild.getVariables());
+        ColumnType[] leftTypes = leftChild.getTypes();
+        ColumnType[] rightTypes = rightChild.getTypes();
+        ColumnType[] joinedTypes = new ColumnType[leftTypes.length + rightTypes.length];
+        System.arraycopy(leftTypes, 0, joinedTypes, 0, leftTypes.length);
+        System.arraycopy(rightTypes, 0, joinedTypes, leftTypes.length, rightTypes.length);
+
+        List<Variable> leftKeyVariables = new ArrayList<>();
+        List<Variable> rightKeyVariables = new ArrayList<>();
+        List<ComparisonAtom> residualConditions = new ArrayList<>();
+
+        for (ComparisonAtom joinCondition : joinConditions) {
+            // Join conditions are always between two variables of different relations, one of which is relationNumber.
+            if (joinCondition.getOp() == ComparisonOperator.EQ) {
+                Variable lhs = (Variable) joinCondition.getTerm1();
+                Variable rhs = (Variable) joinCondition.getTerm2();
+                if (variableToRelationNumber.get(lhs) == relationNumber) {
+                    leftKeyVariables.add(rhs);
+                    rightKeyVariables.add(lhs);
+                } else {
+                    leftKeyVariables.add(lhs);
+                    rightKeyVariables.add(rhs);
+                }
+            } else {
+                residualConditions.add(joinCondition);
+            }
+        }
+
+        if (leftKeyVariables.isEmpty()) {
+            return new BlockNestedLoopJoinOperator(leftChild, rightChild, new SelectionCondition(joinConditions, joinedVariables, joinedTypes), JOIN_BLOCK_SIZE);
+        }
+
+        // The right join key is left out of the joined tuples, so the residual conditions use the left join key instead.
+        joinedVariables = new ArrayList<>(leftChild.getVariables());
+        List<ColumnType> keptTypes = new ArrayList<>(Arrays.asList(leftTypes));
+        for (int i = 0; i < rightTypes.length; i++) {
+            Variable rightVariable = rightChild.getVariables().get(i);
+            int keyPosition = rightKeyVariables.indexOf(rightVariable);
+            if (keyPosition == -1) {
+                joinedVariables.add(rightVariable);
+                keptTypes.add(rightTypes[i]);
+            } else {
+                variableAliases.put(rightVariable, leftKeyVariables.get(keyPosition));
+            }
+        }
+        joinedTypes = keptTypes.toArray(new ColumnType[0]);
+        residualConditions = resolveConditionAliases(residualConditions);
+
+        SelectionCondition residualCondition = residualConditions.isEmpty() ? null : new SelectionCondition(residualConditions, joinedVariables, joinedTypes);
+        boolean groupedOutput = relationNumber == relationalAtoms.size() - 1 && orderKeysOnGroupByVariables(leftKeyVariables, rightKeyVariables);
+        boolean radixJoin = !groupedOutput && PARALLELISM > 1 && Math.min(probeTupleCount, rightTupleCount) >= RADIX_JOIN_MIN_TUPLES
+                && probeTupleCount + rightTupleCount <= RADIX_JOIN_MAX_TUPLES;
+        boolean sortMerge = groupedOutput || rightTupleCount > SORT_BUFFER_SIZE;
+        int[] leftKeyPositions = leftChild.getPositions(leftKeyVariables);
+        int[] rightKeyPositions = rightChild.getPositions(rightKeyVariables);
+        if (radixJoin) {
+            return new RadixHashJoinOperator(leftChild, rightChild, leftKeyPositions, rightKeyPositions, residualCondition, PARALLELISM);
+        }
+        if (sortMerge) {
+            orderedOnGroupByVariables = groupedOutput;
+            return new SortMergeJoinOperator(leftChild, rightChild, leftKeyPositions, rightKeyPositions, residualCondition, SORT_BUFFER_SIZE);
+        }
+        return new HashJoinOperator(leftChild, rightChild, leftKeyPositions, rightKeyPositions, residualCondition);
+    }
+
+    /**
+     * Helper method that checks if the group by variables of the aggregates in the head are all join key variables.
+     * If so, the join keys are reordered (in place) such that the group by variables come first, so that a join that
+     * outputs tuples ordered on its join key outputs them ordered on the group by variables.
+     * I.e., Q(x, SUM(t)) with the join key (y, x) = (v, u) becomes (x, y) = (u, v).
+     * @param leftKeyVariables The variables of the left child that make the join key.
+     * @param rightKeyVariables The variables of the right child that make the join key.
+     * @return true if the head groups on join key variables (and the keys have been reordered), false otherwise.
+     */
+    private boolean orderKeysOnGroupByVariables(List<Variable> leftKeyVariables, List<Variable> rightKeyVariables) {
+        List<Variable> groupByVariables = resolveAliases(query.getHead().getVariables());
+        if (query.getHead().getAggregates().isEmpty() || groupByVariables.isEmpty()) {
+            return false;
+        }
+
+        List<Integer> keyOrder = new ArrayList<>();
+        for (Variable groupByVariable : groupByVariables) {
+            int keyPosition = leftKeyVariables.indexOf(groupByVariable);
+            if (keyPosition == -1) {
+                keyPosition = rightKeyVariables.indexOf(groupByVariable);
+            }
+            if (keyPosition == -1) {
+                return false;
+            }
+            // Two group by variables may be the same key, i.e., Q(x, u, SUM(t)) with the join key x = u.
+            if (!keyOrder.contains(keyPosition)) {
+                keyOrder.add(keyPosition);
+            }
+        }
+        for (int keyPosition = 0; keyPosition < leftKeyVariables.size(); keyPosition++) {
+            if (!keyOrder.contains(keyPosition)) {
+                keyOrder.add(keyPosition);
+            }
+        }
+
+        List<Variable> orderedLeftKeys = new ArrayList<>();
+        List<Variable> orderedRightKeys = new ArrayList<>();
+        for (int keyPosition : keyOrder) {
+            orderedLeftKeys.add(leftKeyVariables.get(keyPosition));
+            orderedRightKeys.add(rightKeyVariables.get(keyPosition));
+        }
+        leftKeyVariables.clear();
+        leftKeyVariables.addAll(orderedLeftKeys);
+        rightKeyVariables.clear();
+        rightKeyVariables.addAll(orderedRightKeys);
+        return true;
+    }
+
+    /**
+     * Helper method that checks if projecting the joined tuples on the head variables cannot create duplicate tuples,
+     * so that the ProjectOperator does not need to remove duplicates.
+     * This is the case if, for every relational atom, the head determines every column of one of the keys declared for
+     * its relation in schema.txt. A variable is determined if it is a head variable, or it is equal (by a comparison
+     * atom) to a constant or to a determined variable. Then the tuple of every relation that makes a joined tuple can
+     * be found from the projected tuple, so distinct joined tuples have distinct projections.
+     * I.e., with the key R(key(0)): Q(x, z) :- R(x, y, z) cannot create duplicates, but Q(y, z) :- R(x, y, z) can.
+     * @param headVariables The head variables (with aliases resolved).
+     * @return true if the projection keeps a key of every relational atom, false otherwise.
+     */
+    private boolean projectionKeepsKeys(List<Variable> headVariables) {
+        Set<Variable> determinedVariables = new HashSet<>(headVariables);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (ComparisonAtom comparisonAtom : comparisonAtoms) {
+                if (comparisonAtom.getOp() != ComparisonOperator.EQ) {
+                    continue;
+                }
+                Term term1 = comparisonAtom.getTerm1();
+                Term term2 = comparisonAtom.getTerm2();
+                boolean determined1 = !(term1 instanceof Variable) || determinedVariables.contains(resolveAlias((Variable) term1));
+                boolean determined2 = !(term2 instanceof Variable) || determinedVariables.contains(resolveAlias((Variable) term2));
+                if (determined1 && !determined2) {
+                    changed |= determinedVariables.add(resolveAlias((Variable) term2));
+                } else if (determined2 && !determined1) {
+                    changed |= determinedVariables.add(resolveAlias((Variable) term1));
+                }
+            }
+        }
+
+        DatabaseCatalog catalog = DatabaseCatalog.getCatalogInstance();
+        for (RelationalAtom relationalAtom : relationalAtoms) {
+            List<int[]> keys = catalog.getKeys(relationalAtom.getName());
+            boolean keyDetermined = false;
+            for (int i = 0; keys != null && i < keys.size() && !keyDetermined; i++) {
+                keyDetermined = true;
+                for (int column : keys.get(i)) {
+                    // The terms of relational atoms are all variables after rewriting.
+                    if (column >= relationalAtom.getTerms().size()
+                            || !determinedVariables.contains(resolveAlias((Variable) relationalAtom.getTerms().get(column)))) {
+                        keyDetermined = false;
+                        break;
+                    }
+                }
+            }
+            if (!keyDetermined) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method used to get the variable that holds the values of a variable in the joined tuples.
+     * @param variable The variable.
+     * @return The variable it is an alias of, or the variable itself if it was not left out of the joined tuples.
+     */
+    private Variable resolveAlias(Variable variable) {
+        Variable alias = variableAliases.get(variable);
+        while (alias != null) {
+            variable = alias;
+            alias = variableAliases.get(variable);
+        }
+        return variable;
+    }
+
+    /**
+     * Helper method used to replace the variables left out of the joined tuples in a list of variables.
+     * @param variables The variables.
+     * @return A new list with every variable replaced by resolveAlias.
+     */
+    private List<Variable> resolveAliases(List<Variable> variables) {
+        List<Variable> resolvedVariables = new ArrayList<>();
+        for (Variable variable : variables) {
+            resolvedVariables.add(resolveAlias(variable));
+        }
+        return resolvedVariables;
+    }
+
+    /**
+     * Helper method used to replace the variables left out of the joined tuples in comparison atoms.
+     * @param comparisonAtoms The comparison atoms.
+     * @return A new list of comparison atoms on the variables given by resolveAlias.
+     */
+    private List<ComparisonAtom> resolveConditionAliases(List<ComparisonAtom> comparisonAtoms) {
+        List<ComparisonAtom> resolvedAtoms = new ArrayList<>();
+        for (ComparisonAtom comparisonAtom : comparisonAtoms) {
+            Term lhs = comparisonAtom.getTerm1();
+            Term rhs = comparisonAtom.getTerm2();
+            if (lhs instanceof Variable) {
+                lhs = resolveAlias((Variable) lhs);
+            }
+            if (rhs instanceof Variable) {
+                rhs = resolveAlias((Variable) rhs);
+            }
+            resolvedAtoms.add(new ComparisonAtom(lhs, rhs, comparisonAtom.getOp()));
+        }
+        return resolvedAtoms;
+    }
+
     /**
      * Getter for rootOperator/query plan.
      * @return root operator.
@@ -135,15 +565,23 @@ public class QueryPlan {
         return rootOperator;
     }
 
+    /**
+     * Getter for the join operators of the query plan, i.e., to check which join algorithms were chosen.
+     * @return The join operators, in the order they were built (the last one is the topmost join).
+     */
+    public List<Operator> getJoinOperators() {
+        return joinOperators;
+    }
+
     /**
      * This method is used to group the comparison atoms of the query body into sensible groups.
      * There are two types of groups: selection conditions groups and join conditions groups.
      * A group in the selection condition groups consist of a list of selection conditions for each relational atom (relation number).
      * A group in the join condition groups consist of a join condition (as a SelectionCondition).
+     * Comparison atoms of constants have already been evaluated by evaluateConstantConditions, so they are skipped.
      * More information about this method in README.
-     * @return false indicating there was a comparison atom that will never hold (i.e., 1=2). Otherwise true.
      */
-    private boolean groupComparisonAtoms() {
+    private void groupComparisonAtoms() {
         for (ComparisonAtom comparisonAtom : comparisonAtoms) {
             Term lhs = comparisonAtom.getTerm1();
             Term rhs = comparisonAtom.getTerm2();
@@ -169,12 +607,21 @@ public class QueryPlan {
                 // Selection condition on 1 relation.
                 int relationNumber = variableToRelationNumber.get(rhs);
                 appendPut(relationToSelectionConditions, relationNumber, comparisonAtom);
+            }
+        }
+    }
 
-            } else if (lhs instanceof Constant && rhs instanceof Constant) {
-                // Condition of constants.
-                // Condition that holds -> removed.
-                // Condition that doesn't hold -> no results to CQ.
-                SelectionCondition constantCondition  = new SelectionCondition(Collections.singletonList(comparisonAtom));
+    /**
+     * Method used to evaluate the comparison atoms of constants, before anything is read.
+     * Condition that holds -> removed (skipped by groupComparisonAtoms).
+     * Condition that doesn't hold -> no results to CQ.
+     * The Rewriter replaces comparison atoms that can never hold together by 1=2, so these are detected here too.
+     * @return false indicating there was a comparison atom that will never hold (i.e., 1=2). Otherwise true.
+     */
+    private boolean evaluateConstantConditions() {
+        for (ComparisonAtom comparisonAtom : comparisonAtoms) {
+            if (comparisonAtom.getTerm1() instanceof Constant && comparisonAtom.getTerm2() instanceof Constant) {
+                SelectionCondition constantCondition  = new SelectionCondition(Collections.singletonList(comparisonAtom), Collections.<Variable>emptyList(), new ColumnType[0]);
                 // Evaluate on dummy tuple.
                 if (!constantCondition.evaluateOnTuple(new Tuple(null, null))) {
                     return false;
@@ -219,6 +666,17 @@ public class QueryPlan {
         }
     }
 
+    /**
+     * Method used to reorder the relational atoms into the join order with the lowest estimated cost.
+     * The plan is left-deep, so relation number 0 becomes the leftmost child, and so on.
+     * This method assumes splitBody() has been called.
+     */
+    private void orderJoins() {
+        List<RelationalAtom> joinOrder = new JoinOrderOptimizer(relationalAtoms, comparisonAtoms, selectivityEstimator).getJoinOrder();
+        relationalAtoms.clear();
+        relationalAtoms.addAll(joinOrder);
+    }
+
     /**
      * Method used the split the body of the query into two, relational atoms and comparison atoms.
      */
@@ -0,0 +1,638 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * RadixHashJoinOperator class that is inherited from Operator class.
+ * The algorithm used in this class is the radix-partitioned hash join, for equi-joins where both children are large.
+ * When the first batch is requested, both children are read by worker threads of a ForkJoinPool (over morsels, if the
+ * child can be run in parallel), and their tuples are partitioned on the top bits of the hash of their join key, so that tuples that may join are in the
+ * partitions with the same number. There are enough partitions that a partition of the right child has about
+ * PARTITION_TUPLES tuples, so the hash table built for it fits in the CPU cache, whereas the single hash table of a
+ * HashJoinOperator is probed at random places of main memory.
+ * Every partition is then joined on its own: a small hash table is built from its right tuples, and probed with its
+ * left tuples. The partitions are handed out as morsels, so worker copies of the join (see GatherOperator) join
+ * different partitions in parallel. There is a morsel for the largest possible number of partitions, so that the
+ * morsels are known before the children are read, and the morsels past the actual number of partitions are empty.
+ * Like the HashJoinOperator, the joined tuples do not contain the join key of the right child.
+ */
+public class RadixHashJoinOperator extends Operator {
+
+    // The number of right tuples a partition should have, so that its hash table fits in the CPU cache.
+    private static final int PARTITION_TUPLES = 1024;
+    // The largest number of bits of the hash used to choose partitions. Scattering tuples over more partitions at once
+    // writes to too many places of memory at once to be fast.
+    private static final int MAX_PARTITION_BITS = 12;
+    // Used to spread the bits of the join key values in the hash.
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    // The positions of the join key in the left and right tuples.
+    // leftKeyPositions[i] must be equal to rightKeyPositions[i] for tuples to join.
+    private final int[] leftKeyPositions;
+    private final int[] rightKeyPositions;
+    // The join conditions that are not equalities between the two children, i.e., x < u. Null if there are none.
+    private final SelectionCondition residualCondition;
+
+    // The positions of the right tuples that are part of the joined tuples: every position except the join key.
+    private final int[] rightOutputPositions;
+    // The variables and types that correspond to each position of the joined tuples.
+    private final List<Variable> joinedTupleVars;
+    private final ColumnType[] joinedTupleTypes;
+
+    // The children, until they have been read and partitioned (then null).
+    private Operator leftChildOperator;
+    private Operator rightChildOperator;
+    // The number of worker threads used to read and partition the children.
+    private final int parallelism;
+    // The join whose children are partitioned, i.e., this join, or the join a worker copy was copied from.
+    private final RadixHashJoinOperator partitionedJoin;
+    // The partitioned tuples of the left and right children, or null until they are first needed. Shared by the worker
+    // copies, which only read them.
+    private PartitionedTuples leftTuples;
+    private PartitionedTuples rightTuples;
+    // The partitions, one morsel per possible partition, for the worker copies.
+    private final MorselQueue partitions;
+    // Whether this is a worker copy, which joins the partitions it takes from partitions rather than every partition.
+    private final boolean readsMorsels;
+
+    // The number of the next partition to join (unless this is a worker copy).
+    private int nextPartition;
+    // The left tuples of the current partition that have not been probed yet: [leftRow, leftEnd).
+    private int leftRow;
+    private int leftEnd;
+    // The first right tuple of the current partition.
+    private int rightStart;
+    // The hash table of the current partition. buckets holds the first right tuple of every bucket, and nextInBucket
+    // the next right tuple of the same bucket, for every right tuple of the partition (relative to rightStart, + 1, so
+    // that 0 ends a bucket).
+    private int[] buckets;
+    private int[] nextInBucket;
+    private int bucketMask;
+    // The left tuple being probed, its hash, and the next right tuple of its bucket to compare it with (as above).
+    private int probedRow;
+    private int probedHash;
+    private int nextMatch;
+
+    // The batch returned by getNextBatch. Null until it is first needed.
+    private TupleBatch joinedBatch;
+    // The batch read by getNextTuple, and the position in its selection vector of the next tuple to return.
+    private TupleBatch tupleBatch;
+    private int tuplePosition;
+
+    /**
+     * Constructor of a RadixHashJoinOperator.
+     * Assigns the join keys and residual join conditions. The children are only read once the first batch is requested
+     * (see partitionChildren).
+     * @param leftChildOperator The left (probe) operator in the join.
+     * @param rightChildOperator The right (build) operator in the join.
+     * @param leftKeyPositions The positions in the left tuples of the variables that make the join key.
+     * @param rightKeyPositions The positions in the right tuples of the variables that make the join key (in the same order as leftKeyPositions).
+     * @param residualCondition The join conditions that are not part of the join key. This is null if there are none.
+     * @param parallelism The number of worker threads used to read and partition the children.
+     */
+    public RadixHashJoinOperator(Operator leftChildOperator, Operator rightChildOperator, int[] leftKeyPositions,
+                                 int[] rightKeyPositions, SelectionCondition residualCondition, int parallelism) {
+        this.leftKeyPositions = leftKeyPositions;
+        this.rightKeyPositions = rightKeyPositions;
+        this.residualCondition = residualCondition;
+
+        ColumnType[] leftTypes = leftChildOperator.getTypes();
+        ColumnType[] rightTypes = rightChildOperator.getTypes();
+        rightOutputPositions = HashJoinOperator.nonKeyPositions(rightTypes.length, rightKeyPositions);
+        joinedTupleVars = new ArrayList<>(leftChildOperator.getVariables());
+        joinedTupleTypes = Arrays.copyOf(leftTypes, leftTypes.length + rightOutputPositions.length);
+        for (int i = 0; i < rightOutputPositions.length; i++) {
+            joinedTupleVars.add(rightChildOperator.getVariables().get(rightOutputPositions[i]));
+            joinedTupleTypes[leftTypes.length + i] = rightTypes[rightOutputPositions[i]];
+        }
+
+        this.leftChildOperator = leftChildOperator;
+        this.rightChildOperator = rightChildOperator;
+        this.parallelism = parallelism;
+        partitionedJoin = this;
+
+        int[] boundaries = new int[(1 << MAX_PARTITION_BITS) + 1];
+        for (int i = 0; i < boundaries.length; i++) {
+            boundaries[i] = i;
+        }
+        partitions = new MorselQueue(boundaries);
+        readsMorsels = false;
+        nextPartition = 0;
+    }
+
+    /**
+     * Constructor for a worker copy of a RadixHashJoinOperator, which joins the partitions it takes.
+     * @param join The join to copy.
+     */
+    private RadixHashJoinOperator(RadixHashJoinOperator join) {
+        this.leftKeyPositions = join.leftKeyPositions;
+        this.rightKeyPositions = join.rightKeyPositions;
+        this.residualCondition = join.residualCondition;
+        this.rightOutputPositions = join.rightOutputPositions;
+        this.joinedTupleVars = join.joinedTupleVars;
+        this.joinedTupleTypes = join.joinedTupleTypes;
+        this.parallelism = join.parallelism;
+        this.partitionedJoin = join;
+        this.partitions = join.partitions;
+        readsMorsels = true;
+    }
+
+    /**
+     * Method used to read and partition both children, using worker threads (first the right child, whose size gives
+     * the number of partitions, then the left child). The children are only read once: worker copies wait for the join
+     * they were copied from to partition them, and then share its partitioned tuples.
+     */
+    private synchronized void partitionChildren() {
+        if (rightTuples != null) {
+            return;
+        }
+        if (leftChildOperator == null) {
+            throw new IllegalStateException("The children of the join could not be partitioned.");
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            ColumnType[] leftTypes = leftChildOperator.getTypes();
+            ColumnType[] rightTypes = rightChildOperator.getTypes();
+            List<TupleChunk> rightChunks = readChunks(rightChildOperator, rightKeyPositions, pool, parallelism);
+            int rightCount = 0;
+            for (TupleChunk chunk : rightChunks) {
+                rightCount += chunk.count;
+            }
+            int partitionBits = 0;
+            while (partitionBits < MAX_PARTITION_BITS && (rightCount >> partitionBits) > PARTITION_TUPLES) {
+                partitionBits += 1;
+            }
+            PartitionedTuples partitionedRight = scatter(rightChunks, rightTypes.length, partitionBits, pool);
+            rightChunks = null;
+
+            List<TupleChunk> leftChunks = readChunks(leftChildOperator, leftKeyPositions, pool, parallelism);
+            leftTuples = scatter(leftChunks, leftTypes.length, partitionBits, pool);
+            rightTuples = partitionedRight;
+        } finally {
+            // The children are not read again, as their tuples are kept partitioned.
+            closeChildren();
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Helper method used to close the children, unless they have been closed already.
+     */
+    private void closeChildren() {
+        if (leftChildOperator != null) {
+            leftChildOperator.close();
+            rightChildOperator.close();
+            leftChildOperator = null;
+            rightChildOperator = null;
+        }
+    }
+
+    /**
+     * Method used to read all the tuples of a child into chunks, with the hash of their join key.
+     * If the child can be run in parallel, every worker thread reads a worker copy of the child into its own chunk.
+     * Otherwise, a single worker thread reads the child.
+     * @param child The child.
+     * @param keyPositions The positions of the join key in the tuples of the child.
+     * @param pool The pool of worker threads.
+     * @param parallelism The number of worker threads.
+     * @return The chunks of the tuples of the child.
+     */
+    private static List<TupleChunk> readChunks(Operator child, int[] keyPositions, ForkJoinPool pool, int parallelism) {
+        int width = child.getTypes().length;
+        List<Callable<TupleChunk>> readers = new ArrayList<>();
+        if (parallelism > 1 && child.getMorsels() != null) {
+            for (int worker = 0; worker < parallelism; worker++) {
+                readers.add(() -> readChunk(child.createWorkerCopy(), keyPositions, width));
+            }
+        } else {
+            readers.add(() -> readChunk(child, keyPositions, width));
+        }
+        return invokeAll(pool, readers);
+    }
+
+    /**
+     * Method used (by a worker thread) to read all the batches of an operator into a chunk.
+     * @param operator The operator.
+     * @param keyPositions The positions of the join key in the tuples of the operator.
+     * @param width The number of values of the tuples of the operator.
+     * @return The chunk of the tuples of the operator.
+     */
+    private static TupleChunk readChunk(Operator operator, int[] keyPositions, int width) {
+        TupleChunk chunk = new TupleChunk(width);
+        TupleBatch batch = operator.getNextBatch();
+        while (batch != null) {
+            long[][] columns = batch.getColumns();
+            int[] selection = batch.getSelection();
+            for (int i = 0; i < batch.getSelectedCount(); i++) {
+                chunk.add(columns, selection[i], keyPositions);
+            }
+            batch = operator.getNextBatch();
+        }
+        return chunk;
+    }
+
+    /**
+     * Method used to scatter the tuples of the chunks of a child into their partitions, using the worker threads.
+     * First the number of tuples of every chunk in every partition is counted, which gives every chunk its own range
+     * of every partition. Then every chunk is copied into its ranges by its own worker, so no two workers write to the
+     * same place.
+     * @param chunks The chunks of the tuples of the child.
+     * @param width The number of values of the tuples.
+     * @param partitionBits The number of bits of the hash used to choose the partition of a tuple.
+     * @param pool The pool of worker threads.
+     * @return The partitioned tuples.
+     */
+    private static PartitionedTuples scatter(List<TupleChunk> chunks, int width, int partitionBits, ForkJoinPool pool) {
+        int partitionCount = 1 << partitionBits;
+
+        List<Callable<int[]>> counters = new ArrayList<>();
+        for (TupleChunk chunk : chunks) {
+            counters.add(() -> {
+                int[] histogram = new int[partitionCount];
+                for (int row = 0; row < chunk.count; row++) {
+                    histogram[partitionOf(chunk.hashes[row], partitionBits)] += 1;
+                }
+                return histogram;
+            });
+        }
+        List<int[]> histograms = invokeAll(pool, counters);
+
+        // The start of every partition, and the start of the range of every chunk in every partition.
+        int[] starts = new int[partitionCount + 1];
+        int[][] offsets = new int[chunks.size()][partitionCount];
+        int total = 0;
+        for (int partition = 0; partition < partitionCount; partition++) {
+            starts[partition] = total;
+            for (int chunk = 0; chunk < chunks.size(); chunk++) {
+                offsets[chunk][partition] = total;
+                total += histograms.get(chunk)[partition];
+            }
+        }
+        starts[partitionCount] = total;
+
+        long[] values = new long[total * width];
+        int[] hashes = new int[total];
+        List<Callable<Void>> scatterers = new ArrayList<>();
+        for (int c = 0; c < chunks.size(); c++) {
+            TupleChunk chunk = chunks.get(c);
+            int[] chunkOffsets = offsets[c];
+            scatterers.add(() -> {
+                for (int row = 0; row < chunk.count; row++) {
+                    int hash = chunk.hashes[row];
+                    int destination = chunkOffsets[partitionOf(hash, partitionBits)]++;
+                    System.arraycopy(chunk.values, row * width, values, destination * width, width);
+                    hashes[destination] = hash;
+                }
+                return null;
+            });
+        }
+        invokeAll(pool, scatterers);
+
+        return new PartitionedTuples(values, hashes, width, starts);
+    }
+
+    /**
+     * Helper method used to run tasks on the worker threads and wait for all of them.
+     * If a task throws an exception, it is thrown again here.
+     * @param pool The pool of worker threads.
+     * @param tasks The tasks.
+     * @param <T> The type of the results of the tasks.
+     * @return The results of the tasks, in order.
+     */
+    private static <T> List<T> invokeAll(ForkJoinPool pool, List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while partitioning the join.", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException("A worker failed.", cause);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Helper method used to hash the join key of a tuple (of a batch).
+     * @param columns The columns of the batch.
+     * @param row The row of the tuple.
+     * @param keyPositions The positions of the join key.
+     * @return The hash of the join key.
+     */
+    private static int hash(long[][] columns, int row, int[] keyPositions) {
+        long hash = HASH_MULTIPLIER;
+        for (int keyPosition : keyPositions) {
+            hash = (hash ^ columns[keyPosition][row]) * HASH_MULTIPLIER;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Helper method used to get the partition of a tuple from the hash of its join key, i.e., its top bits.
+     * The hash table of a partition uses the bottom bits, so the tuples of a partition are spread over its buckets.
+     * @param hash The hash of the join key.
+     * @param partitionBits The number of bits of the hash used to choose the partition.
+     * @return The partition number.
+     */
+    private static int partitionOf(int hash, int partitionBits) {
+        return (partitionBits == 0) ? 0 : hash >>> (32 - partitionBits);
+    }
+
+    /**
+     * GetNextBatch method for RadixHashJoinOperator.
+     * Joins the partitions one after the other (or the partitions taken by a worker copy). For every left tuple of the
+     * current partition, we compare it with the right tuples of its bucket of the hash table of the partition, and
+     * write the matches into the output batch until it is full. Then the residual join conditions (if there are any)
+     * are evaluated on the output batch. The position in the current partition is kept between calls.
+     * @return The next batch of joined tuples that satisfy the join condition, or null if there are no more matches.
+     */
+    @Override
+    public TupleBatch getNextBatch() {
+        if (rightTuples == null) {
+            partitionedJoin.partitionChildren();
+            leftTuples = partitionedJoin.leftTuples;
+            rightTuples = partitionedJoin.rightTuples;
+        }
+        if (joinedBatch == null) {
+            joinedBatch = new TupleBatch(joinedTupleTypes);
+        }
+        long[][] joinedColumns = joinedBatch.getColumns();
+        long[] leftValues = leftTuples.values;
+        long[] rightValues = rightTuples.values;
+        int leftWidth = leftTuples.width;
+        int rightWidth = rightTuples.width;
+
+        while (true) {
+            int rows = 0;
+            while (rows < TupleBatch.CAPACITY) {
+                // Compare the left tuple being probed with the next right tuple of its bucket.
+                if (nextMatch != 0) {
+                    int rightRow = rightStart + nextMatch - 1;
+                    nextMatch = nextInBucket[nextMatch - 1];
+                    if (rightTuples.hashes[rightRow] == probedHash && keysEqual(probedRow, rightRow)) {
+                        int leftOffset = probedRow * leftWidth;
+                        for (int column = 0; column < leftWidth; column++) {
+                            joinedColumns[column][rows] = leftValues[leftOffset + column];
+                        }
+                        int rightOffset = rightRow * rightWidth;
+                        for (int i = 0; i < rightOutputPositions.length; i++) {
+                            joinedColumns[leftWidth + i][rows] = rightValues[rightOffset + rightOutputPositions[i]];
+                        }
+                        rows += 1;
+                    }
+                    continue;
+                }
+
+                // Move onto the next left tuple of the partition (of the next partition if needed).
+                if (leftRow < leftEnd) {
+                    probedRow = leftRow;
+                    leftRow += 1;
+                    probedHash = leftTuples.hashes[probedRow];
+                    nextMatch = buckets[probedHash & bucketMask];
+                    continue;
+                }
+                if (!startNextPartition()) {
+                    break;
+                }
+            }
+
+            if (rows == 0) {
+                // Every partition has been joined. There is no more matches.
+                return null;
+            }
+            joinedBatch.selectAll(rows);
+            if (residualCondition != null) {
+                residualCondition.evaluateOnBatch(joinedBatch);
+            }
+            if (joinedBatch.getSelectedCount() > 0) {
+                return joinedBatch;
+            }
+        }
+    }
+
+    /**
+     * Method used to move onto the next partition, and build the hash table of its right tuples.
+     * Partitions without left tuples or without right tuples cannot have matches, so they are skipped, as are the
+     * morsels past the number of partitions.
+     * @return true if there is a next partition, false if every partition has been joined.
+     */
+    private boolean startNextPartition() {
+        while (true) {
+            int partition;
+            if (readsMorsels) {
+                partition = partitions.take();
+            } else {
+                partition = (nextPartition < partitions.size()) ? nextPartition++ : -1;
+            }
+            if (partition == -1) {
+                return false;
+            }
+
+            int[] leftStarts = leftTuples.starts;
+            int[] rightStarts = rightTuples.starts;
+            if (partition >= rightStarts.length - 1) {
+                continue;
+            }
+            int rightCount = rightStarts[partition + 1] - rightStarts[partition];
+            if (leftStarts[partition] == leftStarts[partition + 1] || rightCount == 0) {
+                continue;
+            }
+            leftRow = leftStarts[partition];
+            leftEnd = leftStarts[partition + 1];
+            rightStart = rightStarts[partition];
+            buildHashTable(rightCount);
+            return true;
+        }
+    }
+
+    /**
+     * Method used to build the hash table of the right tuples of the current partition.
+     * The arrays of the hash table are reused from partition to partition, and only grow for larger partitions.
+     * @param rightCount The number of right tuples of the partition.
+     */
+    private void buildHashTable(int rightCount) {
+        // Keep the table at most half full, so buckets stay short.
+        int size = 2;
+        while (size < 2 * rightCount) {
+            size *= 2;
+        }
+        if (buckets == null || buckets.length < size) {
+            buckets = new int[size];
+        } else {
+            Arrays.fill(buckets, 0, size, 0);
+        }
+        if (nextInBucket == null || nextInBucket.length < rightCount) {
+            nextInBucket = new int[Math.max(rightCount, 2 * PARTITION_TUPLES)];
+        }
+        bucketMask = size - 1;
+
+        for (int i = 0; i < rightCount; i++) {
+            int bucket = rightTuples.hashes[rightStart + i] & bucketMask;
+            nextInBucket[i] = buckets[bucket];
+            buckets[bucket] = i + 1;
+        }
+    }
+
+    /**
+     * Helper method used to check if a left tuple and a right tuple have equal join keys.
+     * @param leftRow The position of the left tuple in the partitioned left tuples.
+     * @param rightRow The position of the right tuple in the partitioned right tuples.
+     * @return true if the join keys are equal, false otherwise.
+     */
+    private boolean keysEqual(int leftRow, int rightRow) {
+        int leftOffset = leftRow * leftTuples.width;
+        int rightOffset = rightRow * rightTuples.width;
+        for (int i = 0; i < leftKeyPositions.length; i++) {
+            if (leftTuples.values[leftOffset + leftKeyPositions[i]] != rightTuples.values[rightOffset + rightKeyPositions[i]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * GetNextTuple method for RadixHashJoinOperator.
+     * Returns the tuples of the batches of getNextBatch one at a time.
+     * @return The next joined tuple that satisfies the join condition (if it exists).
+     */
+    @Override
+    public Tuple getNextTuple() {
+        while (tupleBatch == null || tuplePosition == tupleBatch.getSelectedCount()) {
+            tupleBatch = getNextBatch();
+            tuplePosition = 0;
+            if (tupleBatch == null) {
+                return null;
+            }
+        }
+        Tuple tuple = tupleBatch.getTuple(tupleBatch.getSelection()[tuplePosition]);
+        tuplePosition += 1;
+        return tuple;
+    }
+
+    /**
+     * Method used to get the partitions, as morsels, so that the partitions can be joined in parallel.
+     * The children are not read yet, so there is a morsel for every possible partition.
+     * @return The partitions.
+     */
+    @Override
+    public MorselQueue getMorsels() {
+        return partitions;
+    }
+
+    /**
+     * Method used to create a worker copy of the join, which shares the partitioned tuples.
+     * @return The worker copy.
+     */
+    @Override
+    public Operator createWorkerCopy() {
+        return new RadixHashJoinOperator(this);
+    }
+
+    /**
+     * Reset method for RadixHashJoinOperator.
+     * The partitioned tuples of the children are kept, so joining simply starts again from the first partition.
+     */
+    @Override
+    public void reset() {
+        nextPartition = 0;
+        leftRow = 0;
+        leftEnd = 0;
+        nextMatch = 0;
+        tupleBatch = null;
+        tuplePosition = 0;
+    }
+
+    /**
+     * Close method for RadixHashJoinOperator.
+     * Closes the children if they have not been partitioned (which closes them) yet.
+     */
+    @Override
+    public void close() {
+        if (partitionedJoin == this) {
+            closeChildren();
+        }
+    }
+
+    /**
+     * Getter for the variables of the output tuples of RadixHashJoinOperator.
+     * @return The variables of the left child followed by the variables of the right child that are not in the join key.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return joinedTupleVars;
+    }
+
+    /**
+     * Getter for the types of the output tuples of RadixHashJoinOperator.
+     * @return The types of the left child followed by the types of the right child that are not in the join key.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return joinedTupleTypes;
+    }
+
+    /**
+     * TupleChunk class. The tuples read by a worker thread, one after the other in a long array, with the hash of the
+     * join key of every tuple.
+     */
+    private static class TupleChunk {
+        private final int width;
+        private long[] values;
+        private int[] hashes;
+        private int count;
+
+        private TupleChunk(int width) {
+            this.width = width;
+            values = new long[TupleBatch.CAPACITY * width];
+            hashes = new int[TupleBatch.CAPACITY];
+            count = 0;
+        }
+
+        private void add(long[][] columns, int row, int[] keyPositions) {
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, 2 * count);
+                values = Arrays.copyOf(values, 2 * count * width);
+            }
+            int offset = count * width;
+            for (int column = 0; column < width; column++) {
+                values[offset + column] = columns[column][row];
+            }
+            hashes[count] = hash(columns, row, keyPositions);
+            count += 1;
+        }
+    }
+
+    /**
+     * PartitionedTuples class. The tuples of a child, one after the other in a long array, ordered by partition:
+     * the tuples of partition p are the tuples [starts[p], starts[p + 1]). The hash of the join key of every tuple is
+     * kept, so that only tuples with equal hashes have their keys compared.
+     */
+    private static class PartitionedTuples {
+        private final long[] values;
+        private final int[] hashes;
+        private final int width;
+        private final int[] starts;
+
+        private PartitionedTuples(long[] values, int[] hashes, int width, int[] starts) {
+            this.values = values;
+            this.hashes = hashes;
+            this.width = width;
+            this.starts = starts;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package ed.inf.adbs.minibase.base;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RelationStatistics class.
+ * Statistics about a relation: its number of rows and the statistics of each of its columns (see ColumnStatistics).
+ * Statistics are computed by reading the whole relation (see Analyzer) and saved in the statistics file of the
+ * database, next to schema.txt. The length and modification time of the relation file are saved with them, so that
+ * statistics of a relation file that has changed since it was analyzed can be detected and ignored.
+ * The statistics file has a line for every relation, followed by a line for every column of the relation, i.e.:
+ * relation R rows 1500 length 22310 modified 1700000000000
+ * column 0 distinct 60 minimum 1 maximum 60 histogram 2 4 ... 60
+ * column 2 distinct 5 minimum 'adbs' maximum 'rhcp' histogram 'adbs' ... 'rhcp'
+ * Apostrophes within strings are doubled, i.e., 'it''s'.
+ */
+public class RelationStatistics {
+
+    // The name of the relation, i.e., "R".
+    private final String relation;
+    // The number of rows of the relation.
+    private final long rowCount;
+    // The length and modification time of the relation file when it was analyzed.
+    private final long fileLength;
+    private final long fileModified;
+    // The statistics of every column of the relation.
+    private final ColumnStatistics[] columns;
+
+    /**
+     * Constructor for RelationStatistics.
+     * @param relation The name of the relation.
+     * @param rowCount The number of rows of the relation.
+     * @param fileLength The length of the relation file when it was analyzed.
+     * @param fileModified The modification time of the relation file when it was analyzed.
+     * @param columns The statistics of every column of the relation.
+     */
+    public RelationStatistics(String relation, long rowCount, long fileLength, long fileModified, ColumnStatistics[] columns) {
+        this.relation = relation;
+        this.rowCount = rowCount;
+        this.fileLength = fileLength;
+        this.fileModified = fileModified;
+        this.columns = columns;
+    }
+
+    /**
+     * Method used to compute the statistics of a relation by scanning all of its tuples.
+     * @param relation The name of the relation, i.e., "R".
+     * @return The statistics of the relation.
+     */
+    public static RelationStatistics analyze(String relation) {
+        DatabaseCatalog catalog = DatabaseCatalog.getCatalogInstance();
+        ColumnType[] columnTypes = catalog.getSchema(relation);
+        File file = new File(catalog.getLocation(relation));
+        long fileLength = file.length();
+        long fileModified = file.lastModified();
+
+        List<Term> terms = new ArrayList<>();
+        for (int column = 0; column < columnTypes.length; column++) {
+            terms.add(new Variable("column" + column));
+        }
+        Operator scanOperator = QueryPlan.createScanOperator(new RelationalAtom(relation, terms));
+
+        long[][] columnValues = new long[columnTypes.length][1024];
+        int rowCount = 0;
+        Tuple tuple = scanOperator.getNextTuple();
+        while (tuple != null) {
+            long[] values = tuple.getValues();
+            for (int column = 0; column < columnTypes.length; column++) {
+                if (rowCount == columnValues[column].length) {
+                    columnValues[column] = Arrays.copyOf(columnValues[column], 2 * rowCount);
+                }
+                columnValues[column][rowCount] = values[column];
+            }
+            rowCount += 1;
+            tuple = scanOperator.getNextTuple();
+        }
+
+        ColumnStatistics[] columns = new ColumnStatistics[columnTypes.length];
+        for (int column = 0; column < columnTypes.length; column++) {
+            columns[column] = ColumnStatistics.compute(columnTypes[column], columnValues[column], rowCount);
+            // Free the values of the column as soon as they are no longer needed.
+            columnValues[column] = null;
+        }
+
+        return new RelationStatistics(relation, rowCount, fileLength, fileModified, columns);
+    }
+
+    /**
+     * Method used to check that the statistics describe the current relation file, i.e., the file has not been
+     * modified (or replaced by a columnar file) since it was analyzed.
+     * @param location File path location of the current relation file.
+     * @return true if the file has the same length and modification time as when it was analyzed, false otherwise.
+     */
+    public boolean isUpToDate(String location) {
+        File file = new File(location);
+        return file.length() == fileLength && file.lastModified() == fileModified;
+    }
+
+    /**
+     * Getter for the name of the relation.
+     * @return The name of the relation.
+     */
+    public String getRelation() {
+        return relation;
+    }
+
+    /**
+     * Getter for the number of rows of the relation.
+     * @return The number of rows.
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Getter for the statistics of a column.
+     * @param column The position of the column in the relation.
+     * @return The statistics of the column.
+     */
+    public ColumnStatistics getColumn(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Method used to read the statistics of every relation from a statistics file.
+     * Statistics of relations that are not in the schema, or do not match the schema of the relation, are skipped.
+     * @param location File path location of the statistics file.
+     * @return The statistics of every relation in the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static List<RelationStatistics> readAll(String location) throws IOException {
+        DatabaseCatalog catalog = DatabaseCatalog.getCatalogInstance();
+        List<RelationStatistics> allStatistics = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(location))) {
+            String line = reader.readLine();
+            while (line != null) {
+                List<String> tokens = tokenize(line);
+                if (tokens.isEmpty() || !tokens.get(0).equals("relation")) {
+                    line = reader.readLine();
+                    continue;
+                }
+
+                // relation R rows 1500 length 22310 modified 1700000000000
+                String relation = tokens.get(1);
+                long rowCount = Long.parseLong(tokens.get(3));
+                long fileLength = Long.parseLong(tokens.get(5));
+                long fileModified = Long.parseLong(tokens.get(7));
+
+                List<ColumnStatistics> columns = new ArrayList<>();
+                ColumnType[] columnTypes = catalog.getSchema(relation);
+                line = reader.readLine();
+                while (line != null && line.startsWith("column")) {
+                    // column 0 distinct 60 minimum 1 maximum 60 histogram 2 4 ... 60
+                    tokens = tokenize(line);
+                    int column = Integer.parseInt(tokens.get(1));
+                    if (columnTypes != null && column < columnTypes.length) {
+                        long[] histogramBounds = new long[tokens.size() - 9];
+                        for (int i = 0; i < histogramBounds.length; i++) {
+                            histogramBounds[i] = parseValue(tokens.get(9 + i));
+                        }
+                        columns.add(new ColumnStatistics(columnTypes[column], Long.parseLong(tokens.get(3)),
+                                parseValue(tokens.get(5)), parseValue(tokens.get(7)), histogramBounds));
+                    }
+                    line = reader.readLine();
+                }
+
+                if (columnTypes != null && columns.size() == columnTypes.length) {
+                    allStatistics.add(new RelationStatistics(relation, rowCount, fileLength, fileModified,
+                            columns.toArray(new ColumnStatistics[0])));
+                }
+            }
+        }
+
+        return allStatistics;
+    }
+
+    /**
+     * Method used to write the statistics of every relation to a statistics file, replacing the file.
+     * @param allStatistics The statistics of every relation.
+     * @param location File path location of the statistics file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeAll(List<RelationStatistics> allStatistics, String location) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(Paths.get(location))) {
+            for (RelationStatistics statistics : allStatistics) {
+                statistics.write(writer);
+            }
+        }
+    }
+
+    /**
+     * Helper method used to write the statistics of the relation, in the format of the statistics file.
+     * @param writer The writer of the statistics file.
+     * @throws IOException If the file cannot be written.
+     */
+    private void write(Writer writer) throws IOException {
+        writer.write("relation " + relation + " rows " + rowCount + " length " + fileLength + " modified " + fileModified + "\n");
+        for (int column = 0; column < columns.length; column++) {
+            ColumnStatistics columnStatistics = columns[column];
+            ColumnType type = columnStatistics.getType();
+            StringBuilder line = new StringBuilder("column " + column + " distinct " + columnStatistics.getDistinctCount());
+            line.append(" minimum ").append(formatValue(type, columnStatistics.getMinimum()));
+            line.append(" maximum ").append(formatValue(type, columnStatistics.getMaximum()));
+            line.append(" histogram");
+            for (long bound : columnStatistics.getHistogramBounds()) {
+                line.append(' ').append(formatValue(type, bound));
+            }
+            writer.write(line.append('\n').toString());
+        }
+    }
+
+    /**
+     * Helper method used to format a value like in the relation files, i.e., 5 or 'adbs'.
+     * Apostrophes within strings are doubled, i.e., 'it''s', so that tokenize can find the end of the string.
+     * @param type The type of the value.
+     * @param value The value (a StringDictionary id for strings).
+     * @return The formatted value.
+     */
+    private static String formatValue(ColumnType type, long value) {
+        if (type == ColumnType.STRING) {
+            return "'" + StringDictionary.getString(value).replace("'", "''") + "'";
+        }
+        return Long.toString(value);
+    }
+
+    /**
+     * Helper method used to parse a value formatted by formatValue.
+     * @param token The formatted value.
+     * @return The value (a StringDictionary id for strings).
+     */
+    private static long parseValue(String token) {
+        if (token.startsWith("'")) {
+            return StringDictionary.getId(token.substring(1, token.length() - 1).replace("''", "'"));
+        }
+        return Long.parseLong(token);
+    }
+
+    /**
+     * Helper method used to split a line of the statistics file on spaces, except for spaces between apostrophes.
+     * A string ends at the first apostrophe that is not doubled (see formatValue), or at the end of the line.
+     * @param line The line.
+     * @return The tokens of the line.
+     */
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        int position = 0;
+        while (position < line.length()) {
+            if (line.charAt(position) == ' ') {
+                position += 1;
+                continue;
+            }
+            int end;
+            if (line.charAt(position) == '\'') {
+                int quote = line.indexOf('\'', position + 1);
+                while (quote != -1 && quote + 1 < line.length() && line.charAt(quote + 1) == '\'') {
+                    quote = line.indexOf('\'', quote + 2);
+                }
+                end = (quote == -1) ? line.length() : quote + 1;
+            } else {
+                end = line.indexOf(' ', position);
+                if (end == -1) {
+                    end = line.length();
+                }
+            }
+            tokens.add(line.substring(position, end));
+            position = end;
+        }
+        return tokens;
+    }
+}
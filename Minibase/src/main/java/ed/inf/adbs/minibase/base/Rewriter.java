@@ -6,6 +6,8 @@ import java.util.*;
  * Rewriter class used to simplify query bodies.
  * We replace duplicate variables with new variables, with an extra comparison atom added.
  * We also replace constants with new variables, with an extra comparison atom added.
+ * Then we infer the conditions implied by the comparison atoms, so that they can be applied to every relation they
+ * concern, and detect comparison atoms that can never hold together.
  */
 public class Rewriter {
 
@@ -41,11 +43,18 @@ public class Rewriter {
      * Rewriting is done in two steps:
      * 1. Replacing duplicate variables with new variables and comparison atoms. (R(x,x) -> R(x,y), x=y).
      * 2. Replacing constants with new variables and comparison atoms. (R(x,1) -> R(x,y), y=1).
+     * 3. Inferring the conditions on constants implied by the comparison atoms. (x=u, x=1 -> x=1, u=1).
+     * If the comparison atoms can never hold together (i.e., x>5, x<3), they are replaced by the comparison atom 1=2,
+     * which the QueryPlan detects before reading any relation.
      * @return A new Query object, with the same head and the rewritten body.
      */
     public Query rewriteQuery() {
         rewriteDuplicateVariables();
         rewriteConstants();
+        if (!inferComparisons()) {
+            comparisonAtoms.clear();
+            comparisonAtoms.add(new ComparisonAtom(new IntegerConstant(1), new IntegerConstant(2), ComparisonOperator.EQ));
+        }
         List<Atom> newBody = new ArrayList<>();
         newBody.addAll(relationalAtoms);
         newBody.addAll(comparisonAtoms);
@@ -157,6 +166,294 @@ public class Rewriter {
         }
     }
 
+    /**
+     * Method used to infer the conditions on constants implied by the comparison atoms, and detect contradictions.
+     * Variables that are equal (x=u) are grouped into classes, and every class gets the tightest lower and upper bound,
+     * and the constants it is not equal to, from the comparison atoms of its variables with constants.
+     * Bounds are also propagated through comparisons between classes: x<y, y<3 -> x<3.
+     * The comparison atoms between variables and constants are then replaced by the conditions of the class of every
+     * variable, so every variable of a class gets every condition: x=u, x=1 -> x=u, x=1, u=1 and x=u, x>5, x>2 -> x=u,
+     * x>5, u>5. Classes compared to constants of different types are left as they are.
+     * @return false if the comparison atoms can never hold together, i.e., x>5, x<3 or x=1, x!=1. Otherwise true.
+     */
+    private boolean inferComparisons() {
+        // Group equal variables into classes, with a union-find of the variables (every class points to a representative).
+        HashMap<Variable, Variable> parents = new HashMap<>();
+        for (ComparisonAtom comparisonAtom : comparisonAtoms) {
+            if (comparisonAtom.getOp() == ComparisonOperator.EQ
+                    && comparisonAtom.getTerm1() instanceof Variable && comparisonAtom.getTerm2() instanceof Variable) {
+                Variable lhsClass = findClass(parents, (Variable) comparisonAtom.getTerm1());
+                Variable rhsClass = findClass(parents, (Variable) comparisonAtom.getTerm2());
+                if (!lhsClass.equals(rhsClass)) {
+                    parents.put(lhsClass, rhsClass);
+                }
+            }
+        }
+
+        // Collect the conditions on constants of every class.
+        HashMap<Variable, VariableClass> classes = new HashMap<>();
+        List<ComparisonAtom> variableComparisons = new ArrayList<>();
+        List<ComparisonAtom> otherComparisons = new ArrayList<>();
+        for (ComparisonAtom comparisonAtom : comparisonAtoms) {
+            Term lhs = comparisonAtom.getTerm1();
+            Term rhs = comparisonAtom.getTerm2();
+            if (lhs instanceof Variable && rhs instanceof Variable) {
+                variableComparisons.add(comparisonAtom);
+            } else if (lhs instanceof Variable || rhs instanceof Variable) {
+                boolean constantLeft = lhs instanceof Constant;
+                Variable variable = (Variable) (constantLeft ? rhs : lhs);
+                Constant constant = (Constant) (constantLeft ? lhs : rhs);
+                ComparisonOperator op = constantLeft ? SelectionCondition.flip(comparisonAtom.getOp()) : comparisonAtom.getOp();
+                getClass(classes, parents, variable).addCondition(op, constant, comparisonAtom);
+            } else {
+                otherComparisons.add(comparisonAtom);
+            }
+        }
+
+        // Check the comparisons between variables, and propagate bounds between classes until nothing changes.
+        // Every round tightens at least one bound, so the number of rounds is limited to avoid looping on cycles.
+        boolean changed = true;
+        for (int round = 0; changed && round <= variableComparisons.size(); round++) {
+            changed = false;
+            for (ComparisonAtom comparisonAtom : variableComparisons) {
+                ComparisonOperator op = comparisonAtom.getOp();
+                VariableClass lhsClass = getClass(classes, parents, (Variable) comparisonAtom.getTerm1());
+                VariableClass rhsClass = getClass(classes, parents, (Variable) comparisonAtom.getTerm2());
+                if (lhsClass == rhsClass) {
+                    // x<x and x!=x never hold.
+                    if (op == ComparisonOperator.NEQ || op == ComparisonOperator.LT || op == ComparisonOperator.GT) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (op == ComparisonOperator.GT || op == ComparisonOperator.GEQ) {
+                    VariableClass smallerClass = rhsClass;
+                    rhsClass = lhsClass;
+                    lhsClass = smallerClass;
+                    op = SelectionCondition.flip(op);
+                }
+                if (op == ComparisonOperator.LT || op == ComparisonOperator.LEQ) {
+                    boolean strict = op == ComparisonOperator.LT;
+                    // lhs < rhs: lhs is below the upper bound of rhs, and rhs is above the lower bound of lhs.
+                    changed |= lhsClass.tightenUpper(rhsClass.upper, rhsClass.upperStrict || strict);
+                    changed |= rhsClass.tightenLower(lhsClass.lower, lhsClass.lowerStrict || strict);
+                }
+            }
+        }
+
+        List<ComparisonAtom> inferredComparisons = new ArrayList<>(variableComparisons);
+        inferredComparisons.addAll(otherComparisons);
+        Set<VariableClass> keptClasses = new HashSet<>();
+        for (Variable variable : usedVariables) {
+            VariableClass variableClass = classes.get(findClass(parents, variable));
+            if (variableClass == null) {
+                continue;
+            }
+            if (variableClass.mixedTypes) {
+                // Keep the original comparison atoms of the class, once.
+                if (keptClasses.add(variableClass)) {
+                    inferredComparisons.addAll(variableClass.originalComparisons);
+                }
+                continue;
+            }
+            if (!variableClass.isSatisfiable()) {
+                return false;
+            }
+            inferredComparisons.addAll(variableClass.getConditions(variable));
+        }
+
+        comparisonAtoms.clear();
+        comparisonAtoms.addAll(inferredComparisons);
+        return true;
+    }
+
+    /**
+     * Helper method used to find the representative of the class of a variable in the union-find of the variables.
+     * @param parents The parent of every variable that is not the representative of its class.
+     * @param variable The variable.
+     * @return The representative of the class of the variable.
+     */
+    private static Variable findClass(HashMap<Variable, Variable> parents, Variable variable) {
+        Variable parent = parents.get(variable);
+        while (parent != null) {
+            variable = parent;
+            parent = parents.get(variable);
+        }
+        return variable;
+    }
+
+    /**
+     * Helper method used to get the conditions of the class of a variable, creating them if needed.
+     * @param classes The conditions of every class, by representative.
+     * @param parents The parent of every variable that is not the representative of its class.
+     * @param variable The variable.
+     * @return The conditions of the class of the variable.
+     */
+    private static VariableClass getClass(HashMap<Variable, VariableClass> classes, HashMap<Variable, Variable> parents, Variable variable) {
+        return classes.computeIfAbsent(findClass(parents, variable), representative -> new VariableClass());
+    }
+
+    /**
+     * VariableClass class.
+     * The conditions on constants of a class of equal variables: a lower bound, an upper bound and the constants the
+     * variables are not equal to. An equality with a constant is both a (non-strict) lower and upper bound.
+     * Strict integer bounds are stored as non-strict bounds, i.e., x>4 as x>=5, so that x>4, x<6 becomes x=5.
+     */
+    private static class VariableClass {
+
+        // The type of the constants of the class (IntegerConstant or StringConstant), null until the first constant.
+        private Class<? extends Constant> type;
+        // The tightest lower and upper bounds of the class (null if there are none), and whether they are strict.
+        private Constant lower;
+        private boolean lowerStrict;
+        private Constant upper;
+        private boolean upperStrict;
+        // The constants the variables of the class are not equal to.
+        private final List<Constant> notEqual = new ArrayList<>();
+        // The original comparison atoms with constants of the class, and whether their constants have different types.
+        private final List<ComparisonAtom> originalComparisons = new ArrayList<>();
+        private boolean mixedTypes;
+
+        /**
+         * Method used to add a comparison with a constant to the conditions of the class.
+         * @param op The comparison operator, with the variable on the left.
+         * @param constant The constant.
+         * @param comparisonAtom The original comparison atom.
+         */
+        private void addCondition(ComparisonOperator op, Constant constant, ComparisonAtom comparisonAtom) {
+            originalComparisons.add(comparisonAtom);
+            mixedTypes |= type != null && type != constant.getClass();
+            if (mixedTypes) {
+                return;
+            }
+            type = constant.getClass();
+
+            switch (op) {
+                case EQ:
+                    tightenLower(constant, false);
+                    tightenUpper(constant, false);
+                    break;
+                case NEQ:
+                    notEqual.add(constant);
+                    break;
+                case LT:
+                case LEQ:
+                    tightenUpper(constant, op == ComparisonOperator.LT);
+                    break;
+                default:
+                    tightenLower(constant, op == ComparisonOperator.GT);
+            }
+        }
+
+        /**
+         * Method used to replace the lower bound of the class if the given bound is tighter.
+         * @param bound The lower bound (ignored if null or of a different type).
+         * @param strict true if the bound is strict (>), false otherwise (>=).
+         * @return true if the lower bound changed, false otherwise.
+         */
+        private boolean tightenLower(Constant bound, boolean strict) {
+            if (bound == null || (type != null && type != bound.getClass())) {
+                return false;
+            }
+            type = bound.getClass();
+            if (strict && bound instanceof IntegerConstant && ((IntegerConstant) bound).getValue() < Integer.MAX_VALUE) {
+                bound = new IntegerConstant(((IntegerConstant) bound).getValue() + 1);
+                strict = false;
+            }
+            int comparison = (lower == null) ? 1 : compareConstants(bound, lower);
+            if (comparison > 0 || (comparison == 0 && strict && !lowerStrict)) {
+                lower = bound;
+                lowerStrict = strict;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Method used to replace the upper bound of the class if the given bound is tighter.
+         * @param bound The upper bound (ignored if null or of a different type).
+         * @param strict true if the bound is strict (<), false otherwise (<=).
+         * @return true if the upper bound changed, false otherwise.
+         */
+        private boolean tightenUpper(Constant bound, boolean strict) {
+            if (bound == null || (type != null && type != bound.getClass())) {
+                return false;
+            }
+            type = bound.getClass();
+            if (strict && bound instanceof IntegerConstant && ((IntegerConstant) bound).getValue() > Integer.MIN_VALUE) {
+                bound = new IntegerConstant(((IntegerConstant) bound).getValue() - 1);
+                strict = false;
+            }
+            int comparison = (upper == null) ? -1 : compareConstants(bound, upper);
+            if (comparison < 0 || (comparison == 0 && strict && !upperStrict)) {
+                upper = bound;
+                upperStrict = strict;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Method used to check if some value satisfies all the conditions of the class.
+         * @return false if the bounds leave no value, or the only value is a constant the class is not equal to.
+         */
+        private boolean isSatisfiable() {
+            if (lower == null || upper == null) {
+                return true;
+            }
+            int comparison = compareConstants(lower, upper);
+            if (comparison > 0 || (comparison == 0 && (lowerStrict || upperStrict))) {
+                return false;
+            }
+            return comparison != 0 || !notEqual.contains(lower);
+        }
+
+        /**
+         * Method used to get the conditions of the class as comparison atoms on a variable of the class.
+         * If the bounds leave a single value, this is an equality with that value. Otherwise, these are the bounds and
+         * the inequalities with the constants within the bounds.
+         * @param variable The variable of the class.
+         * @return The comparison atoms.
+         */
+        private List<ComparisonAtom> getConditions(Variable variable) {
+            List<ComparisonAtom> conditions = new ArrayList<>();
+            if (lower != null && upper != null && compareConstants(lower, upper) == 0) {
+                conditions.add(new ComparisonAtom(variable, lower, ComparisonOperator.EQ));
+                return conditions;
+            }
+            if (lower != null) {
+                conditions.add(new ComparisonAtom(variable, lower, lowerStrict ? ComparisonOperator.GT : ComparisonOperator.GEQ));
+            }
+            if (upper != null) {
+                conditions.add(new ComparisonAtom(variable, upper, upperStrict ? ComparisonOperator.LT : ComparisonOperator.LEQ));
+            }
+            Set<Constant> addedConstants = new HashSet<>();
+            for (Constant constant : notEqual) {
+                boolean aboveLower = lower == null || compareConstants(constant, lower) > 0
+                        || (compareConstants(constant, lower) == 0 && !lowerStrict);
+                boolean belowUpper = upper == null || compareConstants(constant, upper) < 0
+                        || (compareConstants(constant, upper) == 0 && !upperStrict);
+                if (aboveLower && belowUpper && addedConstants.add(constant)) {
+                    conditions.add(new ComparisonAtom(variable, constant, ComparisonOperator.NEQ));
+                }
+            }
+            return conditions;
+        }
+
+        /**
+         * Helper method used to compare two constants of the same type.
+         * @param constant1 The first constant.
+         * @param constant2 The second constant.
+         * @return A negative integer, zero, or a positive integer as the first constant is less than, equal to, or greater than the second.
+         */
+        private static int compareConstants(Constant constant1, Constant constant2) {
+            if (constant1 instanceof IntegerConstant) {
+                return ((IntegerConstant) constant1).getValue().compareTo(((IntegerConstant) constant2).getValue());
+            }
+            return ((StringConstant) constant1).getValue().compareTo(((StringConstant) constant2).getValue());
+        }
+    }
+
     /**
      * Method to generate a new variable that is not currently in use.
      * First we generate a random character. If this character is already a
@@ -18,11 +18,16 @@ public class ScanOperator extends Operator{
     private final List<Variable> variables;
     // Scanner used for reading a file line by line (tuple by tuple).
     private Scanner scanner;
+    // Decoder compiled from the schema of the relation, used to convert lines to tuple values.
+    private final TupleDecoder tupleDecoder;
+    // The types of the values of the tuples, from the schema.
+    private final ColumnType[] columnTypes;
 
     /**
      * Constructor for ScanOperator.
      * Takes the relationalAtom and extracts the relation name and the variables.
      * Then assigns to baseRelation and variables.
+     * Validates the relation file against the schema of the relation (once per relation), and compiles the decoder.
      * Also creates a new scanner.
      * @param relationalAtom The relational atom from the body that prompted us to create a scanOperator.
      */
@@ -36,24 +41,29 @@ public class ScanOperator extends Operator{
             }
         }
 
+        DatabaseCatalog catalog = DatabaseCatalog.getCatalogInstance();
+        catalog.validateRelationFile(baseRelation);
+        columnTypes = catalog.getSchema(baseRelation);
+        tupleDecoder = new TupleDecoder(columnTypes);
+
         createScanner();
     }
 
     /**
      * GetNextTuple method for ScanOperator.
-     * Checks if the scanner has a next line/tuple.
+     * Checks if the scanner has a next (non-empty) line/tuple.
      * If so, convert this to a tuple and return. Else return null indicating there is no more tuples.
      * @return Next tuple from file, or null in the case where there is no more tuples.
      */
     @Override
     public Tuple getNextTuple() {
-        if (scanner.hasNextLine()){
+        while (scanner.hasNextLine()){
             String stringTuple = scanner.nextLine();
-            return toTuple(stringTuple);
-        }
-        else {
-            return null;
+            if (!stringTuple.isEmpty()) {
+                return toTuple(stringTuple);
+            }
         }
+        return null;
     }
 
     /**
@@ -66,6 +76,15 @@ public class ScanOperator extends Operator{
         createScanner();
     }
 
+    /**
+     * Close method for ScanOperator.
+     * Closes the scanner of the relation file.
+     */
+    @Override
+    public void close() {
+        scanner.close();
+    }
+
     /**
      * Method used to create a new scanner to start scanning a file from the start.
      * It takes the relation name and gets the file location from the DatabaseCatalog.
@@ -84,30 +103,29 @@ public class ScanOperator extends Operator{
 
     /**
      * Method used to convert a line from the file to a tuple object (String -> Tuple).
+     * The line is decoded with the decoder compiled from the schema of the relation.
      * @param tupleString The line from the file of type String.
      * @return Tuple object which is represents the tupleString.
      */
     private Tuple toTuple(String tupleString) {
-        // Split the string (line) by the comma delimiter.
-        String[] tupleSplit = tupleString.split(", |,");
-
-        Constant[] tupleValues = new Constant[variables.size()];
+        return new Tuple(tupleDecoder.decode(tupleString), columnTypes);
+    }
 
-        int counter = 0;
-        // Here we exploit the fact that there are only two types of constants.
-        // StringConstants begin with an apostrophe and IntegerConstants do not.
-        // So we actually do not use the schemas here for simplicity.
-        for (String constString : tupleSplit) {
-            if (constString.charAt(0) == '\'') {
-                constString = constString.substring(1, constString.length() - 1);
-                tupleValues[counter] = new StringConstant(constString);
-            }
-            else {
-                tupleValues[counter] = new IntegerConstant(Integer.parseInt(constString));
-            }
-            counter += 1;
-        }
+    /**
+     * Getter for the variables of the output tuples of ScanOperator.
+     * @return The variables from the relational atom, in order.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return variables;
+    }
 
-        return new Tuple(tupleValues, variables);
+    /**
+     * Getter for the types of the output tuples of ScanOperator.
+     * @return The types of the columns of the relation, from the schema.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return columnTypes;
     }
-}
\ No newline at end of file
+}
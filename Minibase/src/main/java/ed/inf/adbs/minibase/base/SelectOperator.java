@@ -1,8 +1,11 @@
 package ed.inf.adbs.minibase.base;
 
+import java.util.List;
+
 /**
  * SelectOperator class that is inherited from Operator class.
  * This operator is used when there are selection conditions (not including join conditions) on a relation.
+ * Batches of the child are filtered in place, by narrowing their selection vectors, so no values are copied.
  */
 public class SelectOperator extends Operator{
 
@@ -45,6 +48,45 @@ public class SelectOperator extends Operator{
         return null;
     }
 
+    /**
+     * GetNextBatch method for SelectOperator.
+     * Evaluates the selection conditions on the next batch of the child, skipping batches where none of the tuples
+     * satisfy them.
+     * @return The next batch of the child, with only its tuples that satisfy the selection conditions selected, or
+     * null if there are no more satisfying child tuples.
+     */
+    @Override
+    public TupleBatch getNextBatch() {
+        TupleBatch childBatch = childOperator.getNextBatch();
+        while (childBatch != null) {
+            conditions.evaluateOnBatch(childBatch);
+            if (childBatch.getSelectedCount() > 0) {
+                return childBatch;
+            }
+            childBatch = childOperator.getNextBatch();
+        }
+        return null;
+    }
+
+    /**
+     * Method used to get the morsels of the child, as the selection can be run in parallel if its child can.
+     * @return The morsels of the child, or null if it cannot be run in parallel.
+     */
+    @Override
+    public MorselQueue getMorsels() {
+        return childOperator.getMorsels();
+    }
+
+    /**
+     * Method used to create a worker copy of the selection, over a worker copy of the child.
+     * The conditions are shared, as evaluating them changes nothing.
+     * @return The worker copy.
+     */
+    @Override
+    public Operator createWorkerCopy() {
+        return new SelectOperator(conditions, childOperator.createWorkerCopy());
+    }
+
     /**
      * Reset method for SelectOperator.
      * Resets the child operator until ultimately the scanner of the scan operator has reset.
@@ -53,4 +95,31 @@ public class SelectOperator extends Operator{
     public void reset() {
         childOperator.reset();
     }
-}
\ No newline at end of file
+
+    /**
+     * Close method for SelectOperator.
+     * Closes the child operator.
+     */
+    @Override
+    public void close() {
+        childOperator.close();
+    }
+
+    /**
+     * Getter for the variables of the output tuples of SelectOperator. These are the variables of the child.
+     * @return The variables of the child operator.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return childOperator.getVariables();
+    }
+
+    /**
+     * Getter for the types of the output tuples of SelectOperator. These are the types of the child.
+     * @return The types of the child operator.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return childOperator.getTypes();
+    }
+}
@@ -6,19 +6,34 @@ import java.util.List;
  * SelectionCondition class.
  * A SelectionCondition object is made up of a list of comparison atoms, i.e., a list of selection conditions.
  * This class provides a method to evaluate a tuple on a selection condition.
+ * Every condition is compiled once, when the SelectionCondition is created, into a predicate specialised for its
+ * operator, the types of its terms and which of its terms are variables. The variables are resolved to their positions
+ * in the tuples, constants are converted to the primitive representation of the tuple values, and conditions with the
+ * constant on the left are flipped (i.e., 2 < x becomes x > 2). So evaluating a condition on a tuple needs no type
+ * checks, no switch on the operator and no allocation.
+ * Conditions can also be evaluated on a whole TupleBatch, where every predicate filters the selection vector of the
+ * batch in a loop over its columns.
  */
 public class SelectionCondition {
 
     // The comparison atoms / conditions of the selection condition.
     private final List<ComparisonAtom> conditions;
+    // The compiled predicate of every condition, in order.
+    private final Predicate[] predicates;
 
     /**
      * Constructor of SelectionCondition.
-     * Assigns conditions.
+     * Assigns conditions, and compiles every condition into a predicate on the tuples with the given variables and types.
      * @param conditions The comparison atoms that are the selection conditions (of a single relation).
+     * @param variables The variables that correspond to each position of the tuples the conditions are evaluated on.
+     * @param types The types of each position of the tuples the conditions are evaluated on.
      */
-    public SelectionCondition(List<ComparisonAtom> conditions) {
+    public SelectionCondition(List<ComparisonAtom> conditions, List<Variable> variables, ColumnType[] types) {
         this.conditions = conditions;
+        predicates = new Predicate[conditions.size()];
+        for (int i = 0; i < conditions.size(); i++) {
+            predicates[i] = compile(conditions.get(i), variables, types);
+        }
     }
 
     /**
@@ -35,259 +50,500 @@ public class SelectionCondition {
             return false;
         }
 
-        boolean conditionHolds = false;
-
-        for (ComparisonAtom comparisonAtom : conditions) {
+        long[] tupleValues = tuple.getValues();
+        for (Predicate predicate : predicates) {
             // We evaluate each condition one-by-one rather than one big conjunction.
-
-            switch (comparisonAtom.getOp()) {
-                case EQ:
-                    conditionHolds = evaluateConditionEQ(tuple, comparisonAtom);
-                    break;
-                case GT:
-                    conditionHolds = evaluateConditionGT(tuple, comparisonAtom);
-                    break;
-                case LT:
-                    conditionHolds = evaluateConditionLT(tuple, comparisonAtom);
-                    break;
-                case GEQ:
-                    conditionHolds = evaluateConditionEQ(tuple, comparisonAtom);
-                    if (conditionHolds) { break; }
-                    conditionHolds = evaluateConditionGT(tuple, comparisonAtom);
-                    break;
-                case LEQ:
-                    conditionHolds = evaluateConditionEQ(tuple, comparisonAtom);
-                    if (conditionHolds) { break; }
-                    conditionHolds = evaluateConditionLT(tuple, comparisonAtom);
-                    break;
-                case NEQ:
-                    conditionHolds = !evaluateConditionEQ(tuple, comparisonAtom);
-                    break;
-            }
-
-            if (!conditionHolds) {
+            if (!predicate.evaluate(tupleValues)) {
                 return false;
             }
-
         }
 
         return true; // All conditions hold on the tuple.
     }
 
     /**
-     * Helper method for evaluateOnTuple.
-     * This method is used if one of the conditions contains the "less than" operator.
-     * Or if the condition contains an operator that can be simplified to use a combination of operators including "less than".
-     * This method evaluates the tuple based on the one comparison atom.
-     * @param tuple The tuple to evaluate the "less than" condition on.
-     * @param comparisonAtom The "less than" condition.
-     * @return true if the "less than" condition holds on the tuple, false otherwise.
+     * Method that can be publicly used to evaluate a SelectionCondition on a batch of tuples.
+     * The selected rows of the batch that do not satisfy all the conditions are removed from its selection vector.
+     * Every condition is evaluated on the rows that satisfy the conditions before it.
+     * @param batch The batch to evaluate the conditions on.
+     */
+    public void evaluateOnBatch(TupleBatch batch) {
+        long[][] columns = batch.getColumns();
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        for (Predicate predicate : predicates) {
+            if (count == 0) {
+                break;
+            }
+            count = predicate.filter(columns, selection, count);
+        }
+        batch.setSelectedCount(count);
+    }
+
+    /**
+     * Method used to compile a condition into a predicate.
+     * @param comparisonAtom The condition.
+     * @param variables The variables that correspond to each position of the tuples.
+     * @param types The types of each position of the tuples.
+     * @return The predicate of the condition.
      */
-    private boolean evaluateConditionLT(Tuple tuple, ComparisonAtom comparisonAtom) {
+    private static Predicate compile(ComparisonAtom comparisonAtom, List<Variable> variables, ColumnType[] types) {
         Term lhs = comparisonAtom.getTerm1();
         Term rhs = comparisonAtom.getTerm2();
+        ComparisonOperator op = comparisonAtom.getOp();
 
-        // For comparisons of constants, i.e. 1 < 2, or "abc" < "abd".
-
+        // For comparisons of constants, i.e. 1 < 2, or "abc" < "abd". These hold either on every tuple or on none.
         if (lhs instanceof Constant && rhs instanceof Constant) {
+            int comparison;
             if (lhs instanceof IntegerConstant) {
-                // We have a comparison of integers, i.e. 1 < 2.
-                return ((IntegerConstant) lhs).getValue() < ((IntegerConstant) rhs).getValue();
-            }
-
-            else {
-                // We have a comparison of strings, i.e. "abc" < "abd".
-                return ((StringConstant) lhs).getValue().compareTo(((StringConstant) rhs).getValue()) < 0;
+                comparison = Integer.compare(((IntegerConstant) lhs).getValue(), ((IntegerConstant) rhs).getValue());
+            } else {
+                comparison = ((StringConstant) lhs).getValue().compareTo(((StringConstant) rhs).getValue());
             }
+            return new ConstantPredicate(holds(op, Integer.signum(comparison)));
+        }
 
+        // RHS is the variable, i.e. 2 < x. This is equivalent to x > 2.
+        if (lhs instanceof Constant) {
+            Term variable = rhs;
+            rhs = lhs;
+            lhs = variable;
+            op = flip(op);
         }
+        int lhsPos = variables.indexOf(lhs);
 
         // For comparisons of variables, i.e. x < y.
-        else if (lhs instanceof Variable && rhs instanceof Variable) {
-            int lhsPos = tuple.getPosOfVar((Variable) lhs);
-            int rhsPos = tuple.getPosOfVar((Variable) rhs);
-
-            Constant[] tupleValues = tuple.getValues();
-
-            // Integer comparison (We assume atoms like 5 < "abc" won't arise).
-            if (tupleValues[lhsPos] instanceof IntegerConstant){
-                return (((IntegerConstant) tupleValues[lhsPos]).getValue()) < (((IntegerConstant) tupleValues[rhsPos]).getValue());
+        if (rhs instanceof Variable) {
+            int rhsPos = variables.indexOf(rhs);
+            // Integers are equal if their values are equal, and strings are equal if their dictionary ids are equal.
+            // (We assume atoms like 5 = "abc" won't arise).
+            if (op == ComparisonOperator.EQ) {
+                return new VariablesEqual(lhsPos, rhsPos);
+            }
+            if (op == ComparisonOperator.NEQ) {
+                return new VariablesNotEqual(lhsPos, rhsPos);
             }
-            // String comparison
-            else {
-                return ((StringConstant) tupleValues[lhsPos]).getValue().compareTo(((StringConstant) tupleValues[rhsPos]).getValue()) < 0;
+            if (types[lhsPos] == ColumnType.INT) {
+                return new IntegerVariablesComparison(lhsPos, rhsPos, minimumComparison(op), maximumComparison(op));
             }
+            return new StringVariablesComparison(lhsPos, rhsPos, minimumComparison(op), maximumComparison(op));
         }
 
-        // If we reach here, we are in the case where one of the terms is a variable and one of the terms is a constant.
-        else {
-            // LHS is the variable, i.e. x < 2.
-            if (lhs instanceof Variable) {
-                int varPos = tuple.getPosOfVar((Variable) lhs);
+        // If we reach here, the LHS is a variable and the RHS is a constant, i.e. x < 2 or x = "abc".
+        if (rhs instanceof IntegerConstant) {
+            long constant = ((IntegerConstant) rhs).getValue();
+            switch (op) {
+                case EQ:
+                    return new ValueEquals(lhsPos, constant);
+                case NEQ:
+                    return new ValueNotEquals(lhsPos, constant);
+                case LT:
+                    return new IntegerRange(lhsPos, Long.MIN_VALUE, constant - 1);
+                case LEQ:
+                    return new IntegerRange(lhsPos, Long.MIN_VALUE, constant);
+                case GT:
+                    return new IntegerRange(lhsPos, constant + 1, Long.MAX_VALUE);
+                default:
+                    return new IntegerRange(lhsPos, constant, Long.MAX_VALUE);
+            }
+        }
+
+        String constant = ((StringConstant) rhs).getValue();
+        if (op == ComparisonOperator.EQ) {
+            return new ValueEquals(lhsPos, StringDictionary.getId(constant));
+        }
+        if (op == ComparisonOperator.NEQ) {
+            return new ValueNotEquals(lhsPos, StringDictionary.getId(constant));
+        }
+        return new StringConstantComparison(lhsPos, constant, minimumComparison(op), maximumComparison(op));
+    }
 
-                Constant[] tupleValues = tuple.getValues();
+    /**
+     * Helper method used to flip a comparison operator, i.e., so that 2 < x can be evaluated as x > 2.
+     * @param op The comparison operator.
+     * @return The operator that gives the same result with the terms swapped.
+     */
+    static ComparisonOperator flip(ComparisonOperator op) {
+        switch (op) {
+            case LT:
+                return ComparisonOperator.GT;
+            case LEQ:
+                return ComparisonOperator.GEQ;
+            case GT:
+                return ComparisonOperator.LT;
+            case GEQ:
+                return ComparisonOperator.LEQ;
+            default:
+                return op;
+        }
+    }
 
-                if (rhs instanceof IntegerConstant) {
-                    // Variable as LHS. Integer as RHS.
-                    return ((IntegerConstant) tupleValues[varPos]).getValue() < ((IntegerConstant) rhs).getValue();
-                }
-                else {
-                    // Variable as LHS. String as RHS.
-                    return (((StringConstant) tupleValues[varPos]).getValue().compareTo(((StringConstant) rhs).getValue())) < 0;
-                }
-            }
-            else {
-                // RHS is the constant, i.e. 2 < a. This is equivalent to a > 2.
-                return evaluateConditionGT(tuple, new ComparisonAtom(rhs, lhs, ComparisonOperator.GT));
-            }
+    /**
+     * Helper method that checks if a comparison operator holds given the sign of the comparison of its terms.
+     * @param op The comparison operator.
+     * @param comparison -1, 0 or 1 as the LHS is less than, equal to, or greater than the RHS.
+     * @return true if the operator holds, false otherwise.
+     */
+    private static boolean holds(ComparisonOperator op, int comparison) {
+        if (op == ComparisonOperator.NEQ) {
+            return comparison != 0;
         }
+        return minimumComparison(op) <= comparison && comparison <= maximumComparison(op);
+    }
 
+    /**
+     * Helper method used to get the smallest sign of the comparison of the terms for which an ordering operator holds.
+     * I.e., x >= y holds if x compared to y is 0 or 1, so the minimum is 0.
+     * @param op The comparison operator (not NEQ).
+     * @return -1, 0 or 1.
+     */
+    private static int minimumComparison(ComparisonOperator op) {
+        switch (op) {
+            case LT:
+            case LEQ:
+                return -1;
+            case GT:
+                return 1;
+            default:
+                return 0;
+        }
     }
 
     /**
-     * Helper method for evaluateOnTuple.
-     * This method is used if one of the conditions contains the "greater than" operator.
-     * Or if the condition contains an operator that can be simplified to use a combination of operators including "greater than".
-     * This method evaluates the tuple based on the one comparison atom.
-     * @param tuple The tuple to evaluate the "greater than" condition on.
-     * @param comparisonAtom The "greater than" condition.
-     * @return true if the "greater than" condition holds on the tuple, false otherwise.
+     * Helper method used to get the largest sign of the comparison of the terms for which an ordering operator holds.
+     * I.e., x <= y holds if x compared to y is -1 or 0, so the maximum is 0.
+     * @param op The comparison operator (not NEQ).
+     * @return -1, 0 or 1.
      */
-    private boolean evaluateConditionGT(Tuple tuple, ComparisonAtom comparisonAtom) {
-        Term lhs = comparisonAtom.getTerm1();
-        Term rhs = comparisonAtom.getTerm2();
+    private static int maximumComparison(ComparisonOperator op) {
+        switch (op) {
+            case LT:
+                return -1;
+            case GT:
+            case GEQ:
+                return 1;
+            default:
+                return 0;
+        }
+    }
 
-        // For comparisons of constants, i.e. 1 > 2, or "abc" > "abd".
-        if (lhs instanceof Constant && rhs instanceof Constant) {
-            // We have a comparison of integers, i.e. 1 > 2.
-            if (lhs instanceof IntegerConstant) {
-                return ((IntegerConstant) lhs).getValue() > ((IntegerConstant) rhs).getValue();
-            }
+    /**
+     * Predicate interface. A condition compiled for a fixed operator, fixed positions and fixed constants.
+     */
+    private interface Predicate {
+        /**
+         * Evaluates the condition on the values of a tuple.
+         * @param values The values of the tuple.
+         * @return true if the condition holds, false otherwise.
+         */
+        boolean evaluate(long[] values);
+
+        /**
+         * Evaluates the condition on the selected rows of a batch, and keeps only the rows where it holds.
+         * @param columns The columns of the batch.
+         * @param selection The selection vector of the batch, which is filtered in place (keeping the order).
+         * @param count The number of selected rows.
+         * @return The number of selected rows where the condition holds, now at the start of the selection vector.
+         */
+        int filter(long[][] columns, int[] selection, int count);
+    }
 
-            else {
-                // We have a comparison of strings, i.e. "abc" > "abd".
-                return ((StringConstant) lhs).getValue().compareTo(((StringConstant) rhs).getValue()) > 0;
-            }
+    /**
+     * Predicate for conditions of constants, i.e. 1 < 2, which hold either on every tuple or on none.
+     */
+    private static class ConstantPredicate implements Predicate {
+        private final boolean result;
 
+        private ConstantPredicate(boolean result) {
+            this.result = result;
         }
 
-        // For comparisons of variables, i.e. x > y.
-        else if (lhs instanceof Variable && rhs instanceof Variable) {
-            int lhsPos = tuple.getPosOfVar((Variable) lhs);
-            int rhsPos = tuple.getPosOfVar((Variable) rhs);
+        @Override
+        public boolean evaluate(long[] values) {
+            return result;
+        }
 
-            Constant[] tupleValues = tuple.getValues();
+        @Override
+        public int filter(long[][] columns, int[] selection, int count) {
+            return result ? count : 0;
+        }
+    }
 
-            // Integer comparison (We assume atoms like 5 > "abc" won't arise).
-            if (tupleValues[lhsPos] instanceof IntegerConstant){
-                return (((IntegerConstant) tupleValues[lhsPos]).getValue()) > (((IntegerConstant) tupleValues[rhsPos]).getValue());
-            }
-            // String comparison
-            else {
-                return ((StringConstant) tupleValues[lhsPos]).getValue().compareTo(((StringConstant) tupleValues[rhsPos]).getValue()) > 0;
+    /**
+     * Predicate for x = y.
+     */
+    private static class VariablesEqual implements Predicate {
+        private final int lhsPos;
+        private final int rhsPos;
+
+        private VariablesEqual(int lhsPos, int rhsPos) {
+            this.lhsPos = lhsPos;
+            this.rhsPos = rhsPos;
+        }
+
+        @Override
+        public boolean evaluate(long[] values) {
+            return values[lhsPos] == values[rhsPos];
+        }
+
+        @Override
+        public int filter(long[][] columns, int[] selection, int count) {
+            long[] lhs = columns[lhsPos];
+            long[] rhs = columns[rhsPos];
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                if (lhs[row] == rhs[row]) {
+                    selection[selected++] = row;
+                }
             }
+            return selected;
         }
+    }
 
-        // If we reach here, we are in the case where one of the terms is a variable and one of the terms is a constant.
-        else {
-            // LHS is the variable, i.e. x > 2.
-            if (lhs instanceof Variable) {
-                int varPos = tuple.getPosOfVar((Variable) lhs);
+    /**
+     * Predicate for x != y.
+     */
+    private static class VariablesNotEqual implements Predicate {
+        private final int lhsPos;
+        private final int rhsPos;
 
-                Constant[] tupleValues = tuple.getValues();
+        private VariablesNotEqual(int lhsPos, int rhsPos) {
+            this.lhsPos = lhsPos;
+            this.rhsPos = rhsPos;
+        }
 
-                if (rhs instanceof IntegerConstant) {
-                    // Variable as LHS. Integer as RHS.
-                    return ((IntegerConstant) tupleValues[varPos]).getValue() > ((IntegerConstant) rhs).getValue();
-                }
-                else {
-                    // Variable as LHS. String as RHS.
-                    return (((StringConstant) tupleValues[varPos]).getValue().compareTo(((StringConstant) rhs).getValue())) > 0;
+        @Override
+        public boolean evaluate(long[] values) {
+            return values[lhsPos] != values[rhsPos];
+        }
+
+        @Override
+        public int filter(long[][] columns, int[] selection, int count) {
+            long[] lhs = columns[lhsPos];
+            long[] rhs = columns[rhsPos];
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                if (lhs[row] != rhs[row]) {
+                    selection[selected++] = row;
                 }
             }
-            else {
-                // RHS is the constant, i.e. 2 > a. This is equivalent to a < 2.
-                return evaluateConditionGT(tuple, new ComparisonAtom(rhs, lhs, ComparisonOperator.LT));
-            }
+            return selected;
         }
-
     }
 
     /**
-     * Helper method for evaluateOnTuple.
-     * This method is used if one of the conditions contains the "equals" operator.
-     * Or if the condition contains an operator that can be simplified to use a combination of operators including "equals".
-     * This method evaluates the tuple based on the one comparison atom.
-     * @param tuple The tuple to evaluate the "equals" condition on.
-     * @param comparisonAtom The "equals" condition.
-     * @return true if the "equals" condition holds on the tuple, false otherwise.
+     * Predicate for x < y, x <= y, x > y and x >= y on integers.
+     * The condition holds if the sign of the comparison of x with y is between minimum and maximum.
      */
-    private boolean evaluateConditionEQ(Tuple tuple, ComparisonAtom comparisonAtom) {
-        Term lhs = comparisonAtom.getTerm1();
-        Term rhs = comparisonAtom.getTerm2();
+    private static class IntegerVariablesComparison implements Predicate {
+        private final int lhsPos;
+        private final int rhsPos;
+        private final int minimum;
+        private final int maximum;
+
+        private IntegerVariablesComparison(int lhsPos, int rhsPos, int minimum, int maximum) {
+            this.lhsPos = lhsPos;
+            this.rhsPos = rhsPos;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
 
-        // For comparisons of constants, i.e. 1 = 2, or "abc" = "abd".
-        if (lhs instanceof Constant && rhs instanceof Constant) {
-            // We have a comparison of integers, i.e. 1 = 2.
-            if (lhs instanceof IntegerConstant) {
-                return ((IntegerConstant) lhs).getValue().equals(((IntegerConstant) rhs).getValue());
-            }
+        @Override
+        public boolean evaluate(long[] values) {
+            int comparison = Long.compare(values[lhsPos], values[rhsPos]);
+            return minimum <= comparison && comparison <= maximum;
+        }
 
-            else {
-                // We have a comparison of strings, i.e. "abc" = "abd".
-                return ((StringConstant) lhs).getValue().compareTo(((StringConstant) rhs).getValue()) == 0;
+        @Override
+        public int filter(long[][] columns, int[] selection, int count) {
+            long[] lhs = columns[lhsPos];
+            long[] rhs = columns[rhsPos];
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                int comparison = Long.compare(lhs[row], rhs[row]);
+                if (minimum <= comparison && comparison <= maximum) {
+                    selection[selected++] = row;
+                }
             }
-
+            return selected;
         }
+    }
 
-        // For comparisons of variables, i.e. x = y.
-        else if (lhs instanceof Variable && rhs instanceof Variable) {
-            int lhsPos = tuple.getPosOfVar((Variable) lhs);
-            int rhsPos = tuple.getPosOfVar((Variable) rhs);
+    /**
+     * Predicate for x < y, x <= y, x > y and x >= y on strings.
+     * The condition holds if the sign of the comparison of x with y is between minimum and maximum.
+     */
+    private static class StringVariablesComparison implements Predicate {
+        private final int lhsPos;
+        private final int rhsPos;
+        private final int minimum;
+        private final int maximum;
+
+        private StringVariablesComparison(int lhsPos, int rhsPos, int minimum, int maximum) {
+            this.lhsPos = lhsPos;
+            this.rhsPos = rhsPos;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
 
-            Constant[] tupleValues = tuple.getValues();
+        @Override
+        public boolean evaluate(long[] values) {
+            int comparison = Integer.signum(StringDictionary.compare(values[lhsPos], values[rhsPos]));
+            return minimum <= comparison && comparison <= maximum;
+        }
 
-            // Integer comparison (We assume atoms like 5 = "abc" won't arise).
-            if (tupleValues[lhsPos] instanceof IntegerConstant){
-                return (((IntegerConstant) tupleValues[lhsPos]).getValue()).equals((((IntegerConstant) tupleValues[rhsPos]).getValue()));
-            }
-            // String comparison
-            else {
-                return ((StringConstant) tupleValues[lhsPos]).getValue().compareTo(((StringConstant) tupleValues[rhsPos]).getValue()) == 0;
+        @Override
+        public int filter(long[][] columns, int[] selection, int count) {
+            long[] lhs = columns[lhsPos];
+            long[] rhs = columns[rhsPos];
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                int comparison = Integer.signum(StringDictionary.compare(lhs[row], rhs[row]));
+                if (minimum <= comparison && comparison <= maximum) {
+                    selection[selected++] = row;
+                }
             }
+            return selected;
         }
+    }
 
-        // If we reach here, we are in the case where one of the terms is a variable and one of the terms is a constant.
-        else {
+    /**
+     * Predicate for x = 2 and x = "abc". String constants are compiled to their StringDictionary id.
+     */
+    private static class ValueEquals implements Predicate {
+        private final int pos;
+        private final long value;
 
-            Constant[] tupleValues = tuple.getValues();
+        private ValueEquals(int pos, long value) {
+            this.pos = pos;
+            this.value = value;
+        }
+
+        @Override
+        public boolean evaluate(long[] values) {
+            return values[pos] == value;
+        }
 
-            if (lhs instanceof Variable) {
-                // LHS is the variable, i.e. x = 2 or x = "abc".
-                int varPos = tuple.getPosOfVar((Variable) lhs);
-                if (rhs instanceof IntegerConstant) {
-                    // RHS is an integerConstant, i.e. x = 2.
-                    return (((IntegerConstant) tupleValues[varPos]).getValue()).equals(((IntegerConstant) rhs).getValue());
-                } else {
-                    // RHS is a StringConstant, i.e. x = "abc".
-                    return (((StringConstant) tupleValues[varPos]).getValue()).equals(((StringConstant) rhs).getValue());
+        @Override
+        public int filter(long[][] columns, int[] selection, int count) {
+            long[] column = columns[pos];
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                if (column[row] == value) {
+                    selection[selected++] = row;
                 }
             }
+            return selected;
+        }
+    }
 
-            else {
-                //RHS is the variable, i.e. 2 = x or "abc" = x.
-                int varPos = tuple.getPosOfVar((Variable) rhs);
-                if (lhs instanceof IntegerConstant) {
-                    // LHS is an integerConstant, i.e. 2 = x.
-                    return (((IntegerConstant) lhs).getValue()).equals(((IntegerConstant) (tupleValues[varPos])).getValue());
-                } else {
-                    // LHS is a StringConstant, i.e. "abc" = x.
-                    return (((StringConstant) lhs).getValue()).equals(((StringConstant) (tupleValues[varPos])).getValue());
+    /**
+     * Predicate for x != 2 and x != "abc". String constants are compiled to their StringDictionary id.
+     */
+    private static class ValueNotEquals implements Predicate {
+        private final int pos;
+        private final long value;
+
+        private ValueNotEquals(int pos, long value) {
+            this.pos = pos;
+            this.value = value;
+        }
+
+        @Override
+        public boolean evaluate(long[] values) {
+            return values[pos] != value;
+        }
+
+        @Override
+        public int filter(long[][] columns, int[] selection, int count) {
+            long[] column = columns[pos];
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                if (column[row] != value) {
+                    selection[selected++] = row;
                 }
             }
+            return selected;
+        }
+    }
+
+    /**
+     * Predicate for x < 2, x <= 2, x > 2 and x >= 2, compiled into the (inclusive) range of values that satisfy it.
+     * I.e., x < 2 holds if x is in [Long.MIN_VALUE, 1].
+     */
+    private static class IntegerRange implements Predicate {
+        private final int pos;
+        private final long minimum;
+        private final long maximum;
+
+        private IntegerRange(int pos, long minimum, long maximum) {
+            this.pos = pos;
+            this.minimum = minimum;
+            this.maximum = maximum;
         }
 
+        @Override
+        public boolean evaluate(long[] values) {
+            long value = values[pos];
+            return minimum <= value && value <= maximum;
+        }
+
+        @Override
+        public int filter(long[][] columns, int[] selection, int count) {
+            long[] column = columns[pos];
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                long value = column[row];
+                if (minimum <= value && value <= maximum) {
+                    selection[selected++] = row;
+                }
+            }
+            return selected;
+        }
     }
 
-}
+    /**
+     * Predicate for x < "abc", x <= "abc", x > "abc" and x >= "abc".
+     * The condition holds if the sign of the comparison of x with the constant is between minimum and maximum.
+     */
+    private static class StringConstantComparison implements Predicate {
+        private final int pos;
+        private final String constant;
+        private final int minimum;
+        private final int maximum;
+
+        private StringConstantComparison(int pos, String constant, int minimum, int maximum) {
+            this.pos = pos;
+            this.constant = constant;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+
+        @Override
+        public boolean evaluate(long[] values) {
+            int comparison = Integer.signum(StringDictionary.getString(values[pos]).compareTo(constant));
+            return minimum <= comparison && comparison <= maximum;
+        }
 
+        @Override
+        public int filter(long[][] columns, int[] selection, int count) {
+            long[] column = columns[pos];
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                int comparison = Integer.signum(StringDictionary.getString(column[row]).compareTo(constant));
+                if (minimum <= comparison && comparison <= maximum) {
+                    selection[selected++] = row;
+                }
+            }
+            return selected;
+        }
+    }
+}
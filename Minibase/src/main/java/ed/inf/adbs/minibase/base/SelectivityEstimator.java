@@ -0,0 +1,313 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * SelectivityEstimator class.
+ * Used by the QueryPlan and the JoinOrderOptimizer to estimate the selectivity of comparison atoms, i.e., the fraction
+ * of tuples for which a condition holds, and from that the number of tuples of relational atoms after their selections.
+ * When the relation of a variable has up to date statistics (see Analyzer), the estimates use the distinct count,
+ * minimum, maximum and histogram of its column. Otherwise, default selectivities are used for the operator.
+ * Equalities between two variables are estimated as 1 / max(V(x), V(y)), where V(x) is the number of distinct values of
+ * x. Without statistics, we assume the larger relation is joined on a key, so V is the number of tuples.
+ */
+public class SelectivityEstimator {
+
+    // Default selectivities of conditions, used when there are no statistics.
+    private static final double EQUALITY_SELECTIVITY = 0.1;
+    private static final double INEQUALITY_SELECTIVITY = 0.9;
+    private static final double RANGE_SELECTIVITY = 1.0 / 3;
+
+    // Estimated relative costs of evaluating a condition on a tuple.
+    // Ordering comparisons of strings compare the strings themselves, every other condition compares longs.
+    private static final double COMPARISON_COST = 1;
+    private static final double STRING_COMPARISON_COST = 4;
+
+    // The relation name and column position of every variable of the body.
+    // Relational atoms have distinct variables after rewriting, so a variable is in exactly one column.
+    private final HashMap<Variable, String> variableRelations;
+    private final HashMap<Variable, Integer> variableColumns;
+
+    /**
+     * Constructor for SelectivityEstimator.
+     * Stores the relation and column of every variable of the relational atoms.
+     * @param relationalAtoms The relational atoms of the body (after rewriting, so all their terms are distinct variables).
+     */
+    public SelectivityEstimator(List<RelationalAtom> relationalAtoms) {
+        variableRelations = new HashMap<>();
+        variableColumns = new HashMap<>();
+        for (RelationalAtom relationalAtom : relationalAtoms) {
+            List<Term> terms = relationalAtom.getTerms();
+            for (int column = 0; column < terms.size(); column++) {
+                variableRelations.put((Variable) terms.get(column), relationalAtom.getName());
+                variableColumns.put((Variable) terms.get(column), column);
+            }
+        }
+    }
+
+    /**
+     * Method used to estimate the number of tuples of a relational atom after its selection conditions.
+     * Conditions are assumed to be independent, so their selectivities are multiplied.
+     * @param relationalAtom The relational atom.
+     * @param selectionConditions The selection conditions of the relational atom (may be null).
+     * @return The estimated number of tuples.
+     */
+    public double estimateTupleCount(RelationalAtom relationalAtom, List<ComparisonAtom> selectionConditions) {
+        double tupleCount = DatabaseCatalog.getCatalogInstance().getEstimatedTupleCount(relationalAtom.getName());
+        if (selectionConditions != null) {
+            for (ComparisonAtom selectionCondition : selectionConditions) {
+                tupleCount *= estimateSelectivity(selectionCondition);
+            }
+        }
+        return tupleCount;
+    }
+
+    /**
+     * Method used to estimate the selectivity of a condition.
+     * @param comparisonAtom The condition, on variables of the relational atoms and/or constants.
+     * @return The estimated fraction of tuples for which the condition holds, between 0 and 1.
+     */
+    public double estimateSelectivity(ComparisonAtom comparisonAtom) {
+        Term lhs = comparisonAtom.getTerm1();
+        Term rhs = comparisonAtom.getTerm2();
+        ComparisonOperator op = comparisonAtom.getOp();
+
+        if (lhs instanceof Constant && rhs instanceof Constant) {
+            // Conditions of constants are evaluated by the QueryPlan, and removed if they hold.
+            return 1;
+        }
+        if (lhs instanceof Constant) {
+            return estimateConstantSelectivity((Variable) rhs, SelectionCondition.flip(op), (Constant) lhs);
+        }
+        if (rhs instanceof Constant) {
+            return estimateConstantSelectivity((Variable) lhs, op, (Constant) rhs);
+        }
+        return estimateVariablesSelectivity((Variable) lhs, op, (Variable) rhs);
+    }
+
+    /**
+     * Method used to order conditions such that the conditions that are cheap to evaluate and filter out many tuples
+     * are evaluated first. Conditions are sorted on cost / (1 - selectivity), which minimises the expected cost of
+     * evaluating the conjunction of the conditions (as evaluation stops at the first condition that does not hold).
+     * @param conditions The conditions.
+     * @return A new list with the conditions in the order they should be evaluated in.
+     */
+    public List<ComparisonAtom> orderConditions(List<ComparisonAtom> conditions) {
+        HashMap<ComparisonAtom, Double> ranks = new HashMap<>();
+        for (ComparisonAtom condition : conditions) {
+            double rejected = 1 - estimateSelectivity(condition);
+            ranks.put(condition, (rejected == 0) ? Double.POSITIVE_INFINITY : estimateCost(condition) / rejected);
+        }
+
+        // The sort is stable, so conditions with the same rank stay in the order of the body.
+        List<ComparisonAtom> orderedConditions = new ArrayList<>(conditions);
+        orderedConditions.sort(Comparator.comparing(ranks::get));
+        return orderedConditions;
+    }
+
+    /**
+     * Helper method used to estimate the relative cost of evaluating a condition on a tuple.
+     * @param comparisonAtom The condition.
+     * @return The estimated cost.
+     */
+    private double estimateCost(ComparisonAtom comparisonAtom) {
+        ComparisonOperator op = comparisonAtom.getOp();
+        if (op == ComparisonOperator.EQ || op == ComparisonOperator.NEQ) {
+            // Strings are compared by their StringDictionary ids.
+            return COMPARISON_COST;
+        }
+        if (isString(comparisonAtom.getTerm1()) || isString(comparisonAtom.getTerm2())) {
+            return STRING_COMPARISON_COST;
+        }
+        return COMPARISON_COST;
+    }
+
+    /**
+     * Helper method used to check if a term is a string.
+     * @param term A constant, or a variable of the relational atoms.
+     * @return true if the term is a string constant, or a variable of a string column.
+     */
+    private boolean isString(Term term) {
+        if (term instanceof Constant) {
+            return term instanceof StringConstant;
+        }
+        ColumnType[] columnTypes = DatabaseCatalog.getCatalogInstance().getSchema(variableRelations.get(term));
+        return columnTypes[variableColumns.get(term)] == ColumnType.STRING;
+    }
+
+    /**
+     * Helper method used to estimate the selectivity of a condition between a variable and a constant.
+     * @param variable The variable (LHS).
+     * @param op The comparison operator.
+     * @param constant The constant (RHS).
+     * @return The estimated selectivity.
+     */
+    private double estimateConstantSelectivity(Variable variable, ComparisonOperator op, Constant constant) {
+        ColumnStatistics statistics = getColumnStatistics(variable);
+        if (statistics == null) {
+            return defaultSelectivity(op);
+        }
+        if (statistics.getDistinctCount() == 0) {
+            // The relation is empty.
+            return 0;
+        }
+
+        long value;
+        if (constant instanceof IntegerConstant) {
+            value = ((IntegerConstant) constant).getValue();
+        } else {
+            value = StringDictionary.getId(((StringConstant) constant).getValue());
+        }
+
+        switch (op) {
+            case EQ:
+                return estimateEqualSelectivity(statistics, value);
+            case NEQ:
+                return 1 - estimateEqualSelectivity(statistics, value);
+            case LT:
+                return fractionBelow(statistics, value, false);
+            case LEQ:
+                return fractionBelow(statistics, value, true);
+            case GT:
+                return 1 - fractionBelow(statistics, value, true);
+            default:
+                return 1 - fractionBelow(statistics, value, false);
+        }
+    }
+
+    /**
+     * Helper method used to estimate the fraction of the values of a column that are equal to a value.
+     * Values are assumed to be uniformly distributed over the distinct values, except for values that are the upper
+     * bound of several buckets of the histogram, which make up (at least) the rows of the buckets they fill.
+     * @param statistics The statistics of the column.
+     * @param value The value.
+     * @return The estimated fraction.
+     */
+    private static double estimateEqualSelectivity(ColumnStatistics statistics, long value) {
+        ColumnType type = statistics.getType();
+        if (TupleComparator.compareValues(type, value, statistics.getMinimum()) < 0
+                || TupleComparator.compareValues(type, value, statistics.getMaximum()) > 0) {
+            return 0;
+        }
+
+        long[] histogramBounds = statistics.getHistogramBounds();
+        int boundCount = 0;
+        for (long bound : histogramBounds) {
+            if (bound == value) {
+                boundCount += 1;
+            }
+        }
+        double frequentSelectivity = (boundCount > 1) ? (double) (boundCount - 1) / histogramBounds.length : 0;
+        return Math.max(1.0 / statistics.getDistinctCount(), frequentSelectivity);
+    }
+
+    /**
+     * Helper method used to estimate the fraction of the values of a column that are less than (or equal to) a value,
+     * using the equi-depth histogram of the column. Every bucket holds the same fraction of the values.
+     * Integer values are assumed to be uniformly distributed within the bucket that contains the value. For strings,
+     * half of that bucket is counted.
+     * @param statistics The statistics of the column.
+     * @param value The value.
+     * @param inclusive true to count the values equal to the value, false otherwise.
+     * @return The estimated fraction.
+     */
+    private static double fractionBelow(ColumnStatistics statistics, long value, boolean inclusive) {
+        ColumnType type = statistics.getType();
+        long[] histogramBounds = statistics.getHistogramBounds();
+        double buckets = 0;
+        for (int bucket = 0; bucket < histogramBounds.length; bucket++) {
+            long upper = histogramBounds[bucket];
+            int comparison = TupleComparator.compareValues(type, upper, value);
+            if (comparison < 0 || (inclusive && comparison == 0)) {
+                buckets += 1;
+                continue;
+            }
+
+            // The value is in this bucket. The first bucket holds [minimum, upper], the others hold (previous upper, upper].
+            long lower = (bucket == 0) ? statistics.getMinimum() : histogramBounds[bucket - 1];
+            if (TupleComparator.compareValues(type, lower, value) < 0) {
+                if (type == ColumnType.INT) {
+                    // The number of integers in the bucket, and the number of those below the value.
+                    double width = (bucket == 0) ? upper - lower + 1 : upper - lower;
+                    double below = (bucket == 0) ? value - lower : value - lower - 1;
+                    if (inclusive) {
+                        below += 1;
+                    }
+                    buckets += below / width;
+                } else {
+                    buckets += 0.5;
+                }
+            }
+            break;
+        }
+        return buckets / histogramBounds.length;
+    }
+
+    /**
+     * Helper method used to estimate the selectivity of a condition between two variables.
+     * @param lhs The LHS variable.
+     * @param op The comparison operator.
+     * @param rhs The RHS variable.
+     * @return The estimated selectivity.
+     */
+    private double estimateVariablesSelectivity(Variable lhs, ComparisonOperator op, Variable rhs) {
+        if (op != ComparisonOperator.EQ && op != ComparisonOperator.NEQ) {
+            return RANGE_SELECTIVITY;
+        }
+
+        double equalSelectivity;
+        boolean sameRelation = variableRelations.get(lhs).equals(variableRelations.get(rhs));
+        if (getColumnStatistics(lhs) == null && getColumnStatistics(rhs) == null && sameRelation) {
+            // Without statistics, an equality within a relation is no more likely to be on a key.
+            equalSelectivity = EQUALITY_SELECTIVITY;
+        } else {
+            equalSelectivity = 1 / Math.max(1, Math.max(estimateDistinctCount(lhs), estimateDistinctCount(rhs)));
+        }
+        return (op == ComparisonOperator.EQ) ? equalSelectivity : 1 - equalSelectivity;
+    }
+
+    /**
+     * Helper method used to estimate the number of distinct values of a variable.
+     * @param variable The variable.
+     * @return The distinct count of its column if there are statistics, the number of tuples of its relation otherwise.
+     */
+    private double estimateDistinctCount(Variable variable) {
+        ColumnStatistics statistics = getColumnStatistics(variable);
+        if (statistics != null) {
+            return statistics.getDistinctCount();
+        }
+        return DatabaseCatalog.getCatalogInstance().getEstimatedTupleCount(variableRelations.get(variable));
+    }
+
+    /**
+     * Helper method used to get the statistics of the column of a variable.
+     * @param variable The variable.
+     * @return The statistics of its column, or null if its relation has no up to date statistics.
+     */
+    private ColumnStatistics getColumnStatistics(Variable variable) {
+        RelationStatistics statistics = DatabaseCatalog.getCatalogInstance().getStatistics(variableRelations.get(variable));
+        if (statistics == null) {
+            return null;
+        }
+        return statistics.getColumn(variableColumns.get(variable));
+    }
+
+    /**
+     * Helper method used to get the default selectivity of a condition from its operator.
+     * @param op The comparison operator of the condition.
+     * @return The estimated fraction of tuples for which the condition holds.
+     */
+    private static double defaultSelectivity(ComparisonOperator op) {
+        switch (op) {
+            case EQ:
+                return EQUALITY_SELECTIVITY;
+            case NEQ:
+                return INEQUALITY_SELECTIVITY;
+            default:
+                return RANGE_SELECTIVITY;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SortMergeJoinOperator class that is inherited from Operator class.
+ * The algorithm used in this class is the sort-merge join algorithm.
+ * Both children are sorted on the join key (using external sorting if they do not fit in memory), and then merged.
+ * The joined tuples are returned in the order of the join key, which operators above the join can exploit.
+ * Like the HashJoinOperator, the joined tuples do not contain the join key of the right child.
+ */
+public class SortMergeJoinOperator extends Operator {
+
+    // The children, sorted on their join keys.
+    private final SortOperator leftSortedOperator;
+    private final SortOperator rightSortedOperator;
+
+    // The positions of the join key in the left and right tuples.
+    // leftKeyPositions[i] must be equal to rightKeyPositions[i] for tuples to join.
+    private final int[] leftKeyPositions;
+    private final int[] rightKeyPositions;
+    // The join conditions that are not equalities between the two children, i.e., x < u. Null if there are none.
+    private final SelectionCondition residualCondition;
+
+    // Used to compare right tuples with each other on the right join key.
+    private final TupleComparator rightKeyComparator;
+
+    // The current left tuple, and the next right tuple that has not been put in a group yet.
+    private Tuple leftChildTuple;
+    private Tuple rightChildTuple;
+    // All the right tuples with the same join key as the current left tuple.
+    private final List<Tuple> rightGroup;
+    // Position of the next right tuple of rightGroup to join with the current left tuple.
+    private int groupPosition;
+
+    // The positions of the right tuples that are part of the joined tuples: every position except the join key, as
+    // the values of the right join key are equal to the values of the left join key.
+    private final int[] rightOutputPositions;
+    // The variables and types that correspond to each position of the joined tuples.
+    private final List<Variable> joinedTupleVars;
+    private final ColumnType[] joinedTupleTypes;
+
+    /**
+     * Constructor of a SortMergeJoinOperator.
+     * Assigns the join keys and residual join conditions, and sorts both children on their join keys.
+     * @param leftChildOperator The left operator in the join.
+     * @param rightChildOperator The right operator in the join.
+     * @param leftKeyPositions The positions in the left tuples of the variables that make the join key.
+     * @param rightKeyPositions The positions in the right tuples of the variables that make the join key (in the same order as leftKeyPositions).
+     * @param residualCondition The join conditions that are not part of the join key. This is null if there are none.
+     * @param sortBufferSize The maximum number of tuples each sort holds in memory before spilling sorted runs to disk.
+     */
+    public SortMergeJoinOperator(Operator leftChildOperator, Operator rightChildOperator, int[] leftKeyPositions,
+                                 int[] rightKeyPositions, SelectionCondition residualCondition, int sortBufferSize) {
+        this.leftKeyPositions = leftKeyPositions;
+        this.rightKeyPositions = rightKeyPositions;
+        this.residualCondition = residualCondition;
+        this.rightKeyComparator = new TupleComparator(rightKeyPositions);
+        this.rightGroup = new ArrayList<>();
+
+        ColumnType[] leftTypes = leftChildOperator.getTypes();
+        ColumnType[] rightTypes = rightChildOperator.getTypes();
+        rightOutputPositions = HashJoinOperator.nonKeyPositions(rightTypes.length, rightKeyPositions);
+        joinedTupleVars = new ArrayList<>(leftChildOperator.getVariables());
+        joinedTupleTypes = Arrays.copyOf(leftTypes, leftTypes.length + rightOutputPositions.length);
+        for (int i = 0; i < rightOutputPositions.length; i++) {
+            joinedTupleVars.add(rightChildOperator.getVariables().get(rightOutputPositions[i]));
+            joinedTupleTypes[leftTypes.length + i] = rightTypes[rightOutputPositions[i]];
+        }
+
+        leftSortedOperator = new SortOperator(leftChildOperator, leftKeyPositions, sortBufferSize);
+        rightSortedOperator = new SortOperator(rightChildOperator, rightKeyPositions, sortBufferSize);
+
+        leftChildTuple = leftSortedOperator.getNextTuple();
+        rightChildTuple = rightSortedOperator.getNextTuple();
+        groupPosition = 0;
+    }
+
+    /**
+     * GetNextTuple method for SortMergeJoinOperator.
+     * Implements the merge phase of the sort-merge join algorithm.
+     * We advance whichever side has the smaller join key until the keys are equal. Then all the right tuples with that
+     * key are collected into a group, which is joined with every left tuple with the same key.
+     * @return The next joined tuple that satisfies the join condition (if it exists).
+     */
+    @Override
+    public Tuple getNextTuple() {
+
+        while (leftChildTuple != null) {
+            // Return the remaining matches of the current left tuple first.
+            while (groupPosition < rightGroup.size()) {
+                Tuple rightGroupTuple = rightGroup.get(groupPosition);
+                groupPosition += 1;
+
+                Tuple joinedTuple = joinTuples(leftChildTuple, rightGroupTuple);
+                if (residualCondition == null || residualCondition.evaluateOnTuple(joinedTuple)) {
+                    return joinedTuple;
+                }
+            }
+
+            if (!rightGroup.isEmpty()) {
+                // The current left tuple has been joined with the whole group, move onto the next left tuple.
+                // If it has the same key, it joins with the same group again.
+                leftChildTuple = leftSortedOperator.getNextTuple();
+                groupPosition = 0;
+                if (leftChildTuple == null || compareLeftToRight(leftChildTuple, rightGroup.get(0)) != 0) {
+                    rightGroup.clear();
+                }
+                continue;
+            }
+
+            // Advance the side with the smaller key until both keys are equal.
+            while (leftChildTuple != null && rightChildTuple != null) {
+                int comparison = compareLeftToRight(leftChildTuple, rightChildTuple);
+                if (comparison < 0) {
+                    leftChildTuple = leftSortedOperator.getNextTuple();
+                } else if (comparison > 0) {
+                    rightChildTuple = rightSortedOperator.getNextTuple();
+                } else {
+                    break;
+                }
+            }
+
+            if (leftChildTuple == null || rightChildTuple == null) {
+                // One of the sides is exhausted. There is no more matches.
+                return null;
+            }
+
+            // Collect all the right tuples with the same key.
+            rightGroup.add(rightChildTuple);
+            rightChildTuple = rightSortedOperator.getNextTuple();
+            while (rightChildTuple != null && rightKeyComparator.compare(rightGroup.get(0), rightChildTuple) == 0) {
+                rightGroup.add(rightChildTuple);
+                rightChildTuple = rightSortedOperator.getNextTuple();
+            }
+            groupPosition = 0;
+        }
+
+        // Left child tuple is null. There is no more matches.
+        return null;
+    }
+
+    /**
+     * Helper method used to compare the join key of a left tuple with the join key of a right tuple.
+     * @param leftTuple The tuple from the left child.
+     * @param rightTuple The tuple from the right child.
+     * @return A negative integer, zero, or a positive integer as the left key is less than, equal to, or greater than the right key.
+     */
+    private int compareLeftToRight(Tuple leftTuple, Tuple rightTuple) {
+        return TupleComparator.compareKeys(leftTuple, leftKeyPositions, rightTuple, rightKeyPositions);
+    }
+
+    /**
+     * Helper method used to concatenate a left tuple and a right tuple into a joined tuple.
+     * The join key of the right tuple is left out, since it is equal to the join key of the left tuple.
+     * @param leftTuple The tuple from the left child.
+     * @param rightTuple The tuple from the right child.
+     * @return The joined tuple.
+     */
+    private Tuple joinTuples(Tuple leftTuple, Tuple rightTuple) {
+        long[] leftTupleValues = leftTuple.getValues();
+        long[] rightTupleValues = rightTuple.getValues();
+
+        long[] joinedTupleValues = Arrays.copyOf(leftTupleValues, leftTupleValues.length + rightOutputPositions.length);
+        for (int i = 0; i < rightOutputPositions.length; i++) {
+            joinedTupleValues[leftTupleValues.length + i] = rightTupleValues[rightOutputPositions[i]];
+        }
+        return new Tuple(joinedTupleValues, joinedTupleTypes);
+    }
+
+
+    /**
+     * Reset method for SortMergeJoinOperator.
+     * Resets the sorted children, so that merging starts from the beginning again (without sorting again).
+     */
+    @Override
+    public void reset() {
+        leftSortedOperator.reset();
+        rightSortedOperator.reset();
+        leftChildTuple = leftSortedOperator.getNextTuple();
+        rightChildTuple = rightSortedOperator.getNextTuple();
+        rightGroup.clear();
+        groupPosition = 0;
+    }
+
+    /**
+     * Close method for SortMergeJoinOperator.
+     * Closes the sorts of both children, which deletes their runs.
+     */
+    @Override
+    public void close() {
+        leftSortedOperator.close();
+        rightSortedOperator.close();
+    }
+
+    /**
+     * Getter for the variables of the output tuples of SortMergeJoinOperator.
+     * @return The variables of the left child followed by the variables of the right child that are not in the join key.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return joinedTupleVars;
+    }
+
+    /**
+     * Getter for the types of the output tuples of SortMergeJoinOperator.
+     * @return The types of the left child followed by the types of the right child that are not in the join key.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return joinedTupleTypes;
+    }
+}
@@ -0,0 +1,244 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * SortOperator class that is inherited from Operator class.
+ * Returns the tuples of its child operator sorted on a list of variables.
+ * The algorithm used is the external merge sort: the child tuples are read in chunks of at most bufferSize tuples,
+ * each chunk is sorted in memory, and if there is more than one chunk, each sorted chunk (run) is spilled to a temporary
+ * file. The runs are then merged while returning tuples.
+ * At most MERGE_FAN_IN runs are merged at once, so that only as many files are open at once. If there are more runs,
+ * they are first merged MERGE_FAN_IN at a time into longer runs (deleting the merged runs), until few enough are left.
+ * The runs are deleted once the operator is closed.
+ */
+public class SortOperator extends Operator {
+
+    // The maximum number of runs merged (and open) at once.
+    private static final int MERGE_FAN_IN = 64;
+
+    private final Operator childOperator;
+    // Used to compare tuples on the sort variables.
+    private final TupleComparator tupleComparator;
+    // The maximum number of tuples held in memory at once.
+    private final int bufferSize;
+
+    // If all the child tuples fit in memory, they are kept here (sorted) and no run is spilled.
+    private List<Tuple> sortedTuples;
+    // Position of the next tuple to return from sortedTuples.
+    private int position;
+
+    // The sorted runs spilled to disk, if the child tuples did not fit in memory.
+    private final List<SpillFile> runs;
+    // The next tuple of every run that has not been fully returned yet, ordered on the sort variables.
+    private PriorityQueue<RunHead> mergeQueue;
+
+    // The types of the child tuples, needed to read tuples back from the runs.
+    private final ColumnType[] tupleTypes;
+
+    /**
+     * Constructor for SortOperator.
+     * Assigns the child operator and sort positions, then reads every child tuple and creates the sorted runs.
+     * @param childOperator The operator whose tuples are sorted.
+     * @param sortPositions The positions to sort on, the first position being the most significant.
+     * @param bufferSize The maximum number of tuples to hold in memory at once.
+     */
+    public SortOperator(Operator childOperator, int[] sortPositions, int bufferSize) {
+        this.childOperator = childOperator;
+        this.tupleComparator = new TupleComparator(sortPositions);
+        this.tupleTypes = childOperator.getTypes();
+        this.bufferSize = Math.max(1, bufferSize);
+        this.runs = new ArrayList<>();
+
+        createRuns();
+        while (runs.size() > MERGE_FAN_IN) {
+            mergePass();
+        }
+        reset();
+    }
+
+    /**
+     * Method used to read every child tuple and sort them in chunks of at most bufferSize tuples.
+     * If every tuple fits in one chunk, the tuples are kept in memory. Otherwise each sorted chunk is spilled as a run.
+     */
+    private void createRuns() {
+        List<Tuple> buffer = new ArrayList<>();
+
+        Tuple childTuple = childOperator.getNextTuple();
+        while (childTuple != null) {
+            buffer.add(childTuple);
+            if (buffer.size() == bufferSize) {
+                spillRun(buffer);
+                buffer = new ArrayList<>();
+            }
+            childTuple = childOperator.getNextTuple();
+        }
+
+        buffer.sort(tupleComparator);
+        if (runs.isEmpty()) {
+            sortedTuples = buffer;
+        } else if (!buffer.isEmpty()) {
+            spillRun(buffer);
+        }
+    }
+
+    /**
+     * Helper method used to sort a chunk of tuples and write it to a new run.
+     * @param buffer The chunk of tuples.
+     */
+    private void spillRun(List<Tuple> buffer) {
+        buffer.sort(tupleComparator);
+        SpillFile run = new SpillFile();
+        for (Tuple tuple : buffer) {
+            run.write(tuple);
+        }
+        run.finishWriting();
+        runs.add(run);
+    }
+
+    /**
+     * Method used to merge the runs MERGE_FAN_IN at a time into new (longer) runs, deleting the merged runs.
+     */
+    private void mergePass() {
+        List<SpillFile> mergedRuns = new ArrayList<>();
+        for (int start = 0; start < runs.size(); start += MERGE_FAN_IN) {
+            List<SpillFile> mergedGroup = runs.subList(start, Math.min(start + MERGE_FAN_IN, runs.size()));
+            PriorityQueue<RunHead> groupQueue = openRuns(mergedGroup);
+            SpillFile mergedRun = new SpillFile();
+            Tuple tuple = pollSmallest(groupQueue);
+            while (tuple != null) {
+                mergedRun.write(tuple);
+                tuple = pollSmallest(groupQueue);
+            }
+            mergedRun.finishWriting();
+            mergedRuns.add(mergedRun);
+            for (SpillFile run : mergedGroup) {
+                run.delete();
+            }
+        }
+        runs.clear();
+        runs.addAll(mergedRuns);
+    }
+
+    /**
+     * Helper method used to open runs for reading, from their first tuple.
+     * @param mergedRuns The runs.
+     * @return The first tuple of every (non-empty) run, ordered on the sort variables.
+     */
+    private PriorityQueue<RunHead> openRuns(List<SpillFile> mergedRuns) {
+        Comparator<RunHead> runHeadComparator = (head1, head2) -> tupleComparator.compare(head1.tuple, head2.tuple);
+        PriorityQueue<RunHead> queue = new PriorityQueue<>(Math.max(1, mergedRuns.size()), runHeadComparator);
+        for (SpillFile run : mergedRuns) {
+            run.openForReading();
+            Tuple firstOfRun = run.read(tupleTypes);
+            if (firstOfRun != null) {
+                queue.add(new RunHead(firstOfRun, run));
+            } else {
+                run.finishReading();
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Helper method used to return the smallest tuple of the runs being merged, and replace it with the next tuple of
+     * the same run. A run is closed once every tuple of it has been read.
+     * @param queue The next tuple of every run being merged.
+     * @return The smallest tuple, or null if every tuple has been returned.
+     */
+    private Tuple pollSmallest(PriorityQueue<RunHead> queue) {
+        RunHead smallest = queue.poll();
+        if (smallest == null) {
+            return null;
+        }
+
+        Tuple nextOfRun = smallest.run.read(tupleTypes);
+        if (nextOfRun != null) {
+            queue.add(new RunHead(nextOfRun, smallest.run));
+        } else {
+            smallest.run.finishReading();
+        }
+        return smallest.tuple;
+    }
+
+    /**
+     * GetNextTuple method for SortOperator.
+     * Returns the next tuple in the sorted order, either from memory or by merging the runs.
+     * @return The next tuple in the sorted order, or null if there are no more tuples.
+     */
+    @Override
+    public Tuple getNextTuple() {
+        if (sortedTuples != null) {
+            if (position < sortedTuples.size()) {
+                position += 1;
+                return sortedTuples.get(position - 1);
+            }
+            return null;
+        }
+
+        return pollSmallest(mergeQueue);
+    }
+
+    /**
+     * Reset method for SortOperator.
+     * The child does not need to be read again, we simply start returning the sorted tuples from the beginning again.
+     */
+    @Override
+    public void reset() {
+        if (sortedTuples != null) {
+            position = 0;
+            return;
+        }
+
+        mergeQueue = openRuns(runs);
+    }
+
+    /**
+     * Close method for SortOperator.
+     * Deletes the runs, and closes the child (which has already been read).
+     */
+    @Override
+    public void close() {
+        for (SpillFile run : runs) {
+            run.delete();
+        }
+        runs.clear();
+        mergeQueue = null;
+        sortedTuples = null;
+        childOperator.close();
+    }
+
+    /**
+     * Getter for the variables of the output tuples of SortOperator. These are the variables of the child.
+     * @return The variables of the child operator.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return childOperator.getVariables();
+    }
+
+    /**
+     * Getter for the types of the output tuples of SortOperator. These are the types of the child.
+     * @return The types of the child operator.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return tupleTypes;
+    }
+
+    /**
+     * RunHead class. Pairs a run with its next (smallest) tuple during merging.
+     */
+    private static class RunHead {
+        private final Tuple tuple;
+        private final SpillFile run;
+
+        private RunHead(Tuple tuple, SpillFile run) {
+            this.tuple = tuple;
+            this.run = run;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ed.inf.adbs.minibase.base;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * SpillFile class.
+ * A SpillFile is a temporary file that operators use to write tuples to disk when they do not fit in memory,
+ * i.e., the sorted runs of an external sort.
+ * Tuples are first written one after the other, and can then be read back (in the same order) as many times as needed.
+ * Every value is written as a long (strings as their StringDictionary id), so the types are not written to the file.
+ */
+public class SpillFile {
+
+    // The temporary file on disk.
+    private final File file;
+    // Stream used while writing tuples. Null once writing is finished.
+    private DataOutputStream output;
+    // Stream used while reading tuples. Null if the file is not being read.
+    private DataInputStream input;
+
+    // The number of tuples written to the file, and the number of tuples read since the file was last opened for reading.
+    private int tupleCount;
+    private int tuplesRead;
+
+    /**
+     * Constructor for SpillFile.
+     * Creates a new temporary file and opens it for writing. The operator that spills it deletes it (see delete()),
+     * at the latest when it is closed.
+     */
+    public SpillFile() {
+        try {
+            file = File.createTempFile("minibase", ".spill");
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create spill file.", e);
+        }
+        tupleCount = 0;
+    }
+
+    /**
+     * Method used to write a tuple at the end of the file.
+     * @param tuple The tuple to write.
+     */
+    public void write(Tuple tuple) {
+        try {
+            for (long value : tuple.getValues()) {
+                output.writeLong(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to spill file.", e);
+        }
+        tupleCount += 1;
+    }
+
+    /**
+     * Method used to finish writing, after which the file can be read.
+     */
+    public void finishWriting() {
+        try {
+            output.close();
+            output = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close spill file.", e);
+        }
+    }
+
+    /**
+     * Method used to (re)start reading the file from the first tuple.
+     */
+    public void openForReading() {
+        try {
+            if (input != null) {
+                input.close();
+            }
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open spill file.", e);
+        }
+        tuplesRead = 0;
+    }
+
+    /**
+     * Method used to read the next tuple from the file.
+     * Assumes openForReading() has been called.
+     * @param types The types of the values of the tuples (one per value).
+     * @return The next tuple, or null if every tuple has been read.
+     */
+    public Tuple read(ColumnType[] types) {
+        if (tuplesRead == tupleCount) {
+            return null;
+        }
+
+        long[] values = new long[types.length];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = input.readLong();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read from spill file.", e);
+        }
+        tuplesRead += 1;
+
+        return new Tuple(values, types);
+    }
+
+    /**
+     * Method used to close the file once every tuple has been read. It can still be opened for reading again.
+     */
+    public void finishReading() {
+        try {
+            if (input != null) {
+                input.close();
+                input = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close spill file.", e);
+        }
+    }
+
+    /**
+     * Method used to close and delete the file once it is no longer needed.
+     */
+    public void delete() {
+        try {
+            if (output != null) {
+                output.close();
+            }
+            if (input != null) {
+                input.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        file.delete();
+    }
+}
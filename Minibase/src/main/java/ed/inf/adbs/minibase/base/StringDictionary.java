@@ -0,0 +1,82 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StringDictionary class.
+ * Tuples store string values as ids instead of String objects. This class assigns an id to every distinct string
+ * and translates ids back to strings. Since every distinct string has exactly one id, two string values are equal
+ * if and only if their ids are equal. Ids are not ordered like the strings, so ordering comparisons use the strings.
+ * This is shared by every operator of the query, hence all the methods are static.
+ */
+public final class StringDictionary {
+
+    // Maps every string to its id.
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    // The string of every id. Replaced by a larger copy when full, so readers never see a partially filled array.
+    private static volatile String[] strings = new String[1024];
+    // The number of ids assigned so far.
+    private static int size = 0;
+
+    private StringDictionary() {
+    }
+
+    /**
+     * Method used to get the id of a string, assigning a new id if the string has not been seen before.
+     * @param string The string.
+     * @return The id of the string.
+     */
+    public static int getId(String string) {
+        Integer id = ids.get(string);
+        if (id != null) {
+            return id;
+        }
+        return addString(string);
+    }
+
+    /**
+     * Method used to get the string of an id.
+     * @param id An id returned by getId.
+     * @return The string with that id.
+     */
+    public static String getString(long id) {
+        return strings[(int) id];
+    }
+
+    /**
+     * Method used to compare the strings of two ids lexicographically.
+     * @param id1 The id of the first string.
+     * @param id2 The id of the second string.
+     * @return A negative integer, zero, or a positive integer as the first string is less than, equal to, or greater than the second.
+     */
+    public static int compare(long id1, long id2) {
+        if (id1 == id2) {
+            return 0;
+        }
+        return getString(id1).compareTo(getString(id2));
+    }
+
+    /**
+     * Helper method used to assign the next id to a string. Synchronized so that concurrent scans assign each string
+     * a single id.
+     * @param string The string.
+     * @return The id of the string.
+     */
+    private static synchronized int addString(String string) {
+        Integer id = ids.get(string);
+        if (id != null) {
+            return id;
+        }
+
+        String[] currentStrings = strings;
+        if (size == currentStrings.length) {
+            currentStrings = Arrays.copyOf(currentStrings, 2 * currentStrings.length);
+        }
+        currentStrings[size] = string;
+        strings = currentStrings;
+        ids.put(string, size);
+        size += 1;
+        return size - 1;
+    }
+}
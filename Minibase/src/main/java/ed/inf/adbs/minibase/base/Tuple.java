@@ -1,70 +1,52 @@
 package ed.inf.adbs.minibase.base;
 
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * Tuple class used to represent a tuple (record).
- * Each tuple is made up of constants. We represent this with the values attribute.
- * Each tuple should store the variables (specified in the CQ) that correspond to each value.
- * Storing variables at tuple level makes it easy to extract constants from tuples given a variable.
+ * Each tuple is made up of primitive values, which we represent with the values attribute.
+ * Integers are stored as they are, and strings are stored as their id in the StringDictionary.
+ * The type of each value is needed to interpret it, so each tuple also stores the types (specified by the schema).
+ * The types are shared by all the tuples of an operator, so they cost nothing per tuple.
+ * Tuples do not store the variables (specified in the CQ) that correspond to each value. The query plan resolves every
+ * variable to a position once (see Operator.getVariables), and operators then access values by position.
  */
 public class Tuple {
 
-    // The constants of the tuple.
-    private final Constant[] values;
-    // The variables of the tuple.
-    private final List<Variable> variables;
+    // The values of the tuple.
+    private final long[] values;
+    // The types of the values of the tuple.
+    private final ColumnType[] types;
 
     /**
      * Constructor for Tuple.
-     * Assigns values (constants) and variables.
-     * @param values The constants that make the tuple.
-     * @param variables The variables that correspond to the values.
+     * Assigns values and types.
+     * @param values The values that make the tuple.
+     * @param types The types of the values.
      */
-    public Tuple (Constant[] values, List<Variable> variables) {
+    public Tuple (long[] values, ColumnType[] types) {
         this.values = values;
-        this.variables = variables;
+        this.types = types;
     }
 
     /**
      * Getter for the values of the tuple.
-     * @return The values of the tuple as an array of Constants.
+     * @return The values of the tuple as an array of longs (string values are StringDictionary ids).
      */
-    public Constant[] getValues() {
+    public long[] getValues() {
         return values;
     }
 
     /**
-     * Method to get the position of a variable in a tuple.
-     * We exploit the fact that we store the variables in order of its values, so we can use indexOf here.
-     * @param variable The variable of which we want the position of.
-     * @return The position of the variable.
+     * Getter for the types of the values of the tuple.
+     * @return The types of the values of the tuple.
      */
-    public Integer getPosOfVar(Variable variable) {
-        return variables.indexOf(variable);
-    }
-
-    /**
-     * Getter for the variables.
-     * @return The variable.
-     */
-    public List<Variable> getVariables() {
-        return variables;
-    }
-
-    /**
-     * Method to get the constant value from the tuple given a variable.
-     * @param variable The variable which corresponds to the desired constant.
-     * @return The desired constant.
-     */
-    public Constant getConstantFromVariable(Variable variable) {
-        return values[variables.indexOf(variable)];
+    public ColumnType[] getTypes() {
+        return types;
     }
 
     /**
      * Overriding equals. Tuple objects should be equal if they have the same values (in the same order).
-     * Note we don't consider variables here, because tuples are ultimately known only for their values.
      * @param o The object to be compared with.
      * @return true if the object is an equivalent Tuple object (from the explanation above), else false.
      */
@@ -87,11 +69,24 @@ public class Tuple {
 
     /**
      * Overriding toString for Tuple.
+     * Values are formatted directly from their primitive representation, i.e., 1, 9, 'adbs', 2.5.
      * @return Tuple as string.
      */
     @Override
     public String toString() {
-        String tuple = Arrays.toString(values);
-        return (tuple).substring(1, tuple.length()-1);
+        StringBuilder tuple = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                tuple.append(", ");
+            }
+            if (types[i] == ColumnType.STRING) {
+                tuple.append('\'').append(StringDictionary.getString(values[i])).append('\'');
+            } else if (types[i] == ColumnType.DOUBLE) {
+                tuple.append(Double.longBitsToDouble(values[i]));
+            } else {
+                tuple.append(values[i]);
+            }
+        }
+        return tuple.toString();
     }
-}
\ No newline at end of file
+}
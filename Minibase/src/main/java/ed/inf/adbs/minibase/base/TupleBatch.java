@@ -0,0 +1,188 @@
+package ed.inf.adbs.minibase.base;
+
+/**
+ * TupleBatch class.
+ * A batch of up to CAPACITY tuples, stored by column: the values of column c of row r are at columns[c][r].
+ * A selection vector holds the rows of the batch that are part of it, in order, so that a selection can filter a batch
+ * by shrinking its selection vector, without copying any values. Rows that are not in the selection vector are ignored.
+ * Batches are passed between operators by getNextBatch (see Operator), so that operators work on many tuples per call,
+ * in tight loops over arrays.
+ */
+public class TupleBatch {
+
+    // The largest number of rows of a batch.
+    public static final int CAPACITY = 1024;
+
+    // The values of every column of the batch, by row.
+    private final long[][] columns;
+    // The type of every column of the batch.
+    private final ColumnType[] types;
+    // The number of rows in the batch, selected or not.
+    private int rowCount;
+    // The selected rows of the batch, in order. Only the first selectedCount positions are used.
+    private final int[] selection;
+    private int selectedCount;
+
+    /**
+     * Constructor for TupleBatch. Creates an empty batch with room for CAPACITY rows.
+     * @param types The type of every column of the batch.
+     */
+    public TupleBatch(ColumnType[] types) {
+        this.types = types;
+        columns = new long[types.length][CAPACITY];
+        selection = new int[CAPACITY];
+        rowCount = 0;
+        selectedCount = 0;
+    }
+
+    /**
+     * Constructor for TupleBatch, for a batch that shares the columns and the selection vector of another batch.
+     * @param columns The columns of the batch.
+     * @param types The type of every column of the batch.
+     * @param rowCount The number of rows in the batch.
+     * @param selection The selection vector of the batch.
+     * @param selectedCount The number of selected rows.
+     */
+    private TupleBatch(long[][] columns, ColumnType[] types, int rowCount, int[] selection, int selectedCount) {
+        this.columns = columns;
+        this.types = types;
+        this.rowCount = rowCount;
+        this.selection = selection;
+        this.selectedCount = selectedCount;
+    }
+
+    /**
+     * Method used to get a batch of some of the columns of this batch, i.e., for a projection.
+     * The values and the selection vector are shared with this batch, not copied.
+     * @param positions The positions of the columns of the new batch in this batch (in order).
+     * @param projectedTypes The types of the columns of the new batch.
+     * @return The projected batch.
+     */
+    public TupleBatch project(int[] positions, ColumnType[] projectedTypes) {
+        long[][] projectedColumns = new long[positions.length][];
+        for (int i = 0; i < positions.length; i++) {
+            projectedColumns[i] = columns[positions[i]];
+        }
+        return new TupleBatch(projectedColumns, projectedTypes, rowCount, selection, selectedCount);
+    }
+
+    /**
+     * Method used to copy the selected rows of the batch into a new batch, i.e., to hand a batch to another thread
+     * while this batch is reused.
+     * @return A batch of the selected rows, in order, all selected.
+     */
+    public TupleBatch copy() {
+        TupleBatch copy = new TupleBatch(types);
+        for (int column = 0; column < columns.length; column++) {
+            long[] values = columns[column];
+            long[] copiedValues = copy.columns[column];
+            for (int i = 0; i < selectedCount; i++) {
+                copiedValues[i] = values[selection[i]];
+            }
+        }
+        copy.selectAll(selectedCount);
+        return copy;
+    }
+
+    /**
+     * Method used to empty the batch, so that it can be filled again.
+     */
+    public void clear() {
+        rowCount = 0;
+        selectedCount = 0;
+    }
+
+    /**
+     * Method used to check if no more rows can be added to the batch.
+     * @return true if the batch has CAPACITY rows, false otherwise.
+     */
+    public boolean isFull() {
+        return rowCount == CAPACITY;
+    }
+
+    /**
+     * Method used to add a row at the end of the batch. The row is selected.
+     * @param values The values of the row, one per column.
+     */
+    public void addRow(long[] values) {
+        for (int column = 0; column < columns.length; column++) {
+            columns[column][rowCount] = values[column];
+        }
+        selection[selectedCount] = rowCount;
+        selectedCount += 1;
+        rowCount += 1;
+    }
+
+    /**
+     * Method used once rows have been written directly into the columns, to add them to the batch and select them all.
+     * @param rows The number of rows written (from row 0).
+     */
+    public void selectAll(int rows) {
+        rowCount = rows;
+        for (int row = 0; row < rows; row++) {
+            selection[row] = row;
+        }
+        selectedCount = rows;
+    }
+
+    /**
+     * Method used to create the tuple of a row of the batch.
+     * @param row The row.
+     * @return A tuple with the values of the row.
+     */
+    public Tuple getTuple(int row) {
+        long[] values = new long[columns.length];
+        for (int column = 0; column < columns.length; column++) {
+            values[column] = columns[column][row];
+        }
+        return new Tuple(values, types);
+    }
+
+    /**
+     * Getter for the columns of the batch.
+     * @return The values of every column, by row. Only the rows in the selection vector are part of the batch.
+     */
+    public long[][] getColumns() {
+        return columns;
+    }
+
+    /**
+     * Getter for the types of the columns of the batch.
+     * @return The type of every column.
+     */
+    public ColumnType[] getTypes() {
+        return types;
+    }
+
+    /**
+     * Getter for the number of rows in the batch, selected or not.
+     * @return The number of rows.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Getter for the selection vector of the batch.
+     * @return The selected rows, in order (only the first getSelectedCount() positions are used).
+     */
+    public int[] getSelection() {
+        return selection;
+    }
+
+    /**
+     * Getter for the number of selected rows.
+     * @return The number of selected rows.
+     */
+    public int getSelectedCount() {
+        return selectedCount;
+    }
+
+    /**
+     * Setter for the number of selected rows, used after the selection vector has been filtered in place.
+     * @param selectedCount The number of selected rows, at the start of the selection vector.
+     */
+    public void setSelectedCount(int selectedCount) {
+        this.selectedCount = selectedCount;
+    }
+}
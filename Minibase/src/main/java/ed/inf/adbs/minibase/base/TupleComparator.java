@@ -0,0 +1,70 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.Comparator;
+
+/**
+ * TupleComparator class.
+ * Compares tuples on the values at a list of (key) positions, in order.
+ * Integers are compared numerically and strings lexicographically.
+ */
+public class TupleComparator implements Comparator<Tuple> {
+
+    // The positions to compare the tuples on, the first position being the most significant.
+    private final int[] keyPositions;
+
+    /**
+     * Constructor for TupleComparator.
+     * @param keyPositions The positions to compare the tuples on.
+     */
+    public TupleComparator(int[] keyPositions) {
+        this.keyPositions = keyPositions;
+    }
+
+    /**
+     * Compares two tuples on the key positions.
+     * @param tuple1 The first tuple.
+     * @param tuple2 The second tuple.
+     * @return A negative integer, zero, or a positive integer as the first tuple is less than, equal to, or greater than the second.
+     */
+    @Override
+    public int compare(Tuple tuple1, Tuple tuple2) {
+        return compareKeys(tuple1, keyPositions, tuple2, keyPositions);
+    }
+
+    /**
+     * Compares the keys of two tuples, where the keys may be at different positions.
+     * I.e., used to compare the join key x of a left tuple with the join key u of a right tuple.
+     * @param tuple1 The first tuple.
+     * @param keyPositions1 The key positions of the first tuple.
+     * @param tuple2 The second tuple.
+     * @param keyPositions2 The key positions of the second tuple (same length as keyPositions1).
+     * @return A negative integer, zero, or a positive integer as the first key is less than, equal to, or greater than the second.
+     */
+    public static int compareKeys(Tuple tuple1, int[] keyPositions1, Tuple tuple2, int[] keyPositions2) {
+        for (int i = 0; i < keyPositions1.length; i++) {
+            int comparison = compareValues(tuple1.getTypes()[keyPositions1[i]], tuple1.getValues()[keyPositions1[i]],
+                    tuple2.getValues()[keyPositions2[i]]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares two values of the same type.
+     * @param type The type of both values.
+     * @param value1 The first value.
+     * @param value2 The second value.
+     * @return A negative integer, zero, or a positive integer as the first value is less than, equal to, or greater than the second.
+     */
+    public static int compareValues(ColumnType type, long value1, long value2) {
+        if (type == ColumnType.INT) {
+            return Long.compare(value1, value2);
+        }
+        if (type == ColumnType.DOUBLE) {
+            return Double.compare(Double.longBitsToDouble(value1), Double.longBitsToDouble(value2));
+        }
+        return StringDictionary.compare(value1, value2);
+    }
+}
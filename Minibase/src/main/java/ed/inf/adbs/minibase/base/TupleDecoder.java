@@ -0,0 +1,158 @@
+package ed.inf.adbs.minibase.base;
+
+/**
+ * TupleDecoder class.
+ * Used to convert a line of a CSV relation file into the values of a tuple, using the schema of the relation.
+ * Int fields are parsed into their value, and string fields into their StringDictionary id.
+ * The decoder is compiled once per relation from the column types: every column gets a field decoder specialised for
+ * its type, so decoding a line does not need to check the type of every field, and needs no regex split.
+ */
+public class TupleDecoder {
+
+    // The field decoder of every column, in order.
+    private final FieldDecoder[] fieldDecoders;
+    // The column types, used when validating lines.
+    private final ColumnType[] columnTypes;
+
+    /**
+     * Constructor for TupleDecoder.
+     * Compiles a field decoder for every column of the schema.
+     * @param columnTypes The types of the columns of the relation, from the schema.
+     */
+    public TupleDecoder(ColumnType[] columnTypes) {
+        this.columnTypes = columnTypes;
+        fieldDecoders = new FieldDecoder[columnTypes.length];
+        for (int i = 0; i < columnTypes.length; i++) {
+            if (columnTypes[i] == ColumnType.INT) {
+                fieldDecoders[i] = new IntegerFieldDecoder();
+            } else {
+                fieldDecoders[i] = new StringFieldDecoder();
+            }
+        }
+    }
+
+    /**
+     * Method used to decode a line of the relation file into the values of a tuple.
+     * Assumes the line matches the schema (see validate).
+     * @param line The line from the file, i.e. "1, 9, 'adbs'".
+     * @return The values of the tuple.
+     */
+    public long[] decode(String line) {
+        long[] values = new long[fieldDecoders.length];
+        int position = 0;
+        for (int column = 0; column < fieldDecoders.length; column++) {
+            position = fieldDecoders[column].decode(line, position, values, column);
+        }
+        return values;
+    }
+
+    /**
+     * Method used to check that a line of a relation file matches the schema of the relation:
+     * it must have one field per column, string fields must be between apostrophes and int fields must be integers.
+     * @param line The line from the file.
+     * @param relation The name of the relation, used in the error message.
+     * @throws IllegalStateException If the line does not match the schema.
+     */
+    public void validate(String line, String relation) {
+        String[] fields = line.split(", |,");
+        if (fields.length != columnTypes.length) {
+            throw new IllegalStateException("Relation " + relation + " has " + columnTypes.length
+                    + " columns in its schema, but the line \"" + line + "\" has " + fields.length + " fields.");
+        }
+
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i].trim();
+            boolean quoted = field.length() >= 2 && field.charAt(0) == '\'' && field.charAt(field.length() - 1) == '\'';
+            boolean valid;
+            if (columnTypes[i] == ColumnType.STRING) {
+                valid = quoted;
+            } else {
+                valid = field.matches("-?[0-9]+");
+            }
+            if (!valid) {
+                throw new IllegalStateException("Column " + (i + 1) + " of relation " + relation + " is of type "
+                        + columnTypes[i] + " in its schema, but the line \"" + line + "\" has the value " + field + ".");
+            }
+        }
+    }
+
+    /**
+     * Helper method used to move past any spaces.
+     * @param line The line being decoded.
+     * @param position The current position in the line.
+     * @return The position of the first character that is not a space.
+     */
+    private static int skipSpaces(String line, int position) {
+        while (position < line.length() && line.charAt(position) == ' ') {
+            position += 1;
+        }
+        return position;
+    }
+
+    /**
+     * Helper method used to move past the end of a field: any spaces and the comma that follows them (if any).
+     * @param line The line being decoded.
+     * @param position The position just after the value of the field.
+     * @return The position just after the comma.
+     */
+    private static int skipSeparator(String line, int position) {
+        position = skipSpaces(line, position);
+        if (position < line.length() && line.charAt(position) == ',') {
+            position += 1;
+        }
+        return position;
+    }
+
+    /**
+     * FieldDecoder interface. Decodes one field of a line, of a fixed type.
+     */
+    private interface FieldDecoder {
+        /**
+         * Decodes the field starting at a position of the line.
+         * @param line The line being decoded.
+         * @param position The position where the field starts.
+         * @param values The values of the tuple, to store the decoded value in.
+         * @param column The position of the field in the tuple.
+         * @return The position where the next field starts.
+         */
+        int decode(String line, int position, long[] values, int column);
+    }
+
+    /**
+     * Field decoder for int columns. Parses the digits in place, without creating a substring.
+     */
+    private static class IntegerFieldDecoder implements FieldDecoder {
+        @Override
+        public int decode(String line, int position, long[] values, int column) {
+            position = skipSpaces(line, position);
+            boolean negative = line.charAt(position) == '-';
+            if (negative) {
+                position += 1;
+            }
+            long value = 0;
+            while (position < line.length()) {
+                char digit = line.charAt(position);
+                if (digit < '0' || digit > '9') {
+                    break;
+                }
+                value = value * 10 + (digit - '0');
+                position += 1;
+            }
+            values[column] = negative ? -value : value;
+            return skipSeparator(line, position);
+        }
+    }
+
+    /**
+     * Field decoder for string columns. Takes the characters between the apostrophes and looks up their id.
+     */
+    private static class StringFieldDecoder implements FieldDecoder {
+        @Override
+        public int decode(String line, int position, long[] values, int column) {
+            int start = line.indexOf('\'', position) + 1;
+            int end = line.indexOf('\'', start);
+            values[column] = StringDictionary.getId(line.substring(start, end));
+            return skipSeparator(line, end + 1);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.Arrays;
+
+/**
+ * TupleKey class.
+ * Holds the values at some of the positions of a tuple, i.e., a join key or a group by key,
+ * so that they can be used as the key of a hash table.
+ */
+public class TupleKey {
+
+    // The values of the key.
+    private final long[] values;
+
+    /**
+     * Constructor for TupleKey.
+     * Extracts the values at the key positions from the tuple.
+     * @param tuple The tuple to extract the key from.
+     * @param keyPositions The positions of the tuple that make up the key (in order).
+     */
+    public TupleKey(Tuple tuple, int[] keyPositions) {
+        long[] tupleValues = tuple.getValues();
+        values = new long[keyPositions.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = tupleValues[keyPositions[i]];
+        }
+    }
+
+    /**
+     * Constructor for TupleKey, for the key of a row of a TupleBatch.
+     * Extracts the values at the key positions from the columns of the batch.
+     * @param columns The columns of the batch.
+     * @param row The row to extract the key from.
+     * @param keyPositions The columns of the batch that make up the key (in order).
+     */
+    public TupleKey(long[][] columns, int row, int[] keyPositions) {
+        values = new long[keyPositions.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = columns[keyPositions[i]][row];
+        }
+    }
+
+    /**
+     * Getter for the values of the key.
+     * @return The values of the key.
+     */
+    public long[] getValues() {
+        return values;
+    }
+
+    /**
+     * Overriding equals. TupleKey objects should be equal if they have the same values (in the same order).
+     * @param o The object to be compared with.
+     * @return true if the object is an equivalent TupleKey object, else false.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TupleKey)) return false;
+        TupleKey tupleKey = (TupleKey) o;
+        return Arrays.equals(values, tupleKey.values);
+    }
+
+    /**
+     * Overriding hashcode since we overridden equals.
+     * @return int hashcode.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+}
@@ -0,0 +1,15 @@
+package ed.inf.adbs.minibase.base;
+
+/**
+ * TupleSink interface.
+ * A TupleSink consumes the output tuples of a query plan, one at a time, as the root operator produces them
+ * (see Operator.dump). This lets the output be written without holding every output tuple in memory.
+ */
+public interface TupleSink {
+
+    /**
+     * Consumes the next output tuple.
+     * @param tuple The output tuple.
+     */
+    void accept(Tuple tuple);
+}
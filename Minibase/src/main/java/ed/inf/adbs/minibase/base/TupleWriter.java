@@ -0,0 +1,68 @@
+package ed.inf.adbs.minibase.base;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * TupleWriter class.
+ * A TupleSink that writes every tuple it receives as a line of an output file, i.e., "1, 9, 'adbs'".
+ * Tuples are formatted straight into a buffered writer, so the output is written as it is produced, and memory use
+ * does not grow with the size of the output.
+ */
+public class TupleWriter implements TupleSink, Closeable {
+
+    // The writer of the output file.
+    private final Writer writer;
+
+    /**
+     * Constructor for TupleWriter.
+     * Creates (or truncates) the output file.
+     * @param outputFile Name of the output file.
+     * @throws IOException If the output file cannot be created.
+     */
+    public TupleWriter(String outputFile) throws IOException {
+        writer = new BufferedWriter(new FileWriter(outputFile));
+    }
+
+    /**
+     * Method used to write a tuple as the next line of the output file.
+     * @param tuple The output tuple.
+     */
+    @Override
+    public void accept(Tuple tuple) {
+        long[] values = tuple.getValues();
+        ColumnType[] types = tuple.getTypes();
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(", ");
+                }
+                if (types[i] == ColumnType.STRING) {
+                    writer.write('\'');
+                    writer.write(StringDictionary.getString(values[i]));
+                    writer.write('\'');
+                } else if (types[i] == ColumnType.DOUBLE) {
+                    writer.write(Double.toString(Double.longBitsToDouble(values[i])));
+                } else {
+                    writer.write(Long.toString(values[i]));
+                }
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to output file.", e);
+        }
+    }
+
+    /**
+     * Method used to flush and close the output file.
+     * @throws IOException If the output file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -6,13 +6,18 @@ query
 
 head
     : ID_UPPER '(' ')'
-    | ID_UPPER '(' sumagg ')'
+    | ID_UPPER '(' aggregate (',' aggregate)* ')'
     | ID_UPPER '(' variable (',' variable)*  ')'
-    | ID_UPPER '(' variable (',' variable)* ',' sumagg ')'
+    | ID_UPPER '(' variable (',' variable)* (',' aggregate)+ ')'
     ;
 
-sumagg
-    : 'SUM' '(' term ('*' term)* ')'
+aggregate
+    : aggregateFunction '(' term ('*' term)* ')'
+    | 'COUNT' '(' '*' ')'
+    ;
+
+aggregateFunction
+    : 'SUM' | 'COUNT' | 'MIN' | 'MAX' | 'AVG'
     ;
 
 body
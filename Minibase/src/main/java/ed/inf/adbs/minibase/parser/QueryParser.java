@@ -12,6 +12,7 @@ import org.antlr.v4.runtime.TokenStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
@@ -49,22 +50,35 @@ public class QueryParser {
                     .map(v -> v.accept(variableVisitor))
                     .collect(toList());
             
-            SumAggregate headSumAggregate = null;
-            if (ctx.head().sumagg() != null) {                
-                TermVisitor termVisitor = new TermVisitor();
-                List<Term> productTerms = ctx.head().sumagg().term()
-                        .stream()
-                        .map(v -> v.accept(termVisitor))
-                        .collect(toList());
-                headSumAggregate = new SumAggregate(productTerms);
-            }
+            AggregateVisitor aggregateVisitor = new AggregateVisitor();
+            List<Aggregate> headAggregates = ctx.head().aggregate()
+                    .stream()
+                    .map(a -> a.accept(aggregateVisitor))
+                    .collect(toList());
 
-            Head head = new Head(headName, headVariables, headSumAggregate);
+            Head head = new Head(headName, headVariables, headAggregates);
 
             return new Query(head, body);
         }
     }
 
+    private static class AggregateVisitor extends MinibaseBaseVisitor<Aggregate> {
+        @Override
+        public Aggregate visitAggregate(MinibaseParser.AggregateContext ctx) {
+            if (ctx.aggregateFunction() == null) {
+                // COUNT(*)
+                return new Aggregate(AggregateFunction.COUNT, new ArrayList<>());
+            }
+            AggregateFunction function = AggregateFunction.fromString(ctx.aggregateFunction().getText());
+            TermVisitor termVisitor = new TermVisitor();
+            List<Term> productTerms = ctx.term()
+                    .stream()
+                    .map(t -> t.accept(termVisitor))
+                    .collect(toList());
+            return new Aggregate(function, productTerms);
+        }
+    }
+
     private static class AtomVisitor extends MinibaseBaseVisitor<Atom> {
         @Override
         public Atom visitAtom(MinibaseParser.AtomContext ctx) {
@@ -41,13 +41,25 @@ public class MinibaseBaseListener implements MinibaseListener {
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void enterSumagg(MinibaseParser.SumaggContext ctx) { }
+	@Override public void enterAggregate(MinibaseParser.AggregateContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void exitSumagg(MinibaseParser.SumaggContext ctx) { }
+	@Override public void exitAggregate(MinibaseParser.AggregateContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterAggregateFunction(MinibaseParser.AggregateFunctionContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitAggregateFunction(MinibaseParser.AggregateFunctionContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
@@ -18,8 +18,8 @@ public class MinibaseLexer extends Lexer {
 		new PredictionContextCache();
 	public static final int
 		T__0=1, T__1=2, T__2=3, T__3=4, T__4=5, T__5=6, T__6=7, T__7=8, T__8=9, 
-		T__9=10, T__10=11, T__11=12, INT=13, STRING=14, ID_UPPER=15, ID_LOWER=16, 
-		WS=17;
+		T__9=10, T__10=11, T__11=12, T__12=13, T__13=14, T__14=15, T__15=16, INT=17, 
+		STRING=18, ID_UPPER=19, ID_LOWER=20, WS=21;
 	public static String[] channelNames = {
 		"DEFAULT_TOKEN_CHANNEL", "HIDDEN"
 	};
@@ -31,22 +31,24 @@ public class MinibaseLexer extends Lexer {
 	private static String[] makeRuleNames() {
 		return new String[] {
 			"T__0", "T__1", "T__2", "T__3", "T__4", "T__5", "T__6", "T__7", "T__8", 
-			"T__9", "T__10", "T__11", "INT", "STRING", "ID_UPPER", "ID_LOWER", "WS"
+			"T__9", "T__10", "T__11", "T__12", "T__13", "T__14", "T__15", "INT", 
+			"STRING", "ID_UPPER", "ID_LOWER", "WS"
 		};
 	}
 	public static final String[] ruleNames = makeRuleNames();
 
 	private static String[] makeLiteralNames() {
 		return new String[] {
-			null, "':-'", "'('", "')'", "','", "'SUM'", "'*'", "'='", "'!='", "'<'", 
-			"'<='", "'>'", "'>='"
+			null, "':-'", "'('", "')'", "','", "'*'", "'COUNT'", "'SUM'", "'MIN'", 
+			"'MAX'", "'AVG'", "'='", "'!='", "'<'", "'<='", "'>'", "'>='"
 		};
 	}
 	private static final String[] _LITERAL_NAMES = makeLiteralNames();
 	private static String[] makeSymbolicNames() {
 		return new String[] {
 			null, null, null, null, null, null, null, null, null, null, null, null, 
-			null, "INT", "STRING", "ID_UPPER", "ID_LOWER", "WS"
+			null, null, null, null, null, "INT", "STRING", "ID_UPPER", "ID_LOWER", 
+			"WS"
 		};
 	}
 	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
@@ -108,64 +110,78 @@ public class MinibaseLexer extends Lexer {
 	public ATN getATN() { return _ATN; }
 
 	public static final String _serializedATN =
-		"\u0004\u0000\u0011`\u0006\uffff\uffff\u0002\u0000\u0007\u0000\u0002\u0001"+
+		"\u0004\u0000\u0015z\u0006\uffff\uffff\u0002\u0000\u0007\u0000\u0002\u0001"+
 		"\u0007\u0001\u0002\u0002\u0007\u0002\u0002\u0003\u0007\u0003\u0002\u0004"+
 		"\u0007\u0004\u0002\u0005\u0007\u0005\u0002\u0006\u0007\u0006\u0002\u0007"+
 		"\u0007\u0007\u0002\b\u0007\b\u0002\t\u0007\t\u0002\n\u0007\n\u0002\u000b"+
 		"\u0007\u000b\u0002\f\u0007\f\u0002\r\u0007\r\u0002\u000e\u0007\u000e\u0002"+
-		"\u000f\u0007\u000f\u0002\u0010\u0007\u0010\u0001\u0000\u0001\u0000\u0001"+
-		"\u0000\u0001\u0001\u0001\u0001\u0001\u0002\u0001\u0002\u0001\u0003\u0001"+
-		"\u0003\u0001\u0004\u0001\u0004\u0001\u0004\u0001\u0004\u0001\u0005\u0001"+
-		"\u0005\u0001\u0006\u0001\u0006\u0001\u0007\u0001\u0007\u0001\u0007\u0001"+
-		"\b\u0001\b\u0001\t\u0001\t\u0001\t\u0001\n\u0001\n\u0001\u000b\u0001\u000b"+
-		"\u0001\u000b\u0001\f\u0004\fC\b\f\u000b\f\f\fD\u0001\r\u0001\r\u0005\r"+
-		"I\b\r\n\r\f\rL\t\r\u0001\r\u0001\r\u0001\u000e\u0004\u000eQ\b\u000e\u000b"+
-		"\u000e\f\u000eR\u0001\u000f\u0004\u000fV\b\u000f\u000b\u000f\f\u000fW"+
-		"\u0001\u0010\u0004\u0010[\b\u0010\u000b\u0010\f\u0010\\\u0001\u0010\u0001"+
-		"\u0010\u0000\u0000\u0011\u0001\u0001\u0003\u0002\u0005\u0003\u0007\u0004"+
-		"\t\u0005\u000b\u0006\r\u0007\u000f\b\u0011\t\u0013\n\u0015\u000b\u0017"+
-		"\f\u0019\r\u001b\u000e\u001d\u000f\u001f\u0010!\u0011\u0001\u0000\u0005"+
-		"\u0001\u000009\u0004\u0000\t\t  AZaz\u0001\u0000AZ\u0001\u0000az\u0003"+
-		"\u0000\t\n\r\r  d\u0000\u0001\u0001\u0000\u0000\u0000\u0000\u0003\u0001"+
-		"\u0000\u0000\u0000\u0000\u0005\u0001\u0000\u0000\u0000\u0000\u0007\u0001"+
-		"\u0000\u0000\u0000\u0000\t\u0001\u0000\u0000\u0000\u0000\u000b\u0001\u0000"+
-		"\u0000\u0000\u0000\r\u0001\u0000\u0000\u0000\u0000\u000f\u0001\u0000\u0000"+
-		"\u0000\u0000\u0011\u0001\u0000\u0000\u0000\u0000\u0013\u0001\u0000\u0000"+
-		"\u0000\u0000\u0015\u0001\u0000\u0000\u0000\u0000\u0017\u0001\u0000\u0000"+
-		"\u0000\u0000\u0019\u0001\u0000\u0000\u0000\u0000\u001b\u0001\u0000\u0000"+
-		"\u0000\u0000\u001d\u0001\u0000\u0000\u0000\u0000\u001f\u0001\u0000\u0000"+
-		"\u0000\u0000!\u0001\u0000\u0000\u0000\u0001#\u0001\u0000\u0000\u0000\u0003"+
-		"&\u0001\u0000\u0000\u0000\u0005(\u0001\u0000\u0000\u0000\u0007*\u0001"+
-		"\u0000\u0000\u0000\t,\u0001\u0000\u0000\u0000\u000b0\u0001\u0000\u0000"+
-		"\u0000\r2\u0001\u0000\u0000\u0000\u000f4\u0001\u0000\u0000\u0000\u0011"+
-		"7\u0001\u0000\u0000\u0000\u00139\u0001\u0000\u0000\u0000\u0015<\u0001"+
-		"\u0000\u0000\u0000\u0017>\u0001\u0000\u0000\u0000\u0019B\u0001\u0000\u0000"+
-		"\u0000\u001bF\u0001\u0000\u0000\u0000\u001dP\u0001\u0000\u0000\u0000\u001f"+
-		"U\u0001\u0000\u0000\u0000!Z\u0001\u0000\u0000\u0000#$\u0005:\u0000\u0000"+
-		"$%\u0005-\u0000\u0000%\u0002\u0001\u0000\u0000\u0000&\'\u0005(\u0000\u0000"+
-		"\'\u0004\u0001\u0000\u0000\u0000()\u0005)\u0000\u0000)\u0006\u0001\u0000"+
-		"\u0000\u0000*+\u0005,\u0000\u0000+\b\u0001\u0000\u0000\u0000,-\u0005S"+
-		"\u0000\u0000-.\u0005U\u0000\u0000./\u0005M\u0000\u0000/\n\u0001\u0000"+
-		"\u0000\u000001\u0005*\u0000\u00001\f\u0001\u0000\u0000\u000023\u0005="+
-		"\u0000\u00003\u000e\u0001\u0000\u0000\u000045\u0005!\u0000\u000056\u0005"+
-		"=\u0000\u00006\u0010\u0001\u0000\u0000\u000078\u0005<\u0000\u00008\u0012"+
-		"\u0001\u0000\u0000\u00009:\u0005<\u0000\u0000:;\u0005=\u0000\u0000;\u0014"+
-		"\u0001\u0000\u0000\u0000<=\u0005>\u0000\u0000=\u0016\u0001\u0000\u0000"+
-		"\u0000>?\u0005>\u0000\u0000?@\u0005=\u0000\u0000@\u0018\u0001\u0000\u0000"+
-		"\u0000AC\u0007\u0000\u0000\u0000BA\u0001\u0000\u0000\u0000CD\u0001\u0000"+
-		"\u0000\u0000DB\u0001\u0000\u0000\u0000DE\u0001\u0000\u0000\u0000E\u001a"+
-		"\u0001\u0000\u0000\u0000FJ\u0005\'\u0000\u0000GI\u0007\u0001\u0000\u0000"+
-		"HG\u0001\u0000\u0000\u0000IL\u0001\u0000\u0000\u0000JH\u0001\u0000\u0000"+
-		"\u0000JK\u0001\u0000\u0000\u0000KM\u0001\u0000\u0000\u0000LJ\u0001\u0000"+
-		"\u0000\u0000MN\u0005\'\u0000\u0000N\u001c\u0001\u0000\u0000\u0000OQ\u0007"+
-		"\u0002\u0000\u0000PO\u0001\u0000\u0000\u0000QR\u0001\u0000\u0000\u0000"+
-		"RP\u0001\u0000\u0000\u0000RS\u0001\u0000\u0000\u0000S\u001e\u0001\u0000"+
-		"\u0000\u0000TV\u0007\u0003\u0000\u0000UT\u0001\u0000\u0000\u0000VW\u0001"+
-		"\u0000\u0000\u0000WU\u0001\u0000\u0000\u0000WX\u0001\u0000\u0000\u0000"+
-		"X \u0001\u0000\u0000\u0000Y[\u0007\u0004\u0000\u0000ZY\u0001\u0000\u0000"+
-		"\u0000[\\\u0001\u0000\u0000\u0000\\Z\u0001\u0000\u0000\u0000\\]\u0001"+
-		"\u0000\u0000\u0000]^\u0001\u0000\u0000\u0000^_\u0006\u0010\u0000\u0000"+
-		"_\"\u0001\u0000\u0000\u0000\u0006\u0000DJRW\\\u0001\u0006\u0000\u0000";
+		"\u000f\u0007\u000f\u0002\u0010\u0007\u0010\u0002\u0011\u0007\u0011\u0002"+
+		"\u0012\u0007\u0012\u0002\u0013\u0007\u0013\u0002\u0014\u0007\u0014\u0001"+
+		"\u0000\u0001\u0000\u0001\u0000\u0001\u0001\u0001\u0001\u0001\u0002\u0001"+
+		"\u0002\u0001\u0003\u0001\u0003\u0001\u0004\u0001\u0004\u0001\u0005\u0001"+
+		"\u0005\u0001\u0005\u0001\u0005\u0001\u0005\u0001\u0005\u0001\u0006\u0001"+
+		"\u0006\u0001\u0006\u0001\u0006\u0001\u0007\u0001\u0007\u0001\u0007\u0001"+
+		"\u0007\u0001\b\u0001\b\u0001\b\u0001\b\u0001\t\u0001\t\u0001\t\u0001\t"+
+		"\u0001\n\u0001\n\u0001\u000b\u0001\u000b\u0001\u000b\u0001\f\u0001\f\u0001"+
+		"\r\u0001\r\u0001\r\u0001\u000e\u0001\u000e\u0001\u000f\u0001\u000f\u0001"+
+		"\u000f\u0001\u0010\u0004\u0010]\b\u0010\u000b\u0010\f\u0010^\u0001\u0011"+
+		"\u0001\u0011\u0005\u0011c\b\u0011\n\u0011\f\u0011f\t\u0011\u0001\u0011"+
+		"\u0001\u0011\u0001\u0012\u0004\u0012k\b\u0012\u000b\u0012\f\u0012l\u0001"+
+		"\u0013\u0004\u0013p\b\u0013\u000b\u0013\f\u0013q\u0001\u0014\u0004\u0014"+
+		"u\b\u0014\u000b\u0014\f\u0014v\u0001\u0014\u0001\u0014\u0000\u0000\u0015"+
+		"\u0001\u0001\u0003\u0002\u0005\u0003\u0007\u0004\t\u0005\u000b\u0006\r"+
+		"\u0007\u000f\b\u0011\t\u0013\n\u0015\u000b\u0017\f\u0019\r\u001b\u000e"+
+		"\u001d\u000f\u001f\u0010!\u0011#\u0012%\u0013\'\u0014)\u0015\u0001\u0000"+
+		"\u0005\u0001\u000009\u0004\u0000\t\t  AZaz\u0001\u0000AZ\u0001\u0000a"+
+		"z\u0003\u0000\t\n\r\r  ~\u0000\u0001\u0001\u0000\u0000\u0000\u0000\u0003"+
+		"\u0001\u0000\u0000\u0000\u0000\u0005\u0001\u0000\u0000\u0000\u0000\u0007"+
+		"\u0001\u0000\u0000\u0000\u0000\t\u0001\u0000\u0000\u0000\u0000\u000b\u0001"+
+		"\u0000\u0000\u0000\u0000\r\u0001\u0000\u0000\u0000\u0000\u000f\u0001\u0000"+
+		"\u0000\u0000\u0000\u0011\u0001\u0000\u0000\u0000\u0000\u0013\u0001\u0000"+
+		"\u0000\u0000\u0000\u0015\u0001\u0000\u0000\u0000\u0000\u0017\u0001\u0000"+
+		"\u0000\u0000\u0000\u0019\u0001\u0000\u0000\u0000\u0000\u001b\u0001\u0000"+
+		"\u0000\u0000\u0000\u001d\u0001\u0000\u0000\u0000\u0000\u001f\u0001\u0000"+
+		"\u0000\u0000\u0000!\u0001\u0000\u0000\u0000\u0000#\u0001\u0000\u0000\u0000"+
+		"\u0000%\u0001\u0000\u0000\u0000\u0000\'\u0001\u0000\u0000\u0000\u0000"+
+		")\u0001\u0000\u0000\u0000\u0001+\u0001\u0000\u0000\u0000\u0003.\u0001"+
+		"\u0000\u0000\u0000\u00050\u0001\u0000\u0000\u0000\u00072\u0001\u0000\u0000"+
+		"\u0000\t4\u0001\u0000\u0000\u0000\u000b6\u0001\u0000\u0000\u0000\r<\u0001"+
+		"\u0000\u0000\u0000\u000f@\u0001\u0000\u0000\u0000\u0011D\u0001\u0000\u0000"+
+		"\u0000\u0013H\u0001\u0000\u0000\u0000\u0015L\u0001\u0000\u0000\u0000\u0017"+
+		"N\u0001\u0000\u0000\u0000\u0019Q\u0001\u0000\u0000\u0000\u001bS\u0001"+
+		"\u0000\u0000\u0000\u001dV\u0001\u0000\u0000\u0000\u001fX\u0001\u0000\u0000"+
+		"\u0000!\\\u0001\u0000\u0000\u0000#`\u0001\u0000\u0000\u0000%j\u0001\u0000"+
+		"\u0000\u0000\'o\u0001\u0000\u0000\u0000)t\u0001\u0000\u0000\u0000+,\u0005"+
+		":\u0000\u0000,-\u0005-\u0000\u0000-\u0002\u0001\u0000\u0000\u0000./\u0005"+
+		"(\u0000\u0000/\u0004\u0001\u0000\u0000\u000001\u0005)\u0000\u00001\u0006"+
+		"\u0001\u0000\u0000\u000023\u0005,\u0000\u00003\b\u0001\u0000\u0000\u0000"+
+		"45\u0005*\u0000\u00005\n\u0001\u0000\u0000\u000067\u0005C\u0000\u0000"+
+		"78\u0005O\u0000\u000089\u0005U\u0000\u00009:\u0005N\u0000\u0000:;\u0005"+
+		"T\u0000\u0000;\f\u0001\u0000\u0000\u0000<=\u0005S\u0000\u0000=>\u0005"+
+		"U\u0000\u0000>?\u0005M\u0000\u0000?\u000e\u0001\u0000\u0000\u0000@A\u0005"+
+		"M\u0000\u0000AB\u0005I\u0000\u0000BC\u0005N\u0000\u0000C\u0010\u0001\u0000"+
+		"\u0000\u0000DE\u0005M\u0000\u0000EF\u0005A\u0000\u0000FG\u0005X\u0000"+
+		"\u0000G\u0012\u0001\u0000\u0000\u0000HI\u0005A\u0000\u0000IJ\u0005V\u0000"+
+		"\u0000JK\u0005G\u0000\u0000K\u0014\u0001\u0000\u0000\u0000LM\u0005=\u0000"+
+		"\u0000M\u0016\u0001\u0000\u0000\u0000NO\u0005!\u0000\u0000OP\u0005=\u0000"+
+		"\u0000P\u0018\u0001\u0000\u0000\u0000QR\u0005<\u0000\u0000R\u001a\u0001"+
+		"\u0000\u0000\u0000ST\u0005<\u0000\u0000TU\u0005=\u0000\u0000U\u001c\u0001"+
+		"\u0000\u0000\u0000VW\u0005>\u0000\u0000W\u001e\u0001\u0000\u0000\u0000"+
+		"XY\u0005>\u0000\u0000YZ\u0005=\u0000\u0000Z \u0001\u0000\u0000\u0000["+
+		"]\u0007\u0000\u0000\u0000\\[\u0001\u0000\u0000\u0000]^\u0001\u0000\u0000"+
+		"\u0000^\\\u0001\u0000\u0000\u0000^_\u0001\u0000\u0000\u0000_\"\u0001\u0000"+
+		"\u0000\u0000`d\u0005\'\u0000\u0000ac\u0007\u0001\u0000\u0000ba\u0001\u0000"+
+		"\u0000\u0000cf\u0001\u0000\u0000\u0000db\u0001\u0000\u0000\u0000de\u0001"+
+		"\u0000\u0000\u0000eg\u0001\u0000\u0000\u0000fd\u0001\u0000\u0000\u0000"+
+		"gh\u0005\'\u0000\u0000h$\u0001\u0000\u0000\u0000ik\u0007\u0002\u0000\u0000"+
+		"ji\u0001\u0000\u0000\u0000kl\u0001\u0000\u0000\u0000lj\u0001\u0000\u0000"+
+		"\u0000lm\u0001\u0000\u0000\u0000m&\u0001\u0000\u0000\u0000np\u0007\u0003"+
+		"\u0000\u0000on\u0001\u0000\u0000\u0000pq\u0001\u0000\u0000\u0000qo\u0001"+
+		"\u0000\u0000\u0000qr\u0001\u0000\u0000\u0000r(\u0001\u0000\u0000\u0000"+
+		"su\u0007\u0004\u0000\u0000ts\u0001\u0000\u0000\u0000uv\u0001\u0000\u0000"+
+		"\u0000vt\u0001\u0000\u0000\u0000vw\u0001\u0000\u0000\u0000wx\u0001\u0000"+
+		"\u0000\u0000xy\u0006\u0014\u0000\u0000y*\u0001\u0000\u0000\u0000\u0006"+
+		"\u0000^dlqv\u0001\u0006\u0000\u0000";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
@@ -28,15 +28,25 @@ public interface MinibaseListener extends ParseTreeListener {
 	 */
 	void exitHead(MinibaseParser.HeadContext ctx);
 	/**
-	 * Enter a parse tree produced by {@link MinibaseParser#sumagg}.
+	 * Enter a parse tree produced by {@link MinibaseParser#aggregate}.
 	 * @param ctx the parse tree
 	 */
-	void enterSumagg(MinibaseParser.SumaggContext ctx);
+	void enterAggregate(MinibaseParser.AggregateContext ctx);
 	/**
-	 * Exit a parse tree produced by {@link MinibaseParser#sumagg}.
+	 * Exit a parse tree produced by {@link MinibaseParser#aggregate}.
 	 * @param ctx the parse tree
 	 */
-	void exitSumagg(MinibaseParser.SumaggContext ctx);
+	void exitAggregate(MinibaseParser.AggregateContext ctx);
+	/**
+	 * Enter a parse tree produced by {@link MinibaseParser#aggregateFunction}.
+	 * @param ctx the parse tree
+	 */
+	void enterAggregateFunction(MinibaseParser.AggregateFunctionContext ctx);
+	/**
+	 * Exit a parse tree produced by {@link MinibaseParser#aggregateFunction}.
+	 * @param ctx the parse tree
+	 */
+	void exitAggregateFunction(MinibaseParser.AggregateFunctionContext ctx);
 	/**
 	 * Enter a parse tree produced by {@link MinibaseParser#body}.
 	 * @param ctx the parse tree
@@ -18,31 +18,32 @@ public class MinibaseParser extends Parser {
 		new PredictionContextCache();
 	public static final int
 		T__0=1, T__1=2, T__2=3, T__3=4, T__4=5, T__5=6, T__6=7, T__7=8, T__8=9, 
-		T__9=10, T__10=11, T__11=12, INT=13, STRING=14, ID_UPPER=15, ID_LOWER=16, 
-		WS=17;
+		T__9=10, T__10=11, T__11=12, T__12=13, T__13=14, T__14=15, T__15=16, INT=17, 
+		STRING=18, ID_UPPER=19, ID_LOWER=20, WS=21;
 	public static final int
-		RULE_query = 0, RULE_head = 1, RULE_sumagg = 2, RULE_body = 3, RULE_atom = 4, 
-		RULE_relationalAtom = 5, RULE_comparisonAtom = 6, RULE_term = 7, RULE_variable = 8, 
-		RULE_constant = 9, RULE_cmpOp = 10;
+		RULE_query = 0, RULE_head = 1, RULE_aggregate = 2, RULE_aggregateFunction = 3, 
+		RULE_body = 4, RULE_atom = 5, RULE_relationalAtom = 6, RULE_comparisonAtom = 7, 
+		RULE_term = 8, RULE_variable = 9, RULE_constant = 10, RULE_cmpOp = 11;
 	private static String[] makeRuleNames() {
 		return new String[] {
-			"query", "head", "sumagg", "body", "atom", "relationalAtom", "comparisonAtom", 
-			"term", "variable", "constant", "cmpOp"
+			"query", "head", "aggregate", "aggregateFunction", "body", "atom", "relationalAtom", 
+			"comparisonAtom", "term", "variable", "constant", "cmpOp"
 		};
 	}
 	public static final String[] ruleNames = makeRuleNames();
 
 	private static String[] makeLiteralNames() {
 		return new String[] {
-			null, "':-'", "'('", "')'", "','", "'SUM'", "'*'", "'='", "'!='", "'<'", 
-			"'<='", "'>'", "'>='"
+			null, "':-'", "'('", "')'", "','", "'*'", "'COUNT'", "'SUM'", "'MIN'", 
+			"'MAX'", "'AVG'", "'='", "'!='", "'<'", "'<='", "'>'", "'>='"
 		};
 	}
 	private static final String[] _LITERAL_NAMES = makeLiteralNames();
 	private static String[] makeSymbolicNames() {
 		return new String[] {
 			null, null, null, null, null, null, null, null, null, null, null, null, 
-			null, "INT", "STRING", "ID_UPPER", "ID_LOWER", "WS"
+			null, null, null, null, null, "INT", "STRING", "ID_UPPER", "ID_LOWER", 
+			"WS"
 		};
 	}
 	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
@@ -129,11 +130,11 @@ public class MinibaseParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(22);
+			setState(24);
 			head();
-			setState(23);
+			setState(25);
 			match(T__0);
-			setState(24);
+			setState(26);
 			body();
 			}
 		}
@@ -151,8 +152,11 @@ public class MinibaseParser extends Parser {
 	@SuppressWarnings("CheckReturnValue")
 	public static class HeadContext extends ParserRuleContext {
 		public TerminalNode ID_UPPER() { return getToken(MinibaseParser.ID_UPPER, 0); }
-		public SumaggContext sumagg() {
-			return getRuleContext(SumaggContext.class,0);
+		public List<AggregateContext> aggregate() {
+			return getRuleContexts(AggregateContext.class);
+		}
+		public AggregateContext aggregate(int i) {
+			return getRuleContext(AggregateContext.class,i);
 		}
 		public List<VariableContext> variable() {
 			return getRuleContexts(VariableContext.class);
@@ -185,94 +189,122 @@ public class MinibaseParser extends Parser {
 		int _la;
 		try {
 			int _alt;
-			setState(60);
+			setState(73);
 			_errHandler.sync(this);
-			switch ( getInterpreter().adaptivePredict(_input,2,_ctx) ) {
+			switch ( getInterpreter().adaptivePredict(_input,4,_ctx) ) {
 			case 1:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(26);
+				setState(28);
 				match(ID_UPPER);
-				setState(27);
+				setState(29);
 				match(T__1);
-				setState(28);
+				setState(30);
 				match(T__2);
 				}
 				break;
 			case 2:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(29);
-				match(ID_UPPER);
-				setState(30);
-				match(T__1);
 				setState(31);
-				sumagg();
+				match(ID_UPPER);
 				setState(32);
+				match(T__1);
+				setState(33);
+				aggregate();
+				setState(38);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+				while (_la==T__3) {
+					{
+					{
+					setState(34);
+					match(T__3);
+					setState(35);
+					aggregate();
+					}
+					}
+					setState(40);
+					_errHandler.sync(this);
+					_la = _input.LA(1);
+				}
+				setState(41);
 				match(T__2);
 				}
 				break;
 			case 3:
 				enterOuterAlt(_localctx, 3);
 				{
-				setState(34);
+				setState(43);
 				match(ID_UPPER);
-				setState(35);
+				setState(44);
 				match(T__1);
-				setState(36);
+				setState(45);
 				variable();
-				setState(41);
+				setState(50);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 				while (_la==T__3) {
 					{
 					{
-					setState(37);
+					setState(46);
 					match(T__3);
-					setState(38);
+					setState(47);
 					variable();
 					}
 					}
-					setState(43);
+					setState(52);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
 				}
-				setState(44);
+				setState(53);
 				match(T__2);
 				}
 				break;
 			case 4:
 				enterOuterAlt(_localctx, 4);
 				{
-				setState(46);
+				setState(55);
 				match(ID_UPPER);
-				setState(47);
+				setState(56);
 				match(T__1);
-				setState(48);
+				setState(57);
 				variable();
-				setState(53);
+				setState(62);
 				_errHandler.sync(this);
-				_alt = getInterpreter().adaptivePredict(_input,1,_ctx);
+				_alt = getInterpreter().adaptivePredict(_input,2,_ctx);
 				while ( _alt!=2 && _alt!=org.antlr.v4.runtime.atn.ATN.INVALID_ALT_NUMBER ) {
 					if ( _alt==1 ) {
 						{
 						{
-						setState(49);
+						setState(58);
 						match(T__3);
-						setState(50);
+						setState(59);
 						variable();
 						}
 						} 
 					}
-					setState(55);
+					setState(64);
 					_errHandler.sync(this);
-					_alt = getInterpreter().adaptivePredict(_input,1,_ctx);
+					_alt = getInterpreter().adaptivePredict(_input,2,_ctx);
 				}
-				setState(56);
-				match(T__3);
-				setState(57);
-				sumagg();
-				setState(58);
+				setState(67); 
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+				do {
+					{
+					{
+					setState(65);
+					match(T__3);
+					setState(66);
+					aggregate();
+					}
+					}
+					setState(69); 
+					_errHandler.sync(this);
+					_la = _input.LA(1);
+				} while ( _la==T__3 );
+				setState(71);
 				match(T__2);
 				}
 				break;
@@ -290,63 +322,136 @@ public class MinibaseParser extends Parser {
 	}
 
 	@SuppressWarnings("CheckReturnValue")
-	public static class SumaggContext extends ParserRuleContext {
+	public static class AggregateContext extends ParserRuleContext {
+		public AggregateFunctionContext aggregateFunction() {
+			return getRuleContext(AggregateFunctionContext.class,0);
+		}
 		public List<TermContext> term() {
 			return getRuleContexts(TermContext.class);
 		}
 		public TermContext term(int i) {
 			return getRuleContext(TermContext.class,i);
 		}
-		public SumaggContext(ParserRuleContext parent, int invokingState) {
+		public AggregateContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
-		@Override public int getRuleIndex() { return RULE_sumagg; }
+		@Override public int getRuleIndex() { return RULE_aggregate; }
 		@Override
 		public void enterRule(ParseTreeListener listener) {
-			if ( listener instanceof MinibaseListener ) ((MinibaseListener)listener).enterSumagg(this);
+			if ( listener instanceof MinibaseListener ) ((MinibaseListener)listener).enterAggregate(this);
 		}
 		@Override
 		public void exitRule(ParseTreeListener listener) {
-			if ( listener instanceof MinibaseListener ) ((MinibaseListener)listener).exitSumagg(this);
+			if ( listener instanceof MinibaseListener ) ((MinibaseListener)listener).exitAggregate(this);
 		}
 		@Override
 		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
-			if ( visitor instanceof MinibaseVisitor ) return ((MinibaseVisitor<? extends T>)visitor).visitSumagg(this);
+			if ( visitor instanceof MinibaseVisitor ) return ((MinibaseVisitor<? extends T>)visitor).visitAggregate(this);
 			else return visitor.visitChildren(this);
 		}
 	}
 
-	public final SumaggContext sumagg() throws RecognitionException {
-		SumaggContext _localctx = new SumaggContext(_ctx, getState());
-		enterRule(_localctx, 4, RULE_sumagg);
+	public final AggregateContext aggregate() throws RecognitionException {
+		AggregateContext _localctx = new AggregateContext(_ctx, getState());
+		enterRule(_localctx, 4, RULE_aggregate);
 		int _la;
 		try {
-			enterOuterAlt(_localctx, 1);
-			{
-			setState(62);
-			match(T__4);
-			setState(63);
-			match(T__1);
-			setState(64);
-			term();
-			setState(69);
+			setState(91);
 			_errHandler.sync(this);
-			_la = _input.LA(1);
-			while (_la==T__5) {
-				{
+			switch ( getInterpreter().adaptivePredict(_input,6,_ctx) ) {
+			case 1:
+				enterOuterAlt(_localctx, 1);
 				{
-				setState(65);
-				match(T__5);
-				setState(66);
+				setState(75);
+				aggregateFunction();
+				setState(76);
+				match(T__1);
+				setState(77);
 				term();
-				}
-				}
-				setState(71);
+				setState(82);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
+				while (_la==T__4) {
+					{
+					{
+					setState(78);
+					match(T__4);
+					setState(79);
+					term();
+					}
+					}
+					setState(84);
+					_errHandler.sync(this);
+					_la = _input.LA(1);
+				}
+				setState(85);
+				match(T__2);
+				}
+				break;
+			case 2:
+				enterOuterAlt(_localctx, 2);
+				{
+				setState(87);
+				match(T__5);
+				setState(88);
+				match(T__1);
+				setState(89);
+				match(T__4);
+				setState(90);
+				match(T__2);
+				}
+				break;
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
+	@SuppressWarnings("CheckReturnValue")
+	public static class AggregateFunctionContext extends ParserRuleContext {
+		public AggregateFunctionContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_aggregateFunction; }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof MinibaseListener ) ((MinibaseListener)listener).enterAggregateFunction(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof MinibaseListener ) ((MinibaseListener)listener).exitAggregateFunction(this);
+		}
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof MinibaseVisitor ) return ((MinibaseVisitor<? extends T>)visitor).visitAggregateFunction(this);
+			else return visitor.visitChildren(this);
+		}
+	}
+
+	public final AggregateFunctionContext aggregateFunction() throws RecognitionException {
+		AggregateFunctionContext _localctx = new AggregateFunctionContext(_ctx, getState());
+		enterRule(_localctx, 6, RULE_aggregateFunction);
+		int _la;
+		try {
+			enterOuterAlt(_localctx, 1);
+			{
+			setState(93);
+			_la = _input.LA(1);
+			if ( !(((_la) & ~0x3f) == 0 && ((1L << _la) & 1984L) != 0) ) {
+			_errHandler.recoverInline(this);
+			}
+			else {
+				if ( _input.LA(1)==Token.EOF ) matchedEOF = true;
+				_errHandler.reportMatch(this);
+				consume();
 			}
-			setState(72);
-			match(T__2);
 			}
 		}
 		catch (RecognitionException re) {
@@ -389,26 +494,26 @@ public class MinibaseParser extends Parser {
 
 	public final BodyContext body() throws RecognitionException {
 		BodyContext _localctx = new BodyContext(_ctx, getState());
-		enterRule(_localctx, 6, RULE_body);
+		enterRule(_localctx, 8, RULE_body);
 		int _la;
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(74);
+			setState(95);
 			atom();
-			setState(79);
+			setState(100);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==T__3) {
 				{
 				{
-				setState(75);
+				setState(96);
 				match(T__3);
-				setState(76);
+				setState(97);
 				atom();
 				}
 				}
-				setState(81);
+				setState(102);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -454,15 +559,15 @@ public class MinibaseParser extends Parser {
 
 	public final AtomContext atom() throws RecognitionException {
 		AtomContext _localctx = new AtomContext(_ctx, getState());
-		enterRule(_localctx, 8, RULE_atom);
+		enterRule(_localctx, 10, RULE_atom);
 		try {
-			setState(84);
+			setState(105);
 			_errHandler.sync(this);
 			switch (_input.LA(1)) {
 			case ID_UPPER:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(82);
+				setState(103);
 				relationalAtom();
 				}
 				break;
@@ -471,7 +576,7 @@ public class MinibaseParser extends Parser {
 			case ID_LOWER:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(83);
+				setState(104);
 				comparisonAtom();
 				}
 				break;
@@ -520,34 +625,34 @@ public class MinibaseParser extends Parser {
 
 	public final RelationalAtomContext relationalAtom() throws RecognitionException {
 		RelationalAtomContext _localctx = new RelationalAtomContext(_ctx, getState());
-		enterRule(_localctx, 10, RULE_relationalAtom);
+		enterRule(_localctx, 12, RULE_relationalAtom);
 		int _la;
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(86);
+			setState(107);
 			match(ID_UPPER);
-			setState(87);
+			setState(108);
 			match(T__1);
-			setState(88);
+			setState(109);
 			term();
-			setState(93);
+			setState(114);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==T__3) {
 				{
 				{
-				setState(89);
+				setState(110);
 				match(T__3);
-				setState(90);
+				setState(111);
 				term();
 				}
 				}
-				setState(95);
+				setState(116);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
-			setState(96);
+			setState(117);
 			match(T__2);
 			}
 		}
@@ -594,15 +699,15 @@ public class MinibaseParser extends Parser {
 
 	public final ComparisonAtomContext comparisonAtom() throws RecognitionException {
 		ComparisonAtomContext _localctx = new ComparisonAtomContext(_ctx, getState());
-		enterRule(_localctx, 12, RULE_comparisonAtom);
+		enterRule(_localctx, 14, RULE_comparisonAtom);
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(98);
+			setState(119);
 			term();
-			setState(99);
+			setState(120);
 			cmpOp();
-			setState(100);
+			setState(121);
 			term();
 			}
 		}
@@ -646,15 +751,15 @@ public class MinibaseParser extends Parser {
 
 	public final TermContext term() throws RecognitionException {
 		TermContext _localctx = new TermContext(_ctx, getState());
-		enterRule(_localctx, 14, RULE_term);
+		enterRule(_localctx, 16, RULE_term);
 		try {
-			setState(104);
+			setState(125);
 			_errHandler.sync(this);
 			switch (_input.LA(1)) {
 			case ID_LOWER:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(102);
+				setState(123);
 				variable();
 				}
 				break;
@@ -662,7 +767,7 @@ public class MinibaseParser extends Parser {
 			case STRING:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(103);
+				setState(124);
 				constant();
 				}
 				break;
@@ -705,11 +810,11 @@ public class MinibaseParser extends Parser {
 
 	public final VariableContext variable() throws RecognitionException {
 		VariableContext _localctx = new VariableContext(_ctx, getState());
-		enterRule(_localctx, 16, RULE_variable);
+		enterRule(_localctx, 18, RULE_variable);
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(106);
+			setState(127);
 			match(ID_LOWER);
 			}
 		}
@@ -749,12 +854,12 @@ public class MinibaseParser extends Parser {
 
 	public final ConstantContext constant() throws RecognitionException {
 		ConstantContext _localctx = new ConstantContext(_ctx, getState());
-		enterRule(_localctx, 18, RULE_constant);
+		enterRule(_localctx, 20, RULE_constant);
 		int _la;
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(108);
+			setState(129);
 			_la = _input.LA(1);
 			if ( !(_la==INT || _la==STRING) ) {
 			_errHandler.recoverInline(this);
@@ -800,14 +905,14 @@ public class MinibaseParser extends Parser {
 
 	public final CmpOpContext cmpOp() throws RecognitionException {
 		CmpOpContext _localctx = new CmpOpContext(_ctx, getState());
-		enterRule(_localctx, 20, RULE_cmpOp);
+		enterRule(_localctx, 22, RULE_cmpOp);
 		int _la;
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(110);
+			setState(131);
 			_la = _input.LA(1);
-			if ( !(((_la) & ~0x3f) == 0 && ((1L << _la) & 8064L) != 0) ) {
+			if ( !(((_la) & ~0x3f) == 0 && ((1L << _la) & 129024L) != 0) ) {
 			_errHandler.recoverInline(this);
 			}
 			else {
@@ -829,68 +934,81 @@ public class MinibaseParser extends Parser {
 	}
 
 	public static final String _serializedATN =
-		"\u0004\u0001\u0011q\u0002\u0000\u0007\u0000\u0002\u0001\u0007\u0001\u0002"+
-		"\u0002\u0007\u0002\u0002\u0003\u0007\u0003\u0002\u0004\u0007\u0004\u0002"+
-		"\u0005\u0007\u0005\u0002\u0006\u0007\u0006\u0002\u0007\u0007\u0007\u0002"+
-		"\b\u0007\b\u0002\t\u0007\t\u0002\n\u0007\n\u0001\u0000\u0001\u0000\u0001"+
-		"\u0000\u0001\u0000\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001"+
-		"\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001"+
-		"\u0001\u0001\u0001\u0001\u0001\u0005\u0001(\b\u0001\n\u0001\f\u0001+\t"+
+		"\u0004\u0001\u0015\u0086\u0002\u0000\u0007\u0000\u0002\u0001\u0007\u0001"+
+		"\u0002\u0002\u0007\u0002\u0002\u0003\u0007\u0003\u0002\u0004\u0007\u0004"+
+		"\u0002\u0005\u0007\u0005\u0002\u0006\u0007\u0006\u0002\u0007\u0007\u0007"+
+		"\u0002\b\u0007\b\u0002\t\u0007\t\u0002\n\u0007\n\u0002\u000b\u0007\u000b"+
+		"\u0001\u0000\u0001\u0000\u0001\u0000\u0001\u0000\u0001\u0001\u0001\u0001"+
 		"\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001"+
-		"\u0001\u0001\u0001\u0005\u00014\b\u0001\n\u0001\f\u00017\t\u0001\u0001"+
-		"\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0003\u0001=\b\u0001\u0001"+
-		"\u0002\u0001\u0002\u0001\u0002\u0001\u0002\u0001\u0002\u0005\u0002D\b"+
-		"\u0002\n\u0002\f\u0002G\t\u0002\u0001\u0002\u0001\u0002\u0001\u0003\u0001"+
-		"\u0003\u0001\u0003\u0005\u0003N\b\u0003\n\u0003\f\u0003Q\t\u0003\u0001"+
-		"\u0004\u0001\u0004\u0003\u0004U\b\u0004\u0001\u0005\u0001\u0005\u0001"+
-		"\u0005\u0001\u0005\u0001\u0005\u0005\u0005\\\b\u0005\n\u0005\f\u0005_"+
-		"\t\u0005\u0001\u0005\u0001\u0005\u0001\u0006\u0001\u0006\u0001\u0006\u0001"+
-		"\u0006\u0001\u0007\u0001\u0007\u0003\u0007i\b\u0007\u0001\b\u0001\b\u0001"+
-		"\t\u0001\t\u0001\n\u0001\n\u0001\n\u0000\u0000\u000b\u0000\u0002\u0004"+
-		"\u0006\b\n\f\u000e\u0010\u0012\u0014\u0000\u0002\u0001\u0000\r\u000e\u0001"+
-		"\u0000\u0007\fo\u0000\u0016\u0001\u0000\u0000\u0000\u0002<\u0001\u0000"+
-		"\u0000\u0000\u0004>\u0001\u0000\u0000\u0000\u0006J\u0001\u0000\u0000\u0000"+
-		"\bT\u0001\u0000\u0000\u0000\nV\u0001\u0000\u0000\u0000\fb\u0001\u0000"+
-		"\u0000\u0000\u000eh\u0001\u0000\u0000\u0000\u0010j\u0001\u0000\u0000\u0000"+
-		"\u0012l\u0001\u0000\u0000\u0000\u0014n\u0001\u0000\u0000\u0000\u0016\u0017"+
-		"\u0003\u0002\u0001\u0000\u0017\u0018\u0005\u0001\u0000\u0000\u0018\u0019"+
-		"\u0003\u0006\u0003\u0000\u0019\u0001\u0001\u0000\u0000\u0000\u001a\u001b"+
-		"\u0005\u000f\u0000\u0000\u001b\u001c\u0005\u0002\u0000\u0000\u001c=\u0005"+
-		"\u0003\u0000\u0000\u001d\u001e\u0005\u000f\u0000\u0000\u001e\u001f\u0005"+
-		"\u0002\u0000\u0000\u001f \u0003\u0004\u0002\u0000 !\u0005\u0003\u0000"+
-		"\u0000!=\u0001\u0000\u0000\u0000\"#\u0005\u000f\u0000\u0000#$\u0005\u0002"+
-		"\u0000\u0000$)\u0003\u0010\b\u0000%&\u0005\u0004\u0000\u0000&(\u0003\u0010"+
-		"\b\u0000\'%\u0001\u0000\u0000\u0000(+\u0001\u0000\u0000\u0000)\'\u0001"+
-		"\u0000\u0000\u0000)*\u0001\u0000\u0000\u0000*,\u0001\u0000\u0000\u0000"+
-		"+)\u0001\u0000\u0000\u0000,-\u0005\u0003\u0000\u0000-=\u0001\u0000\u0000"+
-		"\u0000./\u0005\u000f\u0000\u0000/0\u0005\u0002\u0000\u000005\u0003\u0010"+
-		"\b\u000012\u0005\u0004\u0000\u000024\u0003\u0010\b\u000031\u0001\u0000"+
-		"\u0000\u000047\u0001\u0000\u0000\u000053\u0001\u0000\u0000\u000056\u0001"+
-		"\u0000\u0000\u000068\u0001\u0000\u0000\u000075\u0001\u0000\u0000\u0000"+
-		"89\u0005\u0004\u0000\u00009:\u0003\u0004\u0002\u0000:;\u0005\u0003\u0000"+
-		"\u0000;=\u0001\u0000\u0000\u0000<\u001a\u0001\u0000\u0000\u0000<\u001d"+
-		"\u0001\u0000\u0000\u0000<\"\u0001\u0000\u0000\u0000<.\u0001\u0000\u0000"+
-		"\u0000=\u0003\u0001\u0000\u0000\u0000>?\u0005\u0005\u0000\u0000?@\u0005"+
-		"\u0002\u0000\u0000@E\u0003\u000e\u0007\u0000AB\u0005\u0006\u0000\u0000"+
-		"BD\u0003\u000e\u0007\u0000CA\u0001\u0000\u0000\u0000DG\u0001\u0000\u0000"+
-		"\u0000EC\u0001\u0000\u0000\u0000EF\u0001\u0000\u0000\u0000FH\u0001\u0000"+
-		"\u0000\u0000GE\u0001\u0000\u0000\u0000HI\u0005\u0003\u0000\u0000I\u0005"+
-		"\u0001\u0000\u0000\u0000JO\u0003\b\u0004\u0000KL\u0005\u0004\u0000\u0000"+
-		"LN\u0003\b\u0004\u0000MK\u0001\u0000\u0000\u0000NQ\u0001\u0000\u0000\u0000"+
-		"OM\u0001\u0000\u0000\u0000OP\u0001\u0000\u0000\u0000P\u0007\u0001\u0000"+
-		"\u0000\u0000QO\u0001\u0000\u0000\u0000RU\u0003\n\u0005\u0000SU\u0003\f"+
-		"\u0006\u0000TR\u0001\u0000\u0000\u0000TS\u0001\u0000\u0000\u0000U\t\u0001"+
-		"\u0000\u0000\u0000VW\u0005\u000f\u0000\u0000WX\u0005\u0002\u0000\u0000"+
-		"X]\u0003\u000e\u0007\u0000YZ\u0005\u0004\u0000\u0000Z\\\u0003\u000e\u0007"+
-		"\u0000[Y\u0001\u0000\u0000\u0000\\_\u0001\u0000\u0000\u0000][\u0001\u0000"+
-		"\u0000\u0000]^\u0001\u0000\u0000\u0000^`\u0001\u0000\u0000\u0000_]\u0001"+
-		"\u0000\u0000\u0000`a\u0005\u0003\u0000\u0000a\u000b\u0001\u0000\u0000"+
-		"\u0000bc\u0003\u000e\u0007\u0000cd\u0003\u0014\n\u0000de\u0003\u000e\u0007"+
-		"\u0000e\r\u0001\u0000\u0000\u0000fi\u0003\u0010\b\u0000gi\u0003\u0012"+
-		"\t\u0000hf\u0001\u0000\u0000\u0000hg\u0001\u0000\u0000\u0000i\u000f\u0001"+
-		"\u0000\u0000\u0000jk\u0005\u0010\u0000\u0000k\u0011\u0001\u0000\u0000"+
-		"\u0000lm\u0007\u0000\u0000\u0000m\u0013\u0001\u0000\u0000\u0000no\u0007"+
-		"\u0001\u0000\u0000o\u0015\u0001\u0000\u0000\u0000\b)5<EOT]h";
+		"\u0005\u0001%\b\u0001\n\u0001\f\u0001(\t\u0001\u0001\u0001\u0001\u0001"+
+		"\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0005\u0001"+
+		"1\b\u0001\n\u0001\f\u00014\t\u0001\u0001\u0001\u0001\u0001\u0001\u0001"+
+		"\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0005\u0001=\b\u0001"+
+		"\n\u0001\f\u0001@\t\u0001\u0001\u0001\u0001\u0001\u0004\u0001D\b\u0001"+
+		"\u000b\u0001\f\u0001E\u0001\u0001\u0001\u0001\u0003\u0001J\b\u0001\u0001"+
+		"\u0002\u0001\u0002\u0001\u0002\u0001\u0002\u0001\u0002\u0005\u0002Q\b"+
+		"\u0002\n\u0002\f\u0002T\t\u0002\u0001\u0002\u0001\u0002\u0001\u0002\u0001"+
+		"\u0002\u0001\u0002\u0001\u0002\u0003\u0002\\\b\u0002\u0001\u0003\u0001"+
+		"\u0003\u0001\u0004\u0001\u0004\u0001\u0004\u0005\u0004c\b\u0004\n\u0004"+
+		"\f\u0004f\t\u0004\u0001\u0005\u0001\u0005\u0003\u0005j\b\u0005\u0001\u0006"+
+		"\u0001\u0006\u0001\u0006\u0001\u0006\u0001\u0006\u0005\u0006q\b\u0006"+
+		"\n\u0006\f\u0006t\t\u0006\u0001\u0006\u0001\u0006\u0001\u0007\u0001\u0007"+
+		"\u0001\u0007\u0001\u0007\u0001\b\u0001\b\u0003\b~\b\b\u0001\t\u0001\t"+
+		"\u0001\n\u0001\n\u0001\u000b\u0001\u000b\u0001\u000b\u0000\u0000\f\u0000"+
+		"\u0002\u0004\u0006\b\n\f\u000e\u0010\u0012\u0014\u0016\u0000\u0003\u0001"+
+		"\u0000\u0006\n\u0001\u0000\u0011\u0012\u0001\u0000\u000b\u0010\u0086\u0000"+
+		"\u0018\u0001\u0000\u0000\u0000\u0002I\u0001\u0000\u0000\u0000\u0004[\u0001"+
+		"\u0000\u0000\u0000\u0006]\u0001\u0000\u0000\u0000\b_\u0001\u0000\u0000"+
+		"\u0000\ni\u0001\u0000\u0000\u0000\fk\u0001\u0000\u0000\u0000\u000ew\u0001"+
+		"\u0000\u0000\u0000\u0010}\u0001\u0000\u0000\u0000\u0012\u007f\u0001\u0000"+
+		"\u0000\u0000\u0014\u0081\u0001\u0000\u0000\u0000\u0016\u0083\u0001\u0000"+
+		"\u0000\u0000\u0018\u0019\u0003\u0002\u0001\u0000\u0019\u001a\u0005\u0001"+
+		"\u0000\u0000\u001a\u001b\u0003\b\u0004\u0000\u001b\u0001\u0001\u0000\u0000"+
+		"\u0000\u001c\u001d\u0005\u0013\u0000\u0000\u001d\u001e\u0005\u0002\u0000"+
+		"\u0000\u001eJ\u0005\u0003\u0000\u0000\u001f \u0005\u0013\u0000\u0000 "+
+		"!\u0005\u0002\u0000\u0000!&\u0003\u0004\u0002\u0000\"#\u0005\u0004\u0000"+
+		"\u0000#%\u0003\u0004\u0002\u0000$\"\u0001\u0000\u0000\u0000%(\u0001\u0000"+
+		"\u0000\u0000&$\u0001\u0000\u0000\u0000&\'\u0001\u0000\u0000\u0000\')\u0001"+
+		"\u0000\u0000\u0000(&\u0001\u0000\u0000\u0000)*\u0005\u0003\u0000\u0000"+
+		"*J\u0001\u0000\u0000\u0000+,\u0005\u0013\u0000\u0000,-\u0005\u0002\u0000"+
+		"\u0000-2\u0003\u0012\t\u0000./\u0005\u0004\u0000\u0000/1\u0003\u0012\t"+
+		"\u00000.\u0001\u0000\u0000\u000014\u0001\u0000\u0000\u000020\u0001\u0000"+
+		"\u0000\u000023\u0001\u0000\u0000\u000035\u0001\u0000\u0000\u000042\u0001"+
+		"\u0000\u0000\u000056\u0005\u0003\u0000\u00006J\u0001\u0000\u0000\u0000"+
+		"78\u0005\u0013\u0000\u000089\u0005\u0002\u0000\u00009>\u0003\u0012\t\u0000"+
+		":;\u0005\u0004\u0000\u0000;=\u0003\u0012\t\u0000<:\u0001\u0000\u0000\u0000"+
+		"=@\u0001\u0000\u0000\u0000><\u0001\u0000\u0000\u0000>?\u0001\u0000\u0000"+
+		"\u0000?C\u0001\u0000\u0000\u0000@>\u0001\u0000\u0000\u0000AB\u0005\u0004"+
+		"\u0000\u0000BD\u0003\u0004\u0002\u0000CA\u0001\u0000\u0000\u0000DE\u0001"+
+		"\u0000\u0000\u0000EC\u0001\u0000\u0000\u0000EF\u0001\u0000\u0000\u0000"+
+		"FG\u0001\u0000\u0000\u0000GH\u0005\u0003\u0000\u0000HJ\u0001\u0000\u0000"+
+		"\u0000I\u001c\u0001\u0000\u0000\u0000I\u001f\u0001\u0000\u0000\u0000I"+
+		"+\u0001\u0000\u0000\u0000I7\u0001\u0000\u0000\u0000J\u0003\u0001\u0000"+
+		"\u0000\u0000KL\u0003\u0006\u0003\u0000LM\u0005\u0002\u0000\u0000MR\u0003"+
+		"\u0010\b\u0000NO\u0005\u0005\u0000\u0000OQ\u0003\u0010\b\u0000PN\u0001"+
+		"\u0000\u0000\u0000QT\u0001\u0000\u0000\u0000RP\u0001\u0000\u0000\u0000"+
+		"RS\u0001\u0000\u0000\u0000SU\u0001\u0000\u0000\u0000TR\u0001\u0000\u0000"+
+		"\u0000UV\u0005\u0003\u0000\u0000V\\\u0001\u0000\u0000\u0000WX\u0005\u0006"+
+		"\u0000\u0000XY\u0005\u0002\u0000\u0000YZ\u0005\u0005\u0000\u0000Z\\\u0005"+
+		"\u0003\u0000\u0000[K\u0001\u0000\u0000\u0000[W\u0001\u0000\u0000\u0000"+
+		"\\\u0005\u0001\u0000\u0000\u0000]^\u0007\u0000\u0000\u0000^\u0007\u0001"+
+		"\u0000\u0000\u0000_d\u0003\n\u0005\u0000`a\u0005\u0004\u0000\u0000ac\u0003"+
+		"\n\u0005\u0000b`\u0001\u0000\u0000\u0000cf\u0001\u0000\u0000\u0000db\u0001"+
+		"\u0000\u0000\u0000de\u0001\u0000\u0000\u0000e\t\u0001\u0000\u0000\u0000"+
+		"fd\u0001\u0000\u0000\u0000gj\u0003\f\u0006\u0000hj\u0003\u000e\u0007\u0000"+
+		"ig\u0001\u0000\u0000\u0000ih\u0001\u0000\u0000\u0000j\u000b\u0001\u0000"+
+		"\u0000\u0000kl\u0005\u0013\u0000\u0000lm\u0005\u0002\u0000\u0000mr\u0003"+
+		"\u0010\b\u0000no\u0005\u0004\u0000\u0000oq\u0003\u0010\b\u0000pn\u0001"+
+		"\u0000\u0000\u0000qt\u0001\u0000\u0000\u0000rp\u0001\u0000\u0000\u0000"+
+		"rs\u0001\u0000\u0000\u0000su\u0001\u0000\u0000\u0000tr\u0001\u0000\u0000"+
+		"\u0000uv\u0005\u0003\u0000\u0000v\r\u0001\u0000\u0000\u0000wx\u0003\u0010"+
+		"\b\u0000xy\u0003\u0016\u000b\u0000yz\u0003\u0010\b\u0000z\u000f\u0001"+
+		"\u0000\u0000\u0000{~\u0003\u0012\t\u0000|~\u0003\u0014\n\u0000}{\u0001"+
+		"\u0000\u0000\u0000}|\u0001\u0000\u0000\u0000~\u0011\u0001\u0000\u0000"+
+		"\u0000\u007f\u0080\u0005\u0014\u0000\u0000\u0080\u0013\u0001\u0000\u0000"+
+		"\u0000\u0081\u0082\u0007\u0001\u0000\u0000\u0082\u0015\u0001\u0000\u0000"+
+		"\u0000\u0083\u0084\u0007\u0002\u0000\u0000\u0084\u0017\u0001\u0000\u0000"+
+		"\u0000\u000b&2>EIR[dir}";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
@@ -23,11 +23,17 @@ public interface MinibaseVisitor<T> extends ParseTreeVisitor<T> {
 	 */
 	T visitHead(MinibaseParser.HeadContext ctx);
 	/**
-	 * Visit a parse tree produced by {@link MinibaseParser#sumagg}.
+	 * Visit a parse tree produced by {@link MinibaseParser#aggregate}.
 	 * @param ctx the parse tree
 	 * @return the visitor result
 	 */
-	T visitSumagg(MinibaseParser.SumaggContext ctx);
+	T visitAggregate(MinibaseParser.AggregateContext ctx);
+	/**
+	 * Visit a parse tree produced by {@link MinibaseParser#aggregateFunction}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitAggregateFunction(MinibaseParser.AggregateFunctionContext ctx);
 	/**
 	 * Visit a parse tree produced by {@link MinibaseParser#body}.
 	 * @param ctx the parse tree
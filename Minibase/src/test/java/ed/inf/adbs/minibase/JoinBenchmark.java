@@ -0,0 +1,212 @@
+package ed.inf.adbs.minibase;
+
+import ed.inf.adbs.minibase.base.ColumnType;
+import ed.inf.adbs.minibase.base.ComparisonAtom;
+import ed.inf.adbs.minibase.base.ComparisonOperator;
+import ed.inf.adbs.minibase.base.DatabaseCatalog;
+import ed.inf.adbs.minibase.base.GatherOperator;
+import ed.inf.adbs.minibase.base.HashJoinOperator;
+import ed.inf.adbs.minibase.base.JoinOperator;
+import ed.inf.adbs.minibase.base.Operator;
+import ed.inf.adbs.minibase.base.QueryPlan;
+import ed.inf.adbs.minibase.base.RadixHashJoinOperator;
+import ed.inf.adbs.minibase.base.RelationalAtom;
+import ed.inf.adbs.minibase.base.SelectionCondition;
+import ed.inf.adbs.minibase.base.Term;
+import ed.inf.adbs.minibase.base.TupleBatch;
+import ed.inf.adbs.minibase.base.Variable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares the join operators on the equi-join R(a, b), S(c, d), a = c, for relations of the given numbers of rows.
+ * The relations are generated into the given directory (and reused if they are already there), with join keys drawn
+ * uniformly at random from [0, rows), so that the join has about as many tuples as each relation.
+ * The tuple nested loop JoinOperator compares every pair of tuples, so it is only run with a sample of the left
+ * relation (NESTED_LOOP_PAIRS pairs), and its time for the whole relation is extrapolated from the sample.
+ * The RadixHashJoinOperator uses as many worker threads as the system property minibase.parallelism (the number of
+ * processors by default). Large relations need a large heap, i.e., -Xmx8g for 10^7 rows.
+ * The benchmark is part of the test sources, so it is not in the Minibase jar. It is run with the test classpath.
+ */
+public class JoinBenchmark {
+
+    // The number of times every join is run. The fastest run is reported.
+    private static final int REPETITIONS = 3;
+    // The number of pairs of tuples the JoinOperator compares, i.e., rows of the left sample * rows of S.
+    private static final long NESTED_LOOP_PAIRS = 100000000L;
+    // The seed of the random join keys, so that the generated relations are the same every time.
+    private static final long SEED = 42;
+    private static final int PARALLELISM = Integer.getInteger("minibase.parallelism", Runtime.getRuntime().availableProcessors());
+
+    public static void main(String[] args) {
+
+        if (args.length < 1) {
+            System.err.println("Usage: JoinBenchmark database_dir [rows ...]");
+            return;
+        }
+
+        String databaseDir = args[0];
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            sizes.add(Integer.parseInt(args[i]));
+        }
+        if (sizes.isEmpty()) {
+            sizes = Arrays.asList(100000, 1000000, 10000000);
+        }
+
+        try {
+            generateDatabase(databaseDir, sizes);
+        } catch (IOException e) {
+            System.err.println("An error occurred while generating the relations.");
+            e.printStackTrace();
+            return;
+        }
+        DatabaseCatalog.init(databaseDir);
+
+        System.out.println("rows, join, tuples, milliseconds");
+        for (int rows : sizes) {
+            benchmark(rows);
+        }
+    }
+
+    /**
+     * Generates the relations R, S and the sample of R for every number of rows, and the schema of the database.
+     * R<rows> and S<rows> have rows tuples (key, row number). Rsample<rows> has the first tuples of R<rows>.
+     * @param databaseDir The directory of the database as a string file path.
+     * @param sizes The numbers of rows.
+     * @throws IOException If a file cannot be written.
+     */
+    private static void generateDatabase(String databaseDir, List<Integer> sizes) throws IOException {
+        Files.createDirectories(Paths.get(databaseDir, "files"));
+        try (PrintWriter schema = new PrintWriter(Files.newBufferedWriter(Paths.get(databaseDir, "schema.txt")))) {
+            for (int rows : sizes) {
+                generateRelation(databaseDir, "R" + rows, rows, rows, SEED + rows);
+                generateRelation(databaseDir, "S" + rows, rows, rows, SEED + rows + 1);
+                generateRelation(databaseDir, "Rsample" + rows, sampleRows(rows), rows, SEED + rows);
+                schema.println("R" + rows + " int int");
+                schema.println("S" + rows + " int int");
+                schema.println("Rsample" + rows + " int int");
+            }
+        }
+    }
+
+    /**
+     * Generates a relation with tuples (key, row number), where the keys are drawn at random from [0, keys).
+     * The relation is not generated again if its file already exists.
+     * @param databaseDir The directory of the database as a string file path.
+     * @param relation The name of the relation.
+     * @param rows The number of tuples.
+     * @param keys The number of distinct join keys.
+     * @param seed The seed of the random keys.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void generateRelation(String databaseDir, String relation, int rows, int keys, long seed) throws IOException {
+        File file = Paths.get(databaseDir, "files", relation + ".csv").toFile();
+        if (file.exists()) {
+            return;
+        }
+        Random random = new Random(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath())) {
+            for (int row = 0; row < rows; row++) {
+                writer.write(random.nextInt(keys) + ", " + row);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Helper method to get the number of rows of the sample of R the JoinOperator is run with.
+     * @param rows The number of rows of R and S.
+     * @return The number of rows of the sample.
+     */
+    private static int sampleRows(int rows) {
+        return (int) Math.max(1, Math.min(rows, NESTED_LOOP_PAIRS / rows));
+    }
+
+    /**
+     * Runs and prints the time of every join of R<rows> and S<rows>.
+     * @param rows The number of rows of the relations.
+     */
+    private static void benchmark(int rows) {
+        int sampleRows = sampleRows(rows);
+        run(rows, "JoinOperator (" + sampleRows + " rows of R, extrapolated)", (double) rows / sampleRows, () -> {
+            Operator left = scan("Rsample" + rows, "a", "b");
+            Operator right = scan("S" + rows, "c", "d");
+            List<Variable> variables = new ArrayList<>(left.getVariables());
+            variables.addAll(right.getVariables());
+            ComparisonAtom condition = new ComparisonAtom(new Variable("a"), new Variable("c"), ComparisonOperator.EQ);
+            ColumnType[] types = {ColumnType.INT, ColumnType.INT, ColumnType.INT, ColumnType.INT};
+            return new JoinOperator(left, right, new SelectionCondition(Arrays.asList(condition), variables, types));
+        });
+        run(rows, "HashJoinOperator", 1, () ->
+                new HashJoinOperator(scan("R" + rows, "a", "b"), scan("S" + rows, "c", "d"), new int[]{0}, new int[]{0}, null));
+        run(rows, "RadixHashJoinOperator (" + PARALLELISM + " threads)", 1, () -> {
+            Operator join = new RadixHashJoinOperator(scan("R" + rows, "a", "b"), scan("S" + rows, "c", "d"),
+                    new int[]{0}, new int[]{0}, null, PARALLELISM);
+            return (PARALLELISM > 1) ? new GatherOperator(join, PARALLELISM) : join;
+        });
+    }
+
+    /**
+     * Runs a join REPETITIONS times and prints its number of tuples and its fastest time.
+     * Creating the join is timed too, as the HashJoinOperator reads its right child when created.
+     * @param rows The number of rows of the relations.
+     * @param name The name of the join.
+     * @param scale The factor the time and tuples are multiplied by, for a join of a sample.
+     * @param joinSupplier Creates the join.
+     */
+    private static void run(int rows, String name, double scale, Supplier<Operator> joinSupplier) {
+        long fastest = Long.MAX_VALUE;
+        long tuples = 0;
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            long start = System.nanoTime();
+            try {
+                Operator join = joinSupplier.get();
+                tuples = count(join);
+                join.close();
+            } catch (OutOfMemoryError e) {
+                System.out.println(rows + ", " + name + ", out of memory, -");
+                return;
+            }
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        System.out.println(rows + ", " + name + ", " + Math.round(tuples * scale) + ", " + Math.round(fastest * scale / 1e6));
+    }
+
+    /**
+     * Helper method to read all the tuples of an operator, by batch.
+     * @param operator The operator.
+     * @return The number of tuples.
+     */
+    private static long count(Operator operator) {
+        long tuples = 0;
+        TupleBatch batch = operator.getNextBatch();
+        while (batch != null) {
+            tuples += batch.getSelectedCount();
+            batch = operator.getNextBatch();
+        }
+        return tuples;
+    }
+
+    /**
+     * Helper method to create the scan of a relation.
+     * @param relation The name of the relation.
+     * @param key The variable of the join key.
+     * @param row The variable of the row number.
+     * @return The scan operator.
+     */
+    private static Operator scan(String relation, String key, String row) {
+        List<Term> terms = Arrays.asList(new Variable(key), new Variable(row));
+        return QueryPlan.createScanOperator(new RelationalAtom(relation, terms));
+    }
+}
@@ -0,0 +1,136 @@
+package ed.inf.adbs.minibase;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that queries have the same output when their pipelines are run in parallel (over the morsels of the scan of
+ * their first relation, see GatherOperator and MappedScanOperator.getMorsels) as when they are run serially.
+ * The number of worker threads is read from the system property minibase.parallelism when QueryPlan is loaded, and the
+ * DatabaseCatalog can only be initialised once, so every query is evaluated by Minibase in a new JVM.
+ */
+public class ParallelExecutionTest {
+
+    // The number of rows of R, which makes its file a few morsels (of 1 MiB) long, and of S.
+    private static final int R_ROWS = 200000;
+    private static final int S_ROWS = 5000;
+    // The number of worker threads of the parallel runs.
+    private static final int PARALLELISM = 4;
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    // The directory of the database with the relations R(a, b, s) and S(c, d).
+    private static File databaseDir;
+
+    /**
+     * Generates the database, with random values drawn from a fixed seed.
+     * @throws IOException If a file cannot be written.
+     */
+    @BeforeClass
+    public static void generateDatabase() throws IOException {
+        databaseDir = folder.newFolder("db");
+        Path files = Files.createDirectories(databaseDir.toPath().resolve("files"));
+        Files.write(databaseDir.toPath().resolve("schema.txt"), "R int int string\nS int int\n".getBytes());
+
+        Random random = new Random(42);
+        String[] strings = {"adbs", "anlp", "mlpr", "iaml", "ppls"};
+        try (BufferedWriter writer = Files.newBufferedWriter(files.resolve("R.csv"))) {
+            for (int row = 0; row < R_ROWS; row++) {
+                writer.write(random.nextInt(1000) + ", " + random.nextInt(100000) + ", '" + strings[random.nextInt(strings.length)] + "'");
+                writer.newLine();
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(files.resolve("S.csv"))) {
+            for (int row = 0; row < S_ROWS; row++) {
+                writer.write(random.nextInt(2000) + ", " + random.nextInt(5000));
+                writer.newLine();
+            }
+        }
+        assertTrue(files.resolve("R.csv").toFile().length() > 2 * (1 << 20));
+    }
+
+    /**
+     * Helper method to evaluate a query with Minibase in a new JVM.
+     * @param query The query.
+     * @param parallelism The number of worker threads, i.e., the value of minibase.parallelism.
+     * @return The output tuples, sorted, as the pipelines may return them in any order.
+     * @throws IOException If the query or output file cannot be accessed.
+     * @throws InterruptedException If interrupted while waiting for Minibase.
+     */
+    private static List<String> evaluate(String query, int parallelism) throws IOException, InterruptedException {
+        File queryFile = folder.newFile();
+        File outputFile = folder.newFile();
+        Files.write(queryFile.toPath(), query.getBytes());
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder processBuilder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "-Dminibase.parallelism=" + parallelism, Minibase.class.getName(),
+                databaseDir.getPath(), queryFile.getPath(), outputFile.getPath());
+        // Minibase prints the query it parsed. Errors are shown with the output of the test.
+        processBuilder.redirectOutput(folder.newFile());
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = processBuilder.start();
+        assertTrue("Minibase did not finish", process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals("Minibase failed", 0, process.exitValue());
+
+        List<String> output = new ArrayList<>(Files.readAllLines(outputFile.toPath()));
+        Collections.sort(output);
+        return output;
+    }
+
+    /**
+     * Helper method to check that a query has the same (non empty) output serially and in parallel.
+     * @param query The query.
+     * @throws IOException If a file cannot be accessed.
+     * @throws InterruptedException If interrupted while waiting for Minibase.
+     */
+    private static void assertParallelMatchesSerial(String query) throws IOException, InterruptedException {
+        List<String> serial = evaluate(query, 1);
+        assertFalse(serial.isEmpty());
+        assertEquals(serial, evaluate(query, PARALLELISM));
+    }
+
+    /**
+     * A selection and a projection that removes duplicates of the gathered tuples.
+     */
+    @Test
+    public void selectionMatches() throws IOException, InterruptedException {
+        assertParallelMatchesSerial("Q(a, s) :- R(a, b, s), b < 50000");
+    }
+
+    /**
+     * Group by aggregates, whose partial aggregates (one per worker) are combined.
+     */
+    @Test
+    public void aggregateMatches() throws IOException, InterruptedException {
+        assertParallelMatchesSerial("Q(a, COUNT(*), SUM(b), MIN(b), MAX(s), AVG(b)) :- R(a, b, s)");
+        assertParallelMatchesSerial("Q(COUNT(*), MIN(s), MAX(b), AVG(b)) :- R(a, b, s), b >= 1000");
+    }
+
+    /**
+     * Joins, whose probes of the hash table of S are run by every worker.
+     */
+    @Test
+    public void joinMatches() throws IOException, InterruptedException {
+        assertParallelMatchesSerial("Q(a, b, d) :- R(a, b, s), S(a, d), d < 2500");
+        assertParallelMatchesSerial("Q(s, SUM(d), COUNT(*), AVG(b)) :- R(a, b, s), S(a, d)");
+    }
+}
@@ -0,0 +1,168 @@
+package ed.inf.adbs.minibase.base;
+
+import ed.inf.adbs.minibase.parser.QueryParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the AggregateOperator, checking that the groups spilled once the hash table is full (see spillGroups)
+ * have the same aggregates as the groups held in memory.
+ */
+public class AggregateOperatorTest {
+
+    // The buffer size used by queries by default, which holds every group of the tests.
+    private static final int DEFAULT_BUFFER_SIZE = 100000;
+    // The number of rows of the relation R(a, b, c, s), and the number of distinct values of a.
+    private static final int ROWS = 20000;
+    private static final int KEYS = 3000;
+
+    private static final List<Variable> VARIABLES = Arrays.asList(new Variable("a"), new Variable("b"), new Variable("c"), new Variable("s"));
+    private static final ColumnType[] TYPES = {ColumnType.INT, ColumnType.INT, ColumnType.INT, ColumnType.STRING};
+
+    /**
+     * Helper method to generate the tuples of R(a, b, c, s), with KEYS distinct values of a, in random order.
+     * @return The tuples.
+     */
+    private static List<Tuple> generateTuples() {
+        Random random = new Random(42);
+        String[] strings = {"adbs", "anlp", "mlpr", "iaml", "ppls"};
+        List<Tuple> tuples = new ArrayList<>();
+        for (int row = 0; row < ROWS; row++) {
+            long[] values = {
+                    random.nextInt(KEYS),
+                    random.nextInt(201) - 100,
+                    random.nextInt(1000000),
+                    StringDictionary.getId(strings[random.nextInt(strings.length)])
+            };
+            tuples.add(new Tuple(values, TYPES));
+        }
+        return tuples;
+    }
+
+    /**
+     * Helper method to compute the aggregates of the head of a query over R.
+     * @param query A query over R(a, b, c, s), whose head has the aggregates to compute.
+     * @param bufferSize The maximum number of groups held in memory.
+     * @return The output tuples, as sorted strings.
+     */
+    private static List<String> aggregate(String query, int bufferSize) {
+        Operator operator = createAggregateOperator(query, bufferSize);
+        List<String> output = readSorted(operator);
+        operator.close();
+        return output;
+    }
+
+    /**
+     * Helper method to create the AggregateOperator of the head of a query over R.
+     * @param query A query over R(a, b, c, s), whose head has the aggregates to compute.
+     * @param bufferSize The maximum number of groups held in memory.
+     * @return The AggregateOperator.
+     */
+    private static Operator createAggregateOperator(String query, int bufferSize) {
+        Head head = QueryParser.parse(query).getHead();
+        Operator child = new ListOperator(generateTuples(), VARIABLES, TYPES);
+        return new AggregateOperator(head.getAggregates(), child, head.getVariables(), false, bufferSize);
+    }
+
+    /**
+     * Helper method to read every output tuple of an operator.
+     * @param operator The operator.
+     * @return The output tuples, as sorted strings.
+     */
+    private static List<String> readSorted(Operator operator) {
+        List<String> output = new ArrayList<>();
+        Tuple tuple = operator.getNextTuple();
+        while (tuple != null) {
+            output.add(tuple.toString());
+            tuple = operator.getNextTuple();
+        }
+        Collections.sort(output);
+        return output;
+    }
+
+    /**
+     * Helper method to count the distinct values of a in R.
+     * @return The number of groups of a.
+     */
+    private static int countGroups() {
+        Set<Long> keys = new HashSet<>();
+        for (Tuple tuple : generateTuples()) {
+            keys.add(tuple.getValues()[0]);
+        }
+        return keys.size();
+    }
+
+    /**
+     * With a buffer of 16 groups, the groups of a are spilled, and the sorted partial aggregates are merged in more
+     * than one pass (there are more runs than SortOperator merges at once).
+     */
+    @Test
+    public void spilledGroupsMatchGroupsInMemory() {
+        String query = "Q(a, COUNT(*), SUM(b), MIN(c), MAX(c), AVG(b), MIN(s), MAX(s), SUM(b * c)) :- R(a, b, c, s)";
+
+        List<String> inMemory = aggregate(query, DEFAULT_BUFFER_SIZE);
+        List<String> spilled = aggregate(query, 16);
+
+        assertEquals(countGroups(), inMemory.size());
+        assertEquals(inMemory, spilled);
+    }
+
+    /**
+     * Groups on a string and an int variable are spilled and combined on both values.
+     */
+    @Test
+    public void spilledGroupsOnSeveralVariablesMatch() {
+        String query = "Q(s, a, COUNT(b), MAX(b), AVG(c)) :- R(a, b, c, s)";
+
+        assertEquals(aggregate(query, DEFAULT_BUFFER_SIZE), aggregate(query, 7));
+    }
+
+    /**
+     * A buffer of a single group spills every group but the first.
+     */
+    @Test
+    public void singleGroupBufferMatches() {
+        String query = "Q(a, MIN(b), MAX(b), AVG(b)) :- R(a, b, c, s)";
+
+        assertEquals(aggregate(query, DEFAULT_BUFFER_SIZE), aggregate(query, 1));
+    }
+
+    /**
+     * Aggregates without group by variables have a single group, which is never spilled.
+     */
+    @Test
+    public void aggregatesWithoutGroupsMatch() {
+        String query = "Q(COUNT(*), SUM(b), MIN(c), MAX(s), AVG(c)) :- R(a, b, c, s)";
+
+        List<String> output = aggregate(query, 1);
+
+        assertEquals(1, output.size());
+        assertEquals(aggregate(query, DEFAULT_BUFFER_SIZE), output);
+    }
+
+    /**
+     * Spilled groups are returned again once the operator is reset.
+     */
+    @Test
+    public void resetSpilledGroupsMatch() {
+        String query = "Q(a, COUNT(*), MIN(c), AVG(b)) :- R(a, b, c, s)";
+        Operator operator = createAggregateOperator(query, 16);
+
+        List<String> firstRead = readSorted(operator);
+        operator.reset();
+        List<String> secondRead = readSorted(operator);
+        operator.close();
+
+        assertEquals(aggregate(query, DEFAULT_BUFFER_SIZE), firstRead);
+        assertEquals(firstRead, secondRead);
+    }
+}
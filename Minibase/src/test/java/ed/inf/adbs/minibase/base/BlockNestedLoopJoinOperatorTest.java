@@ -0,0 +1,133 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the BlockNestedLoopJoinOperator, with conditions that are not equalities, cartesian products, and
+ * left children of more than one block.
+ */
+public class BlockNestedLoopJoinOperatorTest {
+
+    // The number of tuples of the left child R(a, b) and of the right child S(c, d).
+    private static final int LEFT_ROWS = 50;
+    private static final int RIGHT_ROWS = 40;
+
+    /**
+     * Helper method to generate tuples of two random values between 0 and 99.
+     * @param rows The number of tuples.
+     * @param seed The seed of the random values.
+     * @return The tuples.
+     */
+    private static long[][] generateRows(int rows, long seed) {
+        Random random = new Random(seed);
+        long[][] values = new long[rows][];
+        for (int row = 0; row < rows; row++) {
+            values[row] = new long[]{random.nextInt(100), random.nextInt(100)};
+        }
+        return values;
+    }
+
+    /**
+     * Helper method to sort the output tuples of a join.
+     * @param output The output tuples, as strings.
+     * @return The sorted output.
+     */
+    private static List<String> sorted(List<String> output) {
+        List<String> sortedOutput = new ArrayList<>(output);
+        Collections.sort(sortedOutput);
+        return sortedOutput;
+    }
+
+    /**
+     * Helper method to join R(a, b) and S(c, d) with a BlockNestedLoopJoinOperator on the condition a < c and b != d,
+     * or without a condition.
+     * @param leftRows The tuples of R.
+     * @param rightRows The tuples of S.
+     * @param withCondition true to join on a < c and b != d, false for the cartesian product.
+     * @param blockSize The block size of the join.
+     * @return The join.
+     */
+    private static Operator join(long[][] leftRows, long[][] rightRows, boolean withCondition, int blockSize) {
+        Operator left = ListOperator.ofInts("a b", leftRows);
+        Operator right = ListOperator.ofInts("c d", rightRows);
+        List<Variable> joinedVariables = new ArrayList<>(left.getVariables());
+        joinedVariables.addAll(right.getVariables());
+        ColumnType[] joinedTypes = {ColumnType.INT, ColumnType.INT, ColumnType.INT, ColumnType.INT};
+        SelectionCondition condition = withCondition ? ListOperator.condition(joinedVariables, joinedTypes, "a < c", "b != d") : null;
+        return new BlockNestedLoopJoinOperator(left, right, condition, blockSize);
+    }
+
+    /**
+     * Helper method to join R(a, b) and S(c, d) with nested loops over the tuples.
+     * @param leftRows The tuples of R.
+     * @param rightRows The tuples of S.
+     * @param withCondition true to join on a < c and b != d, false for the cartesian product.
+     * @return The joined tuples, as sorted strings.
+     */
+    private static List<String> expectedJoin(long[][] leftRows, long[][] rightRows, boolean withCondition) {
+        List<String> expected = new ArrayList<>();
+        for (long[] left : leftRows) {
+            for (long[] right : rightRows) {
+                if (!withCondition || (left[0] < right[0] && left[1] != right[1])) {
+                    expected.add(left[0] + ", " + left[1] + ", " + right[0] + ", " + right[1]);
+                }
+            }
+        }
+        Collections.sort(expected);
+        return expected;
+    }
+
+    /**
+     * Conditions that are not equalities are evaluated on every pair of tuples, whether the left child fits in a
+     * single block, is split into blocks of 7 tuples (the last one partly filled), or into blocks of a single tuple.
+     */
+    @Test
+    public void nonEquiConditionMatchesNestedLoops() {
+        long[][] leftRows = generateRows(LEFT_ROWS, 1);
+        long[][] rightRows = generateRows(RIGHT_ROWS, 2);
+        List<String> expected = expectedJoin(leftRows, rightRows, true);
+        assertTrue(expected.size() > 0 && expected.size() < LEFT_ROWS * RIGHT_ROWS);
+
+        for (int blockSize : new int[]{1000, 7, 1}) {
+            Operator join = join(leftRows, rightRows, true, blockSize);
+            assertEquals(expected, sorted(ListOperator.readTuples(join)));
+            join.reset();
+            assertEquals(expected, sorted(ListOperator.readBatches(join)));
+        }
+    }
+
+    /**
+     * Without a condition, every left tuple is joined with every right tuple, including duplicate tuples.
+     */
+    @Test
+    public void cartesianProduct() {
+        long[][] leftRows = generateRows(LEFT_ROWS, 3);
+        leftRows[1] = leftRows[0].clone();
+        long[][] rightRows = generateRows(5, 4);
+
+        Operator join = join(leftRows, rightRows, false, 8);
+
+        assertEquals(LEFT_ROWS * 5, ListOperator.readTuples(join).size());
+        join.reset();
+        assertEquals(expectedJoin(leftRows, rightRows, false), sorted(ListOperator.readTuples(join)));
+    }
+
+    /**
+     * Joining with an empty child has no output.
+     */
+    @Test
+    public void emptyChild() {
+        long[][] rows = generateRows(LEFT_ROWS, 5);
+
+        assertTrue(ListOperator.readTuples(join(rows, new long[0][], false, 7)).isEmpty());
+        assertTrue(ListOperator.readTuples(join(new long[0][], rows, false, 7)).isEmpty());
+    }
+}
@@ -0,0 +1,158 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the ColumnarFile: relations imported from CSV files are read back as they were, and the minimums
+ * and maximums of the blocks let readBlock skip the blocks without values in a range, for ints and for strings.
+ */
+public class ColumnarFileTest {
+
+    // The number of rows of the relation R(a, b, s), and the number of rows of a block (the last block is partly full).
+    private static final int ROWS = 1050;
+    private static final int BLOCK_SIZE = 100;
+    private static final ColumnType[] TYPES = {ColumnType.INT, ColumnType.INT, ColumnType.STRING};
+    // The strings of s, one per block, so that the order of the blocks is not the order of the strings.
+    private static final String[] STRINGS = {"zeta", "alpha", "mid point", "beta", "omega", "zeta", "a b", "alpha",
+            "kappa", "gamma", "delta"};
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Helper method to write R(a, b, s) to a CSV file, with a = row, b = -row % 7 and s the string of its block, and
+     * import it into a columnar file.
+     * @return The columnar file, opened.
+     * @throws IOException If a file cannot be written.
+     */
+    private static ColumnarFile importRelation() throws IOException {
+        File csvFile = folder.newFile();
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile.toPath())) {
+            for (int row = 0; row < ROWS; row++) {
+                writer.write(row + ", " + (-row % 7) + ", '" + STRINGS[row / BLOCK_SIZE] + "'");
+                writer.newLine();
+            }
+        }
+        File columnarFile = folder.newFile();
+        ColumnarFile.importCsv(csvFile.getPath(), TYPES, columnarFile.getPath(), BLOCK_SIZE);
+        return new ColumnarFile(columnarFile.getPath());
+    }
+
+    /**
+     * Helper method to read the first value of column a of every block returned for some ranges.
+     * @param file The columnar file.
+     * @param lowerBounds The smallest value of every column.
+     * @param upperBounds The largest value of every column.
+     * @return The first row of every block returned.
+     */
+    private static List<Integer> readBlockStarts(ColumnarFile file, long[] lowerBounds, long[] upperBounds) {
+        file.rewind();
+        List<Integer> blockStarts = new ArrayList<>();
+        ColumnarFile.Block block = file.readBlock(lowerBounds, upperBounds);
+        while (block != null) {
+            blockStarts.add(block.getColumn(0)[0]);
+            block = file.readBlock(lowerBounds, upperBounds);
+        }
+        return blockStarts;
+    }
+
+    /**
+     * The header, dictionary, values and per-block minimums and maximums are read back as they were imported.
+     * The dictionary is sorted, and strings are stored as their positions in it.
+     */
+    @Test
+    public void importedRelationIsReadBack() throws IOException {
+        ColumnarFile file = importRelation();
+
+        assertArrayEquals(TYPES, file.getColumnTypes());
+        assertEquals(ROWS, file.getRowCount());
+        assertEquals(BLOCK_SIZE, file.getBlockSize());
+        String[] dictionary = file.getDictionary();
+        assertArrayEquals(new String[]{"a b", "alpha", "beta", "delta", "gamma", "kappa", "mid point", "omega", "zeta"}, dictionary);
+
+        for (int pass = 0; pass < 2; pass++) {
+            int row = 0;
+            ColumnarFile.Block block = file.readBlock();
+            while (block != null) {
+                int firstRow = row;
+                assertEquals(Math.min(BLOCK_SIZE, ROWS - firstRow), block.getRowCount());
+                int minimumB = Integer.MAX_VALUE;
+                int maximumB = Integer.MIN_VALUE;
+                for (int i = 0; i < block.getRowCount(); i++, row++) {
+                    assertEquals(row, block.getColumn(0)[i]);
+                    assertEquals(-row % 7, block.getColumn(1)[i]);
+                    assertEquals(STRINGS[row / BLOCK_SIZE], dictionary[block.getColumn(2)[i]]);
+                    minimumB = Math.min(minimumB, -row % 7);
+                    maximumB = Math.max(maximumB, -row % 7);
+                }
+                assertEquals(firstRow, block.getMinimum(0));
+                assertEquals(row - 1, block.getMaximum(0));
+                assertEquals(minimumB, block.getMinimum(1));
+                assertEquals(maximumB, block.getMaximum(1));
+                int id = Arrays.binarySearch(dictionary, STRINGS[firstRow / BLOCK_SIZE]);
+                assertEquals(id, block.getMinimum(2));
+                assertEquals(id, block.getMaximum(2));
+                block = file.readBlock();
+            }
+            assertEquals(ROWS, row);
+            file.rewind();
+        }
+        file.close();
+    }
+
+    /**
+     * Only the blocks whose range of a overlaps the range [250, 449] are read, and a range past every block reads none.
+     */
+    @Test
+    public void intRangeSkipsBlocks() throws IOException {
+        ColumnarFile file = importRelation();
+        long[] lowerBounds = {250, Long.MIN_VALUE, Long.MIN_VALUE};
+        long[] upperBounds = {449, Long.MAX_VALUE, Long.MAX_VALUE};
+
+        assertEquals(Arrays.asList(200, 300, 400), readBlockStarts(file, lowerBounds, upperBounds));
+
+        lowerBounds[0] = ROWS;
+        upperBounds[0] = Long.MAX_VALUE;
+        file.rewind();
+        assertNull(file.readBlock(lowerBounds, upperBounds));
+        file.close();
+    }
+
+    /**
+     * The dictionary ids of the strings are in the order of the strings, so the blocks of the strings in a range are
+     * read, wherever they are in the file.
+     */
+    @Test
+    public void stringRangeSkipsBlocks() throws IOException {
+        ColumnarFile file = importRelation();
+        List<String> dictionary = Arrays.asList(file.getDictionary());
+        long[] lowerBounds = {Long.MIN_VALUE, Long.MIN_VALUE, dictionary.indexOf("alpha")};
+        long[] upperBounds = {Long.MAX_VALUE, Long.MAX_VALUE, dictionary.indexOf("alpha")};
+
+        assertEquals(Arrays.asList(100, 700), readBlockStarts(file, lowerBounds, upperBounds));
+
+        // From "gamma" to "omega": gamma, kappa, mid point and omega.
+        lowerBounds[2] = dictionary.indexOf("gamma");
+        upperBounds[2] = dictionary.indexOf("omega");
+        assertEquals(Arrays.asList(200, 400, 800, 900), readBlockStarts(file, lowerBounds, upperBounds));
+
+        // Both ranges must hold: the blocks of gamma to omega with a < 500.
+        upperBounds[0] = 499;
+        assertEquals(Arrays.asList(200, 400), readBlockStarts(file, lowerBounds, upperBounds));
+        file.close();
+    }
+}
@@ -0,0 +1,175 @@
+package ed.inf.adbs.minibase.base;
+
+import ed.inf.adbs.minibase.parser.QueryParser;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the ColumnarScanOperator: the tuples of a columnar relation, and the blocks it skips from the selection
+ * conditions of its relational atom. The scan returns every row of the blocks it reads, so the rows it returns show
+ * which blocks were skipped.
+ * The DatabaseCatalog can only be initialised once, so every scan is run in a new JVM, by the main method of this class.
+ */
+public class ColumnarScanOperatorTest {
+
+    // The number of rows of R(a, b, s), and the number of rows of a block.
+    private static final int ROWS = 5000;
+    private static final int BLOCK_SIZE = 100;
+    // The number of consecutive rows with the same string, i.e., 'key a' for the rows 0 to 499.
+    private static final int STRING_ROWS = 500;
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    // The directory of the database with the relation R(a, b, s), imported into a columnar file.
+    private static File databaseDir;
+
+    /**
+     * Generates the database, with a = row, b = row % 7 and s = 'key a' to 'key j', and imports R into a columnar file.
+     * @throws IOException If a file cannot be written.
+     */
+    @BeforeClass
+    public static void generateDatabase() throws IOException {
+        databaseDir = folder.newFolder("db");
+        Path files = Files.createDirectories(databaseDir.toPath().resolve("files"));
+        Files.write(databaseDir.toPath().resolve("schema.txt"), "R int int string\n".getBytes());
+
+        Path csvFile = files.resolve("R.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile)) {
+            for (int row = 0; row < ROWS; row++) {
+                writer.write(row + ", " + row % 7 + ", '" + string(row) + "'");
+                writer.newLine();
+            }
+        }
+        ColumnarFile.importCsv(csvFile.toString(), new ColumnType[]{ColumnType.INT, ColumnType.INT, ColumnType.STRING},
+                files.resolve("R" + ColumnarFile.EXTENSION).toString(), BLOCK_SIZE);
+    }
+
+    /**
+     * Helper method to get the string of a row of R.
+     * @param row The row.
+     * @return The value of s.
+     */
+    private static String string(int row) {
+        return "key " + (char) ('a' + row / STRING_ROWS);
+    }
+
+    /**
+     * Scans the relational atom of the body of a query, with the comparison atoms of the body as its selection
+     * conditions, and prints its tuples a tuple at a time, then a line "batches", then its tuples a batch at a time.
+     * @param args The database directory and the query.
+     */
+    public static void main(String[] args) {
+        DatabaseCatalog.init(args[0]);
+        RelationalAtom relationalAtom = null;
+        List<ComparisonAtom> selectionConditions = new ArrayList<>();
+        for (Atom atom : QueryParser.parse(args[1]).getBody()) {
+            if (atom instanceof RelationalAtom) {
+                relationalAtom = (RelationalAtom) atom;
+            } else {
+                selectionConditions.add((ComparisonAtom) atom);
+            }
+        }
+
+        Operator scan = new ColumnarScanOperator(relationalAtom, selectionConditions);
+        for (String tuple : ListOperator.readTuples(scan)) {
+            System.out.println(tuple);
+        }
+        System.out.println("batches");
+        scan.reset();
+        for (String tuple : ListOperator.readBatches(scan)) {
+            System.out.println(tuple);
+        }
+        scan.close();
+    }
+
+    /**
+     * Helper method to scan R(a, b, s) with the conditions of a query in a new JVM.
+     * @param query A query over R(a, b, s).
+     * @return The tuples returned by the scan, read a tuple at a time and a batch at a time (which must be the same).
+     * @throws IOException If the output of the JVM cannot be read.
+     * @throws InterruptedException If interrupted while waiting for the JVM.
+     */
+    private static List<String> scan(String query) throws IOException, InterruptedException {
+        File outputFile = folder.newFile();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder processBuilder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ColumnarScanOperatorTest.class.getName(), databaseDir.getPath(), query);
+        processBuilder.redirectOutput(outputFile);
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = processBuilder.start();
+        assertTrue("the scan was not run", process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals("the scan failed", 0, process.exitValue());
+
+        List<String> output = Files.readAllLines(outputFile.toPath());
+        int separator = output.indexOf("batches");
+        assertEquals(output.subList(0, separator), output.subList(separator + 1, output.size()));
+        return output.subList(0, separator);
+    }
+
+    /**
+     * Helper method to get the tuples of a range of rows of R.
+     * @param from The first row.
+     * @param to The row after the last row.
+     * @return The tuples, as strings, in order.
+     */
+    private static List<String> rows(int from, int to) {
+        List<String> tuples = new ArrayList<>();
+        for (int row = from; row < to; row++) {
+            tuples.add(row + ", " + row % 7 + ", '" + string(row) + "'");
+        }
+        return tuples;
+    }
+
+    /**
+     * Without selection conditions, every tuple is read, in order, with its strings.
+     */
+    @Test
+    public void everyTupleIsRead() throws IOException, InterruptedException {
+        assertEquals(rows(0, ROWS), scan("Q(a) :- R(a, b, s)"));
+    }
+
+    /**
+     * The blocks whose range of a overlaps the range of the conditions are read in full, and the others are skipped.
+     * Conditions that do not give a range do not skip any block.
+     */
+    @Test
+    public void intConditionsSkipBlocks() throws IOException, InterruptedException {
+        assertEquals(rows(1200, 1500), scan("Q(a) :- R(a, b, s), a >= 1250, 1499 >= a"));
+        assertEquals(rows(4900, ROWS), scan("Q(a) :- R(a, b, s), a > 4900"));
+        assertEquals(rows(0, 0), scan("Q(a) :- R(a, b, s), a < 0"));
+        assertEquals(rows(0, ROWS), scan("Q(a) :- R(a, b, s), a != 3, b = 2"));
+    }
+
+    /**
+     * String conditions are turned into ranges of ids of the sorted dictionary of the file, including strings that
+     * are not in the dictionary.
+     */
+    @Test
+    public void stringConditionsSkipBlocks() throws IOException, InterruptedException {
+        assertEquals(rows(1000, 1500), scan("Q(a) :- R(a, b, s), s = 'key c'"));
+        assertEquals(rows(0, 1000), scan("Q(a) :- R(a, b, s), s < 'key c'"));
+        assertEquals(rows(4000, ROWS), scan("Q(a) :- R(a, b, s), s > 'key h'"));
+        // 'key cc' is not in the dictionary, and is between 'key c' and 'key d'.
+        assertEquals(rows(0, 1500), scan("Q(a) :- R(a, b, s), s <= 'key cc'"));
+        assertEquals(rows(1500, ROWS), scan("Q(a) :- R(a, b, s), 'key cc' < s"));
+        assertEquals(rows(0, 0), scan("Q(a) :- R(a, b, s), s = 'key cc'"));
+        assertEquals(rows(0, 0), scan("Q(a) :- R(a, b, s), s >= 'kez'"));
+        assertEquals(rows(0, ROWS), scan("Q(a) :- R(a, b, s), s > 'a'"));
+        assertEquals(rows(1200, 1500), scan("Q(a) :- R(a, b, s), s = 'key c', a >= 1250"));
+    }
+}
@@ -0,0 +1,154 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the HashJoinOperator.
+ */
+public class HashJoinOperatorTest {
+
+    /**
+     * Helper method to sort the output tuples of a join, as the order of the matches of a left tuple is not specified.
+     * @param output The output tuples, as strings.
+     * @return The sorted output.
+     */
+    private static List<String> sorted(List<String> output) {
+        List<String> sortedOutput = new ArrayList<>(output);
+        Collections.sort(sortedOutput);
+        return sortedOutput;
+    }
+
+    /**
+     * Every left tuple is joined with every right tuple of its key, and keys with no match on the other side are left out.
+     */
+    @Test
+    public void duplicateKeysOnBothSides() {
+        Operator left = ListOperator.ofInts("a b", new long[]{1, 10}, new long[]{1, 11}, new long[]{2, 20});
+        Operator right = ListOperator.ofInts("c d", new long[]{1, 100}, new long[]{3, 300}, new long[]{1, 101});
+        Operator join = new HashJoinOperator(left, right, new int[]{0}, new int[]{0}, null);
+
+        List<String> expected = Arrays.asList("1, 10, 100", "1, 10, 101", "1, 11, 100", "1, 11, 101");
+        assertEquals(expected, sorted(ListOperator.readTuples(join)));
+        join.reset();
+        assertEquals(expected, sorted(ListOperator.readBatches(join)));
+    }
+
+    /**
+     * Tuples only join if every column of the key is equal.
+     */
+    @Test
+    public void multiColumnKey() {
+        Operator left = ListOperator.ofInts("a b x", new long[]{1, 2, 7}, new long[]{1, 3, 8}, new long[]{2, 2, 9});
+        Operator right = ListOperator.ofInts("y d c", new long[]{70, 2, 1}, new long[]{80, 2, 2}, new long[]{90, 1, 3});
+        // The key is (a, b) = (c, d), in a different order in the right tuples.
+        Operator join = new HashJoinOperator(left, right, new int[]{0, 1}, new int[]{2, 1}, null);
+
+        assertEquals(Arrays.asList("1, 2, 7, 70", "2, 2, 9, 80"), sorted(ListOperator.readTuples(join)));
+    }
+
+    /**
+     * The residual conditions are evaluated on the joined tuples, so only the matches that satisfy them are returned.
+     */
+    @Test
+    public void residualConditionFiltersMatches() {
+        Operator left = ListOperator.ofInts("a b", new long[]{1, 5}, new long[]{2, 50});
+        Operator right = ListOperator.ofInts("c d", new long[]{1, 4}, new long[]{1, 6}, new long[]{2, 7});
+        List<Variable> joinedVariables = Arrays.asList(new Variable("a"), new Variable("b"), new Variable("d"));
+        ColumnType[] joinedTypes = {ColumnType.INT, ColumnType.INT, ColumnType.INT};
+        ComparisonAtom bLessThanD = new ComparisonAtom(new Variable("b"), new Variable("d"), ComparisonOperator.LT);
+        SelectionCondition residual = new SelectionCondition(Collections.singletonList(bLessThanD), joinedVariables, joinedTypes);
+        Operator join = new HashJoinOperator(left, right, new int[]{0}, new int[]{0}, residual);
+
+        assertEquals(Collections.singletonList("1, 5, 6"), ListOperator.readTuples(join));
+        join.reset();
+        assertEquals(Collections.singletonList("1, 5, 6"), ListOperator.readBatches(join));
+    }
+
+    /**
+     * The columns of the right key are left out of the joined tuples, as they equal the columns of the left key.
+     */
+    @Test
+    public void rightKeyColumnsAreDropped() {
+        Operator left = ListOperator.ofInts("a b", new long[]{1, 2});
+        Operator right = ListOperator.ofInts("c e d", new long[]{1, 3, 2});
+        Operator join = new HashJoinOperator(left, right, new int[]{0, 1}, new int[]{0, 2}, null);
+
+        assertEquals(Arrays.asList(new Variable("a"), new Variable("b"), new Variable("e")), join.getVariables());
+        assertEquals(3, join.getTypes().length);
+        assertEquals(Collections.singletonList("1, 2, 3"), ListOperator.readTuples(join));
+    }
+
+    /**
+     * A join without matches returns no tuples, and no batches.
+     */
+    @Test
+    public void noMatches() {
+        Operator left = ListOperator.ofInts("a b", new long[]{1, 2});
+        Operator right = ListOperator.ofInts("c d", new long[]{3, 4});
+        Operator join = new HashJoinOperator(left, right, new int[]{0}, new int[]{0}, null);
+
+        assertTrue(ListOperator.readTuples(join).isEmpty());
+        join.reset();
+        assertTrue(ListOperator.readBatches(join).isEmpty());
+    }
+
+    /**
+     * Helper method to create the relation R(a, r) of 3000 rows (about three batches), with a = r % 10.
+     * @return A ListOperator of the tuples of R.
+     */
+    private static ListOperator keyedRows() {
+        long[][] rows = new long[3000][];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = new long[]{row % 10, row};
+        }
+        return ListOperator.ofInts("a r", rows);
+    }
+
+    /**
+     * Only the left rows in the selection vectors of the left batches are probed.
+     */
+    @Test
+    public void leftSelectionIsProbed() {
+        Operator left = ListOperator.select(keyedRows(), "r >= 1500", "a < 5");
+        Operator right = ListOperator.ofInts("c d", new long[]{0, 100}, new long[]{4, 104}, new long[]{7, 107});
+        Operator join = new HashJoinOperator(left, right, new int[]{0}, new int[]{0}, null);
+
+        List<String> expected = new ArrayList<>();
+        for (int row = 1500; row < 3000; row++) {
+            if (row % 10 == 0 || row % 10 == 4) {
+                expected.add(row % 10 + ", " + row + ", " + (100 + row % 10));
+            }
+        }
+        assertEquals(expected, ListOperator.readBatches(join));
+        join.reset();
+        assertEquals(expected, ListOperator.readTuples(join));
+    }
+
+    /**
+     * Joined batches whose rows are all rejected by the residual conditions are skipped, rather than returned empty.
+     * The first two batches of joined tuples have r < 2048, so the residual condition rejects all of their rows.
+     */
+    @Test
+    public void residualRejectingWholeBatches() {
+        Operator right = ListOperator.ofInts("c d", new long[]{0, 0}, new long[]{1, 1}, new long[]{2, 2}, new long[]{3, 3},
+                new long[]{4, 4}, new long[]{5, 5}, new long[]{6, 6}, new long[]{7, 7}, new long[]{8, 8}, new long[]{9, 9});
+        List<Variable> joinedVariables = Arrays.asList(new Variable("a"), new Variable("r"), new Variable("d"));
+        ColumnType[] joinedTypes = {ColumnType.INT, ColumnType.INT, ColumnType.INT};
+
+        SelectionCondition lateRows = ListOperator.condition(joinedVariables, joinedTypes, "r >= 2048");
+        Operator join = new HashJoinOperator(keyedRows(), right, new int[]{0}, new int[]{0}, lateRows);
+        assertEquals(3000 - 2048, ListOperator.readBatches(join).size());
+
+        SelectionCondition noRows = ListOperator.condition(joinedVariables, joinedTypes, "r < 0");
+        join = new HashJoinOperator(keyedRows(), right, new int[]{0}, new int[]{0}, noRows);
+        assertTrue(ListOperator.readBatches(join).isEmpty());
+    }
+}
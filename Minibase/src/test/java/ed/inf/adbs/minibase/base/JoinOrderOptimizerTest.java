@@ -0,0 +1,185 @@
+package ed.inf.adbs.minibase.base;
+
+import ed.inf.adbs.minibase.parser.QueryParser;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the join orders chosen by the JoinOrderOptimizer, by dynamic programming and greedily, over small
+ * databases whose statistics are written by the tests, so that the estimated sizes and selectivities are known.
+ * The DatabaseCatalog can only be initialised once, so every join order is chosen in a new JVM, by the main method of
+ * this class.
+ */
+public class JoinOrderOptimizerTest {
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Chooses the join order of the body of a query and prints the names of its relational atoms, in that order.
+     * @param args The database directory and the query.
+     */
+    public static void main(String[] args) {
+        DatabaseCatalog.init(args[0]);
+        Query query = new Rewriter(QueryParser.parse(args[1])).rewriteQuery();
+
+        List<RelationalAtom> relationalAtoms = new ArrayList<>();
+        List<ComparisonAtom> comparisonAtoms = new ArrayList<>();
+        for (Atom atom : query.getBody()) {
+            if (atom instanceof RelationalAtom) {
+                relationalAtoms.add((RelationalAtom) atom);
+            } else {
+                comparisonAtoms.add((ComparisonAtom) atom);
+            }
+        }
+
+        SelectivityEstimator selectivityEstimator = new SelectivityEstimator(relationalAtoms);
+        List<String> joinOrder = new ArrayList<>();
+        for (RelationalAtom relationalAtom : new JoinOrderOptimizer(relationalAtoms, comparisonAtoms, selectivityEstimator).getJoinOrder()) {
+            joinOrder.add(relationalAtom.getName());
+        }
+        System.out.println(String.join(" ", joinOrder));
+    }
+
+    /**
+     * Helper method to create a database of int relations, with up to date statistics.
+     * A relation is given as its name, its number of rows, and the number of distinct values of each of its columns,
+     * i.e., "R 1000 1000 10" is R(int, int) with 1000 rows, a key in column 0 and 10 distinct values in column 1.
+     * The relation files have a single row, as only the statistics are read.
+     * @param relations The relations.
+     * @return The database directory.
+     * @throws IOException If a file cannot be written.
+     */
+    private static File createDatabase(String... relations) throws IOException {
+        File databaseDir = folder.newFolder();
+        Path files = Files.createDirectories(databaseDir.toPath().resolve("files"));
+        StringBuilder schema = new StringBuilder();
+        StringBuilder statistics = new StringBuilder();
+        for (String relation : relations) {
+            String[] tokens = relation.split(" ");
+            int columnCount = tokens.length - 2;
+            schema.append(tokens[0]).append(String.join("", Collections.nCopies(columnCount, " int"))).append('\n');
+
+            File relationFile = files.resolve(tokens[0] + ".csv").toFile();
+            Files.write(relationFile.toPath(), (String.join(", ", Collections.nCopies(columnCount, "0")) + "\n").getBytes());
+            statistics.append("relation ").append(tokens[0]).append(" rows ").append(tokens[1])
+                    .append(" length ").append(relationFile.length()).append(" modified ").append(relationFile.lastModified()).append('\n');
+            for (int column = 0; column < columnCount; column++) {
+                String distinct = tokens[column + 2];
+                statistics.append("column ").append(column).append(" distinct ").append(distinct)
+                        .append(" minimum 1 maximum ").append(distinct).append(" histogram ").append(distinct).append('\n');
+            }
+        }
+        Files.write(databaseDir.toPath().resolve("schema.txt"), schema.toString().getBytes());
+        Files.write(databaseDir.toPath().resolve("statistics.txt"), statistics.toString().getBytes());
+        return databaseDir;
+    }
+
+    /**
+     * Helper method to get the join order of the body of a query, chosen in a new JVM.
+     * @param databaseDir The database directory.
+     * @param query The query.
+     * @return The names of the relational atoms of the body, in the order they are joined in.
+     * @throws IOException If the output of the JVM cannot be read.
+     * @throws InterruptedException If interrupted while waiting for the JVM.
+     */
+    private static List<String> joinOrder(File databaseDir, String query) throws IOException, InterruptedException {
+        File outputFile = folder.newFile();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder processBuilder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                JoinOrderOptimizerTest.class.getName(), databaseDir.getPath(), query);
+        processBuilder.redirectOutput(outputFile);
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = processBuilder.start();
+        assertTrue("the join order was not chosen", process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals("the join order could not be chosen", 0, process.exitValue());
+        return Arrays.asList(Files.readAllLines(outputFile.toPath()).get(0).split(" "));
+    }
+
+    /**
+     * In the chain A(a, b), B(b, c), C(c, d), joining B with the small C first keeps the intermediate result small,
+     * while joining A and B first gives 1000 tuples. The larger of the first two atoms is the left child.
+     */
+    @Test
+    public void smallIntermediateResultIsJoinedFirst() throws IOException, InterruptedException {
+        File databaseDir = createDatabase("A 1000 1000 1000", "B 1000 1000 1000", "C 10 10 10");
+
+        List<String> joinOrder = joinOrder(databaseDir, "Q(a) :- A(a, b), B(b, c), C(c, d)");
+
+        assertEquals(Arrays.asList("B", "C", "A"), joinOrder);
+    }
+
+    /**
+     * The cartesian product of the small R and S, followed by the join with T, has the cheapest estimated cost
+     * (100 + 100 tuples), but T has a join condition with both of them, so it is joined first.
+     */
+    @Test
+    public void avoidableCartesianProductIsNotChosen() throws IOException, InterruptedException {
+        File databaseDir = createDatabase("R 10 10 10", "S 10 10 10", "T 100000 100 100");
+
+        List<String> joinOrder = joinOrder(databaseDir, "Q(a) :- R(a, b), S(c, d), T(b, c)");
+
+        assertEquals(Arrays.asList("T", "R", "S"), joinOrder);
+    }
+
+    /**
+     * A relation without a join condition is joined last, by a cartesian product.
+     */
+    @Test
+    public void unavoidableCartesianProductIsLast() throws IOException, InterruptedException {
+        File databaseDir = createDatabase("R 1000 1000 1000", "S 1000 1000 1000", "U 2 2");
+
+        List<String> joinOrder = joinOrder(databaseDir, "Q(a) :- U(e), R(a, b), S(b, d)");
+
+        assertEquals("U", joinOrder.get(2));
+    }
+
+    /**
+     * With 10 relational atoms (the most that dynamic programming is used for), the star of F joined with 9 smaller
+     * relations on columns with 10000 distinct values is cheapest when the most selective joins come first, i.e., the
+     * relations are joined by size.
+     */
+    @Test
+    public void dynamicProgrammingOrdersStarBySelectivity() throws IOException, InterruptedException {
+        File databaseDir = createDatabase("F 1000000 10000 10000 10000 10000 10000 10000 10000 10000 10000",
+                "A 7000 7000", "B 2000 2000", "C 9000 9000", "D 1000 1000", "E 5000 5000", "G 3000 3000",
+                "H 8000 8000", "I 4000 4000", "J 6000 6000");
+
+        List<String> joinOrder = joinOrder(databaseDir,
+                "Q(a) :- A(a), B(b), C(c), D(d), E(e), G(g), H(h), I(i), J(j), F(a, b, c, d, e, g, h, i, j)");
+
+        assertEquals(Arrays.asList("F", "D", "B", "G", "I", "E", "J", "A", "H", "C"), joinOrder);
+    }
+
+    /**
+     * With 11 relational atoms, the order is built greedily from the smallest atom, F, in the chain A - B - ... - K.
+     * Joining E (100 tuples per tuple of F) comes before G (200 tuples). The small K has no join condition with the
+     * atoms joined so far until J is joined, so it is not joined before, even though its cartesian product would be
+     * smaller than the joins with G to J.
+     */
+    @Test
+    public void greedyOrderFollowsJoinConditions() throws IOException, InterruptedException {
+        File databaseDir = createDatabase("A 1000 1000 1000", "B 1000 1000 1000", "C 1000 1000 1000",
+                "D 1000 1000 1000", "E 1000 1000 10", "F 10 10 10", "G 2000 10 1000", "H 1000 1000 1000",
+                "I 1000 1000 1000", "J 1000 1000 1000", "K 20 20 20");
+
+        List<String> joinOrder = joinOrder(databaseDir, "Q(a) :- A(a, b), B(b, c), C(c, d), D(d, e), E(e, f), "
+                + "F(f, g), G(g, h), H(h, i), I(i, j), J(j, k), K(k, l)");
+
+        assertEquals(Arrays.asList("E", "F", "D", "C", "B", "A", "G", "H", "I", "J", "K"), joinOrder);
+    }
+}
@@ -0,0 +1,154 @@
+package ed.inf.adbs.minibase.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ListOperator class that is inherited from Operator class, used by tests as the child of the operator under test.
+ * Returns the tuples of a list, in order, so that operators can be tested without a database.
+ */
+public class ListOperator extends Operator {
+
+    private final List<Tuple> tuples;
+    private final List<Variable> variables;
+    private final ColumnType[] types;
+    // Position of the next tuple to return.
+    private int position;
+
+    /**
+     * Constructor for ListOperator.
+     * @param tuples The tuples to return.
+     * @param variables The variables of the tuples.
+     * @param types The types of the tuples.
+     */
+    public ListOperator(List<Tuple> tuples, List<Variable> variables, ColumnType[] types) {
+        this.tuples = tuples;
+        this.variables = variables;
+        this.types = types;
+        position = 0;
+    }
+
+    /**
+     * Helper method used to create a ListOperator over tuples of ints.
+     * @param variables The names of the variables of the tuples, separated by spaces, i.e., "a b".
+     * @param rows The values of every tuple.
+     * @return The ListOperator.
+     */
+    public static ListOperator ofInts(String variables, long[]... rows) {
+        List<Variable> tupleVariables = new ArrayList<>();
+        for (String name : variables.split(" ")) {
+            tupleVariables.add(new Variable(name));
+        }
+        ColumnType[] types = new ColumnType[tupleVariables.size()];
+        Arrays.fill(types, ColumnType.INT);
+        List<Tuple> tuples = new ArrayList<>();
+        for (long[] row : rows) {
+            tuples.add(new Tuple(row, types));
+        }
+        return new ListOperator(tuples, tupleVariables, types);
+    }
+
+    /**
+     * Helper method used to create the condition of a selection, or the residual condition of a join.
+     * @param variables The variables of the tuples the condition is evaluated on.
+     * @param types The types of the tuples.
+     * @param comparisons The comparisons, i.e., "r >= 1024" or "b < d", of a variable and a variable or an int.
+     * @return The condition.
+     */
+    public static SelectionCondition condition(List<Variable> variables, ColumnType[] types, String... comparisons) {
+        List<ComparisonAtom> comparisonAtoms = new ArrayList<>();
+        for (String comparison : comparisons) {
+            String[] tokens = comparison.split(" ");
+            Term rhs = tokens[2].matches("-?[0-9]+") ? new IntegerConstant(Integer.parseInt(tokens[2])) : new Variable(tokens[2]);
+            comparisonAtoms.add(new ComparisonAtom(new Variable(tokens[0]), rhs, ComparisonOperator.fromString(tokens[1])));
+        }
+        return new SelectionCondition(comparisonAtoms, variables, types);
+    }
+
+    /**
+     * Helper method used to create a selection of an operator.
+     * @param child The operator.
+     * @param comparisons The comparisons of the selection (see condition).
+     * @return The SelectOperator.
+     */
+    public static SelectOperator select(Operator child, String... comparisons) {
+        return new SelectOperator(condition(child.getVariables(), child.getTypes(), comparisons), child);
+    }
+
+    /**
+     * Helper method used to read every output tuple of an operator, a tuple at a time.
+     * @param operator The operator.
+     * @return The output tuples, as strings, in the order they are returned.
+     */
+    public static List<String> readTuples(Operator operator) {
+        List<String> output = new ArrayList<>();
+        Tuple tuple = operator.getNextTuple();
+        while (tuple != null) {
+            output.add(tuple.toString());
+            tuple = operator.getNextTuple();
+        }
+        return output;
+    }
+
+    /**
+     * Helper method used to read every output tuple of an operator, a batch at a time. Only the selected rows of a
+     * batch are output tuples, and a returned batch must have at least one.
+     * @param operator The operator.
+     * @return The output tuples, as strings, in the order they are returned.
+     */
+    public static List<String> readBatches(Operator operator) {
+        List<String> output = new ArrayList<>();
+        TupleBatch batch = operator.getNextBatch();
+        while (batch != null) {
+            if (batch.getSelectedCount() == 0) {
+                throw new AssertionError("An empty batch was returned.");
+            }
+            int[] selection = batch.getSelection();
+            for (int i = 0; i < batch.getSelectedCount(); i++) {
+                output.add(batch.getTuple(selection[i]).toString());
+            }
+            batch = operator.getNextBatch();
+        }
+        return output;
+    }
+
+    /**
+     * GetNextTuple method for ListOperator.
+     * @return The next tuple of the list, or null once every tuple has been returned.
+     */
+    @Override
+    public Tuple getNextTuple() {
+        if (position == tuples.size()) {
+            return null;
+        }
+        position += 1;
+        return tuples.get(position - 1);
+    }
+
+    /**
+     * Reset method for ListOperator. Starts again from the first tuple of the list.
+     */
+    @Override
+    public void reset() {
+        position = 0;
+    }
+
+    /**
+     * Getter for the variables of the output tuples of ListOperator.
+     * @return The variables of the tuples.
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Getter for the types of the output tuples of ListOperator.
+     * @return The types of the tuples.
+     */
+    @Override
+    public ColumnType[] getTypes() {
+        return types;
+    }
+}
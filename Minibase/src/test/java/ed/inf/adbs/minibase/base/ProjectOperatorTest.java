@@ -0,0 +1,207 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the duplicate removal of the ProjectOperator, checking that the tuples spilled to partitions once the
+ * table of returned tuples is full (see spill and startNextPartition) are returned exactly once, and for the selection
+ * vectors of its batches.
+ */
+public class ProjectOperatorTest {
+
+    // The buffer size used by queries by default, which holds every projected tuple of the tests.
+    private static final int DEFAULT_BUFFER_SIZE = 100000;
+    // The number of rows of the relation R(a, b, c, s), and the numbers of distinct values of a and b.
+    private static final int ROWS = 40000;
+    private static final int A_VALUES = 100;
+    private static final int B_VALUES = 50;
+
+    private static final List<Variable> VARIABLES = Arrays.asList(new Variable("a"), new Variable("b"), new Variable("c"), new Variable("s"));
+    private static final ColumnType[] TYPES = {ColumnType.INT, ColumnType.INT, ColumnType.INT, ColumnType.STRING};
+
+    /**
+     * Helper method to generate the tuples of R(a, b, c, s) in random order, with many duplicate values of (a, b).
+     * @return The tuples.
+     */
+    private static List<Tuple> generateTuples() {
+        Random random = new Random(7);
+        String[] strings = {"adbs", "anlp", "mlpr", "iaml", "ppls"};
+        List<Tuple> tuples = new ArrayList<>();
+        for (int row = 0; row < ROWS; row++) {
+            long[] values = {
+                    random.nextInt(A_VALUES),
+                    random.nextInt(B_VALUES),
+                    random.nextInt(1000000),
+                    StringDictionary.getId(strings[random.nextInt(strings.length)])
+            };
+            tuples.add(new Tuple(values, TYPES));
+        }
+        return tuples;
+    }
+
+    /**
+     * Helper method to create the projection of R on some of its variables, removing duplicates.
+     * @param names The names of the projected variables.
+     * @param bufferSize The maximum number of returned tuples held in memory.
+     * @return The projection.
+     */
+    private static Operator project(List<String> names, int bufferSize) {
+        List<Variable> variables = new ArrayList<>();
+        for (String name : names) {
+            variables.add(new Variable(name));
+        }
+        Operator child = new ListOperator(generateTuples(), VARIABLES, TYPES);
+        return new ProjectOperator(child, new Head("Q", variables, new ArrayList<>()), bufferSize);
+    }
+
+    /**
+     * Helper method to read the projection of R a tuple at a time.
+     * @param names The names of the projected variables.
+     * @param bufferSize The maximum number of returned tuples held in memory.
+     * @return The output tuples, as strings, in the order they are returned.
+     */
+    private static List<String> projectTuples(List<String> names, int bufferSize) {
+        Operator operator = project(names, bufferSize);
+        List<String> output = new ArrayList<>();
+        Tuple tuple = operator.getNextTuple();
+        while (tuple != null) {
+            output.add(tuple.toString());
+            tuple = operator.getNextTuple();
+        }
+        operator.close();
+        return output;
+    }
+
+    /**
+     * Helper method to read the projection of R by batch.
+     * @param names The names of the projected variables.
+     * @param bufferSize The maximum number of returned tuples held in memory.
+     * @return The output tuples, as strings, in the order they are returned.
+     */
+    private static List<String> projectBatches(List<String> names, int bufferSize) {
+        Operator operator = project(names, bufferSize);
+        List<String> output = new ArrayList<>();
+        TupleBatch batch = operator.getNextBatch();
+        while (batch != null) {
+            int[] selection = batch.getSelection();
+            for (int i = 0; i < batch.getSelectedCount(); i++) {
+                output.add(batch.getTuple(selection[i]).toString());
+            }
+            batch = operator.getNextBatch();
+        }
+        operator.close();
+        return output;
+    }
+
+    /**
+     * Helper method to check that the output has no duplicates and sort it.
+     * @param output The output tuples, as strings.
+     * @return The sorted output.
+     */
+    private static List<String> distinctSorted(List<String> output) {
+        assertEquals("duplicate tuples were returned", new HashSet<>(output).size(), output.size());
+        List<String> sorted = new ArrayList<>(output);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Helper method to count the distinct values of (b, a) of R, without the ProjectOperator.
+     * @return The number of distinct values.
+     */
+    private static int countDistinctPairs() {
+        Set<List<Long>> pairs = new HashSet<>();
+        for (Tuple tuple : generateTuples()) {
+            pairs.add(Arrays.asList(tuple.getValues()[1], tuple.getValues()[0]));
+        }
+        return pairs.size();
+    }
+
+    /**
+     * With a buffer of every distinct tuple, nothing is spilled.
+     */
+    @Test
+    public void distinctTuplesInMemory() {
+        List<String> output = distinctSorted(projectTuples(Arrays.asList("b", "a"), DEFAULT_BUFFER_SIZE));
+
+        assertEquals(countDistinctPairs(), output.size());
+    }
+
+    /**
+     * With a buffer of 10 tuples, the about 5000 distinct values of (b, a) are spilled to 16 partitions of about 300
+     * distinct values each, which do not fit in the buffer either, so they are partitioned again (at a second and a
+     * third level).
+     */
+    @Test
+    public void spilledPartitionsMatchInMemory() {
+        List<String> names = Arrays.asList("b", "a");
+        List<String> inMemory = distinctSorted(projectTuples(names, DEFAULT_BUFFER_SIZE));
+
+        assertEquals(inMemory, distinctSorted(projectTuples(names, 10)));
+        assertEquals(inMemory, distinctSorted(projectBatches(names, 10)));
+    }
+
+    /**
+     * A buffer of a single tuple partitions the spilled tuples until every partition has a single distinct tuple.
+     */
+    @Test
+    public void singleTupleBufferMatches() {
+        List<String> names = Arrays.asList("s", "a");
+
+        assertEquals(distinctSorted(projectTuples(names, DEFAULT_BUFFER_SIZE)), distinctSorted(projectBatches(names, 1)));
+    }
+
+    /**
+     * Helper method to create the relation R(k, r) of 3000 rows (about three batches), with k = r % 10.
+     * @return A ListOperator of the tuples of R.
+     */
+    private static ListOperator keyedRows() {
+        long[][] rows = new long[3000][];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = new long[]{row % 10, row};
+        }
+        return ListOperator.ofInts("k r", rows);
+    }
+
+    /**
+     * The batches of a projection over a selection only have the rows in the selection vectors of the child, whether
+     * duplicates are removed or kept.
+     */
+    @Test
+    public void batchesKeepChildSelection() {
+        List<Variable> r = Collections.singletonList(new Variable("r"));
+        Operator keptDuplicates = new ProjectOperator(ListOperator.select(keyedRows(), "r >= 1500", "k < 3"), r, false, DEFAULT_BUFFER_SIZE);
+        List<String> expected = new ArrayList<>();
+        for (int row = 1500; row < 3000; row++) {
+            if (row % 10 < 3) {
+                expected.add(Integer.toString(row));
+            }
+        }
+        assertEquals(expected, ListOperator.readBatches(keptDuplicates));
+
+        List<Variable> k = Collections.singletonList(new Variable("k"));
+        Operator removedDuplicates = new ProjectOperator(ListOperator.select(keyedRows(), "r >= 1500", "k < 3"), k, true, DEFAULT_BUFFER_SIZE);
+        assertEquals(Arrays.asList("0", "1", "2"), distinctSorted(ListOperator.readBatches(removedDuplicates)));
+    }
+
+    /**
+     * A child batch whose rows are all duplicates of returned tuples is skipped, rather than returned empty.
+     */
+    @Test
+    public void batchesOfDuplicatesAreSkipped() {
+        List<Variable> k = Collections.singletonList(new Variable("k"));
+        Operator projection = new ProjectOperator(keyedRows(), k, true, DEFAULT_BUFFER_SIZE);
+
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), ListOperator.readBatches(projection));
+    }
+}
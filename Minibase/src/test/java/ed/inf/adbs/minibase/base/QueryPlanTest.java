@@ -0,0 +1,264 @@
+package ed.inf.adbs.minibase.base;
+
+import ed.inf.adbs.minibase.parser.QueryParser;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the QueryPlan: the join algorithms it chooses for relations larger than the sort buffer, the projections
+ * that keep the keys of every relation (and so do not remove duplicates), and the types it accepts in aggregates.
+ * The number of worker threads is read from the system property minibase.parallelism when QueryPlan is loaded, and the
+ * DatabaseCatalog can only be initialised once, so every plan of a join is built in a new JVM, by the main method of
+ * this class.
+ */
+public class QueryPlanTest {
+
+    // The number of rows of R and S, and the number of distinct join keys.
+    private static final int ROWS = 20000;
+    // The heap and thresholds of the JVMs the plans are built in, so that the chosen joins do not depend on the
+    // machine: R and S have more tuples than the sort buffer holds, and enough for a radix join.
+    private static final List<String> PLAN_OPTIONS = Arrays.asList("-Xmx256m", "-Dminibase.sortBufferSize=5000",
+            "-Dminibase.radixJoinMinTuples=1000", "-Dminibase.radixJoinMaxTuples=100000");
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    // The directory of the database with the relations R(a, b) and S(c, d), and the small relations with keys
+    // K(a, b) and L(a, b) with key(0), and C(a, b, c) with key(0,1).
+    private static File databaseDir;
+
+    /**
+     * Generates the database, with random join keys drawn from a fixed seed.
+     * K has fewer tuples than L, so it is the right child of their join.
+     * @throws IOException If a file cannot be written.
+     */
+    @BeforeClass
+    public static void generateDatabase() throws IOException {
+        databaseDir = folder.newFolder("db");
+        Path files = Files.createDirectories(databaseDir.toPath().resolve("files"));
+        Files.write(databaseDir.toPath().resolve("schema.txt"),
+                "R int int\nS int int\nK int int key(0)\nL int int key(0)\nC int int int key(0,1)\n".getBytes());
+        Files.write(files.resolve("K.csv"), "1, 10\n2, 20\n".getBytes());
+        Files.write(files.resolve("L.csv"), "1, 100\n2, 200\n3, 300\n4, 400\n".getBytes());
+        Files.write(files.resolve("C.csv"), "1, 1, 5\n1, 2, 5\n".getBytes());
+
+        Random random = new Random(42);
+        for (String relation : Arrays.asList("R", "S")) {
+            try (BufferedWriter writer = Files.newBufferedWriter(files.resolve(relation + ".csv"))) {
+                for (int row = 0; row < ROWS; row++) {
+                    writer.write(random.nextInt(ROWS) + ", " + row);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the plan of a query and prints the class of each of its join operators, one per line, and then the class
+     * of its root operator, followed by " distinct" if it is a ProjectOperator that removes duplicates.
+     * @param args The database directory and the query.
+     */
+    public static void main(String[] args) {
+        DatabaseCatalog.init(args[0]);
+        QueryPlan queryPlan = new QueryPlan(new Rewriter(QueryParser.parse(args[1])).rewriteQuery());
+        for (Operator joinOperator : queryPlan.getJoinOperators()) {
+            System.out.println(joinOperator.getClass().getSimpleName());
+        }
+        Operator rootOperator = queryPlan.getRootOperator();
+        boolean distinct = rootOperator instanceof ProjectOperator && ((ProjectOperator) rootOperator).isRemovingDuplicates();
+        System.out.println(rootOperator.getClass().getSimpleName() + (distinct ? " distinct" : ""));
+        rootOperator.close();
+    }
+
+    /**
+     * Helper method to describe the plan of a query, built in a new JVM.
+     * @param query The query.
+     * @param parallelism The number of worker threads, i.e., the value of minibase.parallelism.
+     * @param options Options of the JVM, after PLAN_OPTIONS (which they override).
+     * @return The class names of the join operators, followed by the description of the root operator (see main).
+     * @throws IOException If the output of the JVM cannot be read.
+     * @throws InterruptedException If interrupted while waiting for the JVM.
+     */
+    private static List<String> describePlan(String query, int parallelism, String... options) throws IOException, InterruptedException {
+        File outputFile = folder.newFile();
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), "-Dminibase.parallelism=" + parallelism));
+        command.addAll(PLAN_OPTIONS);
+        command.addAll(Arrays.asList(options));
+        command.addAll(Arrays.asList(QueryPlanTest.class.getName(), databaseDir.getPath(), query));
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectOutput(outputFile);
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = processBuilder.start();
+        assertTrue("the plan was not built", process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals("the plan could not be built", 0, process.exitValue());
+        return Files.readAllLines(outputFile.toPath());
+    }
+
+    /**
+     * Helper method to get the join operators of the plan of a query, built in a new JVM.
+     * @param query The query.
+     * @param parallelism The number of worker threads, i.e., the value of minibase.parallelism.
+     * @param options Options of the JVM, after PLAN_OPTIONS (which they override).
+     * @return The class names of the join operators.
+     * @throws IOException If the output of the JVM cannot be read.
+     * @throws InterruptedException If interrupted while waiting for the JVM.
+     */
+    private static List<String> planJoins(String query, int parallelism, String... options) throws IOException, InterruptedException {
+        List<String> plan = describePlan(query, parallelism, options);
+        return plan.subList(0, plan.size() - 1);
+    }
+
+    /**
+     * Helper method to check if the projection of the plan of a query removes duplicates.
+     * @param query A query without aggregates, whose head does not have every variable of the body.
+     * @return true if the root of the plan is a ProjectOperator that removes duplicates, false if it keeps them.
+     * @throws IOException If the output of the JVM cannot be read.
+     * @throws InterruptedException If interrupted while waiting for the JVM.
+     */
+    private static boolean projectionRemovesDuplicates(String query) throws IOException, InterruptedException {
+        List<String> plan = describePlan(query, 1);
+        String root = plan.get(plan.size() - 1);
+        assertTrue(root, root.startsWith("ProjectOperator"));
+        return root.endsWith(" distinct");
+    }
+
+    /**
+     * The key of K is kept through the join alias of its column: x is left out of the joined tuples, as K is the right
+     * child, and replaced by the equal variable of L. Without the key of L, the projection may create duplicates.
+     */
+    @Test
+    public void keyKeptThroughJoinAlias() throws IOException, InterruptedException {
+        assertFalse(projectionRemovesDuplicates("Q(x) :- K(x, y), L(x, z)"));
+        assertFalse(projectionRemovesDuplicates("Q(z, x) :- K(x, y), L(x, z)"));
+        assertTrue(projectionRemovesDuplicates("Q(y) :- K(x, y), L(x, z)"));
+        assertTrue(projectionRemovesDuplicates("Q(y, z) :- K(x, y), L(x, z)"));
+    }
+
+    /**
+     * A key column equal to a constant, or to a head variable, is determined by the head.
+     */
+    @Test
+    public void keyFixedByEquality() throws IOException, InterruptedException {
+        assertFalse(projectionRemovesDuplicates("Q(y) :- K(1, y)"));
+        assertFalse(projectionRemovesDuplicates("Q(y) :- K(x, y), x = 2"));
+        assertFalse(projectionRemovesDuplicates("Q(w) :- K(x, y), L(w, z), x = w"));
+        assertTrue(projectionRemovesDuplicates("Q(y) :- K(x, y), x > 2"));
+    }
+
+    /**
+     * Every column of a composite key must be determined.
+     */
+    @Test
+    public void compositeKeyMustBeKeptWhole() throws IOException, InterruptedException {
+        assertFalse(projectionRemovesDuplicates("Q(b, a) :- C(a, b, c)"));
+        assertFalse(projectionRemovesDuplicates("Q(a, c) :- C(a, b, c), b = 1"));
+        assertTrue(projectionRemovesDuplicates("Q(a, c) :- C(a, b, c)"));
+        assertTrue(projectionRemovesDuplicates("Q(b) :- C(a, b, c)"));
+    }
+
+    /**
+     * A relation without a declared key may have duplicate projections, whichever variables the head has.
+     */
+    @Test
+    public void relationWithoutKeyRemovesDuplicates() throws IOException, InterruptedException {
+        assertTrue(projectionRemovesDuplicates("Q(a) :- R(a, b)"));
+        assertTrue(projectionRemovesDuplicates("Q(x, y) :- K(x, y), R(x, b)"));
+    }
+
+    /**
+     * A join of two relations with more tuples than the sort buffer holds is partitioned in parallel, as they have at
+     * most minibase.radixJoinMaxTuples tuples together.
+     */
+    @Test
+    public void largeJoinIsRadixPartitioned() throws IOException, InterruptedException {
+        List<String> joins = planJoins("Q(b, d) :- R(a, b), S(a, d)", 4);
+
+        assertEquals(Collections.singletonList("RadixHashJoinOperator"), joins);
+    }
+
+    /**
+     * Without worker threads, the same join is a sort-merge join, as the right relation does not fit in the sort buffer.
+     */
+    @Test
+    public void largeSerialJoinIsSortMerged() throws IOException, InterruptedException {
+        List<String> joins = planJoins("Q(b, d) :- R(a, b), S(a, d)", 1);
+
+        assertEquals(Collections.singletonList("SortMergeJoinOperator"), joins);
+    }
+
+    /**
+     * A join of relations with more than minibase.radixJoinMaxTuples tuples together is a sort-merge join, as the radix
+     * join cannot spill.
+     */
+    @Test
+    public void joinOverRadixLimitIsSortMerged() throws IOException, InterruptedException {
+        List<String> joins = planJoins("Q(b, d) :- R(a, b), S(a, d)", 4, "-Dminibase.radixJoinMaxTuples=30000");
+
+        assertEquals(Collections.singletonList("SortMergeJoinOperator"), joins);
+    }
+
+    /**
+     * A join whose output is grouped on its join key is a sort-merge join, whatever the number of worker threads.
+     */
+    @Test
+    public void groupedJoinIsSortMerged() throws IOException, InterruptedException {
+        List<String> joins = planJoins("Q(a, COUNT(*)) :- R(a, b), S(a, d)", 4);
+
+        assertEquals(Collections.singletonList("SortMergeJoinOperator"), joins);
+    }
+
+    /**
+     * Helper method to check the aggregates of the head of a query over S(u, v, w), whose column v is a string.
+     * @param query The query.
+     * @return true if the aggregates are accepted, false if they are rejected.
+     */
+    private static boolean aggregateTypesAccepted(String query) {
+        List<Variable> variables = Arrays.asList(new Variable("u"), new Variable("v"), new Variable("w"));
+        ColumnType[] types = {ColumnType.INT, ColumnType.STRING, ColumnType.INT};
+        Operator child = new ListOperator(Collections.emptyList(), variables, types);
+        try {
+            QueryPlan.checkAggregateTypes(QueryParser.parse(query).getHead().getAggregates(), child);
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * SUM and AVG, and products of several terms, only accept int terms. MIN, MAX and COUNT of a term accept strings.
+     */
+    @Test
+    public void arithmeticOnStringsIsRejected() {
+        assertTrue(aggregateTypesAccepted("Q(SUM(u), AVG(w), SUM(u * w * 2), MIN(v), MAX(v), COUNT(v), COUNT(*)) :- S(u, v, w)"));
+        assertTrue(aggregateTypesAccepted("Q(MIN('adbs'), MAX(3)) :- S(u, v, w)"));
+
+        for (String query : Arrays.asList("Q(SUM(v)) :- S(u, v, w)", "Q(AVG(v)) :- S(u, v, w)",
+                "Q(SUM(u * v)) :- S(u, v, w)", "Q(SUM('adbs')) :- S(u, v, w)", "Q(AVG(u * 'adbs')) :- S(u, v, w)",
+                "Q(MIN(u * v)) :- S(u, v, w)")) {
+            if (aggregateTypesAccepted(query)) {
+                fail(query + " was accepted.");
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the batches of the RadixHashJoinOperator, checking that its output matches the HashJoinOperator.
+ */
+public class RadixHashJoinOperatorTest {
+
+    // The number of tuples of each child, and the number of distinct join keys.
+    private static final int ROWS = 5000;
+    private static final int KEYS = 2000;
+    // The number of worker threads that partition the children.
+    private static final int PARALLELISM = 2;
+
+    private static final List<Variable> JOINED_VARIABLES = Arrays.asList(new Variable("a"), new Variable("b"), new Variable("d"));
+    private static final ColumnType[] JOINED_TYPES = {ColumnType.INT, ColumnType.INT, ColumnType.INT};
+
+    /**
+     * Helper method to sort the output tuples of a join, as the radix join returns them by partition.
+     * @param output The output tuples, as strings.
+     * @return The sorted output.
+     */
+    private static List<String> sorted(List<String> output) {
+        List<String> sortedOutput = new ArrayList<>(output);
+        Collections.sort(sortedOutput);
+        return sortedOutput;
+    }
+
+    /**
+     * Helper method to create the left child R(a, b), with a selection if there are comparisons.
+     * @param leftRows The tuples of R.
+     * @param comparisons The comparisons of the selection on R.
+     * @return The left child.
+     */
+    private static Operator left(long[][] leftRows, String[] comparisons) {
+        Operator left = ListOperator.ofInts("a b", leftRows);
+        return (comparisons.length == 0) ? left : ListOperator.select(left, comparisons);
+    }
+
+    /**
+     * Helper method to create the residual condition of the joins, on the joined tuples (a, b, d).
+     * @param comparisons The comparisons of the residual condition.
+     * @return The residual condition, or null if there are no comparisons.
+     */
+    private static SelectionCondition residual(String[] comparisons) {
+        return (comparisons.length == 0) ? null : ListOperator.condition(JOINED_VARIABLES, JOINED_TYPES, comparisons);
+    }
+
+    /**
+     * Helper method to join R(a, b) and S(c, d) on a = c with a HashJoinOperator and with a RadixHashJoinOperator.
+     * @param leftComparisons The comparisons of a selection on R (none for no selection).
+     * @param residualComparisons The comparisons of the residual condition (none for no residual condition).
+     * @return The sorted output of the radix join, once checked against the hash join, and after a reset.
+     */
+    private static List<String> assertMatchesHashJoin(String[] leftComparisons, String... residualComparisons) {
+        long[][] leftRows = SortOperatorTest.generateRows(ROWS, KEYS, 8);
+        long[][] rightRows = SortOperatorTest.generateRows(ROWS, KEYS, 9);
+
+        Operator hashJoin = new HashJoinOperator(left(leftRows, leftComparisons), ListOperator.ofInts("c d", rightRows),
+                new int[]{0}, new int[]{0}, residual(residualComparisons));
+        List<String> expected = sorted(ListOperator.readTuples(hashJoin));
+
+        Operator radixJoin = new RadixHashJoinOperator(left(leftRows, leftComparisons), ListOperator.ofInts("c d", rightRows),
+                new int[]{0}, new int[]{0}, residual(residualComparisons), PARALLELISM);
+        List<String> output = sorted(ListOperator.readBatches(radixJoin));
+        assertEquals(expected, output);
+        radixJoin.reset();
+        assertEquals(expected, sorted(ListOperator.readBatches(radixJoin)));
+        radixJoin.close();
+        return output;
+    }
+
+    /**
+     * The radix join has the matches of the hash join, whatever the partitions of the keys.
+     */
+    @Test
+    public void matchesHashJoin() {
+        assertFalse(assertMatchesHashJoin(new String[0]).isEmpty());
+    }
+
+    /**
+     * Only the left rows in the selection vectors of the batches of a selection are partitioned.
+     */
+    @Test
+    public void leftSelectionIsPartitioned() {
+        List<String> output = assertMatchesHashJoin(new String[]{"b >= 1500", "a < 1000"});
+
+        assertFalse(output.isEmpty());
+        for (String tuple : output) {
+            assertTrue(tuple, Long.parseLong(tuple.split(", ")[1]) >= 1500);
+        }
+    }
+
+    /**
+     * Joined batches whose rows are all rejected by the residual conditions are skipped, rather than returned empty.
+     */
+    @Test
+    public void residualRejectingMostBatches() {
+        assertFalse(assertMatchesHashJoin(new String[0], "b >= 4900", "d >= 4900").isEmpty());
+        assertTrue(assertMatchesHashJoin(new String[0], "b < 0").isEmpty());
+    }
+}
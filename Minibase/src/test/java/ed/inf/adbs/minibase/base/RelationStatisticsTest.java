@@ -0,0 +1,124 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that statistics are read back from the statistics file as they were written, including strings with spaces
+ * and apostrophes.
+ * Reading the statistics file needs the schemas of the DatabaseCatalog, which can only be initialised once, so the
+ * statistics are written and read in a new JVM, by the main method of this class.
+ */
+public class RelationStatisticsTest {
+
+    // The strings of the column S.b, with spaces and apostrophes (doubled in the statistics file), in sorted order.
+    private static final List<String> STRINGS = Arrays.asList("", "'", "''", "a 'b' c", "it's", "o'neil' ", "x");
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Writes the statistics of R(int) and S(int, string) to a statistics file, reads them back, and prints both, one
+     * line per relation (see describe): first the statistics written, then the statistics read.
+     * @param args The database directory and the statistics file.
+     * @throws IOException If the statistics file cannot be accessed.
+     */
+    public static void main(String[] args) throws IOException {
+        DatabaseCatalog.init(args[0]);
+
+        long[] stringIds = new long[STRINGS.size()];
+        for (int i = 0; i < stringIds.length; i++) {
+            stringIds[i] = StringDictionary.getId(STRINGS.get(i));
+        }
+        List<RelationStatistics> written = Arrays.asList(
+                new RelationStatistics("R", 1500, 22310, 1700000000000L, new ColumnStatistics[]{
+                        new ColumnStatistics(ColumnType.INT, 60, -5, 60, new long[]{2, 4, 4, 60})}),
+                new RelationStatistics("S", 7, 80, 1700000000001L, new ColumnStatistics[]{
+                        new ColumnStatistics(ColumnType.INT, 1, 0, 0, new long[]{0}),
+                        new ColumnStatistics(ColumnType.STRING, stringIds.length, stringIds[0],
+                                stringIds[stringIds.length - 1], stringIds)}));
+
+        RelationStatistics.writeAll(written, args[1]);
+        for (RelationStatistics statistics : written) {
+            System.out.println(describe(statistics));
+        }
+        for (RelationStatistics statistics : RelationStatistics.readAll(args[1])) {
+            System.out.println(describe(statistics));
+        }
+    }
+
+    /**
+     * Helper method to describe statistics on one line, with the strings themselves (between brackets) rather than
+     * their StringDictionary ids, which differ from one JVM to another.
+     * @param statistics The statistics of a relation.
+     * @return The description.
+     */
+    private static String describe(RelationStatistics statistics) {
+        DatabaseCatalog catalog = DatabaseCatalog.getCatalogInstance();
+        ColumnType[] columnTypes = catalog.getSchema(statistics.getRelation());
+        StringBuilder description = new StringBuilder(statistics.getRelation() + " rows " + statistics.getRowCount());
+        for (int column = 0; column < columnTypes.length; column++) {
+            ColumnStatistics columnStatistics = statistics.getColumn(column);
+            description.append(" | distinct ").append(columnStatistics.getDistinctCount());
+            description.append(" minimum ").append(describeValue(columnStatistics.getType(), columnStatistics.getMinimum()));
+            description.append(" maximum ").append(describeValue(columnStatistics.getType(), columnStatistics.getMaximum()));
+            description.append(" histogram");
+            for (long bound : columnStatistics.getHistogramBounds()) {
+                description.append(' ').append(describeValue(columnStatistics.getType(), bound));
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * Helper method to describe a value.
+     * @param type The type of the value.
+     * @param value The value (a StringDictionary id for strings).
+     * @return The value, or the string between brackets.
+     */
+    private static String describeValue(ColumnType type, long value) {
+        if (type == ColumnType.STRING) {
+            return "[" + StringDictionary.getString(value) + "]";
+        }
+        return Long.toString(value);
+    }
+
+    /**
+     * The statistics read from the statistics file are the statistics written to it.
+     */
+    @Test
+    public void statisticsFileRoundTrip() throws IOException, InterruptedException {
+        File databaseDir = folder.newFolder("db");
+        Files.write(databaseDir.toPath().resolve("schema.txt"), "R int\nS int string\n".getBytes());
+        File statisticsFile = new File(databaseDir, "statistics.txt");
+        File outputFile = folder.newFile();
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder processBuilder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                RelationStatisticsTest.class.getName(), databaseDir.getPath(), statisticsFile.getPath());
+        processBuilder.redirectOutput(outputFile);
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = processBuilder.start();
+        assertTrue("the statistics were not written", process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals("the statistics could not be written", 0, process.exitValue());
+
+        List<String> output = Files.readAllLines(outputFile.toPath());
+        assertEquals(4, output.size());
+        assertEquals(output.subList(0, 2), new ArrayList<>(output.subList(2, 4)));
+        assertEquals("S rows 7 | distinct 1 minimum 0 maximum 0 histogram 0 | distinct 7 minimum [] maximum [x] "
+                + "histogram [] ['] [''] [a 'b' c] [it's] [o'neil' ] [x]", output.get(3));
+        assertTrue(new String(Files.readAllBytes(statisticsFile.toPath())).contains("'it''s'"));
+    }
+}
@@ -0,0 +1,103 @@
+package ed.inf.adbs.minibase.base;
+
+import ed.inf.adbs.minibase.parser.QueryParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the comparisons inferred by the Rewriter.
+ */
+public class RewriterTest {
+
+    /**
+     * Helper method to rewrite a query and get its comparison atoms.
+     * @param query The query.
+     * @return The comparison atoms of the rewritten body, as strings (i.e., "x <= 1").
+     */
+    private static List<String> rewrittenComparisons(String query) {
+        Query rewrittenQuery = new Rewriter(QueryParser.parse(query)).rewriteQuery();
+        List<String> comparisons = new ArrayList<>();
+        for (Atom atom : rewrittenQuery.getBody()) {
+            if (atom instanceof ComparisonAtom) {
+                comparisons.add(atom.toString());
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Upper bounds are propagated through comparisons between variables, and strict integer bounds become non-strict:
+     * x < y, y < 3 gives y <= 2 and x <= 1.
+     */
+    @Test
+    public void transitiveBoundsAreInferred() {
+        List<String> comparisons = rewrittenComparisons("Q(x) :- R(x, y), x < y, y < 3");
+
+        assertTrue(comparisons.contains("x < y"));
+        assertTrue(comparisons.contains("y <= 2"));
+        assertTrue(comparisons.contains("x <= 1"));
+        assertEquals(3, comparisons.size());
+    }
+
+    /**
+     * Bounds are shared by the variables of a class of equal variables: x = u, x > 5 gives u >= 6.
+     */
+    @Test
+    public void equalVariablesShareBounds() {
+        List<String> comparisons = rewrittenComparisons("Q(x) :- R(x, y), S(u, w), x = u, x > 5");
+
+        assertTrue(comparisons.contains("x = u"));
+        assertTrue(comparisons.contains("x >= 6"));
+        assertTrue(comparisons.contains("u >= 6"));
+    }
+
+    /**
+     * Comparisons that can never hold together are replaced by 1 = 2.
+     */
+    @Test
+    public void contradictionBecomesFalseComparison() {
+        assertEquals(singletonList("1 = 2"), rewrittenComparisons("Q(x) :- R(x, y), x > 5, x < 3"));
+        assertEquals(singletonList("1 = 2"), rewrittenComparisons("Q(x) :- R(x, y), x = 4, x != 4"));
+    }
+
+    /**
+     * Inequalities with constants outside of the bounds always hold, so they are dropped. The others are kept.
+     */
+    @Test
+    public void notEqualOutsideBoundsIsDropped() {
+        List<String> comparisons = rewrittenComparisons("Q(x) :- R(x, y), x < 3, x != 10, x != 1");
+
+        assertTrue(comparisons.contains("x <= 2"));
+        assertTrue(comparisons.contains("x != 1"));
+        assertFalse(comparisons.contains("x != 10"));
+        assertEquals(2, comparisons.size());
+    }
+
+    /**
+     * Bounds that leave a single value become an equality: x > 4, x < 6 gives x = 5.
+     */
+    @Test
+    public void singleValueBecomesEquality() {
+        assertEquals(singletonList("x = 5"), rewrittenComparisons("Q(x) :- R(x, y), x > 4, x < 6"));
+    }
+
+    /**
+     * A class compared to both string and int constants is left as written.
+     */
+    @Test
+    public void mixedTypesAreLeftAsWritten() {
+        List<String> comparisons = rewrittenComparisons("Q(x) :- R(x, y), x > 2, x != 'adbs', x < 7");
+
+        assertTrue(comparisons.contains("x > 2"));
+        assertTrue(comparisons.contains("x != 'adbs'"));
+        assertTrue(comparisons.contains("x < 7"));
+        assertEquals(3, comparisons.size());
+    }
+}
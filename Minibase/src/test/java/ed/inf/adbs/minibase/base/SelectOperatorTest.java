@@ -0,0 +1,83 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the batches of the SelectOperator, which filters the selection vectors of the batches of its child.
+ */
+public class SelectOperatorTest {
+
+    // The number of tuples of the child, about three batches.
+    private static final int ROWS = 3000;
+
+    /**
+     * Helper method to create the child R(k, r), with keys 0 to 9 and row numbers.
+     * @return The child.
+     */
+    private static ListOperator child() {
+        long[][] rows = new long[ROWS][];
+        for (int row = 0; row < ROWS; row++) {
+            rows[row] = new long[]{row % 10, row};
+        }
+        return ListOperator.ofInts("k r", rows);
+    }
+
+    /**
+     * Helper method to get the tuples of the child R(k, r) from a range of rows with a key less than a value.
+     * @param from The first row.
+     * @param to The row after the last row.
+     * @param maxKey The keys must be less than this.
+     * @return The tuples, as strings, in order.
+     */
+    private static List<String> expectedRows(int from, int to, int maxKey) {
+        List<String> expected = new ArrayList<>();
+        for (int row = from; row < to; row++) {
+            if (row % 10 < maxKey) {
+                expected.add(row % 10 + ", " + row);
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * A child batch with no row that satisfies the conditions is skipped, rather than returned empty, and the batches
+     * have the same tuples as getNextTuple.
+     */
+    @Test
+    public void rejectedBatchesAreSkipped() {
+        Operator select = ListOperator.select(child(), "r >= 1024", "r < 2100");
+
+        List<String> batches = ListOperator.readBatches(select);
+        select.reset();
+
+        assertEquals(expectedRows(1024, 2100, 10), batches);
+        assertEquals(batches, ListOperator.readTuples(select));
+    }
+
+    /**
+     * A selection that rejects every tuple has no batches.
+     */
+    @Test
+    public void rejectingEveryTupleReturnsNoBatch() {
+        Operator select = ListOperator.select(child(), "k > 9");
+
+        assertNull(select.getNextBatch());
+    }
+
+    /**
+     * A selection of a selection only keeps the rows selected by both: the rows left out of the selection vector by
+     * the child are not evaluated again.
+     */
+    @Test
+    public void selectionOfSelection() {
+        Operator select = ListOperator.select(ListOperator.select(child(), "r >= 500"), "k < 3", "r < 2500");
+
+        assertEquals(expectedRows(500, 2500, 3), ListOperator.readBatches(select));
+    }
+}
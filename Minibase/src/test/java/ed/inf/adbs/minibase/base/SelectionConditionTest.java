@@ -0,0 +1,253 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the compiled predicates of the SelectionCondition, on tuples and on batches, checked against the
+ * comparisons of the Java values of their terms. String values are StringDictionary ids, which are not in the order of
+ * the strings, so the ordering comparisons of strings must compare the strings of the ids.
+ */
+public class SelectionConditionTest {
+
+    // The number of tuples (x, y, s, t) the conditions are evaluated on, which fit in a single batch.
+    private static final int ROWS = 500;
+    private static final List<Variable> VARIABLES = Arrays.asList(new Variable("x"), new Variable("y"),
+            new Variable("s"), new Variable("t"));
+    private static final ColumnType[] TYPES = {ColumnType.INT, ColumnType.INT, ColumnType.STRING, ColumnType.STRING};
+    // The strings of s and t, in reverse order so that their ids are not in the order of the strings.
+    private static final String[] STRINGS = {"selection zebra", "selection pear", "selection apple pie",
+            "selection apple", "selection Zebra", "selection", ""};
+    // The string constants, including strings that are not values of s or t and strings between them.
+    private static final String[] STRING_CONSTANTS = {"selection pear", "selection apple", "selection b", "selection",
+            "selection zz", "", "a", "z"};
+    private static final int[] INT_CONSTANTS = {-6, -5, -1, 0, 1, 5, 6, Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+    /**
+     * Helper method to generate the tuples (x, y, s, t), with x and y between -5 and 5, and s and t from STRINGS.
+     * @return The values of every tuple.
+     */
+    private static long[][] generateRows() {
+        long[] ids = new long[STRINGS.length];
+        for (int i = 0; i < STRINGS.length; i++) {
+            ids[i] = StringDictionary.getId(STRINGS[i]);
+        }
+        Random random = new Random(7);
+        long[][] rows = new long[ROWS][];
+        for (int row = 0; row < ROWS; row++) {
+            rows[row] = new long[]{random.nextInt(11) - 5, random.nextInt(11) - 5,
+                    ids[random.nextInt(ids.length)], ids[random.nextInt(ids.length)]};
+        }
+        return rows;
+    }
+
+    /**
+     * Helper method to get the Java value of a term on a tuple.
+     * @param term A variable of the tuple, or a constant.
+     * @param row The values of the tuple.
+     * @return The Integer or String value of the term.
+     */
+    private static Comparable<?> value(Term term, long[] row) {
+        if (term instanceof IntegerConstant) {
+            return ((IntegerConstant) term).getValue();
+        }
+        if (term instanceof StringConstant) {
+            return ((StringConstant) term).getValue();
+        }
+        int pos = VARIABLES.indexOf(term);
+        if (TYPES[pos] == ColumnType.INT) {
+            return (int) row[pos];
+        }
+        return StringDictionary.getString(row[pos]);
+    }
+
+    /**
+     * Helper method to evaluate a comparison on a tuple by comparing the Java values of its terms.
+     * @param comparisonAtom The comparison.
+     * @param row The values of the tuple.
+     * @return true if the comparison holds, false otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean expectedResult(ComparisonAtom comparisonAtom, long[] row) {
+        Comparable<Object> lhs = (Comparable<Object>) value(comparisonAtom.getTerm1(), row);
+        int comparison = lhs.compareTo(value(comparisonAtom.getTerm2(), row));
+        switch (comparisonAtom.getOp()) {
+            case EQ:
+                return comparison == 0;
+            case NEQ:
+                return comparison != 0;
+            case LT:
+                return comparison < 0;
+            case LEQ:
+                return comparison <= 0;
+            case GT:
+                return comparison > 0;
+            default:
+                return comparison >= 0;
+        }
+    }
+
+    /**
+     * Helper method to check that a condition holds on the tuples where all its comparisons hold, both tuple at a time
+     * and on a batch.
+     * @param rows The values of the tuples.
+     * @param comparisonAtoms The comparisons of the condition.
+     * @return The number of tuples where the condition holds.
+     */
+    private static int assertMatchesComparisons(long[][] rows, ComparisonAtom... comparisonAtoms) {
+        SelectionCondition condition = new SelectionCondition(Arrays.asList(comparisonAtoms), VARIABLES, TYPES);
+        TupleBatch batch = new TupleBatch(TYPES);
+        List<Integer> expected = new ArrayList<>();
+        for (int row = 0; row < rows.length; row++) {
+            boolean holds = true;
+            for (ComparisonAtom comparisonAtom : comparisonAtoms) {
+                holds = holds && expectedResult(comparisonAtom, rows[row]);
+            }
+            if (holds) {
+                expected.add(row);
+            }
+            String message = Arrays.toString(comparisonAtoms) + " on row " + row;
+            assertEquals(message, holds, condition.evaluateOnTuple(new Tuple(rows[row], TYPES)));
+            batch.addRow(rows[row]);
+        }
+
+        condition.evaluateOnBatch(batch);
+        List<Integer> selected = new ArrayList<>();
+        for (int i = 0; i < batch.getSelectedCount(); i++) {
+            selected.add(batch.getSelection()[i]);
+        }
+        assertEquals(Arrays.toString(comparisonAtoms), expected, selected);
+        return expected.size();
+    }
+
+    /**
+     * Comparisons of a string variable with a string constant, on either side, compare the strings rather than the
+     * ids, including constants that are not values of the variable.
+     */
+    @Test
+    public void stringVariableAndConstant() {
+        long[][] rows = generateRows();
+        assertTrue(StringDictionary.getId("selection zebra") < StringDictionary.getId("selection apple"));
+
+        for (ComparisonOperator op : ComparisonOperator.values()) {
+            for (String string : STRING_CONSTANTS) {
+                StringConstant constant = new StringConstant(string);
+                assertMatchesComparisons(rows, new ComparisonAtom(new Variable("s"), constant, op));
+                assertMatchesComparisons(rows, new ComparisonAtom(constant, new Variable("t"), op));
+            }
+        }
+        // s < 'selection b' holds on the strings up to "selection apple pie", but not on "selection pear".
+        int selected = assertMatchesComparisons(rows,
+                new ComparisonAtom(new Variable("s"), new StringConstant("selection b"), ComparisonOperator.LT));
+        assertTrue(selected > 0 && selected < ROWS);
+    }
+
+    /**
+     * Comparisons of two string variables compare the strings of their ids.
+     */
+    @Test
+    public void stringVariables() {
+        long[][] rows = generateRows();
+
+        for (ComparisonOperator op : ComparisonOperator.values()) {
+            int selected = assertMatchesComparisons(rows, new ComparisonAtom(new Variable("s"), new Variable("t"), op));
+            assertTrue(op.toString(), selected > 0 && selected < ROWS);
+            assertMatchesComparisons(rows, new ComparisonAtom(new Variable("s"), new Variable("s"), op));
+        }
+    }
+
+    /**
+     * Comparisons of int variables with each other and with int constants, on either side, including the constants
+     * at the limits of the ranges of ints.
+     */
+    @Test
+    public void intComparisons() {
+        long[][] rows = generateRows();
+
+        for (ComparisonOperator op : ComparisonOperator.values()) {
+            assertMatchesComparisons(rows, new ComparisonAtom(new Variable("x"), new Variable("y"), op));
+            for (int value : INT_CONSTANTS) {
+                IntegerConstant constant = new IntegerConstant(value);
+                assertMatchesComparisons(rows, new ComparisonAtom(new Variable("x"), constant, op));
+                assertMatchesComparisons(rows, new ComparisonAtom(constant, new Variable("y"), op));
+            }
+        }
+    }
+
+    /**
+     * Comparisons of two constants hold on every tuple or on none.
+     */
+    @Test
+    public void constantComparisons() {
+        long[][] rows = generateRows();
+
+        assertEquals(ROWS, assertMatchesComparisons(rows,
+                new ComparisonAtom(new IntegerConstant(1), new IntegerConstant(2), ComparisonOperator.LT)));
+        assertEquals(0, assertMatchesComparisons(rows,
+                new ComparisonAtom(new IntegerConstant(2), new IntegerConstant(2), ComparisonOperator.NEQ)));
+        assertEquals(ROWS, assertMatchesComparisons(rows,
+                new ComparisonAtom(new StringConstant("b"), new StringConstant("a"), ComparisonOperator.GT)));
+        assertEquals(0, assertMatchesComparisons(rows,
+                new ComparisonAtom(new StringConstant("b"), new StringConstant("ab"), ComparisonOperator.LEQ)));
+    }
+
+    /**
+     * Conjunctions of comparisons keep the tuples where every comparison holds, and on a batch every comparison only
+     * evaluates the rows selected by the comparisons before it.
+     */
+    @Test
+    public void conjunctions() {
+        long[][] rows = generateRows();
+
+        int selected = assertMatchesComparisons(rows,
+                new ComparisonAtom(new Variable("x"), new IntegerConstant(0), ComparisonOperator.GEQ),
+                new ComparisonAtom(new Variable("s"), new StringConstant("selection apple"), ComparisonOperator.GT),
+                new ComparisonAtom(new Variable("t"), new Variable("s"), ComparisonOperator.LEQ));
+        assertTrue(selected > 0);
+        assertEquals(0, assertMatchesComparisons(rows,
+                new ComparisonAtom(new Variable("x"), new Variable("y"), ComparisonOperator.LT),
+                new ComparisonAtom(new Variable("y"), new Variable("x"), ComparisonOperator.LT)));
+    }
+
+    /**
+     * Only the selected rows of a batch are evaluated, and the rows that hold keep the order of the selection vector.
+     */
+    @Test
+    public void batchSelectionIsFiltered() {
+        long[][] rows = generateRows();
+        TupleBatch batch = new TupleBatch(TYPES);
+        for (long[] row : rows) {
+            batch.addRow(row);
+        }
+        List<Integer> evenRows = new ArrayList<>();
+        for (int row = 0; row < ROWS; row += 2) {
+            batch.getSelection()[row / 2] = row;
+            evenRows.add(row);
+        }
+        batch.setSelectedCount(evenRows.size());
+
+        SelectionCondition condition = new SelectionCondition(Collections.singletonList(
+                new ComparisonAtom(new Variable("s"), new StringConstant("selection b"), ComparisonOperator.GEQ)),
+                VARIABLES, TYPES);
+        condition.evaluateOnBatch(batch);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int row : evenRows) {
+            if (StringDictionary.getString(rows[row][2]).compareTo("selection b") >= 0) {
+                expected.add(row);
+            }
+        }
+        assertEquals(expected.size(), batch.getSelectedCount());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals((int) expected.get(i), batch.getSelection()[i]);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit tests for the SortMergeJoinOperator, checking that its output matches the HashJoinOperator when its sorts spill.
+ */
+public class SortMergeJoinOperatorTest {
+
+    // The number of tuples of each child, and the number of distinct join keys, so that every key has long runs of
+    // equal keys on both sides.
+    private static final int ROWS = 2000;
+    private static final int KEYS = 20;
+
+    /**
+     * Helper method to sort the output tuples of a join.
+     * @param output The output tuples, as strings.
+     * @return The sorted output.
+     */
+    private static List<String> sorted(List<String> output) {
+        List<String> sortedOutput = new ArrayList<>(output);
+        Collections.sort(sortedOutput);
+        return sortedOutput;
+    }
+
+    /**
+     * Helper method to create the residual condition b < d of the join of R(a, b) and S(c, d) on a = c.
+     * @return The residual condition.
+     */
+    private static SelectionCondition bLessThanD() {
+        List<Variable> joinedVariables = Arrays.asList(new Variable("a"), new Variable("b"), new Variable("d"));
+        ColumnType[] joinedTypes = {ColumnType.INT, ColumnType.INT, ColumnType.INT};
+        ComparisonAtom condition = new ComparisonAtom(new Variable("b"), new Variable("d"), ComparisonOperator.LT);
+        return new SelectionCondition(Collections.singletonList(condition), joinedVariables, joinedTypes);
+    }
+
+    /**
+     * Helper method to join R(a, b) and S(c, d) on a = c with a HashJoinOperator and with a SortMergeJoinOperator.
+     * @param bufferSize The sort buffer size of the SortMergeJoinOperator.
+     * @param residualCondition Whether the joins have the residual condition b < d.
+     */
+    private static void assertMatchesHashJoin(int bufferSize, boolean residualCondition) {
+        long[][] leftRows = SortOperatorTest.generateRows(ROWS, KEYS, 4);
+        long[][] rightRows = SortOperatorTest.generateRows(ROWS, KEYS, 5);
+
+        Operator hashJoin = new HashJoinOperator(ListOperator.ofInts("a b", leftRows), ListOperator.ofInts("c d", rightRows),
+                new int[]{0}, new int[]{0}, residualCondition ? bLessThanD() : null);
+        List<String> expected = sorted(ListOperator.readTuples(hashJoin));
+        assertFalse(expected.isEmpty());
+
+        Operator sortMergeJoin = new SortMergeJoinOperator(ListOperator.ofInts("a b", leftRows), ListOperator.ofInts("c d", rightRows),
+                new int[]{0}, new int[]{0}, residualCondition ? bLessThanD() : null, bufferSize);
+        assertEquals(expected, sorted(ListOperator.readTuples(sortMergeJoin)));
+        sortMergeJoin.reset();
+        assertEquals(expected, sorted(ListOperator.readTuples(sortMergeJoin)));
+        sortMergeJoin.close();
+    }
+
+    /**
+     * Both children fit in the sort buffer.
+     */
+    @Test
+    public void joinInMemory() {
+        assertMatchesHashJoin(100000, false);
+    }
+
+    /**
+     * With a buffer of 7 tuples, the about 100 tuples of every key are spread over many runs, so the groups of equal
+     * keys are merged from runs on both sides of spill boundaries.
+     */
+    @Test
+    public void equalKeysAcrossRuns() {
+        assertMatchesHashJoin(7, false);
+        assertMatchesHashJoin(7, true);
+    }
+
+    /**
+     * With a buffer of a single tuple, every tuple is a run, and the runs are merged in several passes.
+     */
+    @Test
+    public void singleTupleRuns() {
+        assertMatchesHashJoin(1, true);
+    }
+
+    /**
+     * Closing the join deletes the runs of both sorts.
+     */
+    @Test
+    public void closeDeletesRuns() {
+        Set<String> before = SortOperatorTest.spillFiles();
+        Operator join = new SortMergeJoinOperator(ListOperator.ofInts("a b", SortOperatorTest.generateRows(ROWS, KEYS, 6)),
+                ListOperator.ofInts("c d", SortOperatorTest.generateRows(ROWS, KEYS, 7)), new int[]{0}, new int[]{0}, null, 50);
+        join.getNextTuple();
+        join.close();
+
+        Set<String> remaining = SortOperatorTest.spillFiles();
+        remaining.removeAll(before);
+        assertEquals(Collections.emptySet(), remaining);
+    }
+}
@@ -0,0 +1,144 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the external sort of the SortOperator, and the deletion of its spilled runs.
+ */
+public class SortOperatorTest {
+
+    // The number of tuples sorted by the tests.
+    private static final int ROWS = 10000;
+
+    /**
+     * Helper method to generate tuples (key, row number) with random keys, so that many tuples have equal keys.
+     * @param rows The number of tuples.
+     * @param keys The number of distinct keys.
+     * @param seed The seed of the random keys.
+     * @return The tuples.
+     */
+    static long[][] generateRows(int rows, int keys, long seed) {
+        Random random = new Random(seed);
+        long[][] values = new long[rows][];
+        for (int row = 0; row < rows; row++) {
+            values[row] = new long[]{random.nextInt(keys), row};
+        }
+        return values;
+    }
+
+    /**
+     * Helper method to get the names of the spill files in the temporary directory.
+     * @return The names of the spill files.
+     */
+    static Set<String> spillFiles() {
+        Set<String> names = new HashSet<>();
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith("minibase") && file.getName().endsWith(".spill")) {
+                    names.add(file.getName());
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Helper method to check that the output of a sort is a sorted permutation of its input.
+     * @param input The values of the input tuples.
+     * @param output The output tuples.
+     */
+    private static void assertSortedPermutation(long[][] input, List<String> output) {
+        List<String> expected = new ArrayList<>();
+        for (long[] row : input) {
+            expected.add(row[0] + ", " + row[1]);
+        }
+        List<String> sortedOutput = new ArrayList<>(output);
+        Collections.sort(expected);
+        Collections.sort(sortedOutput);
+        assertEquals(expected, sortedOutput);
+
+        for (int i = 1; i < output.size(); i++) {
+            long previousKey = Long.parseLong(output.get(i - 1).split(", ")[0]);
+            long key = Long.parseLong(output.get(i).split(", ")[0]);
+            assertTrue("tuples out of order at " + i, previousKey <= key);
+        }
+    }
+
+    /**
+     * Tuples that fit in the buffer are sorted in memory.
+     */
+    @Test
+    public void sortsInMemory() {
+        long[][] rows = generateRows(ROWS, 100, 1);
+        SortOperator sort = new SortOperator(ListOperator.ofInts("k r", rows), new int[]{0}, ROWS);
+
+        assertSortedPermutation(rows, ListOperator.readTuples(sort));
+        sort.close();
+    }
+
+    /**
+     * With a buffer of 10 tuples, there are 1000 runs, more than the sort merges at once, so they are merged in two
+     * passes. The output is the same after a reset.
+     */
+    @Test
+    public void sortsWithMultiPassMerge() {
+        long[][] rows = generateRows(ROWS, 100, 2);
+        SortOperator sort = new SortOperator(ListOperator.ofInts("k r", rows), new int[]{0}, 10);
+
+        List<String> output = ListOperator.readTuples(sort);
+        assertSortedPermutation(rows, output);
+        sort.reset();
+        assertEquals(output, ListOperator.readTuples(sort));
+        sort.close();
+    }
+
+    /**
+     * Tuples are sorted on the sort positions in order, the first one being the most significant.
+     */
+    @Test
+    public void sortsOnSeveralPositions() {
+        Operator child = ListOperator.ofInts("a b", new long[]{2, 1}, new long[]{1, 3}, new long[]{2, 0}, new long[]{1, 2});
+        SortOperator sort = new SortOperator(child, new int[]{1, 0}, 1);
+
+        List<String> output = ListOperator.readTuples(sort);
+        sort.close();
+
+        assertEquals("2, 0", output.get(0));
+        assertEquals("2, 1", output.get(1));
+        assertEquals("1, 2", output.get(2));
+        assertEquals("1, 3", output.get(3));
+    }
+
+    /**
+     * The runs are kept until the sort is closed, which deletes them.
+     */
+    @Test
+    public void closeDeletesRuns() {
+        Set<String> before = spillFiles();
+        SortOperator sort = new SortOperator(ListOperator.ofInts("k r", generateRows(ROWS, 100, 3)), new int[]{0}, 100);
+
+        Set<String> runs = spillFiles();
+        runs.removeAll(before);
+        assertFalse(runs.isEmpty());
+
+        ListOperator.readTuples(sort);
+        sort.close();
+
+        Set<String> remaining = spillFiles();
+        remaining.removeAll(before);
+        assertEquals(Collections.emptySet(), remaining);
+    }
+}
@@ -0,0 +1,123 @@
+package ed.inf.adbs.minibase.base;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the TupleBatch, and the rows of its selection vector.
+ */
+public class TupleBatchTest {
+
+    private static final ColumnType[] TYPES = {ColumnType.INT, ColumnType.INT, ColumnType.INT};
+
+    /**
+     * Helper method to create a batch of rows (row, 10 * row, 100 * row), with only the rows 1, 3 and 4 selected.
+     * @param rows The number of rows, at least 5.
+     * @return The batch.
+     */
+    private static TupleBatch filteredBatch(int rows) {
+        TupleBatch batch = new TupleBatch(TYPES);
+        for (long row = 0; row < rows; row++) {
+            batch.addRow(new long[]{row, 10 * row, 100 * row});
+        }
+        int[] selection = batch.getSelection();
+        selection[0] = 1;
+        selection[1] = 3;
+        selection[2] = 4;
+        batch.setSelectedCount(3);
+        return batch;
+    }
+
+    /**
+     * Added rows are selected, in order.
+     */
+    @Test
+    public void addedRowsAreSelected() {
+        TupleBatch batch = new TupleBatch(TYPES);
+        batch.addRow(new long[]{1, 2, 3});
+        batch.addRow(new long[]{4, 5, 6});
+
+        assertEquals(2, batch.getRowCount());
+        assertEquals(2, batch.getSelectedCount());
+        assertEquals(1, batch.getSelection()[1]);
+        assertEquals("4, 5, 6", batch.getTuple(1).toString());
+    }
+
+    /**
+     * A projected batch shares the values and the selection vector of the batch, so only the selected rows are part
+     * of it.
+     */
+    @Test
+    public void projectionKeepsSelection() {
+        TupleBatch batch = filteredBatch(6);
+
+        TupleBatch projected = batch.project(new int[]{2, 0}, new ColumnType[]{ColumnType.INT, ColumnType.INT});
+
+        assertEquals(6, projected.getRowCount());
+        assertEquals(3, projected.getSelectedCount());
+        assertSame(batch.getSelection(), projected.getSelection());
+        assertSame(batch.getColumns()[2], projected.getColumns()[0]);
+        assertEquals("300, 3", projected.getTuple(projected.getSelection()[1]).toString());
+    }
+
+    /**
+     * A copy has the selected rows only, in order, all selected, and does not change with the batch.
+     */
+    @Test
+    public void copyHasSelectedRows() {
+        TupleBatch batch = filteredBatch(6);
+
+        TupleBatch copy = batch.copy();
+        batch.clear();
+        batch.addRow(new long[]{7, 7, 7});
+
+        assertEquals(3, copy.getRowCount());
+        assertEquals(3, copy.getSelectedCount());
+        assertArrayEquals(new int[]{0, 1, 2}, Arrays.copyOf(copy.getSelection(), 3));
+        assertArrayEquals(new long[]{1, 3, 4}, Arrays.copyOf(copy.getColumns()[0], 3));
+        assertEquals("4, 40, 400", copy.getTuple(2).toString());
+    }
+
+    /**
+     * A copy of a batch without selected rows is empty.
+     */
+    @Test
+    public void copyOfEmptySelectionIsEmpty() {
+        TupleBatch batch = filteredBatch(6);
+        batch.setSelectedCount(0);
+
+        TupleBatch copy = batch.copy();
+
+        assertEquals(0, copy.getRowCount());
+        assertEquals(0, copy.getSelectedCount());
+    }
+
+    /**
+     * A batch is full at CAPACITY rows, and can be filled again once cleared. selectAll selects rows written into the
+     * columns directly.
+     */
+    @Test
+    public void clearAndSelectAll() {
+        TupleBatch batch = filteredBatch(TupleBatch.CAPACITY);
+        assertTrue(batch.isFull());
+
+        batch.clear();
+        assertFalse(batch.isFull());
+        assertEquals(0, batch.getRowCount());
+        assertEquals(0, batch.getSelectedCount());
+
+        batch.getColumns()[0][0] = 8;
+        batch.getColumns()[0][1] = 9;
+        batch.selectAll(2);
+        assertEquals(2, batch.getSelectedCount());
+        assertEquals(1, batch.getSelection()[1]);
+        assertEquals(9, batch.getTuple(1).getValues()[0]);
+    }
+}